@@ -0,0 +1,112 @@
+package xyz.xpecya.math;
+
+/**
+ * 迭代求解器的公共部分 负责参数保存和入参检查
+ */
+abstract class AbstractIterativeSolver implements IterativeSolver {
+
+    protected final Matrix matrix;
+
+    protected final int length;
+
+    protected double tolerance = Math.pow(10d, -10);
+
+    protected int maxIterations;
+
+    protected Preconditioner preconditioner = Preconditioner.identity();
+
+    AbstractIterativeSolver(Matrix matrix) {
+        if (matrix == null) {
+            throw new IllegalArgumentException("matrix is null!");
+        }
+        int row = matrix.getRow();
+        int column = matrix.getColumn();
+        if (row != column) {
+            throw new IllegalArgumentException("matrix is not a square matrix! row = " + row + ", column = " + column);
+        }
+        if (MatrixSupport.isComplex(matrix)) {
+            throw new IllegalArgumentException("iterative solver doesn't support complex matrix!");
+        }
+        this.matrix = matrix;
+        this.length = row;
+        this.maxIterations = Math.max(100, length * 10);
+    }
+
+    @Override
+    public IterativeSolver setTolerance(double tolerance) {
+        if (!(tolerance > 0d)) {
+            throw new IllegalArgumentException("tolerance must be positive! got " + tolerance);
+        }
+        this.tolerance = tolerance;
+        return this;
+    }
+
+    @Override
+    public IterativeSolver setMaxIterations(int maxIterations) {
+        if (maxIterations < 1) {
+            throw new IllegalArgumentException("maxIterations can't be less than 1! got " + maxIterations);
+        }
+        this.maxIterations = maxIterations;
+        return this;
+    }
+
+    @Override
+    public IterativeSolver setPreconditioner(Preconditioner preconditioner) {
+        if (preconditioner == null) {
+            throw new IllegalArgumentException("preconditioner is null!");
+        }
+        this.preconditioner = preconditioner;
+        return this;
+    }
+
+    @Override
+    public IterativeResult solve(double[] value, double[] initial) {
+        if (value == null) {
+            throw new IllegalArgumentException("value is null!");
+        }
+        if (value.length != length) {
+            throw new IllegalArgumentException("value's length = " + value.length + ", matrix's length = " + length);
+        }
+        if (initial != null && initial.length != length) {
+            throw new IllegalArgumentException("initial's length = " + initial.length
+                    + ", matrix's length = " + length);
+        }
+        double[] x = initial == null ? new double[length] : initial.clone();
+        double norm = norm(value);
+        if (norm == 0d) {
+            // 常数项为0时解就是0
+            return new IterativeResult(new double[length], 0, 0d, true);
+        }
+        return iterate(value, x, norm, tolerance * norm, maxIterations, preconditioner);
+    }
+
+    /**
+     * 在x上原地迭代
+     * 参数在开始时读取一次 迭代过程中修改设置不会影响本次求解
+     *
+     * @param norm 常数项的范数
+     * @param threshold 残差范数的收敛阈值
+     */
+    abstract IterativeResult iterate(double[] value, double[] x, double norm, double threshold,
+                                     int maxIterations, Preconditioner preconditioner);
+
+    /**
+     * 计算 r = b - Ax
+     */
+    void residual(double[] value, double[] x, double[] r) {
+        matrix.doMulti(x, r);
+        DoubleKernels.INSTANCE.minus(value, 0, r, 0, r, 0, length);
+    }
+
+    static double dot(double[] x, double[] y) {
+        return DoubleKernels.INSTANCE.dot(x, 0, y, 0, x.length);
+    }
+
+    static double norm(double[] x) {
+        return Math.sqrt(dot(x, x));
+    }
+
+    static void axpy(double alpha, double[] x, double[] y) {
+        DoubleKernels.INSTANCE.axpy(alpha, x, 0, y, 0, x.length);
+    }
+}
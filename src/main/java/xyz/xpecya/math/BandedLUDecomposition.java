@@ -0,0 +1,225 @@
+package xyz.xpecya.math;
+
+/**
+ * 带状方阵的LU分解 使用部分选主元
+ * 下带宽为lower 上带宽为upper时 选主元会让U的上带宽增长到lower + upper
+ * 分解的时间复杂度为O(n * lower * (lower + upper)) 内存和带宽成正比
+ *
+ * 每一行存放列 [i - lower, i + lower + upper] 共 2 * lower + upper + 1 个元素
+ * 第i行第j列的元素下标为 i * width + j - i + lower
+ * 对角线以下是L的乘数 对角线及以上是U
+ */
+public final class BandedLUDecomposition implements LinearSolver {
+
+    private final int length;
+
+    private final int lower;
+
+    /**
+     * U的上带宽 即原矩阵的 lower + upper
+     */
+    private final int upper;
+
+    private final int width;
+
+    private final double[] lu;
+
+    /**
+     * 第k步消元前第k行和第pivot[k]行做了交换
+     */
+    private final int[] pivot;
+
+    private final int sign;
+
+    private final boolean singular;
+
+    private BandedLUDecomposition(int length, int lower, int upper, double[] lu, int[] pivot,
+                                  int sign, boolean singular) {
+        this.length = length;
+        this.lower = lower;
+        this.upper = upper;
+        this.width = lower + upper + 1;
+        this.lu = lu;
+        this.pivot = pivot;
+        this.sign = sign;
+        this.singular = singular;
+    }
+
+    /**
+     * 对带状存放的方阵做LU分解 不会修改入参数组
+     * bands的每一行存放列 [i - lower, i + upper]
+     */
+    static BandedLUDecomposition decompose(int length, int lower, int upper, double[] bands) {
+        int bandWidth = lower + upper + 1;
+        int width = bandWidth + lower;
+        double[] lu = new double[length * width];
+        for (int i = 0; i < length; i++) {
+            System.arraycopy(bands, i * bandWidth, lu, i * width, bandWidth);
+        }
+        int[] pivot = new int[length];
+        int sign = 1;
+        boolean singular = false;
+        DoubleKernels kernels = DoubleKernels.INSTANCE;
+        for (int k = 0; k < length; k++) {
+            int last = Math.min(length - 1, k + lower);
+            // 主元只可能出现在第k列的下带宽内
+            int p = k;
+            double max = Math.abs(lu[k * width + lower]);
+            for (int i = k + 1; i <= last; i++) {
+                double abs = Math.abs(lu[i * width + k - i + lower]);
+                if (abs > max) {
+                    max = abs;
+                    p = i;
+                }
+            }
+            pivot[k] = p;
+            int end = Math.min(length - 1, k + lower + upper);
+            if (p != k) {
+                // 两行的起始列不同 只能逐个元素交换
+                for (int j = k; j <= end; j++) {
+                    int first = k * width + j - k + lower;
+                    int second = p * width + j - p + lower;
+                    double temp = lu[first];
+                    lu[first] = lu[second];
+                    lu[second] = temp;
+                }
+                sign = -sign;
+            }
+            double pivotNumber = lu[k * width + lower];
+            if (pivotNumber == 0d) {
+                singular = true;
+                continue;
+            }
+            int count = end - k;
+            for (int i = k + 1; i <= last; i++) {
+                int index = i * width + k - i + lower;
+                double item = lu[index];
+                if (item == 0d) {
+                    continue;
+                }
+                double ratio = item / pivotNumber;
+                lu[index] = ratio;
+                kernels.axpy(-ratio, lu, k * width + lower + 1, lu, index + 1, count);
+            }
+        }
+        return new BandedLUDecomposition(length, lower, lower + upper, lu, pivot, sign, singular);
+    }
+
+    @Override
+    public int getLength() {
+        return length;
+    }
+
+    @Override
+    public boolean isSingular() {
+        return singular;
+    }
+
+    /**
+     * 计算原方阵的行列式 即置换符号乘以U的对角线之积
+     */
+    public double determinant() {
+        double result = sign;
+        for (int i = 0; i < length; i++) {
+            result = result * lu[i * width + lower];
+        }
+        return result;
+    }
+
+    /**
+     * 计算原方阵行列式绝对值的自然对数 奇异时为负无穷
+     */
+    public double logDeterminant() {
+        double result = 0d;
+        for (int i = 0; i < length; i++) {
+            result += Math.log(Math.abs(lu[i * width + lower]));
+        }
+        return result;
+    }
+
+    /**
+     * 求解 Ax = value 复杂度O(n * (lower + upper))
+     */
+    @Override
+    public double[] solve(double[] value, double[] result) {
+        MatrixSupport.checkSolve(length, value == null ? -1 : value.length,
+                result == null ? -1 : result.length, singular);
+        if (value != result) {
+            System.arraycopy(value, 0, result, 0, length);
+        }
+        substitute(result);
+        return result;
+    }
+
+    @Override
+    public ComplexNumber[] solve(ComplexNumber[] value, ComplexNumber[] result) {
+        MatrixSupport.checkSolve(length, value == null ? -1 : value.length,
+                result == null ? -1 : result.length, singular);
+        double[] real = new double[length];
+        double[] imaginary = new double[length];
+        for (int i = 0; i < length; i++) {
+            ComplexNumber item = value[i];
+            if (item == null) {
+                throw new IllegalArgumentException("value[" + i + "] is null!");
+            }
+            real[i] = item.real();
+            imaginary[i] = item.imaginary();
+        }
+        substitute(real);
+        substitute(imaginary);
+        for (int i = 0; i < length; i++) {
+            result[i] = new ComplexNumber(real[i], imaginary[i]);
+        }
+        return result;
+    }
+
+    @Override
+    public Matrix solve(Matrix value) {
+        return MatrixSupport.solveColumns(this, value);
+    }
+
+    /**
+     * 把符号乘进第一行后的U 行列式和原方阵相同
+     */
+    BandedMatrix signedUpper() {
+        int bandWidth = upper + 1;
+        double[] bands = new double[length * bandWidth];
+        for (int i = 0; i < length; i++) {
+            int count = Math.min(bandWidth, length - i);
+            System.arraycopy(lu, i * width + lower, bands, i * bandWidth, count);
+        }
+        if (sign < 0) {
+            for (int j = 0; j < bandWidth; j++) {
+                bands[j] = -bands[j];
+            }
+        }
+        return BandedMatrix.banded(length, 0, upper, bands);
+    }
+
+    /**
+     * 按顺序重放每一步的行交换和消元 再沿U的带回代
+     */
+    private void substitute(double[] x) {
+        for (int k = 0; k < length; k++) {
+            int p = pivot[k];
+            double item = x[p];
+            if (p != k) {
+                x[p] = x[k];
+                x[k] = item;
+            }
+            if (item == 0d) {
+                continue;
+            }
+            int last = Math.min(length - 1, k + lower);
+            for (int i = k + 1; i <= last; i++) {
+                x[i] -= lu[i * width + k - i + lower] * item;
+            }
+        }
+        DoubleKernels kernels = DoubleKernels.INSTANCE;
+        for (int i = length - 1; i >= 0; i--) {
+            int offset = i * width + lower;
+            int count = Math.min(length - 1, i + upper) - i;
+            x[i] = (x[i] - kernels.dot(lu, offset + 1, x, i + 1, count)) / lu[offset];
+        }
+    }
+}
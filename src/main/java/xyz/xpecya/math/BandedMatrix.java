@@ -0,0 +1,545 @@
+package xyz.xpecya.math;
+
+import java.util.Arrays;
+
+/**
+ * 带状方阵 只保存主对角线附近的lower条下对角线和upper条上对角线
+ * 每一行存放列 [i - lower, i + upper] 共 lower + upper + 1 个元素
+ * 第i行第j列的元素下标为 i * width + j - i + lower 超出矩阵范围的位置恒为0
+ *
+ * 求解和行列式使用带状LU分解 复杂度O(n * bandwidth^2) 内存和带宽成正比
+ * 带状矩阵之间的加减 乘法和转置结果仍然是带状矩阵
+ */
+public class BandedMatrix implements Determinant {
+
+    protected final int length;
+
+    /**
+     * 下带宽
+     */
+    protected final int lower;
+
+    /**
+     * 上带宽
+     */
+    protected final int upper;
+
+    /**
+     * 每一行保存的元素个数 即 lower + upper + 1
+     */
+    protected final int width;
+
+    protected final double[] bands;
+
+    /**
+     * 行列式的值
+     */
+    private Double value;
+
+    /**
+     * 分解结果
+     */
+    private LinearSolver solver;
+
+    BandedMatrix(int length, int lower, int upper, double[] bands) {
+        this.length = length;
+        this.lower = lower;
+        this.upper = upper;
+        this.width = lower + upper + 1;
+        this.bands = bands;
+    }
+
+    /**
+     * 用带状存放的数组创建带状矩阵
+     * 对源数组的修改不会导致矩阵值的修改 超出矩阵范围的位置会被忽略
+     *
+     * @param length 边长
+     * @param lower 下带宽
+     * @param upper 上带宽
+     * @param bands 长度为 length * (lower + upper + 1) 的数组 第i行存放列 [i - lower, i + upper]
+     */
+    public static BandedMatrix create(int length, int lower, int upper, double[] bands) {
+        if (length < 1) {
+            throw new IllegalArgumentException("length can't be less than 1! got " + length);
+        }
+        if (lower < 0 || lower >= length) {
+            throw new IllegalArgumentException("lower = " + lower + ", length = " + length);
+        }
+        if (upper < 0 || upper >= length) {
+            throw new IllegalArgumentException("upper = " + upper + ", length = " + length);
+        }
+        if (bands == null) {
+            throw new IllegalArgumentException("bands is null!");
+        }
+        int width = lower + upper + 1;
+        if (bands.length != length * width) {
+            throw new IllegalArgumentException("bands' length = " + bands.length
+                    + ", expected length = " + length * width);
+        }
+        double[] bandArray = bands.clone();
+        for (int i = 0; i < lower; i++) {
+            Arrays.fill(bandArray, i * width, i * width + lower - i, 0d);
+        }
+        for (int i = Math.max(0, length - upper); i < length; i++) {
+            Arrays.fill(bandArray, i * width + length - i + lower, (i + 1) * width, 0d);
+        }
+        return banded(length, lower, upper, bandArray);
+    }
+
+    /**
+     * 获取下带宽
+     */
+    public int getLower() {
+        return lower;
+    }
+
+    /**
+     * 获取上带宽
+     */
+    public int getUpper() {
+        return upper;
+    }
+
+    /**
+     * 转换为稠密矩阵
+     */
+    public Matrix toDense() {
+        return new SimpleMatrix(length, length, denseArray());
+    }
+
+    /**
+     * 带状矩阵相加时带宽取两者的较大值
+     */
+    @Override
+    public Matrix doAdd(Matrix matrix) {
+        if (matrix instanceof BandedMatrix bandedMatrix) {
+            return merge(bandedMatrix, 1d);
+        }
+        if (matrix instanceof DiagonalMatrix diagonalMatrix) {
+            double[] bandArray = bands.clone();
+            for (int i = 0; i < length; i++) {
+                bandArray[i * width + lower] += diagonalMatrix.diagonal[i];
+            }
+            return banded(length, lower, upper, bandArray);
+        }
+        if (MatrixSupport.isComplex(matrix)) {
+            return ComplexMatrixView.contiguous(matrix).doAdd(this);
+        }
+        double[] numberArray = MatrixSupport.denseArray(matrix);
+        scatter(1d, numberArray);
+        return new SimpleMatrix(length, length, numberArray);
+    }
+
+    @Override
+    public Matrix doMinus(Matrix matrix) {
+        if (matrix instanceof BandedMatrix bandedMatrix) {
+            return merge(bandedMatrix, -1d);
+        }
+        if (matrix instanceof DiagonalMatrix) {
+            return doAdd(matrix.multi(-1d));
+        }
+        if (MatrixSupport.isComplex(matrix)) {
+            return ComplexMatrixView.contiguous(matrix).multi(-1d).doAdd(this);
+        }
+        double[] numberArray = MatrixSupport.denseArray(matrix);
+        DoubleKernels.INSTANCE.scale(-1d, numberArray, 0, numberArray, 0, numberArray.length);
+        scatter(1d, numberArray);
+        return new SimpleMatrix(length, length, numberArray);
+    }
+
+    @Override
+    public Matrix multi(double input) {
+        double[] bandArray = new double[bands.length];
+        DoubleKernels.INSTANCE.scale(input, bands, 0, bandArray, 0, bands.length);
+        return banded(length, lower, upper, bandArray);
+    }
+
+    @Override
+    public Matrix doMulti(ComplexNumber complexNumber) {
+        return MatrixSupport.multi(this, complexNumber);
+    }
+
+    /**
+     * 右侧为带状矩阵时结果的带宽为两者之和 结果仍是带状矩阵
+     * 右侧为稠密矩阵时每个带内元素对应一次行的axpy
+     */
+    @Override
+    public Matrix doMulti(Matrix matrix) {
+        if (matrix instanceof DiagonalMatrix diagonalMatrix) {
+            return diagonalMatrix.leftMulti(this);
+        }
+        DoubleKernels kernels = DoubleKernels.INSTANCE;
+        if (matrix instanceof BandedMatrix bandedMatrix) {
+            int resultLower = Math.min(length - 1, lower + bandedMatrix.lower);
+            int resultUpper = Math.min(length - 1, upper + bandedMatrix.upper);
+            int resultWidth = resultLower + resultUpper + 1;
+            double[] bandArray = new double[length * resultWidth];
+            int inputWidth = bandedMatrix.width;
+            MatrixExecutor.forRows(length, (long) width * inputWidth, 1, (from, to) -> {
+                for (int i = from; i < to; i++) {
+                    int first = Math.max(0, i - lower);
+                    int last = Math.min(length - 1, i + upper);
+                    for (int k = first; k <= last; k++) {
+                        double item = bands[i * width + k - i + lower];
+                        if (item == 0d) {
+                            continue;
+                        }
+                        int start = Math.max(0, k - bandedMatrix.lower);
+                        int end = Math.min(length - 1, k + bandedMatrix.upper);
+                        kernels.axpy(item, bandedMatrix.bands, k * inputWidth + start - k + bandedMatrix.lower,
+                                bandArray, i * resultWidth + start - i + resultLower, end - start + 1);
+                    }
+                }
+            });
+            return banded(length, resultLower, resultUpper, bandArray);
+        }
+        if (matrix instanceof ComplexMatrixView view) {
+            // 复数视图先拷贝成连续存储
+            return doMulti(view.copy());
+        }
+        int inputColumn = matrix.getColumn();
+        long workPerRow = (long) width * inputColumn;
+        if (matrix instanceof ComplexMatrix complexMatrix) {
+            double[] realArray = new double[length * inputColumn];
+            double[] imaginaryArray = new double[length * inputColumn];
+            MatrixExecutor.forRows(length, workPerRow * 2, 1, (from, to) -> {
+                for (int i = from; i < to; i++) {
+                    int first = Math.max(0, i - lower);
+                    int last = Math.min(length - 1, i + upper);
+                    for (int k = first; k <= last; k++) {
+                        double item = bands[i * width + k - i + lower];
+                        kernels.axpy(item, complexMatrix.real, k * inputColumn,
+                                realArray, i * inputColumn, inputColumn);
+                        kernels.axpy(item, complexMatrix.imaginary, k * inputColumn,
+                                imaginaryArray, i * inputColumn, inputColumn);
+                    }
+                }
+            });
+            return new ComplexMatrix(length, inputColumn, realArray, imaginaryArray);
+        }
+        double[] inputNumbers;
+        if (matrix instanceof SimpleMatrix simpleMatrix) {
+            inputNumbers = simpleMatrix.numbers;
+        } else {
+            inputNumbers = new double[length * inputColumn];
+            for (int k = 0; k < length; k++) {
+                System.arraycopy(matrix.doGetDoubleRow(k), 0, inputNumbers, k * inputColumn, inputColumn);
+            }
+        }
+        double[] numberArray = new double[length * inputColumn];
+        MatrixExecutor.forRows(length, workPerRow, 1, (from, to) -> {
+            for (int i = from; i < to; i++) {
+                int first = Math.max(0, i - lower);
+                int last = Math.min(length - 1, i + upper);
+                for (int k = first; k <= last; k++) {
+                    kernels.axpy(bands[i * width + k - i + lower], inputNumbers, k * inputColumn,
+                            numberArray, i * inputColumn, inputColumn);
+                }
+            }
+        });
+        return new SimpleMatrix(length, inputColumn, numberArray);
+    }
+
+    /**
+     * 每一行只和向量的一段做内积 复杂度O(n * bandwidth)
+     */
+    @Override
+    public void doMulti(double[] vector, double[] result) {
+        MatrixExecutor.forRows(length, width, 1, (from, to) -> {
+            DoubleKernels kernels = DoubleKernels.INSTANCE;
+            for (int i = from; i < to; i++) {
+                int first = Math.max(0, i - lower);
+                int last = Math.min(length - 1, i + upper);
+                result[i] = kernels.dot(bands, i * width + first - i + lower, vector, first, last - first + 1);
+            }
+        });
+    }
+
+    /**
+     * 只有带内的位置可能非零 结果为带宽相同的带状矩阵
+     */
+    @Override
+    public Matrix doHadamard(Matrix matrix) {
+        if (MatrixSupport.isComplex(matrix)) {
+            return ComplexMatrixView.contiguous(matrix).doHadamard(this);
+        }
+        double[] bandArray = new double[bands.length];
+        MatrixExecutor.forRows(length, width, 1, (from, to) -> {
+            for (int i = from; i < to; i++) {
+                int first = Math.max(0, i - lower);
+                int last = Math.min(length - 1, i + upper);
+                for (int j = first; j <= last; j++) {
+                    int index = i * width + j - i + lower;
+                    bandArray[index] = bands[index] * matrix.doGetDouble(i, j);
+                }
+            }
+        });
+        return banded(length, lower, upper, bandArray);
+    }
+
+    /**
+     * 转置后上下带宽互换
+     */
+    @Override
+    public Matrix transpose() {
+        double[] bandArray = new double[bands.length];
+        for (int i = 0; i < length; i++) {
+            int first = Math.max(0, i - lower);
+            int last = Math.min(length - 1, i + upper);
+            for (int j = first; j <= last; j++) {
+                bandArray[j * width + i - j + upper] = bands[i * width + j - i + lower];
+            }
+        }
+        return banded(length, upper, lower, bandArray);
+    }
+
+    @Override
+    public int getRow() {
+        return length;
+    }
+
+    @Override
+    public int getColumn() {
+        return length;
+    }
+
+    @Override
+    public double doGetDouble(int row, int column) {
+        int offset = column - row;
+        if (offset < -lower || offset > upper) {
+            return 0d;
+        }
+        return bands[row * width + offset + lower];
+    }
+
+    @Override
+    public double[] doGetDoubleRow(int row) {
+        double[] result = new double[length];
+        int first = Math.max(0, row - lower);
+        int last = Math.min(length - 1, row + upper);
+        System.arraycopy(bands, row * width + first - row + lower, result, first, last - first + 1);
+        return result;
+    }
+
+    @Override
+    public ComplexNumber[] doGetComplexRow(int row) {
+        return MatrixSupport.complexRow(doGetDoubleRow(row));
+    }
+
+    @Override
+    public double[] doGetDoubleColumn(int column) {
+        double[] result = new double[length];
+        int first = Math.max(0, column - upper);
+        int last = Math.min(length - 1, column + lower);
+        for (int i = first; i <= last; i++) {
+            result[i] = bands[i * width + column - i + lower];
+        }
+        return result;
+    }
+
+    @Override
+    public ComplexNumber[] doGetComplexColumn(int column) {
+        double[] doubleColumn = doGetDoubleColumn(column);
+        ComplexNumber[] result = new ComplexNumber[length];
+        for (int i = 0; i < length; i++) {
+            result[i] = new ComplexNumber(doubleColumn[i]);
+        }
+        return result;
+    }
+
+    /**
+     * 带状矩阵本身就是行列式
+     */
+    @Override
+    public Determinant doToDeterminant() {
+        return this;
+    }
+
+    @Override
+    public QRDecomposition doQr() {
+        return QRDecomposition.decompose(length, length, denseArray());
+    }
+
+    @Override
+    public ComplexNumber doGetComplex(int row, int column) {
+        return new ComplexNumber(doGetDouble(row, column));
+    }
+
+    @Override
+    public double calculateDouble() {
+        if (value != null) {
+            return value;
+        }
+        if (factor() instanceof TridiagonalDecomposition decomposition) {
+            value = decomposition.determinant();
+        } else {
+            value = ((BandedLUDecomposition) factor()).determinant();
+        }
+        return value;
+    }
+
+    @Override
+    public ComplexNumber calculateComplex() {
+        return new ComplexNumber(calculateDouble());
+    }
+
+    @Override
+    public double logDeterminant() {
+        if (factor() instanceof TridiagonalDecomposition decomposition) {
+            return decomposition.logDeterminant();
+        }
+        return ((BandedLUDecomposition) factor()).logDeterminant();
+    }
+
+    /**
+     * 奇异时展开成稠密数组 通过比较秩判断解是否存在
+     */
+    @Override
+    public double[] doSolve(double[] value) {
+        LinearSolver solver = factor();
+        if (solver.isSingular()) {
+            return RowEchelon.solve(length, denseArray(), value);
+        }
+        return solver.solve(value);
+    }
+
+    @Override
+    public ComplexNumber[] doSolve(ComplexNumber[] value) {
+        LinearSolver solver = factor();
+        if (solver.isSingular()) {
+            return RowEchelon.solve(length, denseArray(), new double[length * length], value);
+        }
+        return solver.solve(value);
+    }
+
+    @Override
+    public Matrix doSolve(Matrix value) {
+        LinearSolver solver = factor();
+        if (solver.isSingular()) {
+            return RowEchelon.solve(length, denseArray(), value);
+        }
+        return solver.solve(value);
+    }
+
+    /**
+     * 只会分解一次
+     */
+    @Override
+    public LinearSolver factor() {
+        LinearSolver solver = this.solver;
+        if (solver == null) {
+            solver = decompose();
+            this.solver = solver;
+        }
+        return solver;
+    }
+
+    /**
+     * 返回带状的U 行交换符号乘进了第一行
+     */
+    @Override
+    public Determinant triangle() {
+        if (factor() instanceof TridiagonalDecomposition decomposition) {
+            return decomposition.signedUpper();
+        }
+        return ((BandedLUDecomposition) factor()).signedUpper();
+    }
+
+    @Override
+    public Determinant diagonal() {
+        BandedMatrix triangle = (BandedMatrix) triangle();
+        double[] diagonalArray = new double[length];
+        for (int i = 0; i < length; i++) {
+            diagonalArray[i] = triangle.bands[i * triangle.width];
+        }
+        return new DiagonalMatrix(diagonalArray);
+    }
+
+    @Override
+    public int getLength() {
+        return length;
+    }
+
+    @Override
+    public String toString() {
+        return MatrixSupport.toString(this);
+    }
+
+    /**
+     * 每一行乘以factor中对应的元素 即 diag(factor) * 当前矩阵
+     */
+    BandedMatrix scaleRows(double[] factor) {
+        double[] bandArray = new double[bands.length];
+        for (int i = 0; i < length; i++) {
+            DoubleKernels.INSTANCE.scale(factor[i], bands, i * width, bandArray, i * width, width);
+        }
+        return banded(length, lower, upper, bandArray);
+    }
+
+    /**
+     * 每一列乘以factor中对应的元素 即 当前矩阵 * diag(factor)
+     */
+    BandedMatrix scaleColumns(double[] factor) {
+        double[] bandArray = new double[bands.length];
+        for (int i = 0; i < length; i++) {
+            int first = Math.max(0, i - lower);
+            int last = Math.min(length - 1, i + upper);
+            int offset = i * width + first - i + lower;
+            DoubleKernels.INSTANCE.multiply(bands, offset, factor, first, bandArray, offset, last - first + 1);
+        }
+        return banded(length, lower, upper, bandArray);
+    }
+
+    /**
+     * 分解当前矩阵 子类可以使用更快的专用算法
+     */
+    LinearSolver decompose() {
+        return BandedLUDecomposition.decompose(length, lower, upper, bands);
+    }
+
+    /**
+     * 根据带宽选择实现 上下带宽都为1时为三对角矩阵
+     */
+    static BandedMatrix banded(int length, int lower, int upper, double[] bands) {
+        if (lower == 1 && upper == 1) {
+            return new TridiagonalMatrix(length, bands);
+        }
+        return new BandedMatrix(length, lower, upper, bands);
+    }
+
+    /**
+     * 把 alpha * 当前矩阵 累加到行优先存放的稠密数组上
+     */
+    private void scatter(double alpha, double[] target) {
+        for (int i = 0; i < length; i++) {
+            int first = Math.max(0, i - lower);
+            int last = Math.min(length - 1, i + upper);
+            DoubleKernels.INSTANCE.axpy(alpha, bands, i * width + first - i + lower,
+                    target, i * length + first, last - first + 1);
+        }
+    }
+
+    private double[] denseArray() {
+        double[] result = new double[length * length];
+        scatter(1d, result);
+        return result;
+    }
+
+    /**
+     * 当前矩阵 + alpha * matrix 结果的带宽取两者的较大值
+     */
+    private BandedMatrix merge(BandedMatrix matrix, double alpha) {
+        int resultLower = Math.max(lower, matrix.lower);
+        int resultUpper = Math.max(upper, matrix.upper);
+        int resultWidth = resultLower + resultUpper + 1;
+        double[] bandArray = new double[length * resultWidth];
+        DoubleKernels kernels = DoubleKernels.INSTANCE;
+        for (int i = 0; i < length; i++) {
+            int offset = i * resultWidth;
+            kernels.axpy(1d, bands, i * width, bandArray, offset + resultLower - lower, width);
+            kernels.axpy(alpha, matrix.bands, i * matrix.width,
+                    bandArray, offset + resultLower - matrix.lower, matrix.width);
+        }
+        return banded(length, resultLower, resultUpper, bandArray);
+    }
+}
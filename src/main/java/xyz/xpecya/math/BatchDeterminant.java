@@ -0,0 +1,367 @@
+package xyz.xpecya.math;
+
+/**
+ * 一批边长相同的小型浮点数行列式
+ * 用于同时求解大量互不相关的小型线性方程组 例如数百万个3阶到16阶的方程组
+ *
+ * 数据按交错方式存放 (structure of arrays)：
+ * 第index个行列式第i行第j列的元素下标为 (i * length + j) * count + index
+ * 第index个常数项(或解)的第i个元素下标为 i * count + index
+ * 所有循环的最内层都沿着批次方向遍历连续内存 没有跨行列式的依赖 容易被JIT向量化
+ *
+ * 每个行列式独立做部分选主元的LU分解 分解只做一次
+ * 批次可以按执行策略拆分到多个线程
+ * 奇异的行列式求解结果为NaN 可以通过isSingular判断
+ */
+public final class BatchDeterminant {
+
+    /**
+     * 每个任务至少处理的行列式个数
+     */
+    private static final int GRAIN = 64;
+
+    private final int length;
+
+    private final int count;
+
+    private final double[] numbers;
+
+    private Factorization factorization;
+
+    private BatchDeterminant(int length, int count, double[] numbers) {
+        this.length = length;
+        this.count = count;
+        this.numbers = numbers;
+    }
+
+    /**
+     * 用交错存放的数组创建一批行列式
+     * 对源数组的修改不会导致行列式的修改
+     *
+     * @param length 每个行列式的边长
+     * @param count 行列式个数
+     * @param numbers 交错存放的元素 长度为 length * length * count
+     * @return 一批行列式
+     */
+    public static BatchDeterminant create(int length, int count, double[] numbers) {
+        if (length < 1) {
+            throw new IllegalArgumentException("length can't be less than 1! got " + length);
+        }
+        if (count < 1) {
+            throw new IllegalArgumentException("count can't be less than 1! got " + count);
+        }
+        if (numbers == null) {
+            throw new IllegalArgumentException("numbers can't be null!");
+        }
+        long size = (long) length * length * count;
+        if (numbers.length != size) {
+            throw new IllegalArgumentException("numbers' length = " + numbers.length + ", expected " + size);
+        }
+        return new BatchDeterminant(length, count, numbers.clone());
+    }
+
+    /**
+     * 用多个二维数组创建一批行列式 每个二维数组必须是边长相同的方阵
+     *
+     * @param numberArrays 第一维是行列式的下标
+     * @return 一批行列式
+     */
+    public static BatchDeterminant create(double[][][] numberArrays) {
+        if (numberArrays == null) {
+            throw new IllegalArgumentException("numberArrays can't be null!");
+        }
+        int count = numberArrays.length;
+        if (count < 1) {
+            throw new IllegalArgumentException("count can't be less than 1! got " + count);
+        }
+        int length = numberArrays[0] == null ? 0 : numberArrays[0].length;
+        if (length < 1) {
+            throw new IllegalArgumentException("length can't be less than 1! got " + length);
+        }
+        long size = (long) length * length * count;
+        if (size > Integer.MAX_VALUE - 8) {
+            throw new IllegalArgumentException("length = " + length + ", count = " + count
+                    + ", batch is too large to store in one array!");
+        }
+        double[] numbers = new double[(int) size];
+        for (int index = 0; index < count; index++) {
+            double[][] numberArray = numberArrays[index];
+            if (numberArray == null || numberArray.length != length) {
+                throw new IllegalArgumentException("numberArrays[" + index + "] is not a square of " + length + "!");
+            }
+            for (int i = 0; i < length; i++) {
+                double[] doubles = numberArray[i];
+                if (doubles == null || doubles.length != length) {
+                    throw new IllegalArgumentException("numberArrays[" + index + "] is not a square of "
+                            + length + "!");
+                }
+                for (int j = 0; j < length; j++) {
+                    numbers[(i * length + j) * count + index] = doubles[j];
+                }
+            }
+        }
+        return new BatchDeterminant(length, count, numbers);
+    }
+
+    /**
+     * 获取每个行列式的边长
+     */
+    public int getLength() {
+        return length;
+    }
+
+    /**
+     * 获取行列式个数
+     */
+    public int getCount() {
+        return count;
+    }
+
+    /**
+     * 第index个行列式是否奇异
+     */
+    public boolean isSingular(int index) {
+        if (index < 0 || index >= count) {
+            throw new IllegalArgumentException("index = " + index + ", count = " + count);
+        }
+        return factor().singular[index];
+    }
+
+    /**
+     * 计算所有行列式的值
+     *
+     * @return 第index个元素为第index个行列式的值
+     */
+    public double[] calculateDouble() {
+        Factorization factorization = factor();
+        double[] result = new double[count];
+        System.arraycopy(factorization.sign, 0, result, 0, count);
+        for (int i = 0; i < length; i++) {
+            int offset = (i * length + i) * count;
+            for (int index = 0; index < count; index++) {
+                result[index] *= factorization.lu[offset + index];
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 以指定的执行策略计算所有行列式的值
+     *
+     * @param policy 执行策略
+     */
+    public double[] calculateDouble(ExecutionPolicy policy) {
+        return MatrixExecutor.call(policy, this::calculateDouble);
+    }
+
+    /**
+     * 求解所有的线性方程组
+     *
+     * @param value 交错存放的常数项 长度为 length * count
+     * @return 交错存放的解
+     */
+    public double[] solve(double[] value) {
+        return solve(value, new double[length * count]);
+    }
+
+    /**
+     * 求解所有的线性方程组 并把结果写入result
+     * value和result可以是同一个数组
+     *
+     * @return result
+     */
+    public double[] solve(double[] value, double[] result) {
+        if (value == null) {
+            throw new IllegalArgumentException("value is null!");
+        }
+        int size = length * count;
+        if (value.length != size) {
+            throw new IllegalArgumentException("value's length = " + value.length + ", expected " + size);
+        }
+        if (result == null) {
+            throw new IllegalArgumentException("result is null!");
+        }
+        if (result.length != size) {
+            throw new IllegalArgumentException("result's length = " + result.length + ", expected " + size);
+        }
+        Factorization factorization = factor();
+        if (value != result) {
+            System.arraycopy(value, 0, result, 0, size);
+        }
+        MatrixExecutor.forRows(count, (long) length * length, GRAIN,
+                (from, to) -> factorization.substitute(result, from, to));
+        return result;
+    }
+
+    /**
+     * 以指定的执行策略求解所有的线性方程组
+     *
+     * @param policy 执行策略
+     */
+    public double[] solve(double[] value, ExecutionPolicy policy) {
+        return MatrixExecutor.call(policy, () -> solve(value));
+    }
+
+    private Factorization factor() {
+        Factorization factorization = this.factorization;
+        if (factorization == null) {
+            factorization = new Factorization(length, count, numbers);
+            this.factorization = factorization;
+        }
+        return factorization;
+    }
+
+    /**
+     * 交错存放的LU分解结果 构造完成后不可变
+     */
+    private static final class Factorization {
+
+        private final int length;
+
+        private final int count;
+
+        /**
+         * 交错存放的L和U 布局和原行列式相同
+         */
+        private final double[] lu;
+
+        /**
+         * 第k步和第k行交换的行 下标为 k * count + index
+         */
+        private final int[] swap;
+
+        /**
+         * 每个行列式的行交换符号
+         */
+        private final double[] sign;
+
+        /**
+         * 每个U对角线元素的倒数 奇异时为0
+         */
+        private final double[] inverse;
+
+        private final boolean[] singular;
+
+        private Factorization(int length, int count, double[] numbers) {
+            this.length = length;
+            this.count = count;
+            this.lu = numbers.clone();
+            this.swap = new int[length * count];
+            this.sign = new double[count];
+            this.inverse = new double[length * count];
+            this.singular = new boolean[count];
+            MatrixExecutor.forRows(count, (long) length * length * length, GRAIN, this::decompose);
+        }
+
+        /**
+         * 分解 [from, to) 个行列式
+         */
+        private void decompose(int from, int to) {
+            int width = to - from;
+            double[] max = new double[width];
+            double[] ratio = new double[width];
+            double[] pivotInverse = new double[width];
+            int[] pivot = new int[width];
+            for (int index = from; index < to; index++) {
+                sign[index] = 1d;
+            }
+            for (int k = 0; k < length; k++) {
+                // 每个行列式各自选主元
+                int diagonal = (k * length + k) * count;
+                for (int index = from; index < to; index++) {
+                    max[index - from] = Math.abs(lu[diagonal + index]);
+                    pivot[index - from] = k;
+                }
+                for (int i = k + 1; i < length; i++) {
+                    int offset = (i * length + k) * count;
+                    for (int index = from; index < to; index++) {
+                        double abs = Math.abs(lu[offset + index]);
+                        if (abs > max[index - from]) {
+                            max[index - from] = abs;
+                            pivot[index - from] = i;
+                        }
+                    }
+                }
+                for (int index = from; index < to; index++) {
+                    int p = pivot[index - from];
+                    swap[k * count + index] = p;
+                    if (p != k) {
+                        sign[index] = -sign[index];
+                        for (int j = 0; j < length; j++) {
+                            int first = (k * length + j) * count + index;
+                            int second = (p * length + j) * count + index;
+                            double temp = lu[first];
+                            lu[first] = lu[second];
+                            lu[second] = temp;
+                        }
+                    }
+                    double pivotNumber = lu[diagonal + index];
+                    if (pivotNumber == 0d) {
+                        // 该列已经全为0 比值全部按0处理
+                        singular[index] = true;
+                        pivotInverse[index - from] = 0d;
+                    } else {
+                        pivotInverse[index - from] = 1d / pivotNumber;
+                    }
+                    inverse[k * count + index] = pivotInverse[index - from];
+                }
+                for (int i = k + 1; i < length; i++) {
+                    int rowOffset = i * length * count;
+                    int lower = rowOffset + k * count;
+                    for (int index = from; index < to; index++) {
+                        double value = lu[lower + index] * pivotInverse[index - from];
+                        lu[lower + index] = value;
+                        ratio[index - from] = value;
+                    }
+                    for (int j = k + 1; j < length; j++) {
+                        int target = rowOffset + j * count;
+                        int source = (k * length + j) * count;
+                        for (int index = from; index < to; index++) {
+                            lu[target + index] -= ratio[index - from] * lu[source + index];
+                        }
+                    }
+                }
+            }
+        }
+
+        /**
+         * 在交错存放的常数项上原地求解 [from, to) 个方程组
+         */
+        private void substitute(double[] x, int from, int to) {
+            for (int k = 0; k < length; k++) {
+                int offset = k * count;
+                for (int index = from; index < to; index++) {
+                    int p = swap[offset + index];
+                    if (p != k) {
+                        double temp = x[offset + index];
+                        x[offset + index] = x[p * count + index];
+                        x[p * count + index] = temp;
+                    }
+                }
+            }
+            for (int i = 1; i < length; i++) {
+                int target = i * count;
+                for (int p = 0; p < i; p++) {
+                    int factor = (i * length + p) * count;
+                    int source = p * count;
+                    for (int index = from; index < to; index++) {
+                        x[target + index] -= lu[factor + index] * x[source + index];
+                    }
+                }
+            }
+            for (int i = length - 1; i >= 0; i--) {
+                int target = i * count;
+                for (int p = i + 1; p < length; p++) {
+                    int factor = (i * length + p) * count;
+                    int source = p * count;
+                    for (int index = from; index < to; index++) {
+                        x[target + index] -= lu[factor + index] * x[source + index];
+                    }
+                }
+                for (int index = from; index < to; index++) {
+                    x[target + index] = singular[index] ? Double.NaN : x[target + index] * inverse[target + index];
+                }
+            }
+        }
+    }
+}
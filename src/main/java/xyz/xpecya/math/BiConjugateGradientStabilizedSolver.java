@@ -0,0 +1,78 @@
+package xyz.xpecya.math;
+
+/**
+ * 右预条件的稳定双共轭梯度法 (BiCGSTAB)
+ * 每次迭代两次矩阵向量乘法 两次预条件
+ * 残差就是原方程组的真实残差
+ */
+final class BiConjugateGradientStabilizedSolver extends AbstractIterativeSolver {
+
+    BiConjugateGradientStabilizedSolver(Matrix matrix) {
+        super(matrix);
+    }
+
+    @Override
+    IterativeResult iterate(double[] value, double[] x, double norm, double threshold,
+                            int maxIterations, Preconditioner preconditioner) {
+        double[] r = new double[length];
+        double[] shadow = new double[length];
+        double[] p = new double[length];
+        double[] v = new double[length];
+        double[] y = new double[length];
+        double[] s = new double[length];
+        double[] z = new double[length];
+        double[] t = new double[length];
+        residual(value, x, r);
+        double residualNorm = norm(r);
+        if (residualNorm <= threshold) {
+            return new IterativeResult(x, 0, residualNorm / norm, true);
+        }
+        System.arraycopy(r, 0, shadow, 0, length);
+        double rho = 1d;
+        double alpha = 1d;
+        double omega = 1d;
+        DoubleKernels kernels = DoubleKernels.INSTANCE;
+        for (int iteration = 1; iteration <= maxIterations; iteration++) {
+            double next = dot(shadow, r);
+            if (next == 0d || omega == 0d) {
+                // 算法中断
+                return new IterativeResult(x, iteration, residualNorm / norm, false);
+            }
+            double beta = next / rho * (alpha / omega);
+            rho = next;
+            // p = r + beta * (p - omega * v)
+            axpy(-omega, v, p);
+            kernels.scale(beta, p, 0, p, 0, length);
+            axpy(1d, r, p);
+            preconditioner.apply(p, y);
+            matrix.doMulti(y, v);
+            double shadowV = dot(shadow, v);
+            if (shadowV == 0d) {
+                return new IterativeResult(x, iteration, residualNorm / norm, false);
+            }
+            alpha = rho / shadowV;
+            // s = r - alpha * v
+            System.arraycopy(r, 0, s, 0, length);
+            axpy(-alpha, v, s);
+            double sNorm = norm(s);
+            if (sNorm <= threshold) {
+                axpy(alpha, y, x);
+                return new IterativeResult(x, iteration, sNorm / norm, true);
+            }
+            preconditioner.apply(s, z);
+            matrix.doMulti(z, t);
+            double tt = dot(t, t);
+            omega = tt == 0d ? 0d : dot(t, s) / tt;
+            axpy(alpha, y, x);
+            axpy(omega, z, x);
+            // r = s - omega * t
+            System.arraycopy(s, 0, r, 0, length);
+            axpy(-omega, t, r);
+            residualNorm = norm(r);
+            if (residualNorm <= threshold) {
+                return new IterativeResult(x, iteration, residualNorm / norm, true);
+            }
+        }
+        return new IterativeResult(x, maxIterations, residualNorm / norm, false);
+    }
+}
@@ -0,0 +1,613 @@
+package xyz.xpecya.math;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.DoubleBuffer;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 元素存放在DoubleBuffer中的浮点数矩阵 堆外矩阵和文件映射矩阵的公共部分
+ *
+ * 所有行按行优先顺序依次存放在若干个分块中 一行不会跨越两个分块
+ * 计算时按行块或者分块把数据拷贝到堆上的临时数组 再交给和SimpleMatrix相同的计算内核
+ * 临时数组的大小和矩阵大小无关 运算结果是新的堆外矩阵
+ * 涉及复数矩阵的运算先拷贝到堆上再计算
+ *
+ * 每次访问底层内存前后调用acquire和release 计数归零时才释放内存
+ * 矩阵本身持有一个计数 close时归还 并行运算中途close不会释放正在读写的内存
+ */
+abstract class BufferMatrix implements Matrix {
+
+    /**
+     * 单个分块的最大字节数
+     */
+    static final int MAX_CHUNK_BYTES = 1 << 30;
+
+    /**
+     * 逐元素运算每次拷贝到堆上的元素个数
+     */
+    private static final int BLOCK = 1 << 16;
+
+    /**
+     * 矩阵乘法中B的分块大小 KC行 NC列
+     */
+    private static final int KC = 256;
+
+    private static final int NC = 4096;
+
+    /**
+     * 矩阵乘法中A的分块行数
+     */
+    private static final int MC = 64;
+
+    /**
+     * 转置时方块的边长
+     */
+    private static final int TILE = 256;
+
+    final int row;
+
+    final int column;
+
+    /**
+     * 每个分块存放的行数 最后一个分块可能不满
+     */
+    final int rowsPerChunk;
+
+    private final ByteBuffer[] bytes;
+
+    private final DoubleBuffer[] chunks;
+
+    private volatile boolean closed;
+
+    /**
+     * 正在访问底层内存的次数 加上矩阵本身持有的1
+     */
+    private final AtomicInteger users = new AtomicInteger(1);
+
+    BufferMatrix(int row, int column, ByteBuffer[] bytes) {
+        this.row = row;
+        this.column = column;
+        this.rowsPerChunk = rowsPerChunk(column);
+        this.bytes = bytes;
+        DoubleBuffer[] chunks = new DoubleBuffer[bytes.length];
+        for (int i = 0; i < bytes.length; i++) {
+            chunks[i] = bytes[i].asDoubleBuffer();
+        }
+        this.chunks = chunks;
+    }
+
+    /**
+     * 每个分块能存放的整行数
+     */
+    static int rowsPerChunk(int column) {
+        long rowBytes = (long) column * Double.BYTES;
+        if (rowBytes > MAX_CHUNK_BYTES) {
+            throw new IllegalArgumentException("column = " + column + ", one row is larger than a chunk!");
+        }
+        return (int) (MAX_CHUNK_BYTES / rowBytes);
+    }
+
+    /**
+     * 存放row行需要的分块个数
+     */
+    static int chunkCount(int row, int column) {
+        int rowsPerChunk = rowsPerChunk(column);
+        return (row + rowsPerChunk - 1) / rowsPerChunk;
+    }
+
+    /**
+     * 第index个分块的字节数
+     */
+    static long chunkBytes(int row, int column, int index) {
+        int rowsPerChunk = rowsPerChunk(column);
+        int rows = Math.min(rowsPerChunk, row - index * rowsPerChunk);
+        return (long) rows * column * Double.BYTES;
+    }
+
+    /**
+     * 是否已经释放
+     */
+    public boolean isClosed() {
+        return closed;
+    }
+
+    /**
+     * 释放底层内存 重复调用不会报错
+     * 正在进行的运算结束后才真正释放 之后再访问矩阵会抛出IllegalStateException
+     */
+    public synchronized void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        release();
+    }
+
+    /**
+     * 开始访问底层内存 必须和release成对调用
+     */
+    void acquire() {
+        while (true) {
+            int count = users.get();
+            if (count == 0 || closed) {
+                throw new IllegalStateException("matrix is closed!");
+            }
+            if (users.compareAndSet(count, count + 1)) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * 结束访问底层内存 最后一个使用者负责释放
+     */
+    void release() {
+        if (users.decrementAndGet() == 0) {
+            for (ByteBuffer buffer : bytes) {
+                Cleaner.clean(buffer);
+            }
+        }
+    }
+
+    @Override
+    public Matrix doAdd(Matrix matrix) {
+        if (MatrixSupport.isComplex(matrix)) {
+            return ComplexMatrixView.contiguous(matrix).doAdd(this);
+        }
+        OffHeapMatrix result = OffHeapMatrix.create(row, column);
+        elementWise(matrix, DoubleKernels.INSTANCE::add, result);
+        return result;
+    }
+
+    @Override
+    public Matrix doMinus(Matrix matrix) {
+        if (MatrixSupport.isComplex(matrix)) {
+            return ComplexMatrixView.of(this).doMinus(matrix);
+        }
+        OffHeapMatrix result = OffHeapMatrix.create(row, column);
+        elementWise(matrix, DoubleKernels.INSTANCE::minus, result);
+        return result;
+    }
+
+    @Override
+    public Matrix multi(double input) {
+        OffHeapMatrix result = OffHeapMatrix.create(row, column);
+        scale(input, result);
+        return result;
+    }
+
+    @Override
+    public Matrix doMulti(ComplexNumber complexNumber) {
+        return ComplexMatrixView.of(this).doMulti(complexNumber);
+    }
+
+    @Override
+    public Matrix doMulti(Matrix matrix) {
+        if (MatrixSupport.isComplex(matrix)) {
+            return ComplexMatrixView.of(this).doMulti(matrix);
+        }
+        OffHeapMatrix result = OffHeapMatrix.create(row, matrix.getColumn());
+        multiply(matrix, result);
+        return result;
+    }
+
+    @Override
+    public void doMulti(double[] vector, double[] result) {
+        int blockRows = blockRows(column);
+        MatrixExecutor.forRows(row, column, 1, (from, to) -> {
+            DoubleKernels kernels = DoubleKernels.INSTANCE;
+            double[] block = new double[Math.min(blockRows, to - from) * column];
+            for (int i = from; i < to; i += blockRows) {
+                int end = Math.min(to, i + blockRows);
+                readRows(i, end, block, 0);
+                for (int j = i; j < end; j++) {
+                    result[j] = kernels.dot(block, (j - i) * column, vector, 0, column);
+                }
+            }
+        });
+    }
+
+    @Override
+    public Matrix doHadamard(Matrix matrix) {
+        if (MatrixSupport.isComplex(matrix)) {
+            return ComplexMatrixView.contiguous(matrix).doHadamard(this);
+        }
+        OffHeapMatrix result = OffHeapMatrix.create(row, column);
+        elementWise(matrix, DoubleKernels.INSTANCE::multiply, result);
+        return result;
+    }
+
+    @Override
+    public Matrix transpose() {
+        OffHeapMatrix result = OffHeapMatrix.create(column, row);
+        transpose(result);
+        return result;
+    }
+
+    @Override
+    public Matrix doSubmatrix(int rowFrom, int rowTo, int columnFrom, int columnTo) {
+        int width = columnTo - columnFrom;
+        OffHeapMatrix result = OffHeapMatrix.create(rowTo - rowFrom, width);
+        int blockRows = blockRows(width);
+        MatrixExecutor.forRows(rowTo - rowFrom, width, 1, (from, to) -> {
+            double[] block = new double[Math.min(blockRows, to - from) * width];
+            for (int i = from; i < to; i += blockRows) {
+                int end = Math.min(to, i + blockRows);
+                readBlock(rowFrom + i, rowFrom + end, columnFrom, columnTo, block, 0, width);
+                result.writeRows(i, end, block, 0);
+            }
+        });
+        return result;
+    }
+
+    @Override
+    public int getRow() {
+        return row;
+    }
+
+    @Override
+    public int getColumn() {
+        return column;
+    }
+
+    @Override
+    public double doGetDouble(int row, int column) {
+        acquire();
+        try {
+            return chunk(row).get((row % rowsPerChunk) * this.column + column);
+        } finally {
+            release();
+        }
+    }
+
+    @Override
+    public ComplexNumber doGetComplex(int row, int column) {
+        return new ComplexNumber(doGetDouble(row, column));
+    }
+
+    @Override
+    public double[] doGetDoubleRow(int row) {
+        double[] result = new double[column];
+        readRows(row, row + 1, result, 0);
+        return result;
+    }
+
+    @Override
+    public ComplexNumber[] doGetComplexRow(int row) {
+        return MatrixSupport.complexRow(doGetDoubleRow(row));
+    }
+
+    @Override
+    public double[] doGetDoubleColumn(int column) {
+        double[] result = new double[row];
+        readBlock(0, row, column, column + 1, result, 0, 1);
+        return result;
+    }
+
+    @Override
+    public ComplexNumber[] doGetComplexColumn(int column) {
+        double[] doubleColumn = doGetDoubleColumn(column);
+        ComplexNumber[] result = new ComplexNumber[row];
+        for (int i = 0; i < row; i++) {
+            result[i] = new ComplexNumber(doubleColumn[i]);
+        }
+        return result;
+    }
+
+    /**
+     * 分解需要随机访问 拷贝到堆上进行
+     */
+    @Override
+    public Determinant doToDeterminant() {
+        return new SimpleDeterminant(row, toArray());
+    }
+
+    /**
+     * 分解需要随机访问 拷贝到堆上进行
+     */
+    @Override
+    public QRDecomposition doQr() {
+        return QRDecomposition.decompose(row, column, toArray());
+    }
+
+    @Override
+    public String toString() {
+        return MatrixSupport.toString(this);
+    }
+
+    /**
+     * target = this op matrix
+     */
+    void elementWise(Matrix matrix, ElementWise operator, BufferMatrix target) {
+        Matrix input = matrix.evaluate();
+        int blockRows = blockRows(column);
+        MatrixExecutor.forRows(row, column, 1, (from, to) -> {
+            int length = Math.min(blockRows, to - from) * column;
+            double[] block = new double[length];
+            double[] inputBlock = new double[length];
+            for (int i = from; i < to; i += blockRows) {
+                int end = Math.min(to, i + blockRows);
+                readRows(i, end, block, 0);
+                readRows(input, i, end, inputBlock);
+                operator.apply(block, 0, inputBlock, 0, block, 0, (end - i) * column);
+                target.writeRows(i, end, block, 0);
+            }
+        });
+    }
+
+    /**
+     * target = alpha * this
+     */
+    void scale(double alpha, BufferMatrix target) {
+        int blockRows = blockRows(column);
+        MatrixExecutor.forRows(row, column, 1, (from, to) -> {
+            double[] block = new double[Math.min(blockRows, to - from) * column];
+            for (int i = from; i < to; i += blockRows) {
+                int end = Math.min(to, i + blockRows);
+                readRows(i, end, block, 0);
+                DoubleKernels.INSTANCE.scale(alpha, block, 0, block, 0, (end - i) * column);
+                target.writeRows(i, end, block, 0);
+            }
+        });
+    }
+
+    /**
+     * target = this * matrix
+     * B按 KC * NC 分块拷贝到堆上 每个行块再拷贝A的对应部分 交给DoubleGemm计算后写回target
+     * 堆上的浮点数矩阵直接按间隔读取 不拷贝
+     */
+    void multiply(Matrix matrix, BufferMatrix target) {
+        Matrix input = matrix.evaluate();
+        BufferMatrix bufferInput = input instanceof BufferMatrix bufferMatrix ? bufferMatrix : null;
+        SimpleMatrixView view = bufferInput == null ? SimpleMatrixView.of(input) : null;
+        int n = input.getColumn();
+        for (int jc = 0; jc < n; jc += NC) {
+            int columnFrom = jc;
+            int nc = Math.min(NC, n - jc);
+            for (int pc = 0; pc < column; pc += KC) {
+                int kc = Math.min(KC, column - pc);
+                int rowFrom = pc;
+                double[] bPanel;
+                int bOffset;
+                int bRowStride;
+                int bColumnStride;
+                if (bufferInput != null) {
+                    bPanel = new double[kc * nc];
+                    bufferInput.readBlock(pc, pc + kc, jc, jc + nc, bPanel, 0, nc);
+                    bOffset = 0;
+                    bRowStride = nc;
+                    bColumnStride = 1;
+                } else {
+                    bPanel = view.numbers;
+                    bOffset = view.offset + pc * view.rowStride + jc * view.columnStride;
+                    bRowStride = view.rowStride;
+                    bColumnStride = view.columnStride;
+                }
+                MatrixExecutor.forRows(row, (long) kc * nc, DoubleGemm.MR, (from, to) -> {
+                    double[] aBlock = new double[Math.min(MC, to - from) * kc];
+                    double[] cBlock = new double[Math.min(MC, to - from) * nc];
+                    for (int ic = from; ic < to; ic += MC) {
+                        int end = Math.min(to, ic + MC);
+                        int mc = end - ic;
+                        readBlock(ic, end, rowFrom, rowFrom + kc, aBlock, 0, kc);
+                        if (rowFrom == 0) {
+                            Arrays.fill(cBlock, 0, mc * nc, 0d);
+                        } else {
+                            target.readBlock(ic, end, columnFrom, columnFrom + nc, cBlock, 0, nc);
+                        }
+                        DoubleGemm.multiply(mc, nc, kc, 1d, aBlock, 0, kc, 1,
+                                bPanel, bOffset, bRowStride, bColumnStride, cBlock, 0, nc);
+                        target.writeBlock(ic, end, columnFrom, columnFrom + nc, cBlock, 0, nc);
+                    }
+                });
+            }
+        }
+    }
+
+    /**
+     * target = this^T 按方块读取后在堆上转置再写回
+     */
+    void transpose(BufferMatrix target) {
+        MatrixExecutor.forRows(row, column, TILE, (from, to) -> {
+            double[] tile = new double[TILE * TILE];
+            double[] transposeTile = new double[TILE * TILE];
+            for (int r = from; r < to; r += TILE) {
+                int rowEnd = Math.min(to, r + TILE);
+                int height = rowEnd - r;
+                for (int c = 0; c < column; c += TILE) {
+                    int columnEnd = Math.min(column, c + TILE);
+                    int width = columnEnd - c;
+                    readBlock(r, rowEnd, c, columnEnd, tile, 0, width);
+                    for (int i = 0; i < height; i++) {
+                        for (int j = 0; j < width; j++) {
+                            transposeTile[j * height + i] = tile[i * width + j];
+                        }
+                    }
+                    target.writeBlock(c, columnEnd, r, rowEnd, transposeTile, 0, height);
+                }
+            }
+        });
+    }
+
+    /**
+     * 把同样大小的浮点数矩阵逐块写入当前矩阵
+     */
+    void copy(Matrix input) {
+        int blockRows = blockRows(column);
+        MatrixExecutor.forRows(row, column, 1, (from, to) -> {
+            double[] block = new double[Math.min(blockRows, to - from) * column];
+            for (int i = from; i < to; i += blockRows) {
+                int end = Math.min(to, i + blockRows);
+                readRows(input, i, end, block);
+                writeRows(i, end, block, 0);
+            }
+        });
+    }
+
+    /**
+     * 拷贝为行优先的堆上数组
+     */
+    double[] toArray() {
+        if ((long) row * column > Integer.MAX_VALUE - 8) {
+            throw new IllegalStateException("matrix is too large to copy to heap! row = " + row
+                    + ", column = " + column);
+        }
+        double[] result = new double[row * column];
+        readRows(0, row, result, 0);
+        return result;
+    }
+
+    /**
+     * 把[from, to)行拷贝到target[targetOffset...] 同一个分块内的行一次拷贝
+     */
+    void readRows(int from, int to, double[] target, int targetOffset) {
+        acquire();
+        try {
+            while (from < to) {
+                int chunkEnd = Math.min(to, (from / rowsPerChunk + 1) * rowsPerChunk);
+                int length = (chunkEnd - from) * column;
+                chunk(from).get((from % rowsPerChunk) * column, target, targetOffset, length);
+                targetOffset += length;
+                from = chunkEnd;
+            }
+        } finally {
+            release();
+        }
+    }
+
+    /**
+     * 把source[sourceOffset...]写入[from, to)行
+     */
+    void writeRows(int from, int to, double[] source, int sourceOffset) {
+        acquire();
+        try {
+            while (from < to) {
+                int chunkEnd = Math.min(to, (from / rowsPerChunk + 1) * rowsPerChunk);
+                int length = (chunkEnd - from) * column;
+                chunk(from).put((from % rowsPerChunk) * column, source, sourceOffset, length);
+                sourceOffset += length;
+                from = chunkEnd;
+            }
+        } finally {
+            release();
+        }
+    }
+
+    /**
+     * 把[rowFrom, rowTo)行 [columnFrom, columnTo)列拷贝到target 每行间隔targetStride
+     */
+    void readBlock(int rowFrom, int rowTo, int columnFrom, int columnTo,
+                   double[] target, int targetOffset, int targetStride) {
+        int width = columnTo - columnFrom;
+        acquire();
+        try {
+            for (int i = rowFrom; i < rowTo; i++) {
+                chunk(i).get((i % rowsPerChunk) * column + columnFrom, target,
+                        targetOffset + (i - rowFrom) * targetStride, width);
+            }
+        } finally {
+            release();
+        }
+    }
+
+    /**
+     * 把source写入[rowFrom, rowTo)行 [columnFrom, columnTo)列 source每行间隔sourceStride
+     */
+    void writeBlock(int rowFrom, int rowTo, int columnFrom, int columnTo,
+                    double[] source, int sourceOffset, int sourceStride) {
+        int width = columnTo - columnFrom;
+        acquire();
+        try {
+            for (int i = rowFrom; i < rowTo; i++) {
+                chunk(i).put((i % rowsPerChunk) * column + columnFrom, source,
+                        sourceOffset + (i - rowFrom) * sourceStride, width);
+            }
+        } finally {
+            release();
+        }
+    }
+
+    /**
+     * 把任意浮点数矩阵的[from, to)行拷贝到target开头
+     */
+    static void readRows(Matrix matrix, int from, int to, double[] target) {
+        int column = matrix.getColumn();
+        if (matrix instanceof BufferMatrix bufferMatrix) {
+            bufferMatrix.readRows(from, to, target, 0);
+        } else if (matrix instanceof SimpleMatrix || matrix instanceof SimpleMatrixView) {
+            SimpleMatrixView view = SimpleMatrixView.of(matrix);
+            for (int i = from; i < to; i++) {
+                view.copyRow(i, target, (i - from) * column);
+            }
+        } else {
+            for (int i = from; i < to; i++) {
+                System.arraycopy(matrix.doGetDoubleRow(i), 0, target, (i - from) * column, column);
+            }
+        }
+    }
+
+    /**
+     * 每次拷贝到堆上的行数
+     */
+    static int blockRows(int column) {
+        return Math.max(1, BLOCK / Math.max(1, column));
+    }
+
+    /**
+     * 调用前必须先acquire
+     */
+    private DoubleBuffer chunk(int row) {
+        return chunks[row / rowsPerChunk];
+    }
+
+    /**
+     * DoubleKernels中的逐元素运算 z = x op y
+     */
+    @FunctionalInterface
+    interface ElementWise {
+
+        void apply(double[] x, int xOffset, double[] y, int yOffset, double[] z, int zOffset, int length);
+    }
+
+    /**
+     * 立即释放直接内存和文件映射
+     * JDK没有公开的释放方法 通过sun.misc.Unsafe.invokeCleaner释放
+     * 运行时不可用时只能等待垃圾回收
+     */
+    private static final class Cleaner {
+
+        private static final Object UNSAFE;
+
+        private static final Method INVOKE_CLEANER;
+
+        static {
+            Object unsafe = null;
+            Method invokeCleaner = null;
+            try {
+                Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+                Field field = unsafeClass.getDeclaredField("theUnsafe");
+                field.setAccessible(true);
+                unsafe = field.get(null);
+                invokeCleaner = unsafeClass.getMethod("invokeCleaner", ByteBuffer.class);
+            } catch (ReflectiveOperationException | RuntimeException e) {
+                // 没有jdk.unsupported模块
+            }
+            UNSAFE = unsafe;
+            INVOKE_CLEANER = invokeCleaner;
+        }
+
+        static void clean(ByteBuffer buffer) {
+            if (INVOKE_CLEANER == null || !buffer.isDirect()) {
+                return;
+            }
+            try {
+                INVOKE_CLEANER.invoke(UNSAFE, buffer);
+            } catch (ReflectiveOperationException | RuntimeException e) {
+                // 释放失败时交给垃圾回收
+            }
+        }
+    }
+}
@@ -0,0 +1,260 @@
+package xyz.xpecya.math;
+
+import java.util.Arrays;
+
+/**
+ * 对称正定方阵的Cholesky分解
+ * A = L * L^T 其中L为对角线元素为正的下三角矩阵
+ *
+ * 只读取原方阵对角线及以下的部分 计算量和内存访问都是LU分解的一半
+ * 按BLOCK列分块：
+ * 每个列块先用一次DoubleGemm减去之前所有列块的贡献 再在块内逐列计算
+ * 块内每个元素都是两段连续行的内积
+ * 分解完成后不可变 可以在多个线程之间共享
+ */
+public final class CholeskyDecomposition implements LinearSolver {
+
+    /**
+     * 分块的列数
+     */
+    private static final int BLOCK = 64;
+
+    private final int length;
+
+    /**
+     * 行优先存放的L 对角线以上为0
+     */
+    private final double[] lower;
+
+    /**
+     * 多个常数项求解用的三角因子 第一次调用solve(Matrix)时计算 之后复用
+     * 对角线以下为 L[i][p] / L[p][p] 对角线以上为 L^T
+     */
+    private volatile double[] factor;
+
+    private CholeskyDecomposition(int length, double[] lower) {
+        this.length = length;
+        this.lower = lower;
+    }
+
+    /**
+     * 对行优先存放的length阶对称方阵做Cholesky分解
+     * 只读取对角线及以下的部分 不会修改入参数组
+     *
+     * @return 不是正定矩阵时返回null
+     */
+    static CholeskyDecomposition decompose(int length, double[] numbers) {
+        double[] lower = new double[length * length];
+        for (int i = 0; i < length; i++) {
+            System.arraycopy(numbers, i * length, lower, i * length, i + 1);
+        }
+        DoubleKernels kernels = DoubleKernels.INSTANCE;
+        for (int jb = 0; jb < length; jb += BLOCK) {
+            int je = Math.min(length, jb + BLOCK);
+            int blockWidth = je - jb;
+            int first = jb;
+            if (jb > 0) {
+                // L[jb:, jb:je] -= L[jb:, 0:jb] * L[jb:je, 0:jb]^T 转置只交换间隔
+                MatrixExecutor.forRows(length - jb, (long) blockWidth * jb, DoubleGemm.MR, (from, to) ->
+                        DoubleGemm.multiply(to - from, blockWidth, first, -1d,
+                                lower, (first + from) * length, length, 1,
+                                lower, first * length, 1, length, lower, (first + from) * length + first, length));
+            }
+            for (int j = jb; j < je; j++) {
+                int diagonalOffset = j * length;
+                double diagonal = lower[diagonalOffset + j]
+                        - kernels.dot(lower, diagonalOffset + jb, lower, diagonalOffset + jb, j - jb);
+                if (!(diagonal > 0d)) {
+                    return null;
+                }
+                double pivot = Math.sqrt(diagonal);
+                lower[diagonalOffset + j] = pivot;
+                int current = j;
+                int rest = length - j - 1;
+                MatrixExecutor.forRows(rest, current - first + 1, 1, (from, to) -> {
+                    for (int i = current + 1 + from; i < current + 1 + to; i++) {
+                        int rowOffset = i * length;
+                        double item = lower[rowOffset + current]
+                                - kernels.dot(lower, rowOffset + first, lower, diagonalOffset + first, current - first);
+                        lower[rowOffset + current] = item / pivot;
+                    }
+                });
+            }
+            // DoubleGemm同时更新了块内对角线以上的部分 清零
+            for (int i = jb; i < je - 1; i++) {
+                Arrays.fill(lower, i * length + i + 1, i * length + je, 0d);
+            }
+        }
+        return new CholeskyDecomposition(length, lower);
+    }
+
+    /**
+     * 获取方阵边长
+     */
+    @Override
+    public int getLength() {
+        return length;
+    }
+
+    /**
+     * 正定矩阵不会奇异
+     */
+    @Override
+    public boolean isSingular() {
+        return false;
+    }
+
+    /**
+     * 获取下三角矩阵L
+     */
+    public Matrix getL() {
+        return new SimpleMatrix(length, length, lower.clone());
+    }
+
+    /**
+     * 计算原方阵的行列式 即L对角线之积的平方
+     */
+    public double determinant() {
+        double result = 1d;
+        for (int i = 0; i < length; i++) {
+            double item = lower[i * length + i];
+            result = result * item * item;
+        }
+        return result;
+    }
+
+    /**
+     * 计算原方阵行列式的自然对数 不会因为连乘而溢出
+     */
+    public double logDeterminant() {
+        double result = 0d;
+        for (int i = 0; i < length; i++) {
+            result += Math.log(lower[i * length + i]);
+        }
+        return 2d * result;
+    }
+
+    /**
+     * 求解 Ax = value 依次求解 Ly = value 和 L^T x = y
+     * 只读取分解结果 可以在多个线程中同时调用
+     */
+    @Override
+    public double[] solve(double[] value, double[] result) {
+        MatrixSupport.checkSolve(length, value == null ? -1 : value.length,
+                result == null ? -1 : result.length, false);
+        if (value != result) {
+            System.arraycopy(value, 0, result, 0, length);
+        }
+        substitute(result);
+        return result;
+    }
+
+    @Override
+    public ComplexNumber[] solve(ComplexNumber[] value, ComplexNumber[] result) {
+        MatrixSupport.checkSolve(length, value == null ? -1 : value.length,
+                result == null ? -1 : result.length, false);
+        double[] real = new double[length];
+        double[] imaginary = new double[length];
+        for (int i = 0; i < length; i++) {
+            ComplexNumber item = value[i];
+            if (item == null) {
+                throw new IllegalArgumentException("value[" + i + "] is null!");
+            }
+            real[i] = item.real();
+            imaginary[i] = item.imaginary();
+        }
+        substitute(real);
+        substitute(imaginary);
+        for (int i = 0; i < length; i++) {
+            result[i] = new ComplexNumber(real[i], imaginary[i]);
+        }
+        return result;
+    }
+
+    /**
+     * 一次求解多个常数项 AX = value
+     * 把L写成单位下三角矩阵和对角矩阵的乘积 复用TriangularSolve的分块三角求解
+     */
+    @Override
+    public Matrix solve(Matrix value) {
+        if (value == null) {
+            throw new IllegalArgumentException("value is null!");
+        }
+        if (value.getRow() != length) {
+            throw new IllegalArgumentException("value's row = " + value.getRow()
+                    + ", determinant's length = " + length);
+        }
+        int width = value.getColumn();
+        double[] inverse = new double[length];
+        for (int i = 0; i < length; i++) {
+            inverse[i] = 1d / lower[i * length + i];
+        }
+        double[] factor = factor(inverse);
+        if (ComplexMatrixView.contiguous(value) instanceof ComplexMatrix complexMatrix) {
+            double[] real = complexMatrix.real.clone();
+            double[] imaginary = complexMatrix.imaginary.clone();
+            solveColumns(factor, inverse, real, width);
+            solveColumns(factor, inverse, imaginary, width);
+            return new ComplexMatrix(length, width, real, imaginary);
+        }
+        double[] x;
+        if (value instanceof SimpleMatrix simpleMatrix) {
+            x = simpleMatrix.numbers.clone();
+        } else {
+            x = new double[length * width];
+            for (int i = 0; i < length; i++) {
+                System.arraycopy(value.doGetDoubleRow(i), 0, x, i * width, width);
+            }
+        }
+        solveColumns(factor, inverse, x, width);
+        return new SimpleMatrix(length, width, x);
+    }
+
+    /**
+     * 多个线程同时第一次求解时可能各自计算一次 结果相同
+     */
+    private double[] factor(double[] inverse) {
+        double[] factor = this.factor;
+        if (factor == null) {
+            factor = new double[length * length];
+            for (int i = 0; i < length; i++) {
+                int offset = i * length;
+                for (int p = 0; p < i; p++) {
+                    factor[offset + p] = lower[offset + p] * inverse[p];
+                    factor[p * length + i] = lower[offset + p];
+                }
+            }
+            this.factor = factor;
+        }
+        return factor;
+    }
+
+    private void solveColumns(double[] factor, double[] inverse, double[] x, int width) {
+        MatrixExecutor.forRows(width, (long) length * length, TriangularSolve.GRAIN, (from, to) -> {
+            DoubleKernels kernels = DoubleKernels.INSTANCE;
+            TriangularSolve.lower(length, factor, x, width, from, to);
+            for (int i = 0; i < length; i++) {
+                int offset = i * width + from;
+                kernels.scale(inverse[i], x, offset, x, offset, to - from);
+            }
+            TriangularSolve.upper(length, factor, inverse, x, width, from, to);
+        });
+    }
+
+    /**
+     * 原地做前代 Ly = b 和回代 L^T x = y
+     * 回代按列进行 每一步都是L一行的连续axpy
+     */
+    private void substitute(double[] x) {
+        DoubleKernels kernels = DoubleKernels.INSTANCE;
+        for (int i = 0; i < length; i++) {
+            int offset = i * length;
+            x[i] = (x[i] - kernels.dot(lower, offset, x, 0, i)) / lower[offset + i];
+        }
+        for (int i = length - 1; i >= 0; i--) {
+            int offset = i * length;
+            x[i] = x[i] / lower[offset + i];
+            kernels.axpy(-x[i], lower, offset, x, 0, i);
+        }
+    }
+}
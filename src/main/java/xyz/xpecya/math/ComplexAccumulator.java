@@ -0,0 +1,202 @@
+package xyz.xpecya.math;
+
+/**
+ * 可变复数 用于在循环中累加复数运算的结果
+ * 所有运算都直接修改当前对象并返回当前对象 不会创建新对象
+ * 非线程安全 不要在多个线程之间共享同一个累加器
+ *
+ * 同时提供直接在 (实部, 虚部) 浮点数上计算的静态函数
+ * 需要得到不可变结果时调用toComplexNumber
+ */
+public final class ComplexAccumulator {
+
+    private double real;
+
+    private double imaginary;
+
+    public ComplexAccumulator() {
+    }
+
+    public ComplexAccumulator(double real, double imaginary) {
+        this.real = real;
+        this.imaginary = imaginary;
+    }
+
+    /**
+     * 获取实部
+     */
+    public double real() {
+        return real;
+    }
+
+    /**
+     * 获取虚部
+     */
+    public double imaginary() {
+        return imaginary;
+    }
+
+    /**
+     * 设置为0
+     */
+    public ComplexAccumulator reset() {
+        this.real = 0d;
+        this.imaginary = 0d;
+        return this;
+    }
+
+    /**
+     * 设置为指定值
+     */
+    public ComplexAccumulator set(double real, double imaginary) {
+        this.real = real;
+        this.imaginary = imaginary;
+        return this;
+    }
+
+    /**
+     * 设置为指定复数的值
+     */
+    public ComplexAccumulator set(ComplexNumber complexNumber) {
+        if (complexNumber == null) {
+            throw new IllegalArgumentException("input is null!");
+        }
+        return set(complexNumber.real(), complexNumber.imaginary());
+    }
+
+    /**
+     * 加上 (real + imaginary * i)
+     */
+    public ComplexAccumulator add(double real, double imaginary) {
+        this.real += real;
+        this.imaginary += imaginary;
+        return this;
+    }
+
+    /**
+     * 加上指定复数
+     */
+    public ComplexAccumulator add(ComplexNumber complexNumber) {
+        if (complexNumber == null) {
+            throw new IllegalArgumentException("input is null!");
+        }
+        return add(complexNumber.real(), complexNumber.imaginary());
+    }
+
+    /**
+     * 减去 (real + imaginary * i)
+     */
+    public ComplexAccumulator minus(double real, double imaginary) {
+        this.real -= real;
+        this.imaginary -= imaginary;
+        return this;
+    }
+
+    /**
+     * 加上 (aReal + aImaginary * i) * (bReal + bImaginary * i)
+     * 用于累加内积
+     */
+    public ComplexAccumulator addProduct(double aReal, double aImaginary, double bReal, double bImaginary) {
+        this.real += multiReal(aReal, aImaginary, bReal, bImaginary);
+        this.imaginary += multiImaginary(aReal, aImaginary, bReal, bImaginary);
+        return this;
+    }
+
+    /**
+     * 减去 (aReal + aImaginary * i) * (bReal + bImaginary * i)
+     * 用于消元和回代
+     */
+    public ComplexAccumulator minusProduct(double aReal, double aImaginary, double bReal, double bImaginary) {
+        this.real -= multiReal(aReal, aImaginary, bReal, bImaginary);
+        this.imaginary -= multiImaginary(aReal, aImaginary, bReal, bImaginary);
+        return this;
+    }
+
+    /**
+     * 乘以 (real + imaginary * i)
+     */
+    public ComplexAccumulator multi(double real, double imaginary) {
+        double newReal = multiReal(this.real, this.imaginary, real, imaginary);
+        this.imaginary = multiImaginary(this.real, this.imaginary, real, imaginary);
+        this.real = newReal;
+        return this;
+    }
+
+    /**
+     * 除以 (real + imaginary * i)
+     */
+    public ComplexAccumulator div(double real, double imaginary) {
+        double floor = floor(real, imaginary);
+        double newReal = (this.real * real + this.imaginary * imaginary) / floor;
+        this.imaginary = (this.imaginary * real - this.real * imaginary) / floor;
+        this.real = newReal;
+        return this;
+    }
+
+    /**
+     * 取相反数
+     */
+    public ComplexAccumulator negate() {
+        this.real = -this.real;
+        this.imaginary = -this.imaginary;
+        return this;
+    }
+
+    /**
+     * 当前值是否为0
+     */
+    public boolean isZero() {
+        return real == 0d && imaginary == 0d;
+    }
+
+    /**
+     * 把当前值转换为不可变复数
+     */
+    public ComplexNumber toComplexNumber() {
+        return new ComplexNumber(real, imaginary);
+    }
+
+    @Override
+    public String toString() {
+        return toComplexNumber().toString();
+    }
+
+    /**
+     * (aReal + aImaginary * i) * (bReal + bImaginary * i) 的实部
+     */
+    public static double multiReal(double aReal, double aImaginary, double bReal, double bImaginary) {
+        return aReal * bReal - aImaginary * bImaginary;
+    }
+
+    /**
+     * (aReal + aImaginary * i) * (bReal + bImaginary * i) 的虚部
+     */
+    public static double multiImaginary(double aReal, double aImaginary, double bReal, double bImaginary) {
+        return aReal * bImaginary + aImaginary * bReal;
+    }
+
+    /**
+     * (aReal + aImaginary * i) / (bReal + bImaginary * i) 的实部
+     */
+    public static double divReal(double aReal, double aImaginary, double bReal, double bImaginary) {
+        return (aReal * bReal + aImaginary * bImaginary) / floor(bReal, bImaginary);
+    }
+
+    /**
+     * (aReal + aImaginary * i) / (bReal + bImaginary * i) 的虚部
+     */
+    public static double divImaginary(double aReal, double aImaginary, double bReal, double bImaginary) {
+        return (aImaginary * bReal - aReal * bImaginary) / floor(bReal, bImaginary);
+    }
+
+    /**
+     * 除数模的平方 除数为0时抛出异常
+     */
+    private static double floor(double real, double imaginary) {
+        double floor = real * real + imaginary * imaginary;
+        if (floor == 0) {
+            throw new IllegalArgumentException("0 cannot be dived!");
+        }
+        return floor;
+    }
+}
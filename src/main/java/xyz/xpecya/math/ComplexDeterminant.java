@@ -7,8 +7,13 @@ public class ComplexDeterminant extends ComplexMatrix implements Determinant {
 
     private ComplexNumber value;
 
-    ComplexDeterminant(ComplexNumber[][] numberArrays) {
-        super(numberArrays);
+    /**
+     * LU分解结果
+     */
+    private ComplexLUDecomposition decomposition;
+
+    ComplexDeterminant(int length, double[] real, double[] imaginary) {
+        super(length, length, real, imaginary);
     }
 
     @Override
@@ -21,34 +26,35 @@ public class ComplexDeterminant extends ComplexMatrix implements Determinant {
         if (value != null) {
             return value;
         }
-        if (numberArrays.length == 2) {
+        if (row == 2) {
             // 2*2行列式 直接用定义
-            ComplexNumber a = numberArrays[0][0].multi(numberArrays[1][1]);
-            ComplexNumber b = numberArrays[0][1].multi(numberArrays[1][0]);
-            value = a.minus(b);
+            value = new ComplexAccumulator()
+                    .addProduct(real[0], imaginary[0], real[3], imaginary[3])
+                    .minusProduct(real[1], imaginary[1], real[2], imaginary[2])
+                    .toComplexNumber();
         } else {
-            ComplexDeterminant complexDeterminant = complexTriangle();
-            for (int i = 0; i < numberArrays.length; i++) {
-                ComplexNumber data = complexDeterminant.numberArrays[i][i];
-                if (value == null) {
-                    value = data;
-                } else {
-                    value = value.multi(data);
-                }
-            }
+            value = lu().determinant();
         }
         return value;
     }
 
+    @Override
+    public double logDeterminant() {
+        return lu().logDeterminant();
+    }
+
     @Override
     public double[] doSolve(double[] value) {
         ComplexNumber[] complexValue = new ComplexNumber[value.length];
-        for (int i = 0; i < numberArrays.length; i++) {
+        for (int i = 0; i < row; i++) {
             complexValue[i] = new ComplexNumber(value[i]);
         }
         ComplexNumber[] complexResult = doSolve(complexValue);
+        if (complexResult == null) {
+            return null;
+        }
         double[] result = new double[value.length];
-        for (int i = 0; i < numberArrays.length; i++) {
+        for (int i = 0; i < row; i++) {
             result[i] = complexResult[i].real();
         }
         return result;
@@ -56,36 +62,56 @@ public class ComplexDeterminant extends ComplexMatrix implements Determinant {
 
     @Override
     public ComplexNumber[] doSolve(ComplexNumber[] value) {
-        ComplexNumber calc = calculateComplex();
-        if (new ComplexNumber().equals(calc)) {
-            return null;
+        ComplexLUDecomposition decomposition = lu();
+        if (decomposition.isSingular()) {
+            return RowEchelon.solve(row, real, imaginary, value);
         }
-        int length = numberArrays.length;
-        ComplexNumber[] result = new ComplexNumber[length];
-        for (int i = 0; i < length; i++) {
-            ComplexNumber[][] copy = deepCopy();
-            for (int j = 0; j < length; j++) {
-                copy[j][i] = value[j];
-            }
-            ComplexDeterminant complexDeterminant = new ComplexDeterminant(copy);
-            ComplexNumber determinantValue = complexDeterminant.calculateComplex();
-            result[i] = determinantValue.div(calc);
+        return decomposition.solve(value);
+    }
+
+    @Override
+    public Matrix doSolve(Matrix value) {
+        ComplexLUDecomposition decomposition = lu();
+        if (decomposition.isSingular()) {
+            return RowEchelon.solve(row, real, imaginary, value);
         }
-        return result;
+        return decomposition.solve(value);
     }
 
+    @Override
+    public LinearSolver factor() {
+        return lu();
+    }
+
+    /**
+     * 获取当前行列式的LU分解 只会分解一次
+     */
+    public ComplexLUDecomposition lu() {
+        ComplexLUDecomposition decomposition = this.decomposition;
+        if (decomposition == null) {
+            decomposition = ComplexLUDecomposition.decompose(row, real, imaginary);
+            this.decomposition = decomposition;
+        }
+        return decomposition;
+    }
+
+    /**
+     * 返回把行交换符号乘进第一行的U
+     */
     @Override
     public Determinant triangle() {
-        return complexTriangle();
+        return lu().signedUpper();
     }
 
     @Override
     public Determinant diagonal() {
-        ComplexDeterminant complexDeterminant = complexTriangle();
-        int length = complexDeterminant.numberArrays.length;
+        ComplexDeterminant complexDeterminant = lu().signedUpper();
+        int length = row;
         for (int i = 0; i < length; i++) {
+            int offset = i * column;
             for (int j = i + 1; j < length; j++) {
-                complexDeterminant.numberArrays[i][j] = new ComplexNumber();
+                complexDeterminant.real[offset + j] = 0d;
+                complexDeterminant.imaginary[offset + j] = 0d;
             }
         }
         return complexDeterminant;
@@ -93,43 +119,6 @@ public class ComplexDeterminant extends ComplexMatrix implements Determinant {
 
     @Override
     public int getLength() {
-        return numberArrays.length;
-    }
-
-    private ComplexDeterminant complexTriangle() {
-        // 深拷贝一份
-        int length = numberArrays.length;
-        ComplexNumber[][] copy = deepCopy();
-        ComplexNumber zeroNumber = new ComplexNumber();
-        for (int i = 1; i < length; i++) {
-            for (int j = 0; j < i; j++) {
-                ComplexNumber item = copy[i][j];
-                if (item.equals(zeroNumber)) {
-                    continue;
-                }
-                ComplexNumber upper = copy[j][j];
-                ComplexNumber ratio = item.div(upper);
-                ratio = zeroNumber.minus(ratio);
-                copy[i][j] = new ComplexNumber();
-                for (int k = j + 1; k < length; k++) {
-                    ComplexNumber multiItem = copy[i][k];
-                    ComplexNumber multiUpper = copy[j][k];
-                    multiUpper = multiUpper.multi(ratio);
-                    multiItem = multiItem.add(multiUpper);
-                    copy[i][k] = multiItem;
-                }
-            }
-        }
-        return new ComplexDeterminant(copy);
-    }
-
-    private ComplexNumber[][] deepCopy() {
-        // 深拷贝一份
-        int length = numberArrays.length;
-        ComplexNumber[][] copy = new ComplexNumber[length][length];
-        for (int i = 0; i < length; i++) {
-            System.arraycopy(numberArrays[i], 0, copy[i], 0, length);
-        }
-        return copy;
+        return row;
     }
 }
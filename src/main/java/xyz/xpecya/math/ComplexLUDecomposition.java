@@ -0,0 +1,369 @@
+package xyz.xpecya.math;
+
+/**
+ * 复数方阵的LU分解 使用部分选主元
+ * PA = LU 其中P为行置换矩阵 L为单位下三角矩阵 U为上三角矩阵
+ *
+ * 和LUDecomposition一样紧凑存放 实部和虚部分别放在两个行优先数组中
+ * 选主元时比较模的平方
+ * 分解完成后不可变 可以用同一个分解反复求解不同的常数项
+ */
+public final class ComplexLUDecomposition implements LinearSolver {
+
+    private final int length;
+
+    /**
+     * 行优先存放的L和U的实部
+     */
+    private final double[] real;
+
+    /**
+     * 行优先存放的L和U的虚部
+     */
+    private final double[] imaginary;
+
+    /**
+     * 置换后第i行对应原矩阵的第pivot[i]行
+     */
+    private final int[] pivot;
+
+    /**
+     * 置换矩阵的行列式 1或-1
+     */
+    private final int sign;
+
+    /**
+     * 是否存在为0的主元
+     */
+    private final boolean singular;
+
+    private ComplexLUDecomposition(int length, double[] real, double[] imaginary, int[] pivot,
+                                   int sign, boolean singular) {
+        this.length = length;
+        this.real = real;
+        this.imaginary = imaginary;
+        this.pivot = pivot;
+        this.sign = sign;
+        this.singular = singular;
+    }
+
+    /**
+     * 对行优先存放的length阶复数方阵做LU分解
+     * 不会修改入参数组
+     */
+    static ComplexLUDecomposition decompose(int length, double[] realNumbers, double[] imaginaryNumbers) {
+        double[] real = realNumbers.clone();
+        double[] imaginary = imaginaryNumbers.clone();
+        int[] pivot = new int[length];
+        for (int i = 0; i < length; i++) {
+            pivot[i] = i;
+        }
+        int sign = 1;
+        boolean singular = false;
+        double[] swap = new double[length];
+        for (int k = 0; k < length; k++) {
+            int p = k;
+            double max = modSquare(real[k * length + k], imaginary[k * length + k]);
+            for (int i = k + 1; i < length; i++) {
+                double mod = modSquare(real[i * length + k], imaginary[i * length + k]);
+                if (mod > max) {
+                    max = mod;
+                    p = i;
+                }
+            }
+            if (p != k) {
+                swapRow(real, swap, p * length, k * length, length);
+                swapRow(imaginary, swap, p * length, k * length, length);
+                int temp = pivot[p];
+                pivot[p] = pivot[k];
+                pivot[k] = temp;
+                sign = -sign;
+            }
+            int pivotOffset = k * length;
+            double pivotReal = real[pivotOffset + k];
+            double pivotImaginary = imaginary[pivotOffset + k];
+            if (pivotReal == 0d && pivotImaginary == 0d) {
+                singular = true;
+                continue;
+            }
+            int current = k;
+            int first = k + 1;
+            int rest = length - first;
+            MatrixExecutor.forRows(rest, (long) rest * 4, 1, (from, to) -> {
+                for (int i = first + from; i < first + to; i++) {
+                    int rowOffset = i * length;
+                    double itemReal = real[rowOffset + current];
+                    double itemImaginary = imaginary[rowOffset + current];
+                    if (itemReal == 0d && itemImaginary == 0d) {
+                        continue;
+                    }
+                    double ratioReal = ComplexAccumulator.divReal(itemReal, itemImaginary, pivotReal, pivotImaginary);
+                    double ratioImaginary = ComplexAccumulator.divImaginary(itemReal, itemImaginary,
+                            pivotReal, pivotImaginary);
+                    real[rowOffset + current] = ratioReal;
+                    imaginary[rowOffset + current] = ratioImaginary;
+                    for (int j = first; j < length; j++) {
+                        double upperReal = real[pivotOffset + j];
+                        double upperImaginary = imaginary[pivotOffset + j];
+                        real[rowOffset + j] -= ComplexAccumulator.multiReal(ratioReal, ratioImaginary,
+                                upperReal, upperImaginary);
+                        imaginary[rowOffset + j] -= ComplexAccumulator.multiImaginary(ratioReal, ratioImaginary,
+                                upperReal, upperImaginary);
+                    }
+                }
+            });
+        }
+        return new ComplexLUDecomposition(length, real, imaginary, pivot, sign, singular);
+    }
+
+    /**
+     * 获取方阵边长
+     */
+    @Override
+    public int getLength() {
+        return length;
+    }
+
+    /**
+     * 获取单位下三角矩阵L
+     */
+    public Matrix getL() {
+        double[] realResult = new double[length * length];
+        double[] imaginaryResult = new double[length * length];
+        for (int i = 0; i < length; i++) {
+            int offset = i * length;
+            System.arraycopy(real, offset, realResult, offset, i);
+            System.arraycopy(imaginary, offset, imaginaryResult, offset, i);
+            realResult[offset + i] = 1d;
+        }
+        return new ComplexMatrix(length, length, realResult, imaginaryResult);
+    }
+
+    /**
+     * 获取上三角矩阵U
+     */
+    public Matrix getU() {
+        double[] realResult = new double[length * length];
+        double[] imaginaryResult = new double[length * length];
+        for (int i = 0; i < length; i++) {
+            int offset = i * length;
+            System.arraycopy(real, offset + i, realResult, offset + i, length - i);
+            System.arraycopy(imaginary, offset + i, imaginaryResult, offset + i, length - i);
+        }
+        return new ComplexMatrix(length, length, realResult, imaginaryResult);
+    }
+
+    /**
+     * 获取行置换 置换后第i行对应原矩阵的第result[i]行
+     */
+    public int[] getPivot() {
+        return pivot.clone();
+    }
+
+    /**
+     * 获取置换矩阵P 满足PA = LU
+     */
+    public Matrix getPermutation() {
+        double[] result = new double[length * length];
+        for (int i = 0; i < length; i++) {
+            result[i * length + pivot[i]] = 1d;
+        }
+        return new SimpleMatrix(length, length, result);
+    }
+
+    /**
+     * 获取置换矩阵的行列式 即行交换带来的符号 1或-1
+     */
+    public int getSign() {
+        return sign;
+    }
+
+    /**
+     * 是否为奇异矩阵 即存在为0的主元
+     */
+    @Override
+    public boolean isSingular() {
+        return singular;
+    }
+
+    /**
+     * 计算原方阵的行列式 即置换符号乘以U的对角线之积
+     */
+    public ComplexNumber determinant() {
+        ComplexAccumulator result = new ComplexAccumulator(sign, 0d);
+        for (int i = 0; i < length; i++) {
+            int index = i * length + i;
+            result.multi(real[index], imaginary[index]);
+        }
+        return result.toComplexNumber();
+    }
+
+    /**
+     * 计算原方阵行列式模的自然对数 不会因为连乘而溢出
+     * 奇异时为负无穷
+     */
+    public double logDeterminant() {
+        double result = 0d;
+        for (int i = 0; i < length; i++) {
+            int index = i * length + i;
+            result += Math.log(Math.hypot(real[index], imaginary[index]));
+        }
+        return result;
+    }
+
+    /**
+     * 求解 Ax = value 只做前代和回代 复杂度O(n^2)
+     * 只读取分解结果 可以在多个线程中同时调用
+     */
+    @Override
+    public ComplexNumber[] solve(ComplexNumber[] value, ComplexNumber[] result) {
+        MatrixSupport.checkSolve(length, value == null ? -1 : value.length,
+                result == null ? -1 : result.length, singular);
+        double[] realResult = new double[length];
+        double[] imaginaryResult = new double[length];
+        for (int i = 0; i < length; i++) {
+            ComplexNumber item = value[pivot[i]];
+            if (item == null) {
+                throw new IllegalArgumentException("value[" + pivot[i] + "] is null!");
+            }
+            realResult[i] = item.real();
+            imaginaryResult[i] = item.imaginary();
+        }
+        substitute(realResult, imaginaryResult);
+        for (int i = 0; i < length; i++) {
+            result[i] = new ComplexNumber(realResult[i], imaginaryResult[i]);
+        }
+        return result;
+    }
+
+    /**
+     * 求解浮点数常数项的方程组 和ComplexDeterminant一样只返回解的实部
+     */
+    @Override
+    public double[] solve(double[] value, double[] result) {
+        MatrixSupport.checkSolve(length, value == null ? -1 : value.length,
+                result == null ? -1 : result.length, singular);
+        double[] realResult = new double[length];
+        double[] imaginaryResult = new double[length];
+        for (int i = 0; i < length; i++) {
+            realResult[i] = value[pivot[i]];
+        }
+        substitute(realResult, imaginaryResult);
+        System.arraycopy(realResult, 0, result, 0, length);
+        return result;
+    }
+
+    /**
+     * 一次求解多个常数项 AX = value
+     * 所有列共用同一个分解 按列分块做分块三角求解 列数较多时各列块并行计算
+     */
+    @Override
+    public Matrix solve(Matrix value) {
+        check(value);
+        int width = value.getColumn();
+        double[] xReal = new double[length * width];
+        double[] xImaginary = new double[length * width];
+        if (ComplexMatrixView.contiguous(value) instanceof ComplexMatrix complexMatrix) {
+            for (int i = 0; i < length; i++) {
+                System.arraycopy(complexMatrix.real, pivot[i] * width, xReal, i * width, width);
+                System.arraycopy(complexMatrix.imaginary, pivot[i] * width, xImaginary, i * width, width);
+            }
+        } else if (value instanceof SimpleMatrix simpleMatrix) {
+            for (int i = 0; i < length; i++) {
+                System.arraycopy(simpleMatrix.numbers, pivot[i] * width, xReal, i * width, width);
+            }
+        } else {
+            for (int i = 0; i < length; i++) {
+                ComplexNumber[] complexRow = value.doGetComplexRow(pivot[i]);
+                int offset = i * width;
+                for (int j = 0; j < width; j++) {
+                    xReal[offset + j] = complexRow[j].real();
+                    xImaginary[offset + j] = complexRow[j].imaginary();
+                }
+            }
+        }
+        double[] inverseReal = new double[length];
+        double[] inverseImaginary = new double[length];
+        for (int i = 0; i < length; i++) {
+            int index = i * length + i;
+            inverseReal[i] = ComplexAccumulator.divReal(1d, 0d, real[index], imaginary[index]);
+            inverseImaginary[i] = ComplexAccumulator.divImaginary(1d, 0d, real[index], imaginary[index]);
+        }
+        MatrixExecutor.forRows(width, (long) length * length * 4, TriangularSolve.GRAIN, (from, to) -> {
+            TriangularSolve.lower(length, real, imaginary, xReal, xImaginary, width, from, to);
+            TriangularSolve.upper(length, real, imaginary, inverseReal, inverseImaginary,
+                    xReal, xImaginary, width, from, to);
+        });
+        return new ComplexMatrix(length, width, xReal, xImaginary);
+    }
+
+    /**
+     * 把置换符号乘进第一行后的U
+     * 其行列式和原方阵相同
+     */
+    ComplexDeterminant signedUpper() {
+        double[] realResult = new double[length * length];
+        double[] imaginaryResult = new double[length * length];
+        for (int i = 0; i < length; i++) {
+            int offset = i * length;
+            System.arraycopy(real, offset + i, realResult, offset + i, length - i);
+            System.arraycopy(imaginary, offset + i, imaginaryResult, offset + i, length - i);
+        }
+        if (sign < 0) {
+            for (int j = 0; j < length; j++) {
+                realResult[j] = -realResult[j];
+                imaginaryResult[j] = -imaginaryResult[j];
+            }
+        }
+        return new ComplexDeterminant(length, realResult, imaginaryResult);
+    }
+
+    /**
+     * 在已经置换过的常数项上原地做前代和回代
+     */
+    private void substitute(double[] x, double[] y) {
+        ComplexAccumulator sum = new ComplexAccumulator();
+        for (int i = 1; i < length; i++) {
+            int offset = i * length;
+            sum.set(x[i], y[i]);
+            for (int j = 0; j < i; j++) {
+                sum.minusProduct(real[offset + j], imaginary[offset + j], x[j], y[j]);
+            }
+            x[i] = sum.real();
+            y[i] = sum.imaginary();
+        }
+        for (int i = length - 1; i >= 0; i--) {
+            int offset = i * length;
+            sum.set(x[i], y[i]);
+            for (int j = i + 1; j < length; j++) {
+                sum.minusProduct(real[offset + j], imaginary[offset + j], x[j], y[j]);
+            }
+            sum.div(real[offset + i], imaginary[offset + i]);
+            x[i] = sum.real();
+            y[i] = sum.imaginary();
+        }
+    }
+
+    private void check(Matrix value) {
+        if (value == null) {
+            throw new IllegalArgumentException("value is null!");
+        }
+        if (value.getRow() != length) {
+            throw new IllegalArgumentException("value's row = " + value.getRow()
+                    + ", determinant's length = " + length);
+        }
+        if (singular) {
+            throw new IllegalStateException("matrix is singular!");
+        }
+    }
+
+    private static double modSquare(double real, double imaginary) {
+        return real * real + imaginary * imaginary;
+    }
+
+    private static void swapRow(double[] array, double[] swap, int first, int second, int length) {
+        System.arraycopy(array, first, swap, 0, length);
+        System.arraycopy(array, second, array, first, length);
+        System.arraycopy(swap, 0, array, second, length);
+    }
+}
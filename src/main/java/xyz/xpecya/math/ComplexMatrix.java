@@ -1,181 +1,302 @@
 package xyz.xpecya.math;
 
+import java.util.Arrays;
+
 /**
  * 复数矩阵
+ * 实部和虚部分别按行优先顺序存放在两个浮点数组中
+ * 第i行第j列元素的下标为 i * column + j
+ * 只有在getComplex等接口边界上才会创建ComplexNumber对象
  */
 public class ComplexMatrix implements Matrix {
 
-    protected final ComplexNumber[][] numberArrays;
+    /**
+     * 行优先存放的实部
+     */
+    protected final double[] real;
+
+    /**
+     * 行优先存放的虚部
+     */
+    protected final double[] imaginary;
+
+    protected final int row;
+
+    protected final int column;
 
-    ComplexMatrix(ComplexNumber[][] numberArrays) {
-        this.numberArrays = numberArrays;
+    ComplexMatrix(int row, int column, double[] real, double[] imaginary) {
+        this.row = row;
+        this.column = column;
+        this.real = real;
+        this.imaginary = imaginary;
     }
 
     @Override
     public Matrix doAdd(Matrix matrix) {
-        int row = numberArrays.length;
-        int column = numberArrays[0].length;
-        ComplexNumber[][] numberArray = new ComplexNumber[row][column];
-        for (int i = 0; i < row; i++) {
-            for (int j = 0; j < column; j++) {
-                numberArray[i][j] = this.numberArrays[i][j].add(matrix.doGetComplex(i, j));
-            }
+        double[] realArray = new double[row * column];
+        double[] imaginaryArray = new double[row * column];
+        DoubleKernels kernels = DoubleKernels.INSTANCE;
+        if (matrix instanceof ComplexMatrix complexMatrix) {
+            MatrixExecutor.forRows(row, column, 1, (from, to) -> {
+                int offset = from * column;
+                int length = (to - from) * column;
+                kernels.add(real, offset, complexMatrix.real, offset, realArray, offset, length);
+                kernels.add(imaginary, offset, complexMatrix.imaginary, offset, imaginaryArray, offset, length);
+            });
+        } else if (matrix instanceof SimpleMatrix simpleMatrix) {
+            MatrixExecutor.forRows(row, column, 1, (from, to) -> {
+                int offset = from * column;
+                int length = (to - from) * column;
+                kernels.add(real, offset, simpleMatrix.numbers, offset, realArray, offset, length);
+                System.arraycopy(imaginary, offset, imaginaryArray, offset, length);
+            });
+        } else {
+            MatrixExecutor.forRows(row, column, 1, (from, to) -> {
+                for (int i = from; i < to; i++) {
+                    int offset = i * column;
+                    for (int j = 0; j < column; j++) {
+                        ComplexNumber input = matrix.doGetComplex(i, j);
+                        realArray[offset + j] = real[offset + j] + input.real();
+                        imaginaryArray[offset + j] = imaginary[offset + j] + input.imaginary();
+                    }
+                }
+            });
         }
-        return new ComplexMatrix(numberArray);
+        return new ComplexMatrix(row, column, realArray, imaginaryArray);
     }
 
     @Override
     public Matrix doMinus(Matrix matrix) {
-        int row = numberArrays.length;
-        int column = numberArrays[0].length;
-        ComplexNumber[][] numberArray = new ComplexNumber[row][column];
-        for (int i = 0; i < row; i++) {
-            for (int j = 0; j < column; j++) {
-                numberArray[i][j] = this.numberArrays[i][j].minus(matrix.doGetComplex(i, j));
-            }
+        double[] realArray = new double[row * column];
+        double[] imaginaryArray = new double[row * column];
+        DoubleKernels kernels = DoubleKernels.INSTANCE;
+        if (matrix instanceof ComplexMatrix complexMatrix) {
+            MatrixExecutor.forRows(row, column, 1, (from, to) -> {
+                int offset = from * column;
+                int length = (to - from) * column;
+                kernels.minus(real, offset, complexMatrix.real, offset, realArray, offset, length);
+                kernels.minus(imaginary, offset, complexMatrix.imaginary, offset, imaginaryArray, offset, length);
+            });
+        } else if (matrix instanceof SimpleMatrix simpleMatrix) {
+            MatrixExecutor.forRows(row, column, 1, (from, to) -> {
+                int offset = from * column;
+                int length = (to - from) * column;
+                kernels.minus(real, offset, simpleMatrix.numbers, offset, realArray, offset, length);
+                System.arraycopy(imaginary, offset, imaginaryArray, offset, length);
+            });
+        } else {
+            MatrixExecutor.forRows(row, column, 1, (from, to) -> {
+                for (int i = from; i < to; i++) {
+                    int offset = i * column;
+                    for (int j = 0; j < column; j++) {
+                        ComplexNumber input = matrix.doGetComplex(i, j);
+                        realArray[offset + j] = real[offset + j] - input.real();
+                        imaginaryArray[offset + j] = imaginary[offset + j] - input.imaginary();
+                    }
+                }
+            });
         }
-        return new ComplexMatrix(numberArray);
+        return new ComplexMatrix(row, column, realArray, imaginaryArray);
     }
 
     @Override
     public Matrix multi(double input) {
-        return multi(new ComplexNumber(input));
+        double[] realArray = new double[row * column];
+        double[] imaginaryArray = new double[row * column];
+        DoubleKernels kernels = DoubleKernels.INSTANCE;
+        MatrixExecutor.forRows(row, column, 1, (from, to) -> {
+            int offset = from * column;
+            int length = (to - from) * column;
+            kernels.scale(input, real, offset, realArray, offset, length);
+            kernels.scale(input, imaginary, offset, imaginaryArray, offset, length);
+        });
+        return new ComplexMatrix(row, column, realArray, imaginaryArray);
     }
 
     @Override
     public Matrix doMulti(ComplexNumber complexNumber) {
-        int row = this.numberArrays.length;
-        int column = this.numberArrays[0].length;
-        ComplexNumber[][] numberArray = new ComplexNumber[row][column];
-        for (int i = 0; i < row; i++) {
-            for (int j = 0; j < column; j++) {
-                numberArray[i][j] = this.numberArrays[i][j].multi(complexNumber);
+        double inputReal = complexNumber.real();
+        double inputImaginary = complexNumber.imaginary();
+        double[] realArray = new double[row * column];
+        double[] imaginaryArray = new double[row * column];
+        MatrixExecutor.forRows(row, column, 1, (from, to) -> {
+            for (int i = from * column; i < to * column; i++) {
+                realArray[i] = ComplexAccumulator.multiReal(real[i], imaginary[i], inputReal, inputImaginary);
+                imaginaryArray[i] = ComplexAccumulator.multiImaginary(real[i], imaginary[i], inputReal, inputImaginary);
             }
-        }
-        return new ComplexMatrix(numberArray);
+        });
+        return new ComplexMatrix(row, column, realArray, imaginaryArray);
     }
 
+    /**
+     * 复数矩阵乘法拆成实数矩阵乘法
+     * (Ar + Ai * i) * (Br + Bi * i) = (Ar * Br - Ai * Bi) + (Ar * Bi + Ai * Br) * i
+     * 和doGemm共用同一套实现 每一项都直接交给DoubleGemm计算
+     */
     @Override
     public Matrix doMulti(Matrix matrix) {
-        int row = getRow();
-        int column = getColumn();
-        int inputColumn = matrix.getColumn();
+        if (matrix instanceof DiagonalMatrix diagonalMatrix) {
+            // 右乘对角矩阵只需要按列缩放
+            return diagonalMatrix.leftMulti(this);
+        }
+        return doGemm(1d, false, matrix, false, 0d, null);
+    }
 
-        ComplexNumber[][] numberArray = new ComplexNumber[row][inputColumn];
-        for (int i = 0; i < row; i++) {
-            for (int j = 0; j < inputColumn; j++) {
-                ComplexNumber result = null;
-                for (int k = 0; k < column; k++) {
-                    ComplexNumber thisNumber = this.numberArrays[i][k];
-                    ComplexNumber inputNumber = matrix.doGetComplex(k, j);
-                    ComplexNumber multi = thisNumber.multi(inputNumber);
-                    if (result == null) {
-                        result = multi;
-                    } else {
-                        result = result.add(multi);
+    @Override
+    public Matrix doGemm(double alpha, boolean transpose, Matrix matrix, boolean matrixTranspose,
+                         double beta, Matrix addend) {
+        return ComplexMatrixView.of(this).doGemm(alpha, transpose, matrix, matrixTranspose, beta, addend);
+    }
+
+    /**
+     * 复数矩阵乘以浮点数向量的结果是复数 不能写入浮点数数组 multi会先拒绝复数矩阵
+     */
+    @Override
+    public void doMulti(double[] vector, double[] result) {
+        throw new IllegalArgumentException("complex matrix can't multiply into a double vector!");
+    }
+
+    @Override
+    public Matrix doHadamard(Matrix matrix) {
+        double[] realArray = new double[row * column];
+        double[] imaginaryArray = new double[row * column];
+        if (matrix instanceof ComplexMatrix complexMatrix) {
+            double[] inputReal = complexMatrix.real;
+            double[] inputImaginary = complexMatrix.imaginary;
+            MatrixExecutor.forRows(row, column, 1, (from, to) -> {
+                for (int i = from * column; i < to * column; i++) {
+                    realArray[i] = ComplexAccumulator.multiReal(real[i], imaginary[i], inputReal[i], inputImaginary[i]);
+                    imaginaryArray[i] = ComplexAccumulator.multiImaginary(real[i], imaginary[i],
+                            inputReal[i], inputImaginary[i]);
+                }
+            });
+        } else if (matrix instanceof SimpleMatrix simpleMatrix) {
+            DoubleKernels kernels = DoubleKernels.INSTANCE;
+            MatrixExecutor.forRows(row, column, 1, (from, to) -> {
+                int offset = from * column;
+                int length = (to - from) * column;
+                kernels.multiply(real, offset, simpleMatrix.numbers, offset, realArray, offset, length);
+                kernels.multiply(imaginary, offset, simpleMatrix.numbers, offset, imaginaryArray, offset, length);
+            });
+        } else {
+            MatrixExecutor.forRows(row, column, 1, (from, to) -> {
+                for (int i = from; i < to; i++) {
+                    int offset = i * column;
+                    for (int j = 0; j < column; j++) {
+                        ComplexNumber input = matrix.doGetComplex(i, j);
+                        double a = real[offset + j];
+                        double b = imaginary[offset + j];
+                        realArray[offset + j] = ComplexAccumulator.multiReal(a, b, input.real(), input.imaginary());
+                        imaginaryArray[offset + j] = ComplexAccumulator.multiImaginary(a, b,
+                                input.real(), input.imaginary());
                     }
                 }
-                numberArray[j][i] = result;
-            }
+            });
         }
-        return new ComplexMatrix(numberArray);
+        return new ComplexMatrix(row, column, realArray, imaginaryArray);
     }
 
+    /**
+     * 复数矩阵不支持延迟计算
+     */
     @Override
-    public Matrix doHadamard(Matrix matrix) {
-        int row = getRow();
-        int column = getColumn();
-        ComplexNumber[][] numberArray = new ComplexNumber[row][column];
-        for (int i = 0; i < row; i++) {
-            for (int j = 0; j < column; j++) {
-                numberArray[i][j] = this.numberArrays[i][j].multi(matrix.doGetComplex(i, j));
-            }
-        }
-        return new ComplexMatrix(numberArray);
+    public Matrix lazy() {
+        return this;
     }
 
+    /**
+     * 转置只交换行间隔和列间隔 不拷贝数据
+     */
     @Override
     public Matrix transpose() {
-        int row = numberArrays.length;
-        int column = numberArrays[0].length;
-        ComplexNumber[][] newArray = new ComplexNumber[column][row];
-        for (int i = 0; i < row; i++) {
-            for (int j = 0; j < column; j++) {
-                newArray[j][i] = numberArrays[i][j];
-            }
-        }
-        return new ComplexMatrix(newArray);
+        return new ComplexMatrixView(real, imaginary, 0, column, row, 1, column);
+    }
+
+    @Override
+    public Matrix doSubmatrix(int rowFrom, int rowTo, int columnFrom, int columnTo) {
+        return new ComplexMatrixView(real, imaginary, rowFrom * column + columnFrom,
+                rowTo - rowFrom, columnTo - columnFrom, column, 1);
     }
 
     @Override
     public int getRow() {
-        return numberArrays.length;
+        return row;
     }
 
     @Override
     public int getColumn() {
-        return numberArrays[0].length;
+        return column;
     }
 
     @Override
     public double doGetDouble(int row, int column) {
-        return numberArrays[row][column].real();
+        return real[row * this.column + column];
     }
 
     @Override
     public double[] doGetDoubleRow(int row) {
-        return getDoubleArray(doGetComplexRow(row));
+        int offset = row * column;
+        return Arrays.copyOfRange(real, offset, offset + column);
     }
 
     @Override
     public ComplexNumber[] doGetComplexRow(int row) {
-        return new ComplexNumber[row];
+        ComplexNumber[] result = new ComplexNumber[column];
+        int offset = row * column;
+        for (int j = 0; j < column; j++) {
+            result[j] = new ComplexNumber(real[offset + j], imaginary[offset + j]);
+        }
+        return result;
     }
 
     @Override
     public double[] doGetDoubleColumn(int column) {
-        return getDoubleArray(doGetComplexColumn(column));
+        double[] result = new double[row];
+        for (int i = 0; i < row; i++) {
+            result[i] = real[i * this.column + column];
+        }
+        return result;
     }
 
     @Override
     public ComplexNumber[] doGetComplexColumn(int column) {
-        int row = getRow();
         ComplexNumber[] result = new ComplexNumber[row];
         for (int i = 0; i < row; i++) {
-            result[i] = numberArrays[i][column];
+            int index = i * this.column + column;
+            result[i] = new ComplexNumber(real[index], imaginary[index]);
         }
         return result;
     }
 
     @Override
     public Determinant doToDeterminant() {
-        return new ComplexDeterminant(numberArrays);
+        return new ComplexDeterminant(row, real, imaginary);
+    }
+
+    /**
+     * 目前只支持浮点数矩阵的QR分解 qr()会先拒绝复数矩阵
+     */
+    @Override
+    public QRDecomposition doQr() {
+        throw new IllegalStateException("complex matrix doesn't support QR decomposition!");
     }
 
     @Override
     public ComplexNumber doGetComplex(int row, int column) {
-        return numberArrays[row][column];
+        int index = row * this.column + column;
+        return new ComplexNumber(real[index], imaginary[index]);
     }
 
     @Override
     public String toString() {
         StringBuilder stringBuilder = new StringBuilder();
-        for (ComplexNumber[] itemArray : numberArrays) {
+        for (int i = 0; i < row; i++) {
             stringBuilder.append("| ");
-            for (ComplexNumber complexNumber : itemArray) {
-                stringBuilder.append(complexNumber).append(" ");
+            for (int j = 0; j < column; j++) {
+                stringBuilder.append(doGetComplex(i, j)).append(" ");
             }
             stringBuilder.append("|\r\n");
         }
         return stringBuilder.toString();
     }
-
-    private double[] getDoubleArray(ComplexNumber[] complexNumbers) {
-        int length = complexNumbers.length;
-        double[] result = new double[length];
-        for (int i = 0; i < length; i++) {
-            result[i] = complexNumbers[i].real();
-        }
-        return result;
-    }
 }
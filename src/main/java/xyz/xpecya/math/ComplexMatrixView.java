@@ -0,0 +1,339 @@
+package xyz.xpecya.math;
+
+/**
+ * 复数矩阵视图 和源矩阵共享实部和虚部数组 不会拷贝数据
+ * 第i行第j列元素的下标为 offset + i * rowStride + j * columnStride
+ *
+ * 转置只交换行间隔和列间隔 子矩阵只改变起始下标和长宽
+ * 矩阵乘法直接按间隔读取 逐元素运算先拷贝为普通的复数矩阵再计算
+ */
+public final class ComplexMatrixView implements Matrix {
+
+    final double[] real;
+
+    final double[] imaginary;
+
+    final int offset;
+
+    final int row;
+
+    final int column;
+
+    final int rowStride;
+
+    final int columnStride;
+
+    ComplexMatrixView(double[] real, double[] imaginary, int offset, int row, int column,
+                      int rowStride, int columnStride) {
+        this.real = real;
+        this.imaginary = imaginary;
+        this.offset = offset;
+        this.row = row;
+        this.column = column;
+        this.rowStride = rowStride;
+        this.columnStride = columnStride;
+    }
+
+    /**
+     * 把矩阵表示为复数矩阵视图
+     * 复数矩阵直接共享底层数组 浮点数矩阵补一个全是0的虚部 其他实现先逐行拷贝
+     */
+    static ComplexMatrixView of(Matrix matrix) {
+        if (matrix instanceof ComplexMatrixView view) {
+            return view;
+        }
+        if (matrix instanceof ComplexMatrix complexMatrix) {
+            int column = complexMatrix.column;
+            return new ComplexMatrixView(complexMatrix.real, complexMatrix.imaginary, 0, complexMatrix.row, column,
+                    column, 1);
+        }
+        int row = matrix.getRow();
+        int column = matrix.getColumn();
+        if (matrix instanceof SimpleMatrix || matrix instanceof SimpleMatrixView) {
+            double[] real = SimpleMatrixView.of(matrix).toArray();
+            return new ComplexMatrixView(real, new double[row * column], 0, row, column, column, 1);
+        }
+        double[] real = new double[row * column];
+        double[] imaginary = new double[row * column];
+        for (int i = 0; i < row; i++) {
+            ComplexNumber[] complexRow = matrix.doGetComplexRow(i);
+            int rowOffset = i * column;
+            for (int j = 0; j < column; j++) {
+                real[rowOffset + j] = complexRow[j].real();
+                imaginary[rowOffset + j] = complexRow[j].imaginary();
+            }
+        }
+        return new ComplexMatrixView(real, imaginary, 0, row, column, column, 1);
+    }
+
+    /**
+     * 复数视图拷贝为连续存储的复数矩阵 其他矩阵原样返回
+     * 只按ComplexMatrix判断复数的运算和求解在入口处调用
+     */
+    static Matrix contiguous(Matrix matrix) {
+        return matrix instanceof ComplexMatrixView view ? view.copy() : matrix;
+    }
+
+    /**
+     * 右侧是复数视图时 只有稠密矩阵和视图能直接按间隔读取 其他实现先拷贝
+     */
+    static Matrix operand(Matrix left, Matrix right) {
+        if (left instanceof SimpleMatrix || left instanceof ComplexMatrix
+                || left instanceof SimpleMatrixView || left instanceof ComplexMatrixView) {
+            return right;
+        }
+        return contiguous(right);
+    }
+
+    /**
+     * 拷贝为普通的复数矩阵
+     */
+    ComplexMatrix copy() {
+        double[] realArray = new double[row * column];
+        double[] imaginaryArray = new double[row * column];
+        MatrixExecutor.forRows(row, column, 1, (from, to) -> copyRows(from, to, realArray, imaginaryArray));
+        return new ComplexMatrix(row, column, realArray, imaginaryArray);
+    }
+
+    @Override
+    public Matrix doAdd(Matrix matrix) {
+        return copy().doAdd(matrix);
+    }
+
+    @Override
+    public Matrix doMinus(Matrix matrix) {
+        return copy().doMinus(matrix);
+    }
+
+    @Override
+    public Matrix multi(double input) {
+        return copy().multi(input);
+    }
+
+    @Override
+    public Matrix doMulti(ComplexNumber complexNumber) {
+        return copy().doMulti(complexNumber);
+    }
+
+    @Override
+    public Matrix doMulti(Matrix matrix) {
+        if (matrix instanceof DiagonalMatrix) {
+            return copy().doMulti(matrix);
+        }
+        return doGemm(1d, false, matrix, false, 0d, null);
+    }
+
+    /**
+     * 复数矩阵乘法拆成实数矩阵乘法
+     * (Ar + Ai * i) * (Br + Bi * i) = (Ar * Br - Ai * Bi) + (Ar * Bi + Ai * Br) * i
+     * 每一项都按间隔直接交给DoubleGemm计算
+     */
+    @Override
+    public Matrix doGemm(double alpha, boolean transpose, Matrix matrix, boolean matrixTranspose,
+                         double beta, Matrix addend) {
+        // 转置只交换行间隔和列间隔
+        int m = transpose ? column : row;
+        int k = transpose ? row : column;
+        int aRowStride = transpose ? columnStride : rowStride;
+        int aColumnStride = transpose ? rowStride : columnStride;
+
+        Matrix input = matrix.evaluate();
+        double[] inputReal;
+        double[] inputImaginary;
+        int inputOffset;
+        int inputRow;
+        int inputColumn;
+        int inputRowStride;
+        int inputColumnStride;
+        if (input instanceof SimpleMatrix || input instanceof SimpleMatrixView) {
+            // 右侧是浮点数矩阵时没有虚部
+            SimpleMatrixView view = SimpleMatrixView.of(input);
+            inputReal = view.numbers;
+            inputImaginary = null;
+            inputOffset = view.offset;
+            inputRow = view.row;
+            inputColumn = view.column;
+            inputRowStride = view.rowStride;
+            inputColumnStride = view.columnStride;
+        } else {
+            ComplexMatrixView view = of(input);
+            inputReal = view.real;
+            inputImaginary = view.imaginary;
+            inputOffset = view.offset;
+            inputRow = view.row;
+            inputColumn = view.column;
+            inputRowStride = view.rowStride;
+            inputColumnStride = view.columnStride;
+        }
+        int n = matrixTranspose ? inputRow : inputColumn;
+        int bRowStride = matrixTranspose ? inputColumnStride : inputRowStride;
+        int bColumnStride = matrixTranspose ? inputRowStride : inputColumnStride;
+
+        Matrix accumulate = beta == 0d ? null : addend.evaluate();
+        ComplexMatrixView complexAccumulate = accumulate instanceof ComplexMatrix
+                || accumulate instanceof ComplexMatrixView ? of(accumulate) : null;
+        SimpleMatrixView doubleAccumulate = accumulate != null && complexAccumulate == null
+                ? SimpleMatrixView.of(accumulate) : null;
+        double[] realArray = new double[m * n];
+        double[] imaginaryArray = new double[m * n];
+        MatrixExecutor.forRows(m, (long) k * n * 4, DoubleGemm.MR, (from, to) -> {
+            int rows = to - from;
+            int cOffset = from * n;
+            // 先把beta * C写入结果 再把乘积直接累加在上面
+            if (complexAccumulate != null) {
+                complexAccumulate.copyRows(from, to, realArray, imaginaryArray);
+                DoubleKernels.INSTANCE.scale(beta, imaginaryArray, cOffset, imaginaryArray, cOffset, rows * n);
+            } else if (doubleAccumulate != null) {
+                for (int i = from; i < to; i++) {
+                    doubleAccumulate.copyRow(i, realArray, i * n);
+                }
+            }
+            if (accumulate != null) {
+                DoubleKernels.INSTANCE.scale(beta, realArray, cOffset, realArray, cOffset, rows * n);
+            }
+            int aOffset = offset + from * aRowStride;
+            DoubleGemm.multiply(rows, n, k, alpha, real, aOffset, aRowStride, aColumnStride,
+                    inputReal, inputOffset, bRowStride, bColumnStride, realArray, cOffset, n);
+            DoubleGemm.multiply(rows, n, k, alpha, imaginary, aOffset, aRowStride, aColumnStride,
+                    inputReal, inputOffset, bRowStride, bColumnStride, imaginaryArray, cOffset, n);
+            if (inputImaginary != null) {
+                // 实部中的 - Ai * Bi 项用 -alpha 累加
+                DoubleGemm.multiply(rows, n, k, -alpha, imaginary, aOffset, aRowStride, aColumnStride,
+                        inputImaginary, inputOffset, bRowStride, bColumnStride, realArray, cOffset, n);
+                DoubleGemm.multiply(rows, n, k, alpha, real, aOffset, aRowStride, aColumnStride,
+                        inputImaginary, inputOffset, bRowStride, bColumnStride, imaginaryArray, cOffset, n);
+            }
+        });
+        return new ComplexMatrix(m, n, realArray, imaginaryArray);
+    }
+
+    /**
+     * 复数矩阵乘以浮点数向量的结果是复数 不能写入浮点数数组 multi会先拒绝复数矩阵
+     */
+    @Override
+    public void doMulti(double[] vector, double[] result) {
+        throw new IllegalArgumentException("complex matrix can't multiply into a double vector!");
+    }
+
+    @Override
+    public Matrix doHadamard(Matrix matrix) {
+        return copy().doHadamard(matrix);
+    }
+
+    /**
+     * 复数矩阵不支持延迟计算
+     */
+    @Override
+    public Matrix lazy() {
+        return this;
+    }
+
+    @Override
+    public Matrix transpose() {
+        return new ComplexMatrixView(real, imaginary, offset, column, row, columnStride, rowStride);
+    }
+
+    @Override
+    public Matrix doSubmatrix(int rowFrom, int rowTo, int columnFrom, int columnTo) {
+        return new ComplexMatrixView(real, imaginary, offset + rowFrom * rowStride + columnFrom * columnStride,
+                rowTo - rowFrom, columnTo - columnFrom, rowStride, columnStride);
+    }
+
+    @Override
+    public int getRow() {
+        return row;
+    }
+
+    @Override
+    public int getColumn() {
+        return column;
+    }
+
+    @Override
+    public double doGetDouble(int row, int column) {
+        return real[offset + row * rowStride + column * columnStride];
+    }
+
+    @Override
+    public ComplexNumber doGetComplex(int row, int column) {
+        int index = offset + row * rowStride + column * columnStride;
+        return new ComplexNumber(real[index], imaginary[index]);
+    }
+
+    @Override
+    public double[] doGetDoubleRow(int row) {
+        double[] result = new double[column];
+        for (int j = 0; j < column; j++) {
+            result[j] = doGetDouble(row, j);
+        }
+        return result;
+    }
+
+    @Override
+    public ComplexNumber[] doGetComplexRow(int row) {
+        ComplexNumber[] result = new ComplexNumber[column];
+        for (int j = 0; j < column; j++) {
+            result[j] = doGetComplex(row, j);
+        }
+        return result;
+    }
+
+    @Override
+    public double[] doGetDoubleColumn(int column) {
+        double[] result = new double[row];
+        for (int i = 0; i < row; i++) {
+            result[i] = doGetDouble(i, column);
+        }
+        return result;
+    }
+
+    @Override
+    public ComplexNumber[] doGetComplexColumn(int column) {
+        ComplexNumber[] result = new ComplexNumber[row];
+        for (int i = 0; i < row; i++) {
+            result[i] = doGetComplex(i, column);
+        }
+        return result;
+    }
+
+    @Override
+    public Determinant doToDeterminant() {
+        ComplexMatrix complexMatrix = copy();
+        return new ComplexDeterminant(row, complexMatrix.real, complexMatrix.imaginary);
+    }
+
+    /**
+     * 目前只支持浮点数矩阵的QR分解 qr()会先拒绝复数矩阵
+     */
+    @Override
+    public QRDecomposition doQr() {
+        throw new IllegalStateException("complex matrix doesn't support QR decomposition!");
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder stringBuilder = new StringBuilder();
+        for (int i = 0; i < row; i++) {
+            stringBuilder.append("| ");
+            for (int j = 0; j < column; j++) {
+                stringBuilder.append(doGetComplex(i, j)).append(" ");
+            }
+            stringBuilder.append("|\r\n");
+        }
+        return stringBuilder.toString();
+    }
+
+    /**
+     * 把[from, to)行的实部和虚部拷贝到行优先数组的对应位置
+     */
+    private void copyRows(int from, int to, double[] realArray, double[] imaginaryArray) {
+        for (int i = from; i < to; i++) {
+            int source = offset + i * rowStride;
+            int target = i * column;
+            for (int j = 0; j < column; j++) {
+                realArray[target + j] = real[source + j * columnStride];
+                imaginaryArray[target + j] = imaginary[source + j * columnStride];
+            }
+        }
+    }
+}
@@ -53,7 +53,8 @@ public class ComplexNumber implements Cloneable {
         if (input == null) {
             throw new IllegalArgumentException("input is null!");
         }
-        return new ComplexNumber(this.a * input.a - this.b * input.b, this.a * input.b + this.b * input.a);
+        return new ComplexNumber(ComplexAccumulator.multiReal(this.a, this.b, input.a, input.b),
+                ComplexAccumulator.multiImaginary(this.a, this.b, input.a, input.b));
     }
 
     /**
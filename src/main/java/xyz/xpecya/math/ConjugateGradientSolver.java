@@ -0,0 +1,53 @@
+package xyz.xpecya.math;
+
+/**
+ * 预条件共轭梯度法
+ * 要求系数矩阵和预条件子都对称正定
+ * 每次迭代一次矩阵向量乘法 一次预条件
+ */
+final class ConjugateGradientSolver extends AbstractIterativeSolver {
+
+    ConjugateGradientSolver(Matrix matrix) {
+        super(matrix);
+    }
+
+    @Override
+    IterativeResult iterate(double[] value, double[] x, double norm, double threshold,
+                            int maxIterations, Preconditioner preconditioner) {
+        double[] r = new double[length];
+        double[] z = new double[length];
+        double[] p = new double[length];
+        double[] q = new double[length];
+        residual(value, x, r);
+        double residualNorm = norm(r);
+        if (residualNorm <= threshold) {
+            return new IterativeResult(x, 0, residualNorm / norm, true);
+        }
+        preconditioner.apply(r, z);
+        System.arraycopy(z, 0, p, 0, length);
+        double rz = dot(r, z);
+        DoubleKernels kernels = DoubleKernels.INSTANCE;
+        for (int iteration = 1; iteration <= maxIterations; iteration++) {
+            matrix.doMulti(p, q);
+            double pq = dot(p, q);
+            if (pq == 0d) {
+                return new IterativeResult(x, iteration, residualNorm / norm, false);
+            }
+            double alpha = rz / pq;
+            axpy(alpha, p, x);
+            axpy(-alpha, q, r);
+            residualNorm = norm(r);
+            if (residualNorm <= threshold) {
+                return new IterativeResult(x, iteration, residualNorm / norm, true);
+            }
+            preconditioner.apply(r, z);
+            double next = dot(r, z);
+            double beta = next / rz;
+            rz = next;
+            // p = z + beta * p
+            kernels.scale(beta, p, 0, p, 0, length);
+            axpy(1d, z, p);
+        }
+        return new IterativeResult(x, maxIterations, residualNorm / norm, false);
+    }
+}
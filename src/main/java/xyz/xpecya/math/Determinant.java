@@ -1,5 +1,7 @@
 package xyz.xpecya.math;
 
+import java.util.Arrays;
+
 /**
  * 行列式
  * 不可变对象，所有运算都不会影响原行列式的元素
@@ -17,13 +19,9 @@ public interface Determinant extends Matrix {
         if (length < 2) {
             throw new IllegalArgumentException("length can't be less than 2! got " + length);
         }
-        double[][] numberArrays = new double[length][length];
-        for (int i = 0; i < length; i++) {
-            for (int j = 0; j < length; j++) {
-                numberArrays[i][j] = initValue;
-            }
-        }
-        return new SimpleDeterminant(numberArrays);
+        double[] numbers = new double[length * length];
+        Arrays.fill(numbers, initValue);
+        return new SimpleDeterminant(length, numbers);
     }
 
     /**
@@ -40,13 +38,11 @@ public interface Determinant extends Matrix {
         if (initValue == null) {
             throw new IllegalArgumentException("initValue can't be null!");
         }
-        ComplexNumber[][] numberArrays = new ComplexNumber[length][length];
-        for (int i = 0; i < length; i++) {
-            for (int j = 0; j < length; j++) {
-                numberArrays[i][j] = initValue.clone();
-            }
-        }
-        return new ComplexDeterminant(numberArrays);
+        double[] real = new double[length * length];
+        double[] imaginary = new double[length * length];
+        Arrays.fill(real, initValue.real());
+        Arrays.fill(imaginary, initValue.imaginary());
+        return new ComplexDeterminant(length, real, imaginary);
     }
 
     /**
@@ -71,16 +67,16 @@ public interface Determinant extends Matrix {
         if (length < 2) {
             throw new IllegalArgumentException("numberArray's length can't be less than 2! got " + length);
         }
-        double[][] newArray = new double[length][length];
+        double[] newArray = new double[length * length];
 
-        for (int i = 0; i < length; i++) {
+        for (int i = 0; i < numberArrays.length; i++) {
             double[] doubleArray = numberArrays[i];
             if (doubleArray == null) {
                 continue;
             }
-            System.arraycopy(numberArrays[i], 0, newArray[i], 0, doubleArray.length);
+            System.arraycopy(doubleArray, 0, newArray, i * length, doubleArray.length);
         }
-        return new SimpleDeterminant(newArray);
+        return new SimpleDeterminant(length, newArray);
     }
 
     /**
@@ -105,27 +101,24 @@ public interface Determinant extends Matrix {
         if (length < 2) {
             throw new IllegalArgumentException("numberArray's length can't be less than 2! got " + length);
         }
-        ComplexNumber[][] newArray = new ComplexNumber[length][length];
+        double[] real = new double[length * length];
+        double[] imaginary = new double[length * length];
 
-        for (int i = 0; i < length; i++) {
+        for (int i = 0; i < numberArrays.length; i++) {
             ComplexNumber[] complexNumberArray = numberArrays[i];
             if (complexNumberArray == null) {
                 continue;
             }
-            for (int j = 0; j < length; j++) {
-                if (j < complexNumberArray.length) {
-                    ComplexNumber complexNumber = complexNumberArray[j];
-                    if (complexNumber == null) {
-                        newArray[i][j] = new ComplexNumber();
-                    } else {
-                        newArray[i][j] = complexNumber.clone();
-                    }
-                } else {
-                    newArray[i][j] = new ComplexNumber();
+            // 缺失的元素和null元素保持为0
+            for (int j = 0; j < complexNumberArray.length; j++) {
+                ComplexNumber complexNumber = complexNumberArray[j];
+                if (complexNumber != null) {
+                    real[i * length + j] = complexNumber.real();
+                    imaginary[i * length + j] = complexNumber.imaginary();
                 }
             }
         }
-        return new ComplexDeterminant(newArray);
+        return new ComplexDeterminant(length, real, imaginary);
     }
 
     /**
@@ -140,6 +133,13 @@ public interface Determinant extends Matrix {
      */
     ComplexNumber calculateComplex();
 
+    /**
+     * 计算行列式绝对值(复数行列式为模)的自然对数
+     * 大型行列式的值很容易超出浮点数范围 对数形式不会溢出
+     * 行列式为0时返回负无穷
+     */
+    double logDeterminant();
+
     /**
      * 求解形如Ax=B的线性方程组
      * 其中A为当前行列式
@@ -159,12 +159,14 @@ public interface Determinant extends Matrix {
             throw new IllegalArgumentException("value's length = " + valueLength
                     + ", determinant's length = " + length);
         }
-        if (!solveDoubleResultExists(value)) {
-            return null;
-        }
         return doSolve(value);
     }
 
+    /**
+     * 入参已经检查过
+     * 先做一次LU分解 之后每个常数项只需要O(n^2)的前代和回代
+     * 分解出现为0的主元时 通过比较系数矩阵和增广矩阵的秩判断解是否存在
+     */
     double[] doSolve(double[] value);
 
     /**
@@ -192,14 +194,55 @@ public interface Determinant extends Matrix {
                 throw new IllegalArgumentException("value[" + i + "] is null!");
             }
         }
-        if (!solveComplexResultExists(value)) {
-            return null;
-        }
         return doSolve(value);
     }
 
     ComplexNumber[] doSolve(ComplexNumber[] value);
 
+    /**
+     * 求解形如AX=B的线性方程组
+     * 其中A为当前行列式
+     * B为行数等于行列式边长的矩阵 每一列是一个常数项
+     * 如果任意一列无解 返回null
+     * 如果有无数多个解，返回其中一组
+     *
+     * @return 线性方程组的解 每一列对应B的一列
+     */
+    default Matrix solve(Matrix value) {
+        if (value == null) {
+            throw new IllegalArgumentException("value is null!");
+        }
+        int length = getLength();
+        int valueRow = value.getRow();
+        if (valueRow != length) {
+            throw new IllegalArgumentException("value's row = " + valueRow
+                    + ", determinant's length = " + length);
+        }
+        return doSolve(ComplexMatrixView.contiguous(value));
+    }
+
+    /**
+     * 以指定的执行策略求解AX=B 并行时按列块拆分
+     *
+     * @param policy 执行策略
+     */
+    default Matrix solve(Matrix value, ExecutionPolicy policy) {
+        return MatrixExecutor.call(policy, () -> solve(value));
+    }
+
+    /**
+     * 入参已经检查过
+     * 只分解一次 所有列一起做分块三角求解
+     */
+    Matrix doSolve(Matrix value);
+
+    /**
+     * 分解当前行列式 返回可以反复使用的求解器
+     * 分解只在第一次调用时进行 之后的调用返回同一个结果
+     * 求解器不可变 可以在多个线程之间共享
+     */
+    LinearSolver factor();
+
     /**
      * 将当前行列式转换成运算结果相同的三角行列式
      */
@@ -214,15 +257,4 @@ public interface Determinant extends Matrix {
      * 获取行列式的边长
      */
     int getLength();
-
-    // 判断线性方程组的解是否存在
-    // 通过方程组矩阵和增广矩阵的轶进行比较
-
-    private boolean solveDoubleResultExists(double[] doubles) {
-        return false;
-    }
-
-    private boolean solveComplexResultExists(ComplexNumber[] complexNumbers) {
-        return false;
-    }
 }
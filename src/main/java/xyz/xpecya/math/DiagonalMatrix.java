@@ -0,0 +1,470 @@
+package xyz.xpecya.math;
+
+import java.util.Arrays;
+
+/**
+ * 对角方阵 只保存对角线上的n个元素
+ *
+ * 行列式是对角线之积 求解是逐个元素相除 都是O(n)
+ * 左乘和右乘其他矩阵分别是按行和按列缩放 结果保持右侧矩阵的结构
+ */
+public class DiagonalMatrix implements Determinant {
+
+    protected final int length;
+
+    protected final double[] diagonal;
+
+    /**
+     * 求解器
+     */
+    private LinearSolver solver;
+
+    DiagonalMatrix(double[] diagonal) {
+        this.length = diagonal.length;
+        this.diagonal = diagonal;
+    }
+
+    /**
+     * 用对角线创建对角矩阵
+     * 对源数组的修改不会导致矩阵值的修改
+     *
+     * @param diagonal 对角线
+     */
+    public static DiagonalMatrix create(double[] diagonal) {
+        if (diagonal == null) {
+            throw new IllegalArgumentException("diagonal is null!");
+        }
+        if (diagonal.length < 1) {
+            throw new IllegalArgumentException("diagonal's length can't be less than 1! got " + diagonal.length);
+        }
+        return new DiagonalMatrix(diagonal.clone());
+    }
+
+    /**
+     * 获取对角线
+     */
+    public double[] getDiagonal() {
+        return diagonal.clone();
+    }
+
+    /**
+     * 转换为稠密矩阵
+     */
+    public Matrix toDense() {
+        double[] numberArray = new double[length * length];
+        for (int i = 0; i < length; i++) {
+            numberArray[i * length + i] = diagonal[i];
+        }
+        return new SimpleMatrix(length, length, numberArray);
+    }
+
+    /**
+     * 和对角矩阵相加结果仍是对角矩阵 和三角矩阵 带状矩阵相加时保持对方的结构
+     * 和其他矩阵相加只需要在拷贝上修改对角线
+     */
+    @Override
+    public Matrix doAdd(Matrix matrix) {
+        if (matrix instanceof DiagonalMatrix diagonalMatrix) {
+            double[] diagonalArray = new double[length];
+            DoubleKernels.INSTANCE.add(diagonal, 0, diagonalMatrix.diagonal, 0, diagonalArray, 0, length);
+            return new DiagonalMatrix(diagonalArray);
+        }
+        if (matrix instanceof TriangularMatrix || matrix instanceof BandedMatrix
+                || MatrixSupport.isComplex(matrix)) {
+            return matrix.doAdd(this);
+        }
+        double[] numberArray = MatrixSupport.denseArray(matrix);
+        for (int i = 0; i < length; i++) {
+            numberArray[i * length + i] += diagonal[i];
+        }
+        return new SimpleMatrix(length, length, numberArray);
+    }
+
+    @Override
+    public Matrix doMinus(Matrix matrix) {
+        if (matrix instanceof DiagonalMatrix diagonalMatrix) {
+            double[] diagonalArray = new double[length];
+            DoubleKernels.INSTANCE.minus(diagonal, 0, diagonalMatrix.diagonal, 0, diagonalArray, 0, length);
+            return new DiagonalMatrix(diagonalArray);
+        }
+        if (matrix instanceof TriangularMatrix || matrix instanceof BandedMatrix
+                || MatrixSupport.isComplex(matrix)) {
+            return matrix.multi(-1d).doAdd(this);
+        }
+        double[] numberArray = MatrixSupport.denseArray(matrix);
+        DoubleKernels.INSTANCE.scale(-1d, numberArray, 0, numberArray, 0, numberArray.length);
+        for (int i = 0; i < length; i++) {
+            numberArray[i * length + i] += diagonal[i];
+        }
+        return new SimpleMatrix(length, length, numberArray);
+    }
+
+    @Override
+    public Matrix multi(double input) {
+        double[] diagonalArray = new double[length];
+        DoubleKernels.INSTANCE.scale(input, diagonal, 0, diagonalArray, 0, length);
+        return new DiagonalMatrix(diagonalArray);
+    }
+
+    @Override
+    public Matrix doMulti(ComplexNumber complexNumber) {
+        return MatrixSupport.multi(this, complexNumber);
+    }
+
+    /**
+     * 左乘对角矩阵即按行缩放 O(非零元素个数)
+     * 稀疏 带状和三角矩阵缩放后保持原来的结构
+     */
+    @Override
+    public Matrix doMulti(Matrix matrix) {
+        if (matrix instanceof DiagonalMatrix diagonalMatrix) {
+            return diagonalMatrix.leftMulti(this);
+        }
+        if (matrix instanceof TriangularMatrix triangularMatrix) {
+            return triangularMatrix.scaleRows(diagonal);
+        }
+        if (matrix instanceof BandedMatrix bandedMatrix) {
+            return bandedMatrix.scaleRows(diagonal);
+        }
+        if (matrix instanceof SparseMatrix sparseMatrix) {
+            return sparseMatrix.scaleRows(diagonal);
+        }
+        if (matrix instanceof ComplexMatrixView view) {
+            // 复数视图先拷贝成连续存储
+            return doMulti(view.copy());
+        }
+        int inputColumn = matrix.getColumn();
+        DoubleKernels kernels = DoubleKernels.INSTANCE;
+        if (matrix instanceof ComplexMatrix complexMatrix) {
+            double[] realArray = new double[length * inputColumn];
+            double[] imaginaryArray = new double[length * inputColumn];
+            MatrixExecutor.forRows(length, inputColumn * 2L, 1, (from, to) -> {
+                for (int i = from; i < to; i++) {
+                    int offset = i * inputColumn;
+                    kernels.scale(diagonal[i], complexMatrix.real, offset, realArray, offset, inputColumn);
+                    kernels.scale(diagonal[i], complexMatrix.imaginary, offset, imaginaryArray, offset, inputColumn);
+                }
+            });
+            return new ComplexMatrix(length, inputColumn, realArray, imaginaryArray);
+        }
+        double[] numberArray = MatrixSupport.denseArray(matrix);
+        MatrixExecutor.forRows(length, inputColumn, 1, (from, to) -> {
+            for (int i = from; i < to; i++) {
+                int offset = i * inputColumn;
+                kernels.scale(diagonal[i], numberArray, offset, numberArray, offset, inputColumn);
+            }
+        });
+        return new SimpleMatrix(length, inputColumn, numberArray);
+    }
+
+    @Override
+    public void doMulti(double[] vector, double[] result) {
+        DoubleKernels.INSTANCE.multiply(diagonal, 0, vector, 0, result, 0, length);
+    }
+
+    /**
+     * 只有对角线可能非零 结果为对角矩阵
+     */
+    @Override
+    public Matrix doHadamard(Matrix matrix) {
+        if (MatrixSupport.isComplex(matrix)) {
+            return ComplexMatrixView.contiguous(matrix).doHadamard(this);
+        }
+        double[] diagonalArray = new double[length];
+        for (int i = 0; i < length; i++) {
+            diagonalArray[i] = diagonal[i] * matrix.doGetDouble(i, i);
+        }
+        return new DiagonalMatrix(diagonalArray);
+    }
+
+    /**
+     * 对角矩阵转置后不变
+     */
+    @Override
+    public Matrix transpose() {
+        return this;
+    }
+
+    @Override
+    public int getRow() {
+        return length;
+    }
+
+    @Override
+    public int getColumn() {
+        return length;
+    }
+
+    @Override
+    public double doGetDouble(int row, int column) {
+        return row == column ? diagonal[row] : 0d;
+    }
+
+    @Override
+    public double[] doGetDoubleRow(int row) {
+        double[] result = new double[length];
+        result[row] = diagonal[row];
+        return result;
+    }
+
+    @Override
+    public ComplexNumber[] doGetComplexRow(int row) {
+        ComplexNumber[] result = new ComplexNumber[length];
+        Arrays.fill(result, new ComplexNumber(0d));
+        result[row] = new ComplexNumber(diagonal[row]);
+        return result;
+    }
+
+    @Override
+    public double[] doGetDoubleColumn(int column) {
+        return doGetDoubleRow(column);
+    }
+
+    @Override
+    public ComplexNumber[] doGetComplexColumn(int column) {
+        return doGetComplexRow(column);
+    }
+
+    /**
+     * 对角矩阵本身就是行列式
+     */
+    @Override
+    public Determinant doToDeterminant() {
+        return this;
+    }
+
+    @Override
+    public QRDecomposition doQr() {
+        return toDense().qr();
+    }
+
+    @Override
+    public ComplexNumber doGetComplex(int row, int column) {
+        return new ComplexNumber(doGetDouble(row, column));
+    }
+
+    /**
+     * 对角线之积 O(n)
+     */
+    @Override
+    public double calculateDouble() {
+        double result = 1d;
+        for (int i = 0; i < length; i++) {
+            result = result * diagonal[i];
+        }
+        return result;
+    }
+
+    @Override
+    public ComplexNumber calculateComplex() {
+        return new ComplexNumber(calculateDouble());
+    }
+
+    @Override
+    public double logDeterminant() {
+        double result = 0d;
+        for (int i = 0; i < length; i++) {
+            result += Math.log(Math.abs(diagonal[i]));
+        }
+        return result;
+    }
+
+    /**
+     * 对角线上为0的位置 常数项也为0时取0 否则无解
+     */
+    @Override
+    public double[] doSolve(double[] value) {
+        double[] result = new double[length];
+        for (int i = 0; i < length; i++) {
+            if (diagonal[i] != 0d) {
+                result[i] = value[i] / diagonal[i];
+            } else if (value[i] != 0d) {
+                return null;
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public ComplexNumber[] doSolve(ComplexNumber[] value) {
+        ComplexNumber[] result = new ComplexNumber[length];
+        for (int i = 0; i < length; i++) {
+            ComplexNumber item = value[i];
+            if (diagonal[i] != 0d) {
+                result[i] = new ComplexNumber(item.real() / diagonal[i], item.imaginary() / diagonal[i]);
+            } else if (item.real() != 0d || item.imaginary() != 0d) {
+                return null;
+            } else {
+                result[i] = new ComplexNumber(0d);
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public Matrix doSolve(Matrix value) {
+        int width = value.getColumn();
+        for (int i = 0; i < length; i++) {
+            if (diagonal[i] != 0d) {
+                continue;
+            }
+            for (int j = 0; j < width; j++) {
+                ComplexNumber item = value.doGetComplex(i, j);
+                if (item.real() != 0d || item.imaginary() != 0d) {
+                    return null;
+                }
+            }
+        }
+        double[] inverse = new double[length];
+        for (int i = 0; i < length; i++) {
+            inverse[i] = diagonal[i] == 0d ? 0d : 1d / diagonal[i];
+        }
+        return new DiagonalMatrix(inverse).doMulti(value);
+    }
+
+    /**
+     * 对角矩阵不需要分解
+     */
+    @Override
+    public LinearSolver factor() {
+        LinearSolver solver = this.solver;
+        if (solver == null) {
+            solver = new Division();
+            this.solver = solver;
+        }
+        return solver;
+    }
+
+    /**
+     * 本身就是三角矩阵
+     */
+    @Override
+    public Determinant triangle() {
+        return this;
+    }
+
+    @Override
+    public Determinant diagonal() {
+        return this;
+    }
+
+    @Override
+    public int getLength() {
+        return length;
+    }
+
+    @Override
+    public String toString() {
+        return MatrixSupport.toString(this);
+    }
+
+    /**
+     * 计算 left * 当前矩阵 即按列缩放left
+     */
+    Matrix leftMulti(Matrix left) {
+        if (left instanceof DiagonalMatrix diagonalMatrix) {
+            double[] diagonalArray = new double[length];
+            DoubleKernels.INSTANCE.multiply(diagonalMatrix.diagonal, 0, diagonal, 0, diagonalArray, 0, length);
+            return new DiagonalMatrix(diagonalArray);
+        }
+        if (left instanceof TriangularMatrix triangularMatrix) {
+            return triangularMatrix.scaleColumns(diagonal);
+        }
+        if (left instanceof BandedMatrix bandedMatrix) {
+            return bandedMatrix.scaleColumns(diagonal);
+        }
+        if (left instanceof SparseMatrix sparseMatrix) {
+            return sparseMatrix.scaleColumns(diagonal);
+        }
+        int leftRow = left.getRow();
+        DoubleKernels kernels = DoubleKernels.INSTANCE;
+        if (left instanceof ComplexMatrix complexMatrix) {
+            double[] realArray = new double[leftRow * length];
+            double[] imaginaryArray = new double[leftRow * length];
+            MatrixExecutor.forRows(leftRow, length * 2L, 1, (from, to) -> {
+                for (int i = from; i < to; i++) {
+                    int offset = i * length;
+                    kernels.multiply(complexMatrix.real, offset, diagonal, 0, realArray, offset, length);
+                    kernels.multiply(complexMatrix.imaginary, offset, diagonal, 0, imaginaryArray, offset, length);
+                }
+            });
+            return new ComplexMatrix(leftRow, length, realArray, imaginaryArray);
+        }
+        double[] numberArray = MatrixSupport.denseArray(left);
+        MatrixExecutor.forRows(leftRow, length, 1, (from, to) -> {
+            for (int i = from; i < to; i++) {
+                int offset = i * length;
+                kernels.multiply(numberArray, offset, diagonal, 0, numberArray, offset, length);
+            }
+        });
+        return new SimpleMatrix(leftRow, length, numberArray);
+    }
+
+    /**
+     * 逐个元素相除
+     */
+    private final class Division implements LinearSolver {
+
+        private final boolean singular;
+
+        private Division() {
+            boolean singular = false;
+            for (int i = 0; i < length; i++) {
+                if (diagonal[i] == 0d) {
+                    singular = true;
+                    break;
+                }
+            }
+            this.singular = singular;
+        }
+
+        @Override
+        public int getLength() {
+            return length;
+        }
+
+        @Override
+        public boolean isSingular() {
+            return singular;
+        }
+
+        @Override
+        public double[] solve(double[] value, double[] result) {
+            MatrixSupport.checkSolve(length, value == null ? -1 : value.length,
+                    result == null ? -1 : result.length, singular);
+            for (int i = 0; i < length; i++) {
+                result[i] = value[i] / diagonal[i];
+            }
+            return result;
+        }
+
+        @Override
+        public ComplexNumber[] solve(ComplexNumber[] value, ComplexNumber[] result) {
+            MatrixSupport.checkSolve(length, value == null ? -1 : value.length,
+                    result == null ? -1 : result.length, singular);
+            for (int i = 0; i < length; i++) {
+                ComplexNumber item = value[i];
+                if (item == null) {
+                    throw new IllegalArgumentException("value[" + i + "] is null!");
+                }
+                result[i] = new ComplexNumber(item.real() / diagonal[i], item.imaginary() / diagonal[i]);
+            }
+            return result;
+        }
+
+        @Override
+        public Matrix solve(Matrix value) {
+            if (value == null) {
+                throw new IllegalArgumentException("value is null!");
+            }
+            if (value.getRow() != length) {
+                throw new IllegalArgumentException("value's row = " + value.getRow()
+                        + ", determinant's length = " + length);
+            }
+            if (singular) {
+                throw new IllegalStateException("matrix is singular!");
+            }
+            return doSolve(ComplexMatrixView.contiguous(value));
+        }
+    }
+}
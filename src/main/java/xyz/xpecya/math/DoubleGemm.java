@@ -0,0 +1,209 @@
+package xyz.xpecya.math;
+
+/**
+ * 浮点数矩阵乘法内核
+ * 计算 C += A * B
+ * A和B都以 数组 + 起始下标 + 行间隔 + 列间隔 的形式传入 C必须是行优先存储
+ *
+ * 较大的矩阵按块计算：
+ * 每次把B的一块 KC * NC 打包成按NR列一组的连续内存
+ * 再把A的一块 MC * KC 打包成按MR行一组的连续内存
+ * 最后用 MR * NR 的寄存器分块内核在两块打包数据上计算
+ * 寄存器分块内核由DoubleKernels提供 可能是标量实现也可能是向量实现
+ */
+final class DoubleGemm {
+
+    /**
+     * 寄存器分块的行数
+     */
+    static final int MR = 4;
+
+    /**
+     * 寄存器分块的列数
+     */
+    static final int NR = 4;
+
+    /**
+     * A打包块的行数 MC * KC 的打包块应当能放进L2缓存
+     */
+    static final int MC = 128;
+
+    /**
+     * A打包块的列数 同时也是B打包块的行数
+     */
+    static final int KC = 256;
+
+    /**
+     * B打包块的列数 KC * NC 的打包块应当能放进L3缓存
+     */
+    static final int NC = 1024;
+
+    /**
+     * 乘加次数小于这个值时打包的开销大于收益 直接使用i-k-j循环
+     */
+    private static final long SMALL_THRESHOLD = 64L * 64 * 64;
+
+    /**
+     * 每个线程复用的打包缓冲区 按行块并行时每个任务不需要重新分配
+     * multiply中不会再调用multiply 同一线程上不会有两次计算同时使用缓冲区
+     */
+    private static final ThreadLocal<double[]> A_PACK = new ThreadLocal<>();
+
+    private static final ThreadLocal<double[]> B_PACK = new ThreadLocal<>();
+
+    private DoubleGemm() {
+    }
+
+    /**
+     * 计算 C += A * B
+     *
+     * @param m A的行数 也是C的行数
+     * @param n B的列数 也是C的列数
+     * @param k A的列数 也是B的行数
+     */
+    static void multiply(int m, int n, int k,
+                         double[] a, int aOffset, int aRowStride, int aColumnStride,
+                         double[] b, int bOffset, int bRowStride, int bColumnStride,
+                         double[] c, int cOffset, int cRowStride) {
+        multiply(m, n, k, 1d, a, aOffset, aRowStride, aColumnStride,
+                b, bOffset, bRowStride, bColumnStride, c, cOffset, cRowStride);
+    }
+
+    /**
+     * 计算 C += alpha * A * B
+     * alpha在打包A时乘入 不需要额外遍历C
+     *
+     * @param m A的行数 也是C的行数
+     * @param n B的列数 也是C的列数
+     * @param k A的列数 也是B的行数
+     */
+    static void multiply(int m, int n, int k, double alpha,
+                         double[] a, int aOffset, int aRowStride, int aColumnStride,
+                         double[] b, int bOffset, int bRowStride, int bColumnStride,
+                         double[] c, int cOffset, int cRowStride) {
+        if (m == 0 || n == 0 || k == 0 || alpha == 0d) {
+            return;
+        }
+        if ((long) m * n * k < SMALL_THRESHOLD) {
+            simpleMultiply(m, n, k, alpha, a, aOffset, aRowStride, aColumnStride,
+                    b, bOffset, bRowStride, bColumnStride, c, cOffset, cRowStride);
+            return;
+        }
+        int ncMax = Math.min(NC, roundUp(n, NR));
+        int kcMax = Math.min(KC, k);
+        int mcMax = Math.min(MC, roundUp(m, MR));
+        double[] bPack = pack(B_PACK, kcMax * ncMax, KC * NC);
+        double[] aPack = pack(A_PACK, mcMax * kcMax, MC * KC);
+        for (int jc = 0; jc < n; jc += NC) {
+            int nc = Math.min(NC, n - jc);
+            for (int pc = 0; pc < k; pc += KC) {
+                int kc = Math.min(KC, k - pc);
+                packB(kc, nc, b, bOffset + pc * bRowStride + jc * bColumnStride, bRowStride, bColumnStride, bPack);
+                for (int ic = 0; ic < m; ic += MC) {
+                    int mc = Math.min(MC, m - ic);
+                    packA(mc, kc, alpha, a, aOffset + ic * aRowStride + pc * aColumnStride,
+                            aRowStride, aColumnStride, aPack);
+                    macroKernel(mc, nc, kc, aPack, bPack, c, cOffset + ic * cRowStride + jc, cRowStride);
+                }
+            }
+        }
+    }
+
+    /**
+     * 把A的 mc * kc 块乘以alpha后打包成按MR行一组的连续内存
+     * 每组内按列优先存放 不足MR行的部分补0
+     */
+    private static void packA(int mc, int kc, double alpha, double[] a, int offset, int rowStride, int columnStride,
+                              double[] aPack) {
+        int index = 0;
+        for (int ir = 0; ir < mc; ir += MR) {
+            int mr = Math.min(MR, mc - ir);
+            int rowOffset = offset + ir * rowStride;
+            for (int p = 0; p < kc; p++) {
+                int source = rowOffset + p * columnStride;
+                for (int i = 0; i < mr; i++) {
+                    aPack[index++] = alpha * a[source + i * rowStride];
+                }
+                for (int i = mr; i < MR; i++) {
+                    aPack[index++] = 0d;
+                }
+            }
+        }
+    }
+
+    /**
+     * 把B的 kc * nc 块打包成按NR列一组的连续内存
+     * 每组内按行优先存放 不足NR列的部分补0
+     */
+    private static void packB(int kc, int nc, double[] b, int offset, int rowStride, int columnStride, double[] bPack) {
+        int index = 0;
+        for (int jr = 0; jr < nc; jr += NR) {
+            int nr = Math.min(NR, nc - jr);
+            int columnOffset = offset + jr * columnStride;
+            for (int p = 0; p < kc; p++) {
+                int source = columnOffset + p * rowStride;
+                for (int j = 0; j < nr; j++) {
+                    bPack[index++] = b[source + j * columnStride];
+                }
+                for (int j = nr; j < NR; j++) {
+                    bPack[index++] = 0d;
+                }
+            }
+        }
+    }
+
+    private static void macroKernel(int mc, int nc, int kc, double[] aPack, double[] bPack,
+                                    double[] c, int cOffset, int cRowStride) {
+        DoubleKernels kernels = DoubleKernels.INSTANCE;
+        for (int jr = 0; jr < nc; jr += NR) {
+            int nr = Math.min(NR, nc - jr);
+            int bIndex = jr * kc;
+            for (int ir = 0; ir < mc; ir += MR) {
+                int mr = Math.min(MR, mc - ir);
+                int aIndex = ir * kc;
+                kernels.microKernel(kc, aPack, aIndex, bPack, bIndex, c, cOffset + ir * cRowStride + jr, cRowStride, mr, nr);
+            }
+        }
+    }
+
+    /**
+     * 小矩阵直接使用i-k-j循环
+     */
+    private static void simpleMultiply(int m, int n, int k, double alpha,
+                                       double[] a, int aOffset, int aRowStride, int aColumnStride,
+                                       double[] b, int bOffset, int bRowStride, int bColumnStride,
+                                       double[] c, int cOffset, int cRowStride) {
+        DoubleKernels kernels = DoubleKernels.INSTANCE;
+        for (int i = 0; i < m; i++) {
+            int aRow = aOffset + i * aRowStride;
+            int cRow = cOffset + i * cRowStride;
+            for (int p = 0; p < k; p++) {
+                double aNumber = alpha * a[aRow + p * aColumnStride];
+                int bRow = bOffset + p * bRowStride;
+                if (bColumnStride == 1) {
+                    kernels.axpy(aNumber, b, bRow, c, cRow, n);
+                    continue;
+                }
+                for (int j = 0; j < n; j++) {
+                    c[cRow + j] += aNumber * b[bRow + j * bColumnStride];
+                }
+            }
+        }
+    }
+
+    /**
+     * 获取当前线程至少为length的打包缓冲区 不够时按最大块的大小重新分配
+     */
+    private static double[] pack(ThreadLocal<double[]> local, int length, int maxLength) {
+        double[] pack = local.get();
+        if (pack == null || pack.length < length) {
+            pack = new double[maxLength];
+            local.set(pack);
+        }
+        return pack;
+    }
+
+    private static int roundUp(int value, int unit) {
+        return (value + unit - 1) / unit * unit;
+    }
+}
@@ -0,0 +1,75 @@
+package xyz.xpecya.math;
+
+/**
+ * 浮点数组上的基础计算内核
+ * 默认使用标量实现
+ * 如果编译时启用了vector profile 且运行时通过 --add-modules jdk.incubator.vector 加载了向量模块
+ * 则使用基于DoubleVector的实现
+ */
+interface DoubleKernels {
+
+    /**
+     * 向量实现的类名 只有在vector profile下才会被编译
+     */
+    String VECTOR_KERNELS = "xyz.xpecya.math.VectorDoubleKernels";
+
+    /**
+     * 当前使用的内核实现
+     */
+    DoubleKernels INSTANCE = load();
+
+    /**
+     * z = x + y
+     */
+    void add(double[] x, int xOffset, double[] y, int yOffset, double[] z, int zOffset, int length);
+
+    /**
+     * z = x - y
+     */
+    void minus(double[] x, int xOffset, double[] y, int yOffset, double[] z, int zOffset, int length);
+
+    /**
+     * z = x * y 逐元素相乘
+     */
+    void multiply(double[] x, int xOffset, double[] y, int yOffset, double[] z, int zOffset, int length);
+
+    /**
+     * z = alpha * x
+     */
+    void scale(double alpha, double[] x, int xOffset, double[] z, int zOffset, int length);
+
+    /**
+     * y = y + alpha * x
+     */
+    void axpy(double alpha, double[] x, int xOffset, double[] y, int yOffset, int length);
+
+    /**
+     * x和y的内积
+     */
+    double dot(double[] x, int xOffset, double[] y, int yOffset, int length);
+
+    /**
+     * DoubleGemm的 MR * NR 寄存器分块内核
+     * 在打包好的A和B上计算 kc 次乘加 并把结果累加到C的 mr * nr 有效区域中
+     */
+    void microKernel(int kc, double[] aPack, int aIndex, double[] bPack, int bIndex,
+                     double[] c, int cOffset, int cRowStride, int mr, int nr);
+
+    /**
+     * 当前使用的是否是向量实现
+     */
+    boolean vectorized();
+
+    private static DoubleKernels load() {
+        try {
+            Class<?> kernelsClass = Class.forName(VECTOR_KERNELS);
+            DoubleKernels kernels = (DoubleKernels) kernelsClass.getDeclaredConstructor().newInstance();
+            if (kernels.vectorized()) {
+                return kernels;
+            }
+        } catch (ReflectiveOperationException | LinkageError | RuntimeException e) {
+            // 没有编译向量实现 或者运行时没有加载jdk.incubator.vector模块
+        }
+        return new ScalarDoubleKernels();
+    }
+}
@@ -0,0 +1,193 @@
+package xyz.xpecya.math;
+
+/**
+ * Strassen-Winograd 方阵乘法
+ * 计算 C = A * B 每一层只做7次边长减半的乘法和15次加减法
+ * 边长不大于阈值时改用DoubleGemm分块乘法
+ * 奇数边长时剥离最后一行一列 剩余的偶数部分继续递归 剥离部分用矩阵-向量乘法补齐
+ */
+final class DoubleStrassen {
+
+    /**
+     * 递归阈值 0表示不使用Strassen乘法
+     */
+    private static volatile int cutoff = 0;
+
+    private DoubleStrassen() {
+    }
+
+    static int getCutoff() {
+        return cutoff;
+    }
+
+    static void setCutoff(int cutoff) {
+        if (cutoff < 0) {
+            throw new IllegalArgumentException("cutoff cannot less than 0! got " + cutoff);
+        }
+        DoubleStrassen.cutoff = cutoff;
+    }
+
+    /**
+     * 判断边长为n的方阵乘法是否应该走Strassen乘法
+     */
+    static boolean accept(int n) {
+        int current = cutoff;
+        return current > 0 && n > current;
+    }
+
+    /**
+     * 计算 C = A * B 三个矩阵都是行优先存储的n阶方阵
+     */
+    static void multiply(int n,
+                         double[] a, int aOffset, int aStride,
+                         double[] b, int bOffset, int bStride,
+                         double[] c, int cOffset, int cStride) {
+        multiply(n, Math.max(cutoff, 1), a, aOffset, aStride, b, bOffset, bStride, c, cOffset, cStride);
+    }
+
+    private static void multiply(int n, int cutoff,
+                                 double[] a, int aOffset, int aStride,
+                                 double[] b, int bOffset, int bStride,
+                                 double[] c, int cOffset, int cStride) {
+        if (n <= cutoff) {
+            classic(n, n, n, a, aOffset, aStride, b, bOffset, bStride, c, cOffset, cStride);
+            return;
+        }
+        if ((n & 1) == 1) {
+            peel(n, cutoff, a, aOffset, aStride, b, bOffset, bStride, c, cOffset, cStride);
+            return;
+        }
+
+        int h = n / 2;
+        int a11 = aOffset;
+        int a12 = aOffset + h;
+        int a21 = aOffset + h * aStride;
+        int a22 = a21 + h;
+        int b11 = bOffset;
+        int b12 = bOffset + h;
+        int b21 = bOffset + h * bStride;
+        int b22 = b21 + h;
+        int c11 = cOffset;
+        int c12 = cOffset + h;
+        int c21 = cOffset + h * cStride;
+        int c22 = c21 + h;
+
+        // 临时块都是 h * h 的连续内存
+        int size = h * h;
+        double[] x = new double[size];
+        double[] sa = new double[size];
+        double[] ta = new double[size];
+        double[] sb = new double[size];
+        double[] tb = new double[size];
+
+        // P1 = A11 * B11
+        multiply(h, cutoff, a, a11, aStride, b, b11, bStride, x, 0, h);
+        // C11 = P2 + P1 其中 P2 = A12 * B21
+        multiply(h, cutoff, a, a12, aStride, b, b21, bStride, c, c11, cStride);
+        add(h, c, c11, cStride, x, 0, h, c, c11, cStride);
+
+        // S1 = A21 + A22, T1 = B12 - B11
+        add(h, a, a21, aStride, a, a22, aStride, sa, 0, h);
+        minus(h, b, b12, bStride, b, b11, bStride, ta, 0, h);
+        // C22 = P5 = S1 * T1
+        multiply(h, cutoff, sa, 0, h, ta, 0, h, c, c22, cStride);
+
+        // S2 = S1 - A11, T2 = B22 - T1
+        minus(h, sa, 0, h, a, a11, aStride, sa, 0, h);
+        minus(h, b, b22, bStride, ta, 0, h, ta, 0, h);
+        // C12 = P6 = S2 * T2
+        multiply(h, cutoff, sa, 0, h, ta, 0, h, c, c12, cStride);
+        // X = U2 = P1 + P6
+        add(h, x, 0, h, c, c12, cStride, x, 0, h);
+
+        // S4 = A12 - S2, T4 = T2 - B21
+        minus(h, a, a12, aStride, sa, 0, h, sb, 0, h);
+        minus(h, ta, 0, h, b, b21, bStride, tb, 0, h);
+
+        // S3 = A11 - A21, T3 = B22 - B12
+        minus(h, a, a11, aStride, a, a21, aStride, sa, 0, h);
+        minus(h, b, b22, bStride, b, b12, bStride, ta, 0, h);
+        // C21 = U3 = U2 + P7 其中 P7 = S3 * T3
+        multiply(h, cutoff, sa, 0, h, ta, 0, h, c, c21, cStride);
+        add(h, x, 0, h, c, c21, cStride, c, c21, cStride);
+
+        // X = U4 = U2 + P5, C22 = U7 = U3 + P5
+        add(h, x, 0, h, c, c22, cStride, x, 0, h);
+        add(h, c, c21, cStride, c, c22, cStride, c, c22, cStride);
+
+        // C12 = U5 = U4 + P3 其中 P3 = S4 * B22
+        multiply(h, cutoff, sb, 0, h, b, b22, bStride, c, c12, cStride);
+        add(h, x, 0, h, c, c12, cStride, c, c12, cStride);
+
+        // C21 = U6 = U3 - P4 其中 P4 = A22 * T4
+        multiply(h, cutoff, a, a22, aStride, tb, 0, h, sa, 0, h);
+        minus(h, c, c21, cStride, sa, 0, h, c, c21, cStride);
+    }
+
+    /**
+     * 奇数边长 剥离最后一行一列
+     * 左上角 (n - 1) 阶部分递归计算 再补上剥离出来的列和行的贡献
+     */
+    private static void peel(int n, int cutoff,
+                             double[] a, int aOffset, int aStride,
+                             double[] b, int bOffset, int bStride,
+                             double[] c, int cOffset, int cStride) {
+        int m = n - 1;
+        // C11 = A11 * B11 + a12 * b21
+        multiply(m, cutoff, a, aOffset, aStride, b, bOffset, bStride, c, cOffset, cStride);
+        DoubleGemm.multiply(m, m, 1,
+                a, aOffset + m, aStride, 1,
+                b, bOffset + m * bStride, bStride, 1,
+                c, cOffset, cStride);
+        // 最后一列的前m行
+        classic(m, 1, n, a, aOffset, aStride, b, bOffset + m, bStride, c, cOffset + m, cStride);
+        // 最后一行
+        classic(1, n, n, a, aOffset + m * aStride, aStride, b, bOffset, bStride, c, cOffset + m * cStride, cStride);
+    }
+
+    /**
+     * 用分块乘法计算 C = A * B
+     */
+    private static void classic(int m, int n, int k,
+                                double[] a, int aOffset, int aStride,
+                                double[] b, int bOffset, int bStride,
+                                double[] c, int cOffset, int cStride) {
+        for (int i = 0; i < m; i++) {
+            int offset = cOffset + i * cStride;
+            for (int j = 0; j < n; j++) {
+                c[offset + j] = 0d;
+            }
+        }
+        MatrixExecutor.forRows(m, (long) n * k, DoubleGemm.MR, (from, to) ->
+                DoubleGemm.multiply(to - from, n, k,
+                        a, aOffset + from * aStride, aStride, 1,
+                        b, bOffset, bStride, 1,
+                        c, cOffset + from * cStride, cStride));
+    }
+
+    private static void add(int n, double[] x, int xOffset, int xStride,
+                            double[] y, int yOffset, int yStride,
+                            double[] z, int zOffset, int zStride) {
+        for (int i = 0; i < n; i++) {
+            int xRow = xOffset + i * xStride;
+            int yRow = yOffset + i * yStride;
+            int zRow = zOffset + i * zStride;
+            for (int j = 0; j < n; j++) {
+                z[zRow + j] = x[xRow + j] + y[yRow + j];
+            }
+        }
+    }
+
+    private static void minus(int n, double[] x, int xOffset, int xStride,
+                              double[] y, int yOffset, int yStride,
+                              double[] z, int zOffset, int zStride) {
+        for (int i = 0; i < n; i++) {
+            int xRow = xOffset + i * xStride;
+            int yRow = yOffset + i * yStride;
+            int zRow = zOffset + i * zStride;
+            for (int j = 0; j < n; j++) {
+                z[zRow + j] = x[xRow + j] - y[yRow + j];
+            }
+        }
+    }
+}
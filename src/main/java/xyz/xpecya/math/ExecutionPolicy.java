@@ -0,0 +1,20 @@
+package xyz.xpecya.math;
+
+/**
+ * 矩阵运算的执行策略
+ * 可以通过 Matrix.setExecutionPolicy 全局指定
+ * 也可以在单次运算时作为参数传入
+ */
+public enum ExecutionPolicy {
+
+    /**
+     * 在调用线程上串行计算
+     */
+    SEQUENTIAL,
+
+    /**
+     * 按行拆分成多个任务 在ForkJoinPool上并行计算
+     * 计算量小于并行阈值的运算仍然串行执行
+     */
+    PARALLEL
+}
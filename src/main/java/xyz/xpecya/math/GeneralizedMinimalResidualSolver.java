@@ -0,0 +1,110 @@
+package xyz.xpecya.math;
+
+import java.util.Arrays;
+
+/**
+ * 右预条件的重启GMRES
+ * Arnoldi过程使用修正Gram-Schmidt正交化 用Givens旋转逐步把Hessenberg矩阵化为上三角
+ * 每次重启前最多保存restart + 1个基向量 所有工作空间在求解开始时分配一次
+ */
+final class GeneralizedMinimalResidualSolver extends AbstractIterativeSolver {
+
+    private final int restart;
+
+    GeneralizedMinimalResidualSolver(Matrix matrix, int restart) {
+        super(matrix);
+        if (restart < 1) {
+            throw new IllegalArgumentException("restart can't be less than 1! got " + restart);
+        }
+        this.restart = Math.min(restart, length);
+    }
+
+    @Override
+    IterativeResult iterate(double[] value, double[] x, double norm, double threshold,
+                            int maxIterations, Preconditioner preconditioner) {
+        int m = restart;
+        double[][] basis = new double[m + 1][length];
+        // 行优先存放的 (m + 1) * m Hessenberg矩阵
+        double[] hessenberg = new double[(m + 1) * m];
+        double[] cos = new double[m];
+        double[] sin = new double[m];
+        double[] g = new double[m + 1];
+        double[] y = new double[m];
+        double[] w = new double[length];
+        double[] z = new double[length];
+        DoubleKernels kernels = DoubleKernels.INSTANCE;
+        int iteration = 0;
+        double residualNorm;
+        while (true) {
+            residual(value, x, w);
+            residualNorm = norm(w);
+            if (residualNorm <= threshold) {
+                return new IterativeResult(x, iteration, residualNorm / norm, true);
+            }
+            if (iteration >= maxIterations) {
+                return new IterativeResult(x, iteration, residualNorm / norm, false);
+            }
+            kernels.scale(1d / residualNorm, w, 0, basis[0], 0, length);
+            Arrays.fill(g, 0d);
+            g[0] = residualNorm;
+            int k = 0;
+            boolean stop = false;
+            while (k < m && iteration < maxIterations && !stop) {
+                iteration++;
+                preconditioner.apply(basis[k], z);
+                matrix.doMulti(z, w);
+                for (int i = 0; i <= k; i++) {
+                    double h = dot(w, basis[i]);
+                    hessenberg[i * m + k] = h;
+                    axpy(-h, basis[i], w);
+                }
+                double next = norm(w);
+                hessenberg[(k + 1) * m + k] = next;
+                if (next != 0d) {
+                    kernels.scale(1d / next, w, 0, basis[k + 1], 0, length);
+                } else {
+                    // Krylov子空间已经包含精确解
+                    stop = true;
+                }
+                for (int i = 0; i < k; i++) {
+                    double first = hessenberg[i * m + k];
+                    double second = hessenberg[(i + 1) * m + k];
+                    hessenberg[i * m + k] = cos[i] * first + sin[i] * second;
+                    hessenberg[(i + 1) * m + k] = -sin[i] * first + cos[i] * second;
+                }
+                double diagonal = hessenberg[k * m + k];
+                double denominator = Math.hypot(diagonal, next);
+                if (denominator == 0d) {
+                    cos[k] = 1d;
+                    sin[k] = 0d;
+                } else {
+                    cos[k] = diagonal / denominator;
+                    sin[k] = next / denominator;
+                }
+                hessenberg[k * m + k] = denominator;
+                hessenberg[(k + 1) * m + k] = 0d;
+                g[k + 1] = -sin[k] * g[k];
+                g[k] = cos[k] * g[k];
+                k++;
+                if (Math.abs(g[k]) <= threshold) {
+                    stop = true;
+                }
+            }
+            // 回代求解 Hy = g 再更新 x += M^(-1) * V * y
+            for (int i = k - 1; i >= 0; i--) {
+                double sum = g[i];
+                for (int j = i + 1; j < k; j++) {
+                    sum -= hessenberg[i * m + j] * y[j];
+                }
+                double diagonal = hessenberg[i * m + i];
+                y[i] = diagonal == 0d ? 0d : sum / diagonal;
+            }
+            Arrays.fill(w, 0d);
+            for (int i = 0; i < k; i++) {
+                axpy(y[i], basis[i], w);
+            }
+            preconditioner.apply(w, z);
+            axpy(1d, z, x);
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package xyz.xpecya.math;
+
+import java.util.Arrays;
+
+/**
+ * 单位矩阵 对角线全为1的对角矩阵
+ * 和DiagonalMatrix一样保存长度为length的对角线数组 加减 哈达马乘积等运算直接沿用对角矩阵的实现
+ * 和单位矩阵相乘时 堆上的不可变矩阵直接返回本身 不做任何计算
+ * 堆外 文件映射等需要关闭的矩阵返回拷贝 关闭参数后结果仍然可用
+ */
+public class IdentityMatrix extends DiagonalMatrix {
+
+    IdentityMatrix(int length) {
+        super(ones(length));
+    }
+
+    /**
+     * 创建单位矩阵
+     *
+     * @param length 边长
+     */
+    public static IdentityMatrix create(int length) {
+        if (length < 1) {
+            throw new IllegalArgumentException("length can't be less than 1! got " + length);
+        }
+        return new IdentityMatrix(length);
+    }
+
+    @Override
+    public Matrix doMulti(Matrix matrix) {
+        return MatrixSupport.detach(matrix);
+    }
+
+    @Override
+    public void doMulti(double[] vector, double[] result) {
+        System.arraycopy(vector, 0, result, 0, length);
+    }
+
+    @Override
+    public double calculateDouble() {
+        return 1d;
+    }
+
+    @Override
+    public double logDeterminant() {
+        return 0d;
+    }
+
+    @Override
+    public double[] doSolve(double[] value) {
+        return value.clone();
+    }
+
+    @Override
+    public ComplexNumber[] doSolve(ComplexNumber[] value) {
+        return value.clone();
+    }
+
+    @Override
+    public Matrix doSolve(Matrix value) {
+        return MatrixSupport.detach(value);
+    }
+
+    @Override
+    Matrix leftMulti(Matrix left) {
+        return MatrixSupport.detach(left);
+    }
+
+    private static double[] ones(int length) {
+        double[] result = new double[length];
+        Arrays.fill(result, 1d);
+        return result;
+    }
+}
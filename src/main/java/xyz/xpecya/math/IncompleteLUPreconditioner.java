@@ -0,0 +1,121 @@
+package xyz.xpecya.math;
+
+import java.util.Arrays;
+
+/**
+ * ILU(0)预条件
+ * 在A的非零结构上做不选主元的LU分解 分解过程中不产生新的非零元素
+ * L(单位下三角 不存对角线)和U存放在同一个CSR结构中
+ */
+final class IncompleteLUPreconditioner implements Preconditioner {
+
+    private final int length;
+
+    private final int[] rowPointer;
+
+    private final int[] columnIndex;
+
+    private final double[] values;
+
+    /**
+     * 每一行对角线元素在values中的下标
+     */
+    private final int[] diagonal;
+
+    IncompleteLUPreconditioner(Matrix matrix) {
+        if (matrix == null) {
+            throw new IllegalArgumentException("matrix is null!");
+        }
+        int length = matrix.getRow();
+        if (length != matrix.getColumn()) {
+            throw new IllegalArgumentException("matrix is not a square matrix! row = " + length
+                    + ", column = " + matrix.getColumn());
+        }
+        if (MatrixSupport.isComplex(matrix)) {
+            throw new IllegalArgumentException("preconditioner doesn't support complex matrix!");
+        }
+        SparseMatrix sparseMatrix = matrix instanceof SparseMatrix sparse ? sparse : toSparse(matrix);
+        this.length = length;
+        this.rowPointer = sparseMatrix.rowPointer;
+        this.columnIndex = sparseMatrix.columnIndex;
+        this.values = sparseMatrix.values.clone();
+        this.diagonal = new int[length];
+        for (int i = 0; i < length; i++) {
+            int index = Arrays.binarySearch(columnIndex, rowPointer[i], rowPointer[i + 1], i);
+            if (index < 0) {
+                throw new IllegalArgumentException("diagonal[" + i + "] is 0!");
+            }
+            diagonal[i] = index;
+        }
+        factor();
+    }
+
+    /**
+     * IKJ顺序的消元 position记录第i行每一列在values中的下标
+     */
+    private void factor() {
+        int[] position = new int[length];
+        Arrays.fill(position, -1);
+        for (int i = 0; i < length; i++) {
+            for (int p = rowPointer[i]; p < rowPointer[i + 1]; p++) {
+                position[columnIndex[p]] = p;
+            }
+            for (int p = rowPointer[i]; p < diagonal[i]; p++) {
+                int k = columnIndex[p];
+                double pivot = values[diagonal[k]];
+                if (pivot == 0d) {
+                    throw new IllegalArgumentException("diagonal[" + k + "] is 0!");
+                }
+                double ratio = values[p] / pivot;
+                values[p] = ratio;
+                for (int q = diagonal[k] + 1; q < rowPointer[k + 1]; q++) {
+                    int target = position[columnIndex[q]];
+                    if (target >= 0) {
+                        values[target] -= ratio * values[q];
+                    }
+                }
+            }
+            for (int p = rowPointer[i]; p < rowPointer[i + 1]; p++) {
+                position[columnIndex[p]] = -1;
+            }
+            if (values[diagonal[i]] == 0d) {
+                throw new IllegalArgumentException("diagonal[" + i + "] is 0!");
+            }
+        }
+    }
+
+    @Override
+    public void apply(double[] value, double[] result) {
+        for (int i = 0; i < length; i++) {
+            double sum = value[i];
+            for (int p = rowPointer[i]; p < diagonal[i]; p++) {
+                sum -= values[p] * result[columnIndex[p]];
+            }
+            result[i] = sum;
+        }
+        for (int i = length - 1; i >= 0; i--) {
+            double sum = result[i];
+            for (int p = diagonal[i] + 1; p < rowPointer[i + 1]; p++) {
+                sum -= values[p] * result[columnIndex[p]];
+            }
+            result[i] = sum / values[diagonal[i]];
+        }
+    }
+
+    /**
+     * 把稠密矩阵的非零元素和对角线转换成CSR结构
+     */
+    private static SparseMatrix toSparse(Matrix matrix) {
+        int length = matrix.getRow();
+        SparseMatrix.Builder builder = SparseMatrix.builder(length, length);
+        for (int i = 0; i < length; i++) {
+            double[] doubleRow = matrix.doGetDoubleRow(i);
+            for (int j = 0; j < length; j++) {
+                if (doubleRow[j] != 0d || i == j) {
+                    builder.add(i, j, doubleRow[j]);
+                }
+            }
+        }
+        return builder.build();
+    }
+}
@@ -0,0 +1,51 @@
+package xyz.xpecya.math;
+
+/**
+ * 迭代求解的结果
+ * 没有收敛时保存的是最后一次迭代的解
+ */
+public final class IterativeResult {
+
+    private final double[] solution;
+
+    private final int iterations;
+
+    private final double residual;
+
+    private final boolean converged;
+
+    IterativeResult(double[] solution, int iterations, double residual, boolean converged) {
+        this.solution = solution;
+        this.iterations = iterations;
+        this.residual = residual;
+        this.converged = converged;
+    }
+
+    /**
+     * 获取解 返回的数组属于调用方
+     */
+    public double[] getSolution() {
+        return solution;
+    }
+
+    /**
+     * 获取迭代次数
+     */
+    public int getIterations() {
+        return iterations;
+    }
+
+    /**
+     * 获取最后一次迭代的相对残差 ||b - Ax|| / ||b||
+     */
+    public double getResidual() {
+        return residual;
+    }
+
+    /**
+     * 是否在最大迭代次数内收敛
+     */
+    public boolean isConverged() {
+        return converged;
+    }
+}
@@ -0,0 +1,71 @@
+package xyz.xpecya.math;
+
+/**
+ * Krylov子空间迭代求解器
+ * 只需要系数矩阵的矩阵向量乘法 适合无法做直接分解的大型稀疏方程组
+ * 收敛条件为 ||b - Ax|| <= tolerance * ||b||
+ *
+ * 参数设置非线程安全 设置完成后可以在多个线程中同时调用solve
+ * 每次求解只在开始时分配一次工作向量
+ */
+public interface IterativeSolver {
+
+    /**
+     * 共轭梯度法 要求系数矩阵对称正定
+     *
+     * @param matrix 系数矩阵
+     */
+    static IterativeSolver cg(Matrix matrix) {
+        return new ConjugateGradientSolver(matrix);
+    }
+
+    /**
+     * 稳定双共轭梯度法 适用于一般的非对称矩阵
+     *
+     * @param matrix 系数矩阵
+     */
+    static IterativeSolver bicgstab(Matrix matrix) {
+        return new BiConjugateGradientStabilizedSolver(matrix);
+    }
+
+    /**
+     * 重启的广义最小残差法 GMRES(restart) 适用于一般的非对称矩阵
+     * 每次重启之间需要保存restart + 1个长度为n的向量
+     *
+     * @param matrix 系数矩阵
+     * @param restart 重启间隔
+     */
+    static IterativeSolver gmres(Matrix matrix, int restart) {
+        return new GeneralizedMinimalResidualSolver(matrix, restart);
+    }
+
+    /**
+     * 设置相对残差的收敛阈值 默认为10的-10次方
+     */
+    IterativeSolver setTolerance(double tolerance);
+
+    /**
+     * 设置最大迭代次数 默认为方程组阶数的10倍
+     */
+    IterativeSolver setMaxIterations(int maxIterations);
+
+    /**
+     * 设置预条件子 默认不做预条件
+     */
+    IterativeSolver setPreconditioner(Preconditioner preconditioner);
+
+    /**
+     * 从零向量开始迭代求解 Ax = value
+     */
+    default IterativeResult solve(double[] value) {
+        return solve(value, null);
+    }
+
+    /**
+     * 从指定的初始解开始迭代求解 Ax = value
+     *
+     * @param value 常数项
+     * @param initial 初始解 为null时从零向量开始 不会被修改
+     */
+    IterativeResult solve(double[] value, double[] initial);
+}
@@ -0,0 +1,39 @@
+package xyz.xpecya.math;
+
+/**
+ * Jacobi预条件 M = diag(A)
+ */
+final class JacobiPreconditioner implements Preconditioner {
+
+    /**
+     * 对角线元素的倒数
+     */
+    private final double[] inverse;
+
+    JacobiPreconditioner(Matrix matrix) {
+        if (matrix == null) {
+            throw new IllegalArgumentException("matrix is null!");
+        }
+        int length = matrix.getRow();
+        if (length != matrix.getColumn()) {
+            throw new IllegalArgumentException("matrix is not a square matrix! row = " + length
+                    + ", column = " + matrix.getColumn());
+        }
+        if (MatrixSupport.isComplex(matrix)) {
+            throw new IllegalArgumentException("preconditioner doesn't support complex matrix!");
+        }
+        inverse = new double[length];
+        for (int i = 0; i < length; i++) {
+            double diagonal = matrix.doGetDouble(i, i);
+            if (diagonal == 0d) {
+                throw new IllegalArgumentException("diagonal[" + i + "] is 0!");
+            }
+            inverse[i] = 1d / diagonal;
+        }
+    }
+
+    @Override
+    public void apply(double[] value, double[] result) {
+        DoubleKernels.INSTANCE.multiply(value, 0, inverse, 0, result, 0, inverse.length);
+    }
+}
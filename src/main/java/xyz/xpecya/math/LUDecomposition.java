@@ -0,0 +1,348 @@
+package xyz.xpecya.math;
+
+/**
+ * 浮点数方阵的LU分解 使用部分选主元
+ * PA = LU 其中P为行置换矩阵 L为单位下三角矩阵 U为上三角矩阵
+ *
+ * L和U紧凑地存放在同一个行优先数组中：
+ * 对角线及以上是U 对角线以下是L 去掉了值恒为1的对角线
+ * 分解完成后不可变 可以用同一个分解反复求解不同的常数项
+ */
+public final class LUDecomposition implements LinearSolver {
+
+    private final int length;
+
+    /**
+     * 行优先存放的L和U
+     */
+    private final double[] lu;
+
+    /**
+     * 置换后第i行对应原矩阵的第pivot[i]行
+     */
+    private final int[] pivot;
+
+    /**
+     * 置换矩阵的行列式 1或-1
+     */
+    private final int sign;
+
+    /**
+     * 是否存在为0的主元
+     */
+    private final boolean singular;
+
+    private LUDecomposition(int length, double[] lu, int[] pivot, int sign, boolean singular) {
+        this.length = length;
+        this.lu = lu;
+        this.pivot = pivot;
+        this.sign = sign;
+        this.singular = singular;
+    }
+
+    /**
+     * 对行优先存放的length阶方阵做LU分解
+     * 不会修改入参数组
+     */
+    static LUDecomposition decompose(int length, double[] numbers) {
+        double[] lu = numbers.clone();
+        int[] pivot = new int[length];
+        for (int i = 0; i < length; i++) {
+            pivot[i] = i;
+        }
+        int sign = 1;
+        boolean singular = false;
+        double[] swap = new double[length];
+        for (int k = 0; k < length; k++) {
+            // 在第k列对角线及以下选出绝对值最大的主元
+            int p = k;
+            double max = Math.abs(lu[k * length + k]);
+            for (int i = k + 1; i < length; i++) {
+                double abs = Math.abs(lu[i * length + k]);
+                if (abs > max) {
+                    max = abs;
+                    p = i;
+                }
+            }
+            if (p != k) {
+                // 交换两整行 都是连续内存
+                System.arraycopy(lu, p * length, swap, 0, length);
+                System.arraycopy(lu, k * length, lu, p * length, length);
+                System.arraycopy(swap, 0, lu, k * length, length);
+                int temp = pivot[p];
+                pivot[p] = pivot[k];
+                pivot[k] = temp;
+                sign = -sign;
+            }
+            int pivotOffset = k * length;
+            double pivotNumber = lu[pivotOffset + k];
+            if (pivotNumber == 0d) {
+                // 该列已经全为0 不需要消元
+                singular = true;
+                continue;
+            }
+            int current = k;
+            int first = k + 1;
+            int rest = length - first;
+            // 右下角的更新按行拆分 每一行都是一次连续的axpy
+            MatrixExecutor.forRows(rest, rest, 1, (from, to) -> {
+                DoubleKernels kernels = DoubleKernels.INSTANCE;
+                for (int i = first + from; i < first + to; i++) {
+                    int rowOffset = i * length;
+                    double item = lu[rowOffset + current];
+                    if (item == 0d) {
+                        continue;
+                    }
+                    double ratio = item / pivotNumber;
+                    lu[rowOffset + current] = ratio;
+                    kernels.axpy(-ratio, lu, pivotOffset + first, lu, rowOffset + first, rest);
+                }
+            });
+        }
+        return new LUDecomposition(length, lu, pivot, sign, singular);
+    }
+
+    /**
+     * 获取方阵边长
+     */
+    @Override
+    public int getLength() {
+        return length;
+    }
+
+    /**
+     * 获取单位下三角矩阵L
+     */
+    public Matrix getL() {
+        double[] result = new double[length * length];
+        for (int i = 0; i < length; i++) {
+            int offset = i * length;
+            System.arraycopy(lu, offset, result, offset, i);
+            result[offset + i] = 1d;
+        }
+        return new SimpleMatrix(length, length, result);
+    }
+
+    /**
+     * 获取上三角矩阵U
+     */
+    public Matrix getU() {
+        double[] result = new double[length * length];
+        for (int i = 0; i < length; i++) {
+            int offset = i * length;
+            System.arraycopy(lu, offset + i, result, offset + i, length - i);
+        }
+        return new SimpleMatrix(length, length, result);
+    }
+
+    /**
+     * 获取行置换 置换后第i行对应原矩阵的第result[i]行
+     */
+    public int[] getPivot() {
+        return pivot.clone();
+    }
+
+    /**
+     * 获取置换矩阵P 满足PA = LU
+     */
+    public Matrix getPermutation() {
+        double[] result = new double[length * length];
+        for (int i = 0; i < length; i++) {
+            result[i * length + pivot[i]] = 1d;
+        }
+        return new SimpleMatrix(length, length, result);
+    }
+
+    /**
+     * 获取置换矩阵的行列式 即行交换带来的符号 1或-1
+     */
+    public int getSign() {
+        return sign;
+    }
+
+    /**
+     * 是否为奇异矩阵 即存在为0的主元
+     */
+    @Override
+    public boolean isSingular() {
+        return singular;
+    }
+
+    /**
+     * 计算原方阵的行列式 即置换符号乘以U的对角线之积
+     */
+    public double determinant() {
+        double result = sign;
+        for (int i = 0; i < length; i++) {
+            result = result * lu[i * length + i];
+        }
+        return result;
+    }
+
+    /**
+     * 计算原方阵行列式绝对值的自然对数 不会因为连乘而溢出
+     * 奇异时为负无穷
+     */
+    public double logDeterminant() {
+        double result = 0d;
+        for (int i = 0; i < length; i++) {
+            result += Math.log(Math.abs(lu[i * length + i]));
+        }
+        return result;
+    }
+
+    /**
+     * 求解 Ax = value 只做前代和回代 复杂度O(n^2)
+     * 只读取分解结果 可以在多个线程中同时调用
+     */
+    @Override
+    public double[] solve(double[] value, double[] result) {
+        MatrixSupport.checkSolve(length, value == null ? -1 : value.length,
+                result == null ? -1 : result.length, singular);
+        double[] permuted = value == result ? value.clone() : value;
+        for (int i = 0; i < length; i++) {
+            result[i] = permuted[pivot[i]];
+        }
+        substitute(result);
+        return result;
+    }
+
+    /**
+     * 求解复数常数项的方程组 实部和虚部分别用同一个分解求解
+     */
+    @Override
+    public ComplexNumber[] solve(ComplexNumber[] value, ComplexNumber[] result) {
+        MatrixSupport.checkSolve(length, value == null ? -1 : value.length,
+                result == null ? -1 : result.length, singular);
+        double[] real = new double[length];
+        double[] imaginary = new double[length];
+        for (int i = 0; i < length; i++) {
+            ComplexNumber item = value[pivot[i]];
+            if (item == null) {
+                throw new IllegalArgumentException("value[" + pivot[i] + "] is null!");
+            }
+            real[i] = item.real();
+            imaginary[i] = item.imaginary();
+        }
+        substitute(real);
+        substitute(imaginary);
+        for (int i = 0; i < length; i++) {
+            result[i] = new ComplexNumber(real[i], imaginary[i]);
+        }
+        return result;
+    }
+
+    /**
+     * 一次求解多个常数项 AX = value
+     * 所有列共用同一个分解 按列分块做分块三角求解 列数较多时各列块并行计算
+     * 常数项为复数矩阵时实部和虚部分别求解
+     */
+    @Override
+    public Matrix solve(Matrix value) {
+        check(value);
+        int width = value.getColumn();
+        double[] inverse = new double[length];
+        for (int i = 0; i < length; i++) {
+            inverse[i] = 1d / lu[i * length + i];
+        }
+        if (ComplexMatrixView.contiguous(value) instanceof ComplexMatrix complexMatrix) {
+            double[] real = permute(complexMatrix.real, width);
+            double[] imaginary = permute(complexMatrix.imaginary, width);
+            solveColumns(inverse, real, width);
+            solveColumns(inverse, imaginary, width);
+            return new ComplexMatrix(length, width, real, imaginary);
+        }
+        double[] x;
+        if (value instanceof SimpleMatrix simpleMatrix) {
+            x = permute(simpleMatrix.numbers, width);
+        } else {
+            x = new double[length * width];
+            for (int i = 0; i < length; i++) {
+                System.arraycopy(value.doGetDoubleRow(pivot[i]), 0, x, i * width, width);
+            }
+        }
+        solveColumns(inverse, x, width);
+        return new SimpleMatrix(length, width, x);
+    }
+
+    /**
+     * 在已经置换过的常数项上原地做前代 Ly = Pb 和回代 Ux = y
+     * L和U的每一行都是连续内存 每个元素只需要一次内积
+     */
+    private void substitute(double[] x) {
+        DoubleKernels kernels = DoubleKernels.INSTANCE;
+        for (int i = 1; i < length; i++) {
+            x[i] -= kernels.dot(lu, i * length, x, 0, i);
+        }
+        for (int i = length - 1; i >= 0; i--) {
+            int offset = i * length;
+            double sum = x[i] - kernels.dot(lu, offset + i + 1, x, i + 1, length - i - 1);
+            x[i] = sum / lu[offset + i];
+        }
+    }
+
+    /**
+     * 把置换符号乘进第一行后的U 只保存上三角部分
+     * 其行列式和原方阵相同
+     */
+    TriangularMatrix signedUpper() {
+        double[] packed = new double[length * (length + 1) / 2];
+        int offset = 0;
+        for (int i = 0; i < length; i++) {
+            System.arraycopy(lu, i * length + i, packed, offset, length - i);
+            offset += length - i;
+        }
+        if (sign < 0) {
+            for (int j = 0; j < length; j++) {
+                packed[j] = -packed[j];
+            }
+        }
+        return new TriangularMatrix(length, false, packed);
+    }
+
+    /**
+     * 把置换符号乘进第一个元素后的U的对角线
+     */
+    DiagonalMatrix signedDiagonal() {
+        double[] diagonal = new double[length];
+        for (int i = 0; i < length; i++) {
+            diagonal[i] = lu[i * length + i];
+        }
+        diagonal[0] = sign * diagonal[0];
+        return new DiagonalMatrix(diagonal);
+    }
+
+    /**
+     * 按置换拷贝行优先存放的常数项矩阵
+     */
+    private double[] permute(double[] numbers, int width) {
+        double[] result = new double[length * width];
+        for (int i = 0; i < length; i++) {
+            System.arraycopy(numbers, pivot[i] * width, result, i * width, width);
+        }
+        return result;
+    }
+
+    /**
+     * L和U共用lu数组 TriangularSolve只读取各自需要的部分
+     */
+    private void solveColumns(double[] inverse, double[] x, int width) {
+        MatrixExecutor.forRows(width, (long) length * length, TriangularSolve.GRAIN, (from, to) -> {
+            TriangularSolve.lower(length, lu, x, width, from, to);
+            TriangularSolve.upper(length, lu, inverse, x, width, from, to);
+        });
+    }
+
+    private void check(Matrix value) {
+        if (value == null) {
+            throw new IllegalArgumentException("value is null!");
+        }
+        if (value.getRow() != length) {
+            throw new IllegalArgumentException("value's row = " + value.getRow()
+                    + ", determinant's length = " + length);
+        }
+        if (singular) {
+            throw new IllegalStateException("matrix is singular!");
+        }
+    }
+}
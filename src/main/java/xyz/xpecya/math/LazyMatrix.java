@@ -0,0 +1,334 @@
+package xyz.xpecya.math;
+
+/**
+ * 延迟计算的浮点数矩阵
+ *
+ * 加 减 数乘 哈达马乘积这些逐元素运算不会立即计算 只构建一棵表达式树
+ * 第一次读取元素或调用evaluate时逐行遍历表达式树 一次写出最终结果
+ * 中间结果只占用每层一行的临时数组 不会分配和矩阵一样大的中间矩阵
+ *
+ * 矩阵乘法 转置 分解等非逐元素运算 以及和复数矩阵的运算 会先计算出结果再按普通矩阵处理
+ * 计算结果会被缓存 多次读取不会重复计算
+ */
+public final class LazyMatrix implements Matrix {
+
+    /**
+     * 表达式树的最大高度
+     */
+    private static final int MAX_HEIGHT = 64;
+
+    private final int row;
+
+    private final int column;
+
+    private final Node node;
+
+    /**
+     * 计算结果
+     */
+    private Matrix value;
+
+    private LazyMatrix(int row, int column, Node node) {
+        this.row = row;
+        this.column = column;
+        if (node.height > MAX_HEIGHT) {
+            // 逐行计算是递归遍历 x = x.add(dx) 这样的长链会栈溢出 超过上限时先计算出结果当作叶子
+            Matrix value = node.evaluate(row, column);
+            this.node = new Leaf(value);
+            this.value = value;
+        } else {
+            this.node = node;
+        }
+    }
+
+    /**
+     * 把一个浮点数矩阵包装成延迟计算的矩阵 不会拷贝数据
+     *
+     * @param matrix 浮点数矩阵
+     */
+    static LazyMatrix of(Matrix matrix) {
+        if (matrix instanceof LazyMatrix lazyMatrix) {
+            return lazyMatrix;
+        }
+        LazyMatrix result = new LazyMatrix(matrix.getRow(), matrix.getColumn(), new Leaf(matrix));
+        result.value = matrix;
+        return result;
+    }
+
+    @Override
+    public Matrix lazy() {
+        return this;
+    }
+
+    /**
+     * 计算表达式树 返回普通矩阵
+     * 只包装了一个矩阵时直接返回该矩阵
+     */
+    @Override
+    public Matrix evaluate() {
+        Matrix value = this.value;
+        if (value == null) {
+            value = node.evaluate(row, column);
+            this.value = value;
+        }
+        return value;
+    }
+
+    /**
+     * 表达式树是否已经计算过
+     */
+    public boolean isEvaluated() {
+        return value != null;
+    }
+
+    @Override
+    public Matrix doAdd(Matrix matrix) {
+        if (MatrixSupport.isComplex(matrix)) {
+            return evaluate().doAdd(matrix);
+        }
+        return new LazyMatrix(row, column, new Binary(Operator.ADD, node(this), node(matrix)));
+    }
+
+    @Override
+    public Matrix doMinus(Matrix matrix) {
+        if (MatrixSupport.isComplex(matrix)) {
+            return evaluate().doMinus(matrix);
+        }
+        return new LazyMatrix(row, column, new Binary(Operator.MINUS, node(this), node(matrix)));
+    }
+
+    @Override
+    public Matrix multi(double input) {
+        Node node = node(this);
+        if (node instanceof Scale scale) {
+            // 连续数乘合并为一次
+            return new LazyMatrix(row, column, new Scale(scale.alpha * input, scale.child));
+        }
+        return new LazyMatrix(row, column, new Scale(input, node));
+    }
+
+    @Override
+    public Matrix doMulti(ComplexNumber complexNumber) {
+        return evaluate().doMulti(complexNumber);
+    }
+
+    @Override
+    public Matrix doMulti(Matrix matrix) {
+        return evaluate().doMulti(matrix.evaluate());
+    }
+
+    @Override
+    public Matrix doGemm(double alpha, boolean transpose, Matrix matrix, boolean matrixTranspose,
+                         double beta, Matrix addend) {
+        return evaluate().doGemm(alpha, transpose, matrix, matrixTranspose, beta, addend);
+    }
+
+    @Override
+    public void doMulti(double[] vector, double[] result) {
+        evaluate().doMulti(vector, result);
+    }
+
+    @Override
+    public Matrix doHadamard(Matrix matrix) {
+        if (MatrixSupport.isComplex(matrix)) {
+            return evaluate().doHadamard(matrix);
+        }
+        return new LazyMatrix(row, column, new Binary(Operator.HADAMARD, node(this), node(matrix)));
+    }
+
+    @Override
+    public Matrix transpose() {
+        return evaluate().transpose();
+    }
+
+    @Override
+    public Matrix doSubmatrix(int rowFrom, int rowTo, int columnFrom, int columnTo) {
+        return evaluate().doSubmatrix(rowFrom, rowTo, columnFrom, columnTo);
+    }
+
+    @Override
+    public int getRow() {
+        return row;
+    }
+
+    @Override
+    public int getColumn() {
+        return column;
+    }
+
+    @Override
+    public double doGetDouble(int row, int column) {
+        return evaluate().doGetDouble(row, column);
+    }
+
+    @Override
+    public ComplexNumber doGetComplex(int row, int column) {
+        return evaluate().doGetComplex(row, column);
+    }
+
+    @Override
+    public double[] doGetDoubleRow(int row) {
+        return evaluate().doGetDoubleRow(row);
+    }
+
+    @Override
+    public ComplexNumber[] doGetComplexRow(int row) {
+        return evaluate().doGetComplexRow(row);
+    }
+
+    @Override
+    public double[] doGetDoubleColumn(int column) {
+        return evaluate().doGetDoubleColumn(column);
+    }
+
+    @Override
+    public ComplexNumber[] doGetComplexColumn(int column) {
+        return evaluate().doGetComplexColumn(column);
+    }
+
+    @Override
+    public Determinant doToDeterminant() {
+        return evaluate().doToDeterminant();
+    }
+
+    @Override
+    public QRDecomposition doQr() {
+        return evaluate().doQr();
+    }
+
+    @Override
+    public String toString() {
+        return evaluate().toString();
+    }
+
+    private static Node node(Matrix matrix) {
+        if (matrix instanceof LazyMatrix lazyMatrix) {
+            // 已经计算过的子树直接当作叶子 不再重复计算
+            Matrix value = lazyMatrix.value;
+            return value == null ? lazyMatrix.node : new Leaf(value);
+        }
+        return new Leaf(matrix);
+    }
+
+    private enum Operator {
+        ADD, MINUS, HADAMARD
+    }
+
+    /**
+     * 表达式树节点
+     */
+    private abstract static class Node {
+
+        /**
+         * 逐行计算时需要的临时数组个数
+         */
+        final int depth;
+
+        /**
+         * 子树的高度 叶子为0
+         */
+        final int height;
+
+        Node(int depth, int height) {
+            this.depth = depth;
+            this.height = height;
+        }
+
+        /**
+         * 把第i行的计算结果写入out[offset, offset + column)
+         *
+         * @param column 列数
+         * @param scratch 每层一个长度为column的临时数组
+         * @param level 当前节点可以使用的第一个临时数组
+         */
+        abstract void row(int i, double[] out, int offset, int column, double[][] scratch, int level);
+
+        Matrix evaluate(int row, int column) {
+            double[] numbers = new double[row * column];
+            int depth = this.depth;
+            MatrixExecutor.forRows(row, (long) column * (depth + 1), 1, (from, to) -> {
+                double[][] scratch = new double[depth][column];
+                for (int i = from; i < to; i++) {
+                    row(i, numbers, i * column, column, scratch, 0);
+                }
+            });
+            return new SimpleMatrix(row, column, numbers);
+        }
+    }
+
+    private static final class Leaf extends Node {
+
+        private final Matrix matrix;
+
+        Leaf(Matrix matrix) {
+            super(0, 0);
+            this.matrix = matrix;
+        }
+
+        @Override
+        void row(int i, double[] out, int offset, int column, double[][] scratch, int level) {
+            if (matrix instanceof SimpleMatrix simpleMatrix && simpleMatrix.columnStride == 1) {
+                System.arraycopy(simpleMatrix.numbers, i * simpleMatrix.rowStride, out, offset, column);
+            } else if (matrix instanceof SimpleMatrixView view) {
+                view.copyRow(i, out, offset);
+            } else {
+                double[] doubleRow = matrix.doGetDoubleRow(i);
+                System.arraycopy(doubleRow, 0, out, offset, column);
+            }
+        }
+
+        @Override
+        Matrix evaluate(int row, int column) {
+            return matrix;
+        }
+    }
+
+    private static final class Scale extends Node {
+
+        private final double alpha;
+
+        private final Node child;
+
+        Scale(double alpha, Node child) {
+            super(child.depth, child.height + 1);
+            this.alpha = alpha;
+            this.child = child;
+        }
+
+        @Override
+        void row(int i, double[] out, int offset, int column, double[][] scratch, int level) {
+            child.row(i, out, offset, column, scratch, level);
+            DoubleKernels.INSTANCE.scale(alpha, out, offset, out, offset, column);
+        }
+    }
+
+    private static final class Binary extends Node {
+
+        private final Operator operator;
+
+        private final Node left;
+
+        private final Node right;
+
+        Binary(Operator operator, Node left, Node right) {
+            // 左子树直接写入out 右子树写入本层的临时数组
+            super(Math.max(left.depth, right.depth + 1), Math.max(left.height, right.height) + 1);
+            this.operator = operator;
+            this.left = left;
+            this.right = right;
+        }
+
+        @Override
+        void row(int i, double[] out, int offset, int column, double[][] scratch, int level) {
+            left.row(i, out, offset, column, scratch, level);
+            double[] temp = scratch[level];
+            right.row(i, temp, 0, column, scratch, level + 1);
+            DoubleKernels kernels = DoubleKernels.INSTANCE;
+            switch (operator) {
+                case ADD -> kernels.add(out, offset, temp, 0, out, offset, column);
+                case MINUS -> kernels.minus(out, offset, temp, 0, out, offset, column);
+                case HADAMARD -> kernels.multiply(out, offset, temp, 0, out, offset, column);
+            }
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package xyz.xpecya.math;
+
+/**
+ * 线性方程组求解器
+ * 持有系数矩阵A的分解结果 之后每次求解 Ax = b 只需要前代和回代
+ * 不可变对象 可以在多个线程之间共享 反复求解不同的常数项
+ * 系数矩阵奇异时没有唯一解 求解时抛出IllegalStateException
+ */
+public interface LinearSolver {
+
+    /**
+     * 获取系数矩阵的边长
+     */
+    int getLength();
+
+    /**
+     * 系数矩阵是否奇异
+     */
+    boolean isSingular();
+
+    /**
+     * 求解 Ax = value
+     *
+     * @return 线性方程组的解 以浮点数形式返回
+     */
+    default double[] solve(double[] value) {
+        return solve(value, new double[getLength()]);
+    }
+
+    /**
+     * 求解 Ax = value 并把结果写入result
+     * value和result可以是同一个数组
+     *
+     * @return result
+     */
+    double[] solve(double[] value, double[] result);
+
+    /**
+     * 求解 Ax = value
+     *
+     * @return 线性方程组的解 以复数形式返回
+     */
+    default ComplexNumber[] solve(ComplexNumber[] value) {
+        return solve(value, new ComplexNumber[getLength()]);
+    }
+
+    /**
+     * 求解 Ax = value 并把结果写入result
+     * value和result可以是同一个数组
+     *
+     * @return result
+     */
+    ComplexNumber[] solve(ComplexNumber[] value, ComplexNumber[] result);
+
+    /**
+     * 一次求解多个常数项 AX = value
+     * value的每一列是一个常数项 返回的矩阵每一列是对应的解
+     *
+     * @return 线性方程组的解 系数矩阵和常数项都是浮点数时返回浮点数矩阵 否则返回复数矩阵
+     */
+    Matrix solve(Matrix value);
+}
@@ -0,0 +1,265 @@
+package xyz.xpecya.math;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * 文件映射的浮点数矩阵 用于比内存还大的矩阵
+ *
+ * 文件由64字节的文件头和行优先存放的矩阵元素组成 格式见MatrixFormat
+ * 元素区域按整行拆成不超过1GB的分块 分别通过FileChannel.map映射 由操作系统按需分页读入
+ * 打开文件时只读取文件头 不需要解析数据
+ *
+ * 带Path参数的运算把结果直接写入新的映射文件 不经过堆
+ * 结果文件不能是参与运算的映射文件 否则创建结果时会先截断输入数据
+ * 其他Matrix接口方法和OffHeapMatrix一样 结果是堆外矩阵
+ * 使用完毕后调用close 写入的数据会先刷新到文件再解除映射
+ */
+public final class MappedMatrix extends BufferMatrix implements AutoCloseable {
+
+    private final Path path;
+
+    private final MappedByteBuffer[] mapped;
+
+    private final boolean writable;
+
+    private MappedMatrix(Path path, int row, int column, MappedByteBuffer[] mapped, boolean writable) {
+        super(row, column, mapped);
+        this.path = path;
+        this.mapped = mapped;
+        this.writable = writable;
+    }
+
+    /**
+     * 创建全是0的映射文件 文件已经存在时会被覆盖
+     *
+     * @param path 文件路径
+     * @param row 行数
+     * @param column 列数
+     * @return 可写的映射矩阵
+     */
+    public static MappedMatrix create(Path path, int row, int column) throws IOException {
+        if (path == null) {
+            throw new IllegalArgumentException("path is null!");
+        }
+        if (row <= 0) {
+            throw new IllegalArgumentException("row cannot less than or equal to 0!");
+        }
+        if (column <= 0) {
+            throw new IllegalArgumentException("column cannot less than or equal to 0!");
+        }
+        MatrixFormat format = new MatrixFormat(row, column, false, ByteOrder.nativeOrder(), false);
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            ByteBuffer header = format.write();
+            while (header.hasRemaining()) {
+                channel.write(header, header.position());
+            }
+            // 映射超出文件长度的区域时文件会自动扩展 未写入的部分都是0
+            return new MappedMatrix(path, row, column, map(channel, FileChannel.MapMode.READ_WRITE, format), true);
+        }
+    }
+
+    /**
+     * 以只读方式打开已有的矩阵文件 只读取文件头
+     * Matrix.writeTo写入的浮点数矩阵文件也可以打开 此时不会检查校验和
+     *
+     * @param path 文件路径
+     */
+    public static MappedMatrix open(Path path) throws IOException {
+        if (path == null) {
+            throw new IllegalArgumentException("path is null!");
+        }
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(MatrixFormat.HEADER_BYTES);
+            while (header.hasRemaining()) {
+                if (channel.read(header, header.position()) < 0) {
+                    throw new IOException("matrix file is truncated!");
+                }
+            }
+            MatrixFormat format = MatrixFormat.read(header);
+            if (format.complex) {
+                throw new IOException("complex matrix file can't be mapped!");
+            }
+            if (channel.size() < MatrixFormat.HEADER_BYTES + format.dataBytes()) {
+                throw new IOException("file size = " + channel.size() + ", matrix file is truncated!");
+            }
+            return new MappedMatrix(path, format.row, format.column,
+                    map(channel, FileChannel.MapMode.READ_ONLY, format), false);
+        }
+    }
+
+    /**
+     * 把浮点数矩阵写入新的映射文件
+     *
+     * @param matrix 源矩阵 不能是复数矩阵
+     * @param path 文件路径
+     */
+    public static MappedMatrix copyOf(Matrix matrix, Path path) throws IOException {
+        Matrix input = doubleCheck(matrix);
+        sameFileCheck(path, input);
+        MappedMatrix result = create(path, input.getRow(), input.getColumn());
+        result.copy(input);
+        return result;
+    }
+
+    /**
+     * 矩阵加法 结果写入新的映射文件
+     */
+    public MappedMatrix add(Matrix matrix, Path path) throws IOException {
+        Matrix input = sameSizeCheck(matrix);
+        MappedMatrix result = output(path, row, column, input);
+        elementWise(input, DoubleKernels.INSTANCE::add, result);
+        return result;
+    }
+
+    /**
+     * 矩阵减法 结果写入新的映射文件
+     */
+    public MappedMatrix minus(Matrix matrix, Path path) throws IOException {
+        Matrix input = sameSizeCheck(matrix);
+        MappedMatrix result = output(path, row, column, input);
+        elementWise(input, DoubleKernels.INSTANCE::minus, result);
+        return result;
+    }
+
+    /**
+     * 哈达马乘积 结果写入新的映射文件
+     */
+    public MappedMatrix hadamard(Matrix matrix, Path path) throws IOException {
+        Matrix input = sameSizeCheck(matrix);
+        MappedMatrix result = output(path, row, column, input);
+        elementWise(input, DoubleKernels.INSTANCE::multiply, result);
+        return result;
+    }
+
+    /**
+     * 矩阵数乘 结果写入新的映射文件
+     */
+    public MappedMatrix multi(double input, Path path) throws IOException {
+        MappedMatrix result = output(path, row, column, null);
+        scale(input, result);
+        return result;
+    }
+
+    /**
+     * 矩阵相乘 结果写入新的映射文件
+     */
+    public MappedMatrix multi(Matrix matrix, Path path) throws IOException {
+        Matrix input = doubleCheck(matrix);
+        if (input.getRow() != column) {
+            throw new IllegalArgumentException("matrix's row = " + input.getRow()
+                    + ", this column = " + column + ", they cannot multi to each other!");
+        }
+        MappedMatrix result = output(path, row, input.getColumn(), input);
+        multiply(input, result);
+        return result;
+    }
+
+    /**
+     * 矩阵转置 结果写入新的映射文件
+     */
+    public MappedMatrix transpose(Path path) throws IOException {
+        MappedMatrix result = output(path, column, row, null);
+        transpose(result);
+        return result;
+    }
+
+    /**
+     * 映射的文件
+     */
+    public Path getPath() {
+        return path;
+    }
+
+    /**
+     * 把写入的数据刷新到文件
+     */
+    public void force() {
+        acquire();
+        try {
+            if (writable) {
+                for (MappedByteBuffer buffer : mapped) {
+                    buffer.force();
+                }
+            }
+        } finally {
+            release();
+        }
+    }
+
+    /**
+     * 刷新数据后解除映射
+     */
+    @Override
+    public synchronized void close() {
+        if (!isClosed()) {
+            force();
+        }
+        super.close();
+    }
+
+    private static MappedByteBuffer[] map(FileChannel channel, FileChannel.MapMode mode,
+                                          MatrixFormat format) throws IOException {
+        int row = format.row;
+        int column = format.column;
+        MappedByteBuffer[] mapped = new MappedByteBuffer[chunkCount(row, column)];
+        long position = MatrixFormat.HEADER_BYTES;
+        for (int i = 0; i < mapped.length; i++) {
+            long size = chunkBytes(row, column, i);
+            mapped[i] = channel.map(mode, position, size);
+            mapped[i].order(format.order);
+            position += size;
+        }
+        return mapped;
+    }
+
+    /**
+     * 创建保存运算结果的映射文件 结果文件不能是当前矩阵或入参矩阵映射的文件
+     *
+     * @param input 入参矩阵 没有时传null
+     */
+    private MappedMatrix output(Path path, int row, int column, Matrix input) throws IOException {
+        sameFileCheck(path, this);
+        sameFileCheck(path, input);
+        return create(path, row, column);
+    }
+
+    private static void sameFileCheck(Path path, Matrix matrix) throws IOException {
+        if (path == null || !(matrix instanceof MappedMatrix mappedMatrix)) {
+            return;
+        }
+        Path mappedPath = mappedMatrix.path;
+        // 不存在的文件不可能和已经映射的文件相同 isSameFile要求两个文件都存在
+        if (path.equals(mappedPath)
+                || Files.exists(path) && Files.exists(mappedPath) && Files.isSameFile(path, mappedPath)) {
+            throw new IllegalArgumentException("path = " + path + " is mapped by an operand!");
+        }
+    }
+
+    private static Matrix doubleCheck(Matrix matrix) {
+        if (matrix == null) {
+            throw new IllegalArgumentException("matrix is null!");
+        }
+        Matrix input = matrix.evaluate();
+        if (input instanceof ComplexMatrix || input instanceof ComplexMatrixView) {
+            throw new IllegalArgumentException("mapped matrix doesn't support complex number!");
+        }
+        return input;
+    }
+
+    private Matrix sameSizeCheck(Matrix matrix) {
+        Matrix input = doubleCheck(matrix);
+        if (input.getRow() != row || input.getColumn() != column) {
+            throw new IllegalArgumentException("matrix's row = " + input.getRow() + ", column = "
+                    + input.getColumn() + ", this row = " + row + ", column = " + column);
+        }
+        return input;
+    }
+}
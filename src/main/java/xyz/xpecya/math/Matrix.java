@@ -1,8 +1,15 @@
 package xyz.xpecya.math;
 
+import java.io.IOException;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.util.Arrays;
+
 /**
  * 矩阵类 根据底层的不同有多个实现类
  * 不可变对象，所有矩阵运算都会生成一个新矩阵
+ * 需要反复原地更新同一个矩阵时使用MutableMatrix
+ * 矩阵太大不适合放在堆上时使用OffHeapMatrix 比内存还大时使用MappedMatrix
  */
 public interface Matrix {
 
@@ -65,13 +72,9 @@ public interface Matrix {
         if (column <= 0) {
             throw new IllegalArgumentException("column cannot less than or equal to 0!");
         }
-        double[][] array = new double[row][column];
-        for (int i = 0; i < row; i++) {
-            for (int j = 0; j < column; j++) {
-                array[i][j] = initNumber;
-            }
-        }
-        return new SimpleMatrix(array);
+        double[] array = new double[row * column];
+        Arrays.fill(array, initNumber);
+        return new SimpleMatrix(row, column, array);
     }
 
     /**
@@ -89,13 +92,11 @@ public interface Matrix {
         if (column <= 0) {
             throw new IllegalArgumentException("column cannot less than or equal to 0!");
         }
-        ComplexNumber[][] array = new ComplexNumber[row][column];
-        for (int i = 0; i < row; i++) {
-            for (int j = 0; j < column; j++) {
-                array[i][j] = initNumber.clone();
-            }
-        }
-        return new ComplexMatrix(array);
+        double[] real = new double[row * column];
+        double[] imaginary = new double[row * column];
+        Arrays.fill(real, initNumber.real());
+        Arrays.fill(imaginary, initNumber.imaginary());
+        return new ComplexMatrix(row, column, real, imaginary);
     }
 
     /**
@@ -117,16 +118,17 @@ public interface Matrix {
         if (column < 1) {
             throw new IllegalArgumentException("numberArray is empty!");
         }
-        double[][] newArray = new double[numberArray.length][column];
+        int row = numberArray.length;
+        double[] newArray = new double[row * column];
 
-        for (int i = 0; i < numberArray.length; i++) {
+        for (int i = 0; i < row; i++) {
             double[] doubles = numberArray[i];
             if (doubles == null) {
                 continue;
             }
-            System.arraycopy(numberArray[i], 0, newArray[i], 0, doubles.length);
+            System.arraycopy(doubles, 0, newArray, i * column, doubles.length);
         }
-        return new SimpleMatrix(newArray);
+        return new SimpleMatrix(row, column, newArray);
     }
 
     /**
@@ -148,27 +150,112 @@ public interface Matrix {
         if (column < 1) {
             throw new IllegalArgumentException("numberArray is empty!");
         }
-        ComplexNumber[][] newArray = new ComplexNumber[numberArray.length][column];
+        int row = numberArray.length;
+        double[] real = new double[row * column];
+        double[] imaginary = new double[row * column];
 
-        for (int i = 0; i < numberArray.length; i++) {
+        for (int i = 0; i < row; i++) {
             ComplexNumber[] complexNumbers = numberArray[i];
             if (complexNumbers == null) {
                 continue;
             }
-            for (int j = 0; j < column; j++) {
-                if (j < complexNumbers.length) {
-                    ComplexNumber complexNumber = complexNumbers[j];
-                    if (complexNumber == null) {
-                        newArray[i][j] = new ComplexNumber();
-                    } else {
-                        newArray[i][j] = complexNumber.clone();
-                    }
-                } else {
-                    newArray[i][j] = new ComplexNumber();
+            // 缺失的元素和null元素保持为0
+            for (int j = 0; j < complexNumbers.length; j++) {
+                ComplexNumber complexNumber = complexNumbers[j];
+                if (complexNumber != null) {
+                    real[i * column + j] = complexNumber.real();
+                    imaginary[i * column + j] = complexNumber.imaginary();
                 }
             }
         }
-        return new ComplexMatrix(newArray);
+        return new ComplexMatrix(row, column, real, imaginary);
+    }
+
+    /**
+     * 从通道读取writeTo写入的二进制矩阵
+     * 按文件头中的字节序批量读取 有校验和时会进行校验
+     *
+     * @param channel 输入通道 读取后位于该矩阵的数据之后
+     * @return 浮点数矩阵或复数矩阵
+     */
+    static Matrix readFrom(ReadableByteChannel channel) throws IOException {
+        if (channel == null) {
+            throw new IllegalArgumentException("channel is null!");
+        }
+        return MatrixFormat.readFrom(channel);
+    }
+
+    /**
+     * 用COO三元组创建稀疏矩阵
+     * 第p个非零元素位于第rows[p]行第columns[p]列 值为values[p]
+     * 同一位置出现多次时值会累加
+     * 对源数组的修改不会导致矩阵值的修改
+     */
+    static Matrix sparse(int row, int column, int[] rows, int[] columns, double[] values) {
+        if (rows == null || columns == null || values == null) {
+            throw new IllegalArgumentException("input is null!");
+        }
+        if (rows.length != columns.length || rows.length != values.length) {
+            throw new IllegalArgumentException("rows' length = " + rows.length + ", columns' length = "
+                    + columns.length + ", values' length = " + values.length);
+        }
+        SparseMatrix.Builder builder = SparseMatrix.builder(row, column);
+        for (int p = 0; p < rows.length; p++) {
+            builder.add(rows[p], columns[p], values[p]);
+        }
+        return builder.build();
+    }
+
+    /**
+     * 设置全局执行策略 默认为串行
+     *
+     * @param policy 执行策略
+     */
+    static void setExecutionPolicy(ExecutionPolicy policy) {
+        MatrixExecutor.setPolicy(policy);
+    }
+
+    /**
+     * 获取全局执行策略
+     */
+    static ExecutionPolicy getExecutionPolicy() {
+        return MatrixExecutor.getPolicy();
+    }
+
+    /**
+     * 设置并行阈值
+     * 一次运算的乘加次数小于该值时 即使执行策略为并行也会串行计算
+     *
+     * @param threshold 并行阈值
+     */
+    static void setParallelThreshold(long threshold) {
+        MatrixExecutor.setThreshold(threshold);
+    }
+
+    /**
+     * 获取并行阈值
+     */
+    static long getParallelThreshold() {
+        return MatrixExecutor.getThreshold();
+    }
+
+    /**
+     * 设置Strassen乘法的递归阈值
+     * 边长大于该值的浮点数方阵相乘时使用Strassen-Winograd算法 递归到不大于该值时改用普通分块乘法
+     * 0表示不使用Strassen乘法 默认为0
+     * Strassen乘法的舍入误差比普通乘法略大
+     *
+     * @param cutoff 递归阈值
+     */
+    static void setStrassenCutoff(int cutoff) {
+        DoubleStrassen.setCutoff(cutoff);
+    }
+
+    /**
+     * 获取Strassen乘法的递归阈值
+     */
+    static int getStrassenCutoff() {
+        return DoubleStrassen.getCutoff();
     }
 
     /**
@@ -179,11 +266,22 @@ public interface Matrix {
      */
     default Matrix add(Matrix matrix) {
         sameMatrixCheck(matrix);
-        return doAdd(matrix);
+        return doAdd(ComplexMatrixView.contiguous(matrix));
     }
 
     Matrix doAdd(Matrix matrix);
 
+    /**
+     * 以指定的执行策略计算矩阵加法
+     *
+     * @param matrix 入参矩阵
+     * @param policy 执行策略
+     * @return 计算后的新矩阵
+     */
+    default Matrix add(Matrix matrix, ExecutionPolicy policy) {
+        return MatrixExecutor.call(policy, () -> add(matrix));
+    }
+
     /**
      * 矩阵减法 要求入参矩阵和当前矩阵的长和宽都完全相同
      *
@@ -192,11 +290,22 @@ public interface Matrix {
      */
     default Matrix minus(Matrix matrix) {
         sameMatrixCheck(matrix);
-        return doMinus(matrix);
+        return doMinus(ComplexMatrixView.contiguous(matrix));
     }
 
     Matrix doMinus(Matrix matrix);
 
+    /**
+     * 以指定的执行策略计算矩阵减法
+     *
+     * @param matrix 入参矩阵
+     * @param policy 执行策略
+     * @return 计算后的新矩阵
+     */
+    default Matrix minus(Matrix matrix, ExecutionPolicy policy) {
+        return MatrixExecutor.call(policy, () -> minus(matrix));
+    }
+
     /**
      * 矩阵数乘
      *
@@ -205,6 +314,17 @@ public interface Matrix {
      */
     Matrix multi(double input);
 
+    /**
+     * 以指定的执行策略计算矩阵数乘
+     *
+     * @param input 要相乘的浮点数
+     * @param policy 执行策略
+     * @return 相乘结果
+     */
+    default Matrix multi(double input, ExecutionPolicy policy) {
+        return MatrixExecutor.call(policy, () -> multi(input));
+    }
+
     /**
      * 矩阵数乘
      *
@@ -229,15 +349,142 @@ public interface Matrix {
         int column = getColumn();
         int inputRow = matrix.getRow();
         if (column != inputRow) {
-            throw new IllegalArgumentException("input matrix:\r\n" + matrix +
-                    "\r\nthis matrix:\r\n" + this +
-                    "\r\nthey cannot multi to each other!");
+            throw new IllegalArgumentException("input matrix's row = " + matrix.getRow()
+                    + ", column = " + matrix.getColumn() + ", this matrix's row = " + getRow()
+                    + ", column = " + getColumn() + ", they cannot multi to each other!");
         }
-        return doMulti(matrix);
+        return doMulti(ComplexMatrixView.operand(this, matrix));
     }
 
     Matrix doMulti(Matrix matrix);
 
+    /**
+     * 以指定的执行策略计算矩阵相乘
+     *
+     * @param matrix 入参矩阵
+     * @param policy 执行策略
+     * @return 相乘结果
+     */
+    default Matrix multi(Matrix matrix, ExecutionPolicy policy) {
+        return MatrixExecutor.call(policy, () -> multi(matrix));
+    }
+
+    /**
+     * 融合的乘加运算 计算 alpha * this * matrix + beta * addend
+     * 一次遍历得到结果 不会分配乘积 数乘和加法的中间矩阵
+     * beta为0时不读取addend 即使其中有NaN也不会影响结果
+     *
+     * @param alpha 乘积的系数
+     * @param matrix 右侧矩阵 要求行数等于当前矩阵的列数
+     * @param beta addend的系数
+     * @param addend 要累加的矩阵 要求和乘积的长宽相同
+     * @return 计算结果
+     */
+    default Matrix gemm(double alpha, Matrix matrix, double beta, Matrix addend) {
+        return gemm(alpha, false, matrix, false, beta, addend);
+    }
+
+    /**
+     * 带转置的融合乘加运算 计算 alpha * op(this) * op(matrix) + beta * addend
+     * op表示按对应参数决定是否转置 转置只改变读取顺序 不会生成转置后的矩阵
+     *
+     * @param alpha 乘积的系数
+     * @param transpose 是否转置当前矩阵
+     * @param matrix 右侧矩阵
+     * @param matrixTranspose 是否转置右侧矩阵
+     * @param beta addend的系数
+     * @param addend 要累加的矩阵 要求和乘积的长宽相同
+     * @return 计算结果
+     */
+    default Matrix gemm(double alpha, boolean transpose, Matrix matrix, boolean matrixTranspose,
+                        double beta, Matrix addend) {
+        matrixNonNullRequirement(matrix);
+        if (addend == null) {
+            throw new IllegalArgumentException("addend is null!");
+        }
+        int row = transpose ? getColumn() : getRow();
+        int column = transpose ? getRow() : getColumn();
+        int inputRow = matrixTranspose ? matrix.getColumn() : matrix.getRow();
+        int inputColumn = matrixTranspose ? matrix.getRow() : matrix.getColumn();
+        if (column != inputRow) {
+            throw new IllegalArgumentException("input matrix's row = " + matrix.getRow()
+                    + ", column = " + matrix.getColumn() + ", this matrix's row = " + getRow()
+                    + ", column = " + getColumn() + ", they cannot multi to each other!");
+        }
+        if (addend.getRow() != row || addend.getColumn() != inputColumn) {
+            throw new IllegalArgumentException("product's row = " + row + ", column = " + inputColumn
+                    + ", addend's row = " + addend.getRow() + ", column = " + addend.getColumn());
+        }
+        return doGemm(alpha, transpose, ComplexMatrixView.operand(this, matrix), matrixTranspose, beta, addend);
+    }
+
+    /**
+     * 入参已经检查过
+     * 默认依次计算 浮点数矩阵和复数矩阵会在分块乘法中一次完成
+     */
+    default Matrix doGemm(double alpha, boolean transpose, Matrix matrix, boolean matrixTranspose,
+                          double beta, Matrix addend) {
+        Matrix left = transpose ? transpose() : this;
+        Matrix right = matrixTranspose ? matrix.transpose() : matrix;
+        Matrix product = left.doMulti(right).multi(alpha);
+        return beta == 0d ? product : product.doAdd(addend.multi(beta));
+    }
+
+    /**
+     * 矩阵乘以列向量
+     *
+     * @param vector 长度等于列数的向量
+     * @return 长度等于行数的结果
+     */
+    default double[] multi(double[] vector) {
+        return multi(vector, new double[getRow()]);
+    }
+
+    /**
+     * 矩阵乘以列向量 并把结果写入result
+     * 迭代求解时可以反复使用同一个result 避免每次分配
+     *
+     * 复数矩阵的结果是复数 不能写入浮点数数组
+     *
+     * @param vector 长度等于列数的向量
+     * @param result 长度等于行数的数组 不能和vector是同一个数组
+     * @return result
+     */
+    default double[] multi(double[] vector, double[] result) {
+        if (MatrixSupport.isComplex(this)) {
+            throw new IllegalArgumentException("complex matrix can't multiply into a double vector!");
+        }
+        if (vector == null) {
+            throw new IllegalArgumentException("vector is null!");
+        }
+        if (result == null) {
+            throw new IllegalArgumentException("result is null!");
+        }
+        if (vector.length != getColumn()) {
+            throw new IllegalArgumentException("vector's length = " + vector.length + ", column = " + getColumn());
+        }
+        if (result.length != getRow()) {
+            throw new IllegalArgumentException("result's length = " + result.length + ", row = " + getRow());
+        }
+        if (vector == result) {
+            throw new IllegalArgumentException("vector and result can't be the same array!");
+        }
+        doMulti(vector, result);
+        return result;
+    }
+
+    /**
+     * 入参已经检查过
+     * 默认逐行读取后做内积 各实现可以直接读取底层数组
+     */
+    default void doMulti(double[] vector, double[] result) {
+        DoubleKernels kernels = DoubleKernels.INSTANCE;
+        int column = getColumn();
+        for (int i = 0; i < result.length; i++) {
+            result[i] = kernels.dot(doGetDoubleRow(i), 0, vector, 0, column);
+        }
+    }
+
     /**
      * 哈达马乘积
      * 要求入参矩阵长宽和此矩阵相同
@@ -247,16 +494,116 @@ public interface Matrix {
      */
     default Matrix hadamard(Matrix matrix) {
         sameMatrixCheck(matrix);
-        return doHadamard(matrix);
+        return doHadamard(ComplexMatrixView.contiguous(matrix));
     }
 
     Matrix doHadamard(Matrix matrix);
 
+    /**
+     * 以指定的执行策略计算哈达马乘积
+     *
+     * @param matrix 入参矩阵
+     * @param policy 执行策略
+     * @return 相乘结果
+     */
+    default Matrix hadamard(Matrix matrix, ExecutionPolicy policy) {
+        return MatrixExecutor.call(policy, () -> hadamard(matrix));
+    }
+
     /**
      * 转置
      */
     Matrix transpose();
 
+    /**
+     * 以指定的执行策略转置
+     *
+     * @param policy 执行策略
+     */
+    default Matrix transpose(ExecutionPolicy policy) {
+        return MatrixExecutor.call(policy, this::transpose);
+    }
+
+    /**
+     * 取出[rowFrom, rowTo)行 [columnFrom, columnTo)列的子矩阵
+     * 浮点数矩阵和复数矩阵返回共享底层数组的视图 不会拷贝数据
+     *
+     * @param rowFrom 起始行 包含
+     * @param rowTo 结束行 不包含
+     * @param columnFrom 起始列 包含
+     * @param columnTo 结束列 不包含
+     * @return 子矩阵
+     */
+    default Matrix submatrix(int rowFrom, int rowTo, int columnFrom, int columnTo) {
+        int row = getRow();
+        int column = getColumn();
+        if (rowFrom < 0 || rowTo > row || rowFrom >= rowTo) {
+            throw new IllegalArgumentException("rowFrom = " + rowFrom + ", rowTo = " + rowTo + ", row = " + row);
+        }
+        if (columnFrom < 0 || columnTo > column || columnFrom >= columnTo) {
+            throw new IllegalArgumentException("columnFrom = " + columnFrom + ", columnTo = " + columnTo
+                    + ", column = " + column);
+        }
+        return doSubmatrix(rowFrom, rowTo, columnFrom, columnTo);
+    }
+
+    /**
+     * 入参已经检查过
+     * 默认拷贝对应区域
+     */
+    default Matrix doSubmatrix(int rowFrom, int rowTo, int columnFrom, int columnTo) {
+        int row = rowTo - rowFrom;
+        int column = columnTo - columnFrom;
+        double[] numbers = new double[row * column];
+        for (int i = 0; i < row; i++) {
+            System.arraycopy(doGetDoubleRow(rowFrom + i), columnFrom, numbers, i * column, column);
+        }
+        return new SimpleMatrix(row, column, numbers);
+    }
+
+    /**
+     * 取出[from, to)行
+     *
+     * @param from 起始行 包含
+     * @param to 结束行 不包含
+     * @return 子矩阵
+     */
+    default Matrix rows(int from, int to) {
+        return submatrix(from, to, 0, getColumn());
+    }
+
+    /**
+     * 取出[from, to)列
+     *
+     * @param from 起始列 包含
+     * @param to 结束列 不包含
+     * @return 子矩阵
+     */
+    default Matrix columns(int from, int to) {
+        return submatrix(0, getRow(), from, to);
+    }
+
+    /**
+     * 转换为延迟计算的矩阵 不会拷贝数据
+     * 之后的加 减 数乘 哈达马乘积只构建表达式树 读取元素或调用evaluate时一次融合计算
+     * 复数矩阵不支持延迟计算 直接返回自身
+     *
+     * @return 延迟计算的矩阵
+     */
+    default Matrix lazy() {
+        return LazyMatrix.of(this);
+    }
+
+    /**
+     * 计算延迟计算的表达式 返回普通矩阵
+     * 普通矩阵直接返回自身
+     *
+     * @return 计算结果
+     */
+    default Matrix evaluate() {
+        return this;
+    }
+
     /**
      * 获取row长度
      */
@@ -366,6 +713,72 @@ public interface Matrix {
 
     Determinant doToDeterminant();
 
+    /**
+     * 对当前矩阵做Householder QR分解
+     * 要求行数不小于列数 目前只支持浮点数矩阵
+     *
+     * @return 分解结果
+     */
+    default QRDecomposition qr() {
+        if (MatrixSupport.isComplex(this)) {
+            throw new IllegalStateException("complex matrix doesn't support QR decomposition!");
+        }
+        int row = getRow();
+        int column = getColumn();
+        if (row < column) {
+            throw new IllegalStateException("row can't be less than column! row = " + row + ", column = " + column);
+        }
+        return doQr();
+    }
+
+    QRDecomposition doQr();
+
+    /**
+     * 求解超定线性方程组Ax=B的最小二乘解 即使 ||Ax - B|| 最小的x
+     * 其中A为当前矩阵 要求行数不小于列数且列满秩
+     * 不会显式构造 A^T * A
+     *
+     * @param value 长度等于行数的常数项
+     * @return 长度等于列数的解
+     */
+    default double[] leastSquares(double[] value) {
+        return qr().solve(value);
+    }
+
+    /**
+     * 一次求解多个常数项的最小二乘解
+     *
+     * @param value 行数等于当前矩阵行数的矩阵 每一列是一个常数项
+     * @return 每一列是对应常数项的解
+     */
+    default Matrix leastSquares(Matrix value) {
+        return qr().solve(value);
+    }
+
+    /**
+     * 按二进制格式写入通道 不带校验和
+     * 格式包括版本号 行列数 元素类型和字节序 可以用readFrom读取
+     * 浮点数矩阵写入文件后也可以直接用MappedMatrix打开
+     *
+     * @param channel 输出通道
+     */
+    default void writeTo(WritableByteChannel channel) throws IOException {
+        writeTo(channel, false);
+    }
+
+    /**
+     * 按二进制格式写入通道
+     *
+     * @param channel 输出通道
+     * @param checksum 是否在数据之后写入CRC32C校验和
+     */
+    default void writeTo(WritableByteChannel channel, boolean checksum) throws IOException {
+        if (channel == null) {
+            throw new IllegalArgumentException("channel is null!");
+        }
+        MatrixFormat.writeTo(this, channel, checksum);
+    }
+
     ComplexNumber doGetComplex(int row, int column);
 
     private void sameMatrixCheck(Matrix matrix) {
@@ -375,9 +788,9 @@ public interface Matrix {
         int inputRow = matrix.getRow();
         int inputColumn = matrix.getColumn();
         if (row != inputRow || column != inputColumn) {
-            throw new IllegalArgumentException("input matrix:\r\n" + matrix +
-                    "\r\nthis matrix:\r\n" + this +
-                    "\r\nthey cannot add to each other!");
+            throw new IllegalArgumentException("input matrix's row = " + matrix.getRow()
+                    + ", column = " + matrix.getColumn() + ", this matrix's row = " + getRow()
+                    + ", column = " + getColumn() + ", they cannot add to each other!");
         }
     }
 
@@ -0,0 +1,142 @@
+package xyz.xpecya.math;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.Supplier;
+
+/**
+ * 矩阵运算调度器
+ * 根据执行策略和计算量决定按行拆分并行计算还是直接串行计算
+ */
+final class MatrixExecutor {
+
+    /**
+     * 全局执行策略
+     */
+    private static volatile ExecutionPolicy policy = ExecutionPolicy.SEQUENTIAL;
+
+    /**
+     * 并行阈值 一次运算的乘加次数小于该值时总是串行计算
+     */
+    private static volatile long threshold = 1L << 16;
+
+    /**
+     * 单次调用指定的执行策略 优先于全局执行策略
+     */
+    private static final ThreadLocal<ExecutionPolicy> CALL_POLICY = new ThreadLocal<>();
+
+    private MatrixExecutor() {
+    }
+
+    static ExecutionPolicy getPolicy() {
+        return policy;
+    }
+
+    static void setPolicy(ExecutionPolicy policy) {
+        if (policy == null) {
+            throw new IllegalArgumentException("policy is null!");
+        }
+        MatrixExecutor.policy = policy;
+    }
+
+    static long getThreshold() {
+        return threshold;
+    }
+
+    static void setThreshold(long threshold) {
+        if (threshold < 0) {
+            throw new IllegalArgumentException("threshold cannot less than 0! got " + threshold);
+        }
+        MatrixExecutor.threshold = threshold;
+    }
+
+    /**
+     * 以指定的执行策略完成一次运算
+     */
+    static <T> T call(ExecutionPolicy policy, Supplier<T> supplier) {
+        if (policy == null) {
+            throw new IllegalArgumentException("policy is null!");
+        }
+        ExecutionPolicy previous = CALL_POLICY.get();
+        CALL_POLICY.set(policy);
+        try {
+            return supplier.get();
+        } finally {
+            if (previous == null) {
+                CALL_POLICY.remove();
+            } else {
+                CALL_POLICY.set(previous);
+            }
+        }
+    }
+
+    /**
+     * 对 [0, rows) 的每一行执行task
+     *
+     * @param rows 总行数
+     * @param workPerRow 每一行的乘加次数 用于和并行阈值比较
+     * @param grain 每个任务至少处理的行数 任务边界也会按该值对齐
+     * @param task 处理 [from, to) 行的任务
+     */
+    static void forRows(int rows, long workPerRow, int grain, RowTask task) {
+        if (!parallel(rows, workPerRow)) {
+            task.run(0, rows);
+            return;
+        }
+        int parallelism = ForkJoinPool.getCommonPoolParallelism();
+        // 每个线程大约分到4个任务 方便负载均衡
+        int size = Math.max(grain, rows / (Math.max(parallelism, 1) * 4));
+        size = (size + grain - 1) / grain * grain;
+        ForkJoinPool.commonPool().invoke(new RowAction(0, rows, size, task));
+    }
+
+    private static boolean parallel(int rows, long workPerRow) {
+        ExecutionPolicy callPolicy = CALL_POLICY.get();
+        ExecutionPolicy current = callPolicy == null ? policy : callPolicy;
+        if (current != ExecutionPolicy.PARALLEL || rows < 2) {
+            return false;
+        }
+        return rows * workPerRow >= threshold;
+    }
+
+    /**
+     * 处理一段连续行的任务
+     */
+    @FunctionalInterface
+    interface RowTask {
+
+        void run(int from, int to);
+    }
+
+    private static final class RowAction extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final int from;
+
+        private final int to;
+
+        private final int size;
+
+        private final RowTask task;
+
+        private RowAction(int from, int to, int size, RowTask task) {
+            this.from = from;
+            this.to = to;
+            this.size = size;
+            this.task = task;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= size) {
+                task.run(from, to);
+                return;
+            }
+            // 按size对齐拆分
+            int blocks = (to - from + size - 1) / size;
+            int middle = from + blocks / 2 * size;
+            invokeAll(new RowAction(from, middle, size, task), new RowAction(middle, to, size, task));
+        }
+    }
+}
@@ -0,0 +1,312 @@
+package xyz.xpecya.math;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.util.zip.CRC32C;
+
+/**
+ * 矩阵二进制格式 文件头固定64字节 文件头本身按大端序存放
+ *
+ * 0  magic 固定为 "XMAT"
+ * 4  版本号 short
+ * 6  元素类型 byte 0为浮点数 1为复数
+ * 7  数据字节序 byte 0为大端序 1为小端序
+ * 8  行数 int
+ * 12 列数 int
+ * 16 标志位 int 第0位表示数据之后有校验和
+ * 20 之后保留 写入0
+ *
+ * 文件头之后是逐行存放的矩阵元素 起始位置按8字节对齐 可以直接映射为DoubleBuffer
+ * 复数矩阵的每一行先存放实部再存放虚部
+ * 有校验和时数据之后是4字节大端序的CRC32C 只覆盖数据部分 写入时不需要回头修改文件头
+ */
+final class MatrixFormat {
+
+    static final int MAGIC = 0x584D4154;
+
+    static final short VERSION = 1;
+
+    static final int HEADER_BYTES = 64;
+
+    static final byte REAL = 0;
+
+    static final byte COMPLEX = 1;
+
+    /**
+     * 数据之后有校验和
+     */
+    static final int CHECKSUM = 1;
+
+    /**
+     * 读写时缓冲区的字节数
+     */
+    private static final int BUFFER_BYTES = 1 << 16;
+
+    final int row;
+
+    final int column;
+
+    final boolean complex;
+
+    /**
+     * 矩阵元素的字节序
+     */
+    final ByteOrder order;
+
+    final boolean checksum;
+
+    MatrixFormat(int row, int column, boolean complex, ByteOrder order, boolean checksum) {
+        this.row = row;
+        this.column = column;
+        this.complex = complex;
+        this.order = order;
+        this.checksum = checksum;
+    }
+
+    /**
+     * 文件头之后矩阵元素的字节数 不包括校验和
+     */
+    long dataBytes() {
+        return (long) row * column * Double.BYTES * (complex ? 2 : 1);
+    }
+
+    /**
+     * 写入文件头 返回可以直接写入文件的缓冲区
+     */
+    ByteBuffer write() {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.BIG_ENDIAN);
+        header.putInt(MAGIC);
+        header.putShort(VERSION);
+        header.put(complex ? COMPLEX : REAL);
+        header.put(order == ByteOrder.BIG_ENDIAN ? (byte) 0 : (byte) 1);
+        header.putInt(row);
+        header.putInt(column);
+        header.putInt(checksum ? CHECKSUM : 0);
+        header.clear();
+        return header;
+    }
+
+    /**
+     * 从文件头读取矩阵信息
+     *
+     * @param header 完整的64字节文件头
+     */
+    static MatrixFormat read(ByteBuffer header) throws IOException {
+        header.order(ByteOrder.BIG_ENDIAN);
+        if (header.getInt(0) != MAGIC) {
+            throw new IOException("not a matrix file!");
+        }
+        short version = header.getShort(4);
+        if (version != VERSION) {
+            throw new IOException("unsupported version = " + version + ", current version = " + VERSION);
+        }
+        byte type = header.get(6);
+        if (type != REAL && type != COMPLEX) {
+            throw new IOException("unknown element type = " + type);
+        }
+        byte order = header.get(7);
+        if (order != 0 && order != 1) {
+            throw new IOException("unknown byte order = " + order);
+        }
+        int row = header.getInt(8);
+        int column = header.getInt(12);
+        if (row <= 0 || column <= 0) {
+            throw new IOException("row = " + row + ", column = " + column + ", matrix file is broken!");
+        }
+        int flags = header.getInt(16);
+        if ((flags & ~CHECKSUM) != 0) {
+            throw new IOException("unknown flags = " + flags);
+        }
+        return new MatrixFormat(row, column, type == COMPLEX, order == 0 ? ByteOrder.BIG_ENDIAN : ByteOrder.LITTLE_ENDIAN,
+                (flags & CHECKSUM) != 0);
+    }
+
+    /**
+     * 把矩阵按本机字节序写入通道
+     * 逐行批量放入DoubleBuffer 缓冲区写满后一次写入通道
+     */
+    static void writeTo(Matrix matrix, WritableByteChannel channel, boolean checksum) throws IOException {
+        Matrix input = matrix.evaluate();
+        int row = input.getRow();
+        int column = input.getColumn();
+        boolean complex = input instanceof ComplexMatrix || input instanceof ComplexMatrixView;
+        MatrixFormat format = new MatrixFormat(row, column, complex, ByteOrder.nativeOrder(), checksum);
+        writeFully(channel, format.write());
+
+        Output output = new Output(channel, checksum ? new CRC32C() : null);
+        if (input instanceof ComplexMatrix complexMatrix) {
+            for (int i = 0; i < row; i++) {
+                output.put(complexMatrix.real, i * column, column);
+                output.put(complexMatrix.imaginary, i * column, column);
+            }
+        } else if (complex) {
+            double[] realRow = new double[column];
+            double[] imaginaryRow = new double[column];
+            for (int i = 0; i < row; i++) {
+                ComplexNumber[] complexRow = input.doGetComplexRow(i);
+                for (int j = 0; j < column; j++) {
+                    realRow[j] = complexRow[j].real();
+                    imaginaryRow[j] = complexRow[j].imaginary();
+                }
+                output.put(realRow, 0, column);
+                output.put(imaginaryRow, 0, column);
+            }
+        } else if (input instanceof SimpleMatrix simpleMatrix) {
+            output.put(simpleMatrix.numbers, 0, row * column);
+        } else if (input instanceof BufferMatrix bufferMatrix) {
+            int blockRows = BufferMatrix.blockRows(column);
+            double[] block = new double[Math.min(blockRows, row) * column];
+            for (int i = 0; i < row; i += blockRows) {
+                int end = Math.min(row, i + blockRows);
+                bufferMatrix.readRows(i, end, block, 0);
+                output.put(block, 0, (end - i) * column);
+            }
+        } else {
+            for (int i = 0; i < row; i++) {
+                output.put(input.doGetDoubleRow(i), 0, column);
+            }
+        }
+        output.flush();
+        if (checksum) {
+            ByteBuffer trailer = ByteBuffer.allocate(Integer.BYTES).order(ByteOrder.BIG_ENDIAN);
+            trailer.putInt(0, (int) output.crc.getValue());
+            writeFully(channel, trailer);
+        }
+    }
+
+    /**
+     * 从通道读取一个矩阵 读取后通道位于校验和之后
+     */
+    static Matrix readFrom(ReadableByteChannel channel) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+        readFully(channel, header);
+        MatrixFormat format = read(header);
+        int row = format.row;
+        int column = format.column;
+        if ((long) row * column > Integer.MAX_VALUE - 8) {
+            throw new IOException("row = " + row + ", column = " + column
+                    + ", matrix is too large to read into heap, use MappedMatrix instead!");
+        }
+        Input input = new Input(channel, format.order, format.checksum ? new CRC32C() : null);
+        Matrix result;
+        if (format.complex) {
+            double[] real = new double[row * column];
+            double[] imaginary = new double[row * column];
+            for (int i = 0; i < row; i++) {
+                input.get(real, i * column, column);
+                input.get(imaginary, i * column, column);
+            }
+            result = new ComplexMatrix(row, column, real, imaginary);
+        } else {
+            double[] numbers = new double[row * column];
+            input.get(numbers, 0, row * column);
+            result = new SimpleMatrix(row, column, numbers);
+        }
+        if (format.checksum) {
+            ByteBuffer trailer = ByteBuffer.allocate(Integer.BYTES).order(ByteOrder.BIG_ENDIAN);
+            readFully(channel, trailer);
+            if (trailer.getInt(0) != (int) input.crc.getValue()) {
+                throw new IOException("checksum mismatch, matrix file is broken!");
+            }
+        }
+        return result;
+    }
+
+    private static void writeFully(WritableByteChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    private static void readFully(ReadableByteChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer) < 0) {
+                throw new IOException("unexpected end of matrix data!");
+            }
+        }
+    }
+
+    /**
+     * 写入缓冲 元素通过DoubleBuffer批量放入 缓冲区满后写入通道并更新校验和
+     */
+    private static final class Output {
+
+        private final WritableByteChannel channel;
+
+        private final ByteBuffer bytes = ByteBuffer.allocateDirect(BUFFER_BYTES).order(ByteOrder.nativeOrder());
+
+        private final DoubleBuffer doubles = bytes.asDoubleBuffer();
+
+        private final CRC32C crc;
+
+        Output(WritableByteChannel channel, CRC32C crc) {
+            this.channel = channel;
+            this.crc = crc;
+        }
+
+        void put(double[] source, int offset, int length) throws IOException {
+            while (length > 0) {
+                int count = Math.min(length, doubles.remaining());
+                doubles.put(source, offset, count);
+                offset += count;
+                length -= count;
+                if (!doubles.hasRemaining()) {
+                    flush();
+                }
+            }
+        }
+
+        void flush() throws IOException {
+            bytes.clear().limit(doubles.position() * Double.BYTES);
+            if (crc != null) {
+                crc.update(bytes);
+                bytes.position(0);
+            }
+            writeFully(channel, bytes);
+            bytes.clear();
+            doubles.clear();
+        }
+    }
+
+    /**
+     * 读取缓冲 从通道读满缓冲区后通过DoubleBuffer批量取出元素
+     */
+    private static final class Input {
+
+        private final ReadableByteChannel channel;
+
+        private final ByteBuffer bytes;
+
+        private final DoubleBuffer doubles;
+
+        private final CRC32C crc;
+
+        Input(ReadableByteChannel channel, ByteOrder order, CRC32C crc) {
+            this.channel = channel;
+            this.bytes = ByteBuffer.allocateDirect(BUFFER_BYTES).order(order);
+            this.doubles = bytes.asDoubleBuffer();
+            this.crc = crc;
+        }
+
+        void get(double[] target, int offset, int length) throws IOException {
+            while (length > 0) {
+                // 每次只读入还需要的元素 不会越过数据部分读到校验和
+                int count = Math.min(length, BUFFER_BYTES / Double.BYTES);
+                bytes.clear().limit(count * Double.BYTES);
+                readFully(channel, bytes);
+                if (crc != null) {
+                    bytes.flip();
+                    crc.update(bytes);
+                }
+                doubles.clear();
+                doubles.get(target, offset, count);
+                offset += count;
+                length -= count;
+            }
+        }
+    }
+}
@@ -0,0 +1,182 @@
+package xyz.xpecya.math;
+
+import java.util.Arrays;
+
+/**
+ * 各个矩阵实现和分解共用的辅助方法
+ * 和ComplexMatrixView.of/contiguous一样只在包内使用
+ */
+final class MatrixSupport {
+
+    private MatrixSupport() {
+    }
+
+    /**
+     * 是否是复数矩阵或复数视图
+     */
+    static boolean isComplex(Matrix matrix) {
+        return matrix instanceof ComplexMatrix || matrix instanceof ComplexMatrixView;
+    }
+
+    /**
+     * 把任意浮点数矩阵拷贝成行优先存放的稠密数组
+     * 浮点数矩阵和视图直接拷贝底层数组 其他实现逐行拷贝
+     */
+    static double[] denseArray(Matrix matrix) {
+        int row = matrix.getRow();
+        int column = matrix.getColumn();
+        if (matrix instanceof SimpleMatrix simpleMatrix) {
+            return Arrays.copyOf(simpleMatrix.numbers, row * column);
+        }
+        if (matrix instanceof SimpleMatrixView view) {
+            return view.toArray();
+        }
+        double[] result = new double[row * column];
+        for (int i = 0; i < row; i++) {
+            System.arraycopy(matrix.doGetDoubleRow(i), 0, result, i * column, column);
+        }
+        return result;
+    }
+
+    /**
+     * 返回和参数元素相同 且不依赖参数生命周期的矩阵
+     * 堆上的不可变矩阵和视图直接返回参数本身 堆外和文件映射矩阵拷贝到新的堆外矩阵
+     * 延迟计算的矩阵先求值 其他实现拷贝成堆上的稠密矩阵
+     */
+    static Matrix detach(Matrix matrix) {
+        if (matrix instanceof SimpleMatrix || matrix instanceof ComplexMatrix
+                || matrix instanceof SimpleMatrixView || matrix instanceof ComplexMatrixView
+                || matrix instanceof DiagonalMatrix || matrix instanceof TriangularMatrix
+                || matrix instanceof BandedMatrix || matrix instanceof SparseMatrix) {
+            return matrix;
+        }
+        if (matrix instanceof BufferMatrix) {
+            return OffHeapMatrix.copyOf(matrix);
+        }
+        Matrix value = matrix.evaluate();
+        if (value != matrix) {
+            return detach(value);
+        }
+        return new SimpleMatrix(matrix.getRow(), matrix.getColumn(), denseArray(matrix));
+    }
+
+    /**
+     * 结构化矩阵目前都没有复数版本 乘以复数时先转为稠密矩阵 结果为稠密复数矩阵
+     */
+    static Matrix multi(Matrix matrix, ComplexNumber complexNumber) {
+        return new SimpleMatrix(matrix.getRow(), matrix.getColumn(), denseArray(matrix)).doMulti(complexNumber);
+    }
+
+    /**
+     * 浮点数的一行转换为虚部为0的复数
+     */
+    static ComplexNumber[] complexRow(double[] doubleRow) {
+        ComplexNumber[] result = new ComplexNumber[doubleRow.length];
+        for (int j = 0; j < doubleRow.length; j++) {
+            result[j] = new ComplexNumber(doubleRow[j]);
+        }
+        return result;
+    }
+
+    /**
+     * 和SimpleMatrix相同的逐行输出格式
+     */
+    static String toString(Matrix matrix) {
+        StringBuilder stringBuilder = new StringBuilder();
+        for (int i = 0; i < matrix.getRow(); i++) {
+            stringBuilder.append("| ");
+            for (double number : matrix.doGetDoubleRow(i)) {
+                stringBuilder.append(number).append(" ");
+            }
+            stringBuilder.append("|\r\n");
+        }
+        return stringBuilder.toString();
+    }
+
+    /**
+     * 求解前检查常数项和结果数组
+     *
+     * @param length 系数矩阵的阶数
+     * @param valueLength 常数项的长度 常数项为null时传-1
+     * @param resultLength 结果数组的长度 结果数组为null时传-1
+     * @param singular 系数矩阵是否奇异
+     */
+    static void checkSolve(int length, int valueLength, int resultLength, boolean singular) {
+        if (valueLength < 0) {
+            throw new IllegalArgumentException("value is null!");
+        }
+        if (valueLength != length) {
+            throw new IllegalArgumentException("value's length = " + valueLength
+                    + ", determinant's length = " + length);
+        }
+        if (resultLength < 0) {
+            throw new IllegalArgumentException("result is null!");
+        }
+        if (resultLength != length) {
+            throw new IllegalArgumentException("result's length = " + resultLength
+                    + ", determinant's length = " + length);
+        }
+        if (singular) {
+            throw new IllegalStateException("matrix is singular!");
+        }
+    }
+
+    /**
+     * 求解多个常数项前检查常数项矩阵
+     *
+     * @param length 系数矩阵的阶数
+     * @param value 常数项矩阵
+     * @param singular 系数矩阵是否奇异
+     */
+    static void checkSolve(int length, Matrix value, boolean singular) {
+        if (value == null) {
+            throw new IllegalArgumentException("value is null!");
+        }
+        if (value.getRow() != length) {
+            throw new IllegalArgumentException("value's row = " + value.getRow()
+                    + ", determinant's length = " + length);
+        }
+        if (singular) {
+            throw new IllegalStateException("matrix is singular!");
+        }
+    }
+
+    /**
+     * 逐列求解多个常数项 各列互不依赖 列数较多时并行计算
+     * 用于带状和三对角分解 每次求解只需要O(n * bandwidth) 没有必要做分块
+     */
+    static Matrix solveColumns(LinearSolver solver, Matrix value) {
+        int length = solver.getLength();
+        checkSolve(length, value, solver.isSingular());
+        int width = value.getColumn();
+        if (ComplexMatrixView.contiguous(value) instanceof ComplexMatrix complexMatrix) {
+            double[] real = complexMatrix.real.clone();
+            double[] imaginary = complexMatrix.imaginary.clone();
+            solveColumns(solver, real, width);
+            solveColumns(solver, imaginary, width);
+            return new ComplexMatrix(length, width, real, imaginary);
+        }
+        double[] x = new double[length * width];
+        for (int i = 0; i < length; i++) {
+            System.arraycopy(value.doGetDoubleRow(i), 0, x, i * width, width);
+        }
+        solveColumns(solver, x, width);
+        return new SimpleMatrix(length, width, x);
+    }
+
+    private static void solveColumns(LinearSolver solver, double[] x, int width) {
+        int length = solver.getLength();
+        MatrixExecutor.forRows(width, length, 1, (from, to) -> {
+            double[] column = new double[length];
+            for (int j = from; j < to; j++) {
+                for (int i = 0; i < length; i++) {
+                    column[i] = x[i * width + j];
+                }
+                solver.solve(column, column);
+                for (int i = 0; i < length; i++) {
+                    x[i * width + j] = column[i];
+                }
+            }
+        });
+    }
+}
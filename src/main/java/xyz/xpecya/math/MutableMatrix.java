@@ -0,0 +1,276 @@
+package xyz.xpecya.math;
+
+/**
+ * 可变矩阵 用于需要反复原地更新同一个矩阵的迭代算法
+ *
+ * 所有修改都直接写入底层数组 不会分配新矩阵
+ * 写入复数或累加复数矩阵时才会分配虚部数组 之后按复数矩阵处理
+ * 调用freeze后底层数组直接交给返回的不可变矩阵 当前对象不能再修改
+ */
+public final class MutableMatrix {
+
+    private final int row;
+
+    private final int column;
+
+    /**
+     * 行优先存放的实部
+     */
+    private final double[] real;
+
+    /**
+     * 行优先存放的虚部 浮点数矩阵为null
+     */
+    private double[] imaginary;
+
+    private boolean frozen;
+
+    private MutableMatrix(int row, int column, double[] real, double[] imaginary) {
+        this.row = row;
+        this.column = column;
+        this.real = real;
+        this.imaginary = imaginary;
+    }
+
+    /**
+     * 创建全是0的浮点数可变矩阵
+     *
+     * @param row 行数
+     * @param column 列数
+     */
+    public static MutableMatrix create(int row, int column) {
+        sizeCheck(row, column);
+        return new MutableMatrix(row, column, new double[row * column], null);
+    }
+
+    /**
+     * 创建全是0的复数可变矩阵
+     *
+     * @param row 行数
+     * @param column 列数
+     */
+    public static MutableMatrix complex(int row, int column) {
+        sizeCheck(row, column);
+        return new MutableMatrix(row, column, new double[row * column], new double[row * column]);
+    }
+
+    /**
+     * 用矩阵的值创建可变矩阵 复数矩阵对应复数可变矩阵
+     * 对可变矩阵的修改不会影响源矩阵
+     *
+     * @param matrix 源矩阵
+     */
+    public static MutableMatrix copyOf(Matrix matrix) {
+        if (matrix == null) {
+            throw new IllegalArgumentException("matrix is null!");
+        }
+        Matrix evaluated = matrix.evaluate();
+        MutableMatrix result = evaluated instanceof ComplexMatrix || evaluated instanceof ComplexMatrixView
+                ? complex(matrix.getRow(), matrix.getColumn())
+                : create(matrix.getRow(), matrix.getColumn());
+        return result.axpy(1d, matrix);
+    }
+
+    public int getRow() {
+        return row;
+    }
+
+    public int getColumn() {
+        return column;
+    }
+
+    /**
+     * 是否为复数矩阵
+     */
+    public boolean isComplex() {
+        return imaginary != null;
+    }
+
+    /**
+     * 获取指定位置的浮点值 复数矩阵获取其实部
+     */
+    public double getDouble(int row, int column) {
+        return real[index(row, column)];
+    }
+
+    /**
+     * 获取指定位置的复数值
+     */
+    public ComplexNumber getComplex(int row, int column) {
+        int index = index(row, column);
+        return new ComplexNumber(real[index], imaginary == null ? 0d : imaginary[index]);
+    }
+
+    /**
+     * 设置指定位置的值 复数矩阵的虚部设置为0
+     *
+     * @return 当前矩阵
+     */
+    public MutableMatrix set(int row, int column, double value) {
+        frozenCheck();
+        int index = index(row, column);
+        real[index] = value;
+        if (imaginary != null) {
+            imaginary[index] = 0d;
+        }
+        return this;
+    }
+
+    /**
+     * 设置指定位置的复数值
+     * 浮点数矩阵写入虚部不为0的复数时会转换为复数矩阵
+     *
+     * @return 当前矩阵
+     */
+    public MutableMatrix set(int row, int column, ComplexNumber value) {
+        if (value == null) {
+            throw new IllegalArgumentException("value is null!");
+        }
+        frozenCheck();
+        int index = index(row, column);
+        real[index] = value.real();
+        if (imaginary != null || value.imaginary() != 0d) {
+            complexImaginary()[index] = value.imaginary();
+        }
+        return this;
+    }
+
+    /**
+     * 原地加法 this = this + matrix
+     *
+     * @return 当前矩阵
+     */
+    public MutableMatrix addInPlace(Matrix matrix) {
+        return axpy(1d, matrix);
+    }
+
+    /**
+     * 原地减法 this = this - matrix
+     *
+     * @return 当前矩阵
+     */
+    public MutableMatrix minusInPlace(Matrix matrix) {
+        return axpy(-1d, matrix);
+    }
+
+    /**
+     * 原地数乘 this = alpha * this
+     *
+     * @return 当前矩阵
+     */
+    public MutableMatrix scaleInPlace(double alpha) {
+        frozenCheck();
+        double[] imaginary = this.imaginary;
+        MatrixExecutor.forRows(row, column, 1, (from, to) -> {
+            int offset = from * column;
+            int length = (to - from) * column;
+            DoubleKernels.INSTANCE.scale(alpha, real, offset, real, offset, length);
+            if (imaginary != null) {
+                DoubleKernels.INSTANCE.scale(alpha, imaginary, offset, imaginary, offset, length);
+            }
+        });
+        return this;
+    }
+
+    /**
+     * 原地累加 this = this + alpha * matrix
+     * 累加复数矩阵时当前矩阵会转换为复数矩阵
+     *
+     * @return 当前矩阵
+     */
+    public MutableMatrix axpy(double alpha, Matrix matrix) {
+        if (matrix == null) {
+            throw new IllegalArgumentException("matrix is null!");
+        }
+        if (matrix.getRow() != row || matrix.getColumn() != column) {
+            throw new IllegalArgumentException("matrix's row = " + matrix.getRow() + ", column = "
+                    + matrix.getColumn() + ", this row = " + row + ", column = " + column);
+        }
+        frozenCheck();
+        Matrix evaluated = matrix.evaluate();
+        // 复数视图先拷贝成连续存储
+        Matrix input = evaluated instanceof ComplexMatrixView view ? view.copy() : evaluated;
+        if (input instanceof SparseMatrix sparseMatrix) {
+            // 只累加非零元素
+            sparseMatrix.scatter(alpha, real);
+            return this;
+        }
+        double[] imaginary = input instanceof ComplexMatrix ? complexImaginary() : null;
+        MatrixExecutor.forRows(row, column, 1, (from, to) -> {
+            DoubleKernels kernels = DoubleKernels.INSTANCE;
+            if (input instanceof ComplexMatrix complexMatrix) {
+                int offset = from * column;
+                int length = (to - from) * column;
+                kernels.axpy(alpha, complexMatrix.real, offset, real, offset, length);
+                kernels.axpy(alpha, complexMatrix.imaginary, offset, imaginary, offset, length);
+                return;
+            }
+            for (int i = from; i < to; i++) {
+                if (input instanceof SimpleMatrix simpleMatrix && simpleMatrix.columnStride == 1) {
+                    kernels.axpy(alpha, simpleMatrix.numbers, i * simpleMatrix.rowStride, real, i * column, column);
+                } else if (input instanceof SimpleMatrixView view && view.columnStride == 1) {
+                    kernels.axpy(alpha, view.numbers, view.offset + i * view.rowStride, real, i * column, column);
+                } else {
+                    kernels.axpy(alpha, input.doGetDoubleRow(i), 0, real, i * column, column);
+                }
+            }
+        });
+        return this;
+    }
+
+    /**
+     * 把底层数组直接交给不可变矩阵 不做拷贝
+     * 之后当前对象不能再修改
+     *
+     * @return 浮点数矩阵或复数矩阵
+     */
+    public Matrix freeze() {
+        frozenCheck();
+        frozen = true;
+        if (imaginary == null) {
+            return new SimpleMatrix(row, column, real);
+        }
+        return new ComplexMatrix(row, column, real, imaginary);
+    }
+
+    /**
+     * 是否已经调用过freeze
+     */
+    public boolean isFrozen() {
+        return frozen;
+    }
+
+    private double[] complexImaginary() {
+        double[] imaginary = this.imaginary;
+        if (imaginary == null) {
+            imaginary = new double[row * column];
+            this.imaginary = imaginary;
+        }
+        return imaginary;
+    }
+
+    private int index(int row, int column) {
+        if (row < 0 || row >= this.row) {
+            throw new IllegalArgumentException("row = " + row + ", matrix's row = " + this.row);
+        }
+        if (column < 0 || column >= this.column) {
+            throw new IllegalArgumentException("column = " + column + ", matrix's column = " + this.column);
+        }
+        return row * this.column + column;
+    }
+
+    private void frozenCheck() {
+        if (frozen) {
+            throw new IllegalStateException("matrix is frozen!");
+        }
+    }
+
+    private static void sizeCheck(int row, int column) {
+        if (row <= 0) {
+            throw new IllegalArgumentException("row cannot less than or equal to 0!");
+        }
+        if (column <= 0) {
+            throw new IllegalArgumentException("column cannot less than or equal to 0!");
+        }
+    }
+}
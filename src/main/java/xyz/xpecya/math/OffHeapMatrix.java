@@ -0,0 +1,67 @@
+package xyz.xpecya.math;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * 堆外浮点数矩阵 元素存放在直接内存中 不占用堆空间 也不会被垃圾回收器扫描和移动
+ *
+ * 底层是按本机字节序分配的直接ByteBuffer 单个分块不超过1GB 超过时按整行拆成多个分块
+ * 运算和SimpleMatrix使用相同的计算内核 每次只把一小块数据拷贝到堆上
+ * 和堆上矩阵之间的运算直接通过Matrix接口进行 运算结果也是堆外矩阵
+ *
+ * 使用完毕后调用close立即释放内存 未关闭的矩阵在被垃圾回收时释放
+ * 直接内存的总量受 -XX:MaxDirectMemorySize 限制
+ */
+public final class OffHeapMatrix extends BufferMatrix implements AutoCloseable {
+
+    private OffHeapMatrix(int row, int column, ByteBuffer[] bytes) {
+        super(row, column, bytes);
+    }
+
+    /**
+     * 创建全是0的堆外矩阵
+     *
+     * @param row 行数
+     * @param column 列数
+     */
+    public static OffHeapMatrix create(int row, int column) {
+        if (row <= 0) {
+            throw new IllegalArgumentException("row cannot less than or equal to 0!");
+        }
+        if (column <= 0) {
+            throw new IllegalArgumentException("column cannot less than or equal to 0!");
+        }
+        ByteBuffer[] bytes = new ByteBuffer[chunkCount(row, column)];
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = ByteBuffer.allocateDirect((int) chunkBytes(row, column, i)).order(ByteOrder.nativeOrder());
+        }
+        return new OffHeapMatrix(row, column, bytes);
+    }
+
+    /**
+     * 把浮点数矩阵拷贝到堆外
+     * 对堆外矩阵的修改不会影响源矩阵
+     *
+     * @param matrix 源矩阵 不能是复数矩阵
+     */
+    public static OffHeapMatrix copyOf(Matrix matrix) {
+        if (matrix == null) {
+            throw new IllegalArgumentException("matrix is null!");
+        }
+        Matrix input = matrix.evaluate();
+        if (input instanceof ComplexMatrix || input instanceof ComplexMatrixView) {
+            throw new IllegalArgumentException("off heap matrix doesn't support complex number!");
+        }
+        OffHeapMatrix result = create(input.getRow(), input.getColumn());
+        result.copy(input);
+        return result;
+    }
+
+    /**
+     * 拷贝回堆上的浮点数矩阵
+     */
+    public Matrix toHeap() {
+        return new SimpleMatrix(row, column, toArray());
+    }
+}
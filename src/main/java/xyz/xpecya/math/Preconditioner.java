@@ -0,0 +1,41 @@
+package xyz.xpecya.math;
+
+/**
+ * 迭代求解的预条件子M
+ * 每次迭代计算 result = M^(-1) * value 其中M是系数矩阵A的近似
+ * 构造完成后不可变 可以在多个线程之间共享
+ */
+public interface Preconditioner {
+
+    /**
+     * 不做预条件 M = I
+     */
+    static Preconditioner identity() {
+        return (value, result) -> System.arraycopy(value, 0, result, 0, value.length);
+    }
+
+    /**
+     * Jacobi预条件 M = diag(A)
+     *
+     * @param matrix 系数矩阵 对角线元素不能为0
+     */
+    static Preconditioner jacobi(Matrix matrix) {
+        return new JacobiPreconditioner(matrix);
+    }
+
+    /**
+     * 零填充不完全LU分解预条件 ILU(0)
+     * L和U只保留A中非零元素的位置 不选主元
+     *
+     * @param matrix 系数矩阵
+     */
+    static Preconditioner ilu(Matrix matrix) {
+        return new IncompleteLUPreconditioner(matrix);
+    }
+
+    /**
+     * 计算 result = M^(-1) * value
+     * value和result不会是同一个数组
+     */
+    void apply(double[] value, double[] result);
+}
@@ -0,0 +1,325 @@
+package xyz.xpecya.math;
+
+import java.util.Arrays;
+
+/**
+ * 浮点数矩阵的Householder QR分解 要求行数不小于列数
+ * A = QR 其中Q的列正交 R为上三角矩阵
+ *
+ * 按BLOCK列分块：
+ * 每个列块内逐列计算Householder反射 再把块内的反射合并成紧凑WY形式 I - V * T * V^T
+ * 块外剩余的列用三次DoubleGemm一起更新 大部分计算量都在矩阵乘法中
+ * 最小二乘求解同样按块应用 Q^T 不会显式构造 A^T * A
+ * 分解完成后不可变 可以在多个线程之间共享
+ */
+public final class QRDecomposition {
+
+    /**
+     * 分块的列数
+     */
+    private static final int BLOCK = 32;
+
+    /**
+     * 每个并行任务至少处理的列数
+     */
+    private static final int GRAIN = 16;
+
+    private final int row;
+
+    private final int column;
+
+    /**
+     * 行优先存放的R 对角线以下的部分没有意义
+     */
+    private final double[] qr;
+
+    /**
+     * 每个列块显式存放的V 行优先 第一行从列块的起始行开始
+     */
+    private final double[][] reflectors;
+
+    /**
+     * 每个列块的 -T 行优先存放的上三角矩阵
+     */
+    private final double[][] factors;
+
+    private QRDecomposition(int row, int column, double[] qr, double[][] reflectors, double[][] factors) {
+        this.row = row;
+        this.column = column;
+        this.qr = qr;
+        this.reflectors = reflectors;
+        this.factors = factors;
+    }
+
+    /**
+     * 对行优先存放的 row * column 矩阵做QR分解
+     * 不会修改入参数组
+     */
+    static QRDecomposition decompose(int row, int column, double[] numbers) {
+        if (row < column) {
+            throw new IllegalArgumentException("row = " + row + ", column = " + column
+                    + ", row can't be less than column!");
+        }
+        double[] qr = numbers.clone();
+        int blocks = (column + BLOCK - 1) / BLOCK;
+        double[][] reflectors = new double[blocks][];
+        double[][] factors = new double[blocks][];
+        DoubleKernels kernels = DoubleKernels.INSTANCE;
+        for (int block = 0; block < blocks; block++) {
+            int jb = block * BLOCK;
+            int je = Math.min(column, jb + BLOCK);
+            int width = je - jb;
+            int height = row - jb;
+            double[] v = new double[height * width];
+            double[] tau = new double[width];
+            double[] w = new double[width];
+            for (int j = jb; j < je; j++) {
+                int local = j - jb;
+                // 生成把第j列对角线以下消为0的反射 v[j] = 1
+                double alpha = qr[j * column + j];
+                double sigma = 0d;
+                for (int i = j + 1; i < row; i++) {
+                    double item = qr[i * column + j];
+                    sigma += item * item;
+                }
+                v[(j - jb) * width + local] = 1d;
+                if (sigma == 0d) {
+                    tau[local] = 0d;
+                    continue;
+                }
+                double norm = Math.sqrt(alpha * alpha + sigma);
+                double beta = alpha <= 0d ? norm : -norm;
+                tau[local] = (beta - alpha) / beta;
+                double scale = 1d / (alpha - beta);
+                for (int i = j + 1; i < row; i++) {
+                    v[(i - jb) * width + local] = qr[i * column + j] * scale;
+                    qr[i * column + j] = 0d;
+                }
+                qr[j * column + j] = beta;
+                // 对块内剩余的列应用反射 w = v^T * A[j:, j+1:je]
+                int rest = je - j - 1;
+                if (rest == 0) {
+                    continue;
+                }
+                System.arraycopy(qr, j * column + j + 1, w, 0, rest);
+                for (int i = j + 1; i < row; i++) {
+                    kernels.axpy(v[(i - jb) * width + local], qr, i * column + j + 1, w, 0, rest);
+                }
+                for (int i = j; i < row; i++) {
+                    double factor = -tau[local] * v[(i - jb) * width + local];
+                    if (factor != 0d) {
+                        kernels.axpy(factor, w, 0, qr, i * column + j + 1, rest);
+                    }
+                }
+            }
+            double[] minusT = factor(height, width, v, tau);
+            reflectors[block] = v;
+            factors[block] = minusT;
+            if (je < column) {
+                int offset = jb * column;
+                MatrixExecutor.forRows(column - je, (long) height * width * 2, GRAIN, (from, to) ->
+                        apply(height, width, v, minusT, true, qr, offset, column, je + from, je + to));
+            }
+        }
+        return new QRDecomposition(row, column, qr, reflectors, factors);
+    }
+
+    /**
+     * 获取行数
+     */
+    public int getRow() {
+        return row;
+    }
+
+    /**
+     * 获取列数
+     */
+    public int getColumn() {
+        return column;
+    }
+
+    /**
+     * 原矩阵是否列满秩
+     * R对角线元素的绝对值小于舍入误差范围时视为0
+     */
+    public boolean isFullRank() {
+        double max = 0d;
+        for (int i = 0; i < column; i++) {
+            max = Math.max(max, Math.abs(qr[i * column + i]));
+        }
+        double tolerance = Math.max(row, column) * Math.ulp(1d) * max;
+        for (int i = 0; i < column; i++) {
+            double item = Math.abs(qr[i * column + i]);
+            if (item <= tolerance) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 获取 column * column 的上三角矩阵R
+     */
+    public Matrix getR() {
+        double[] result = new double[column * column];
+        for (int i = 0; i < column; i++) {
+            int offset = i * column;
+            System.arraycopy(qr, offset + i, result, offset + i, column - i);
+        }
+        return new SimpleMatrix(column, column, result);
+    }
+
+    /**
+     * 获取 row * column 的列正交矩阵Q
+     */
+    public Matrix getQ() {
+        double[] result = new double[row * column];
+        for (int i = 0; i < column; i++) {
+            result[i * column + i] = 1d;
+        }
+        for (int block = reflectors.length - 1; block >= 0; block--) {
+            int jb = block * BLOCK;
+            int width = Math.min(column, jb + BLOCK) - jb;
+            apply(row - jb, width, reflectors[block], factors[block], false, result, jb * column, column, 0, column);
+        }
+        return new SimpleMatrix(row, column, result);
+    }
+
+    /**
+     * 最小二乘求解 使 ||Ax - value|| 最小
+     *
+     * @param value 长度等于行数的常数项
+     * @return 长度等于列数的解
+     */
+    public double[] solve(double[] value) {
+        if (value == null) {
+            throw new IllegalArgumentException("value is null!");
+        }
+        if (value.length != row) {
+            throw new IllegalArgumentException("value's length = " + value.length + ", matrix's row = " + row);
+        }
+        Matrix result = solve(new SimpleMatrix(row, 1, value.clone()), false);
+        return ((SimpleMatrix) result).numbers;
+    }
+
+    /**
+     * 最小二乘求解多个常数项 每一列分别使 ||Ax - b|| 最小
+     * 按列分块 列数较多时各列块并行计算
+     *
+     * @param value 行数等于原矩阵行数的浮点数常数项矩阵
+     * @return column * value.getColumn() 的解
+     */
+    public Matrix solve(Matrix value) {
+        if (value == null) {
+            throw new IllegalArgumentException("value is null!");
+        }
+        if (value.getRow() != row) {
+            throw new IllegalArgumentException("value's row = " + value.getRow() + ", matrix's row = " + row);
+        }
+        if (MatrixSupport.isComplex(value)) {
+            throw new IllegalArgumentException("complex least squares is not supported!");
+        }
+        int width = value.getColumn();
+        double[] x;
+        if (value instanceof SimpleMatrix simpleMatrix) {
+            x = simpleMatrix.numbers.clone();
+        } else {
+            x = new double[row * width];
+            for (int i = 0; i < row; i++) {
+                System.arraycopy(value.doGetDoubleRow(i), 0, x, i * width, width);
+            }
+        }
+        return solve(new SimpleMatrix(row, width, x), true);
+    }
+
+    /**
+     * 在value上原地计算 Q^T * value 再求解 Rx = (Q^T * value)的前column行
+     */
+    private Matrix solve(SimpleMatrix value, boolean parallel) {
+        if (!isFullRank()) {
+            throw new IllegalStateException("matrix is rank deficient!");
+        }
+        int width = value.getColumn();
+        double[] x = value.numbers;
+        double[] inverse = new double[column];
+        for (int i = 0; i < column; i++) {
+            inverse[i] = 1d / qr[i * column + i];
+        }
+        MatrixExecutor.RowTask task = (from, to) -> {
+            for (int block = 0; block < reflectors.length; block++) {
+                int jb = block * BLOCK;
+                int blockWidth = Math.min(column, jb + BLOCK) - jb;
+                apply(row - jb, blockWidth, reflectors[block], factors[block], true, x, jb * width, width, from, to);
+            }
+            // R位于qr的前column行 行间隔同样是column
+            TriangularSolve.upper(column, qr, inverse, x, width, from, to);
+        };
+        if (parallel) {
+            MatrixExecutor.forRows(width, (long) row * column * 2, GRAIN, task);
+        } else {
+            task.run(0, width);
+        }
+        return new SimpleMatrix(column, width, Arrays.copyOf(x, column * width));
+    }
+
+    /**
+     * 计算紧凑WY形式中的 -T
+     * T[i][i] = tau[i], T[0:i, i] = -tau[i] * T[0:i, 0:i] * V[:, 0:i]^T * v[i]
+     */
+    private static double[] factor(int height, int width, double[] v, double[] tau) {
+        double[] t = new double[width * width];
+        double[] z = new double[width];
+        for (int i = 0; i < width; i++) {
+            t[i * width + i] = tau[i];
+            if (tau[i] == 0d || i == 0) {
+                continue;
+            }
+            Arrays.fill(z, 0, i, 0d);
+            for (int r = i; r < height; r++) {
+                double item = v[r * width + i];
+                if (item != 0d) {
+                    DoubleKernels.INSTANCE.axpy(item, v, r * width, z, 0, i);
+                }
+            }
+            for (int p = 0; p < i; p++) {
+                double sum = 0d;
+                for (int q = p; q < i; q++) {
+                    sum += t[p * width + q] * z[q];
+                }
+                t[p * width + i] = -tau[i] * sum;
+            }
+        }
+        DoubleKernels.INSTANCE.scale(-1d, t, 0, t, 0, t.length);
+        return t;
+    }
+
+    /**
+     * 对x的 [from, to) 列应用一个列块的反射
+     * transposed为true时计算 x = (I - V T^T V^T) x 否则计算 x = (I - V T V^T) x
+     *
+     * @param height V的行数 也是x参与计算的行数
+     * @param width V的列数
+     * @param minusT -T
+     * @param offset x参与计算的第一行的起始下标
+     */
+    private static void apply(int height, int width, double[] v, double[] minusT, boolean transposed,
+                              double[] x, int offset, int rowStride, int from, int to) {
+        int columns = to - from;
+        if (columns <= 0) {
+            return;
+        }
+        // w = V^T x
+        double[] w = new double[width * columns];
+        DoubleGemm.multiply(width, columns, height, v, 0, 1, width,
+                x, offset + from, rowStride, 1, w, 0, columns);
+        // y = -T^T w 或 -T w
+        double[] y = new double[width * columns];
+        if (transposed) {
+            DoubleGemm.multiply(width, columns, width, minusT, 0, 1, width, w, 0, columns, 1, y, 0, columns);
+        } else {
+            DoubleGemm.multiply(width, columns, width, minusT, 0, width, 1, w, 0, columns, 1, y, 0, columns);
+        }
+        // x += V y
+        DoubleGemm.multiply(height, columns, width, v, 0, width, 1, y, 0, columns, 1, x, offset + from, rowStride);
+    }
+}
@@ -0,0 +1,220 @@
+package xyz.xpecya.math;
+
+/**
+ * 奇异线性方程组求解
+ * 把增广矩阵化为行最简形 比较系数矩阵和增广矩阵的秩
+ * 秩不相等时无解 返回null
+ * 秩相等时令所有自由变量为0 返回其中一组解
+ * 只在LU分解出现为0的主元时使用
+ */
+final class RowEchelon {
+
+    private RowEchelon() {
+    }
+
+    /**
+     * 求解浮点数方程组 numbers为行优先存放的length阶方阵
+     */
+    static double[] solve(int length, double[] numbers, double[] value) {
+        int width = length + 1;
+        double[] augmented = new double[length * width];
+        double max = 0d;
+        for (int i = 0; i < length; i++) {
+            System.arraycopy(numbers, i * length, augmented, i * width, length);
+            augmented[i * width + length] = value[i];
+            for (int j = 0; j < length; j++) {
+                max = Math.max(max, Math.abs(numbers[i * length + j]));
+            }
+        }
+        double tolerance = tolerance(length, max);
+        int[] pivotColumns = new int[length];
+        int rank = 0;
+        DoubleKernels kernels = DoubleKernels.INSTANCE;
+        for (int c = 0; c < length && rank < length; c++) {
+            int p = rank;
+            for (int i = rank + 1; i < length; i++) {
+                if (Math.abs(augmented[i * width + c]) > Math.abs(augmented[p * width + c])) {
+                    p = i;
+                }
+            }
+            if (Math.abs(augmented[p * width + c]) <= tolerance) {
+                // 自由变量
+                continue;
+            }
+            swap(augmented, p * width, rank * width, width);
+            int pivotOffset = rank * width;
+            kernels.scale(1d / augmented[pivotOffset + c], augmented, pivotOffset + c, augmented, pivotOffset + c, width - c);
+            for (int i = 0; i < length; i++) {
+                int rowOffset = i * width;
+                double item = augmented[rowOffset + c];
+                if (i == rank || item == 0d) {
+                    continue;
+                }
+                kernels.axpy(-item, augmented, pivotOffset + c, augmented, rowOffset + c, width - c);
+            }
+            pivotColumns[rank++] = c;
+        }
+        // 剩余行的系数全为0 对应的常数项也必须为0
+        double valueTolerance = tolerance(length, Math.max(max, maxAbs(value)));
+        for (int i = rank; i < length; i++) {
+            if (Math.abs(augmented[i * width + length]) > valueTolerance) {
+                return null;
+            }
+        }
+        double[] result = new double[length];
+        for (int k = 0; k < rank; k++) {
+            result[pivotColumns[k]] = augmented[k * width + length];
+        }
+        return result;
+    }
+
+    /**
+     * 求解复数方程组 real和imaginary为行优先存放的length阶方阵的实部和虚部
+     */
+    static ComplexNumber[] solve(int length, double[] real, double[] imaginary, ComplexNumber[] value) {
+        int width = length + 1;
+        double[] augmentedReal = new double[length * width];
+        double[] augmentedImaginary = new double[length * width];
+        double max = 0d;
+        double valueMax = 0d;
+        for (int i = 0; i < length; i++) {
+            System.arraycopy(real, i * length, augmentedReal, i * width, length);
+            System.arraycopy(imaginary, i * length, augmentedImaginary, i * width, length);
+            augmentedReal[i * width + length] = value[i].real();
+            augmentedImaginary[i * width + length] = value[i].imaginary();
+            for (int j = 0; j < length; j++) {
+                max = Math.max(max, Math.hypot(real[i * length + j], imaginary[i * length + j]));
+            }
+            valueMax = Math.max(valueMax, value[i].mod());
+        }
+        double tolerance = tolerance(length, max);
+        int[] pivotColumns = new int[length];
+        int rank = 0;
+        ComplexAccumulator ratio = new ComplexAccumulator();
+        for (int c = 0; c < length && rank < length; c++) {
+            int p = rank;
+            double pivotMod = Math.hypot(augmentedReal[rank * width + c], augmentedImaginary[rank * width + c]);
+            for (int i = rank + 1; i < length; i++) {
+                double mod = Math.hypot(augmentedReal[i * width + c], augmentedImaginary[i * width + c]);
+                if (mod > pivotMod) {
+                    pivotMod = mod;
+                    p = i;
+                }
+            }
+            if (pivotMod <= tolerance) {
+                continue;
+            }
+            swap(augmentedReal, p * width, rank * width, width);
+            swap(augmentedImaginary, p * width, rank * width, width);
+            int pivotOffset = rank * width;
+            double pivotReal = augmentedReal[pivotOffset + c];
+            double pivotImaginary = augmentedImaginary[pivotOffset + c];
+            for (int j = c; j < width; j++) {
+                ratio.set(augmentedReal[pivotOffset + j], augmentedImaginary[pivotOffset + j])
+                        .div(pivotReal, pivotImaginary);
+                augmentedReal[pivotOffset + j] = ratio.real();
+                augmentedImaginary[pivotOffset + j] = ratio.imaginary();
+            }
+            for (int i = 0; i < length; i++) {
+                int rowOffset = i * width;
+                double itemReal = augmentedReal[rowOffset + c];
+                double itemImaginary = augmentedImaginary[rowOffset + c];
+                if (i == rank || (itemReal == 0d && itemImaginary == 0d)) {
+                    continue;
+                }
+                for (int j = c; j < width; j++) {
+                    double upperReal = augmentedReal[pivotOffset + j];
+                    double upperImaginary = augmentedImaginary[pivotOffset + j];
+                    augmentedReal[rowOffset + j] -= ComplexAccumulator.multiReal(itemReal, itemImaginary,
+                            upperReal, upperImaginary);
+                    augmentedImaginary[rowOffset + j] -= ComplexAccumulator.multiImaginary(itemReal, itemImaginary,
+                            upperReal, upperImaginary);
+                }
+            }
+            pivotColumns[rank++] = c;
+        }
+        double valueTolerance = tolerance(length, Math.max(max, valueMax));
+        for (int i = rank; i < length; i++) {
+            int index = i * width + length;
+            if (Math.hypot(augmentedReal[index], augmentedImaginary[index]) > valueTolerance) {
+                return null;
+            }
+        }
+        ComplexNumber[] result = new ComplexNumber[length];
+        for (int i = 0; i < length; i++) {
+            result[i] = new ComplexNumber();
+        }
+        for (int k = 0; k < rank; k++) {
+            int index = k * width + length;
+            result[pivotColumns[k]] = new ComplexNumber(augmentedReal[index], augmentedImaginary[index]);
+        }
+        return result;
+    }
+
+    /**
+     * 逐列求解浮点数系数矩阵的多常数项方程组 任意一列无解时返回null
+     */
+    static Matrix solve(int length, double[] numbers, Matrix value) {
+        if (value instanceof ComplexMatrix) {
+            return solve(length, numbers, new double[length * length], value);
+        }
+        int width = value.getColumn();
+        double[] result = new double[length * width];
+        for (int j = 0; j < width; j++) {
+            double[] columnResult = solve(length, numbers, value.doGetDoubleColumn(j));
+            if (columnResult == null) {
+                return null;
+            }
+            for (int i = 0; i < length; i++) {
+                result[i * width + j] = columnResult[i];
+            }
+        }
+        return new SimpleMatrix(length, width, result);
+    }
+
+    /**
+     * 逐列求解复数系数矩阵的多常数项方程组 任意一列无解时返回null
+     */
+    static Matrix solve(int length, double[] real, double[] imaginary, Matrix value) {
+        int width = value.getColumn();
+        double[] realResult = new double[length * width];
+        double[] imaginaryResult = new double[length * width];
+        for (int j = 0; j < width; j++) {
+            ComplexNumber[] columnResult = solve(length, real, imaginary, value.doGetComplexColumn(j));
+            if (columnResult == null) {
+                return null;
+            }
+            for (int i = 0; i < length; i++) {
+                realResult[i * width + j] = columnResult[i].real();
+                imaginaryResult[i * width + j] = columnResult[i].imaginary();
+            }
+        }
+        return new ComplexMatrix(length, width, realResult, imaginaryResult);
+    }
+
+    /**
+     * 判断为0的误差范围 与矩阵规模和元素量级成正比
+     */
+    private static double tolerance(int length, double max) {
+        return length * Math.ulp(1d) * Math.max(max, Double.MIN_NORMAL) * 16;
+    }
+
+    private static double maxAbs(double[] value) {
+        double max = 0d;
+        for (double item : value) {
+            max = Math.max(max, Math.abs(item));
+        }
+        return max;
+    }
+
+    private static void swap(double[] array, int first, int second, int length) {
+        if (first == second) {
+            return;
+        }
+        for (int j = 0; j < length; j++) {
+            double temp = array[first + j];
+            array[first + j] = array[second + j];
+            array[second + j] = temp;
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package xyz.xpecya.math;
+
+/**
+ * 标量计算内核
+ */
+final class ScalarDoubleKernels implements DoubleKernels {
+
+    @Override
+    public void add(double[] x, int xOffset, double[] y, int yOffset, double[] z, int zOffset, int length) {
+        for (int i = 0; i < length; i++) {
+            z[zOffset + i] = x[xOffset + i] + y[yOffset + i];
+        }
+    }
+
+    @Override
+    public void minus(double[] x, int xOffset, double[] y, int yOffset, double[] z, int zOffset, int length) {
+        for (int i = 0; i < length; i++) {
+            z[zOffset + i] = x[xOffset + i] - y[yOffset + i];
+        }
+    }
+
+    @Override
+    public void multiply(double[] x, int xOffset, double[] y, int yOffset, double[] z, int zOffset, int length) {
+        for (int i = 0; i < length; i++) {
+            z[zOffset + i] = x[xOffset + i] * y[yOffset + i];
+        }
+    }
+
+    @Override
+    public void scale(double alpha, double[] x, int xOffset, double[] z, int zOffset, int length) {
+        for (int i = 0; i < length; i++) {
+            z[zOffset + i] = x[xOffset + i] * alpha;
+        }
+    }
+
+    @Override
+    public void axpy(double alpha, double[] x, int xOffset, double[] y, int yOffset, int length) {
+        for (int i = 0; i < length; i++) {
+            y[yOffset + i] += alpha * x[xOffset + i];
+        }
+    }
+
+    @Override
+    public double dot(double[] x, int xOffset, double[] y, int yOffset, int length) {
+        double result = 0d;
+        for (int i = 0; i < length; i++) {
+            result += x[xOffset + i] * y[yOffset + i];
+        }
+        return result;
+    }
+
+    /**
+     * 4 * 4 寄存器分块内核
+     * 16个累加值全部保存在局部变量中 循环内只读取打包好的A和B
+     */
+    @Override
+    public void microKernel(int kc, double[] aPack, int aIndex, double[] bPack, int bIndex,
+                            double[] c, int cOffset, int cRowStride, int mr, int nr) {
+        double c00 = 0d, c01 = 0d, c02 = 0d, c03 = 0d;
+        double c10 = 0d, c11 = 0d, c12 = 0d, c13 = 0d;
+        double c20 = 0d, c21 = 0d, c22 = 0d, c23 = 0d;
+        double c30 = 0d, c31 = 0d, c32 = 0d, c33 = 0d;
+        for (int p = 0; p < kc; p++) {
+            double a0 = aPack[aIndex];
+            double a1 = aPack[aIndex + 1];
+            double a2 = aPack[aIndex + 2];
+            double a3 = aPack[aIndex + 3];
+            double b0 = bPack[bIndex];
+            double b1 = bPack[bIndex + 1];
+            double b2 = bPack[bIndex + 2];
+            double b3 = bPack[bIndex + 3];
+            c00 += a0 * b0;
+            c01 += a0 * b1;
+            c02 += a0 * b2;
+            c03 += a0 * b3;
+            c10 += a1 * b0;
+            c11 += a1 * b1;
+            c12 += a1 * b2;
+            c13 += a1 * b3;
+            c20 += a2 * b0;
+            c21 += a2 * b1;
+            c22 += a2 * b2;
+            c23 += a2 * b3;
+            c30 += a3 * b0;
+            c31 += a3 * b1;
+            c32 += a3 * b2;
+            c33 += a3 * b3;
+            aIndex += DoubleGemm.MR;
+            bIndex += DoubleGemm.NR;
+        }
+        if (mr == DoubleGemm.MR && nr == DoubleGemm.NR) {
+            int offset = cOffset;
+            c[offset] += c00;
+            c[offset + 1] += c01;
+            c[offset + 2] += c02;
+            c[offset + 3] += c03;
+            offset += cRowStride;
+            c[offset] += c10;
+            c[offset + 1] += c11;
+            c[offset + 2] += c12;
+            c[offset + 3] += c13;
+            offset += cRowStride;
+            c[offset] += c20;
+            c[offset + 1] += c21;
+            c[offset + 2] += c22;
+            c[offset + 3] += c23;
+            offset += cRowStride;
+            c[offset] += c30;
+            c[offset + 1] += c31;
+            c[offset + 2] += c32;
+            c[offset + 3] += c33;
+            return;
+        }
+        // 边缘块 只写回有效部分
+        double[] block = {
+                c00, c01, c02, c03,
+                c10, c11, c12, c13,
+                c20, c21, c22, c23,
+                c30, c31, c32, c33
+        };
+        for (int i = 0; i < mr; i++) {
+            int offset = cOffset + i * cRowStride;
+            for (int j = 0; j < nr; j++) {
+                c[offset + j] += block[i * DoubleGemm.NR + j];
+            }
+        }
+    }
+
+    @Override
+    public boolean vectorized() {
+        return false;
+    }
+}
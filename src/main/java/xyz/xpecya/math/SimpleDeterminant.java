@@ -2,6 +2,7 @@ package xyz.xpecya.math;
 
 /**
  * 行列式 基于浮点数实现
+ * 三角行列式直接前代或回代 对称正定的行列式自动使用Cholesky分解 其他行列式使用LU分解
  */
 public class SimpleDeterminant extends SimpleMatrix implements Determinant {
 
@@ -10,8 +11,23 @@ public class SimpleDeterminant extends SimpleMatrix implements Determinant {
      */
     private Double value;
 
-    SimpleDeterminant(double[][] numberArrays) {
-        super(numberArrays);
+    /**
+     * LU分解结果
+     */
+    private LUDecomposition decomposition;
+
+    /**
+     * 求解使用的分解结果 三角求解器 Cholesky分解或LU分解
+     */
+    private LinearSolver solver;
+
+    /**
+     * 行列式为三角行列式时 紧凑存放的三角矩阵
+     */
+    private TriangularMatrix triangular;
+
+    SimpleDeterminant(int length, double[] numbers) {
+        super(length, length, numbers);
     }
 
     @Override
@@ -20,18 +36,18 @@ public class SimpleDeterminant extends SimpleMatrix implements Determinant {
             // 说明已经计算过了
             return value;
         }
-        if (numberArrays.length == 2) {
+        if (row == 2) {
             // 2*2行列式 直接用定义
-            value = numberArrays[0][0] * numberArrays[1][1] - numberArrays[0][1] * numberArrays[1][0];
+            value = numbers[0] * numbers[3] - numbers[1] * numbers[2];
         } else {
-            SimpleDeterminant triangleDeterminant = simpleUpperTriangle();
-            for (int i = 0; i < numberArrays.length; i++) {
-                double data = triangleDeterminant.numberArrays[i][i];
-                if (value == null) {
-                    value = data;
-                } else {
-                    value = value * data;
-                }
+            LinearSolver solver = factor();
+            if (triangular != null) {
+                // 三角行列式只需要对角线之积
+                value = triangular.calculateDouble();
+            } else if (solver instanceof CholeskyDecomposition cholesky) {
+                value = cholesky.determinant();
+            } else {
+                value = lu().determinant();
             }
         }
         return value;
@@ -44,96 +60,158 @@ public class SimpleDeterminant extends SimpleMatrix implements Determinant {
     }
 
     @Override
-    public double[] doSolve(double[] value) {
-        double calc = calculateDouble();
-        if (calc == 0d) {
-            return null;
+    public double logDeterminant() {
+        LinearSolver solver = factor();
+        if (triangular != null) {
+            return triangular.logDeterminant();
         }
-        int length = numberArrays.length;
-        double[] result = new double[length];
-        for (int i = 0; i < length; i++) {
-            double[][] copy = deepCopy();
-            for (int j = 0; j < length; j++) {
-                copy[j][i] = value[j];
-            }
-            SimpleDeterminant simpleDeterminant = new SimpleDeterminant(copy);
-            double determinantValue = simpleDeterminant.calculateDouble();
-            result[i] = determinantValue / calc;
+        if (solver instanceof CholeskyDecomposition cholesky) {
+            return cholesky.logDeterminant();
+        }
+        return lu().logDeterminant();
+    }
+
+    @Override
+    public double[] doSolve(double[] value) {
+        LinearSolver solver = factor();
+        if (solver.isSingular()) {
+            return RowEchelon.solve(row, numbers, value);
         }
-        return result;
+        return solver.solve(value);
     }
 
     /**
-     * 把浮点数行列式转化成复数行列式再进行计算
+     * 系数矩阵是实数 实部和虚部共用同一个分解
      */
     @Override
     public ComplexNumber[] doSolve(ComplexNumber[] value) {
-        int length = numberArrays.length;
-        ComplexNumber[][] complexArrays = new ComplexNumber[length][length];
-        for (int i = 0; i < length; i++) {
-            for (int j = 0; j < length; j++) {
-                complexArrays[i][j] = new ComplexNumber(numberArrays[i][j]);
+        LinearSolver solver = factor();
+        if (solver.isSingular()) {
+            return RowEchelon.solve(row, numbers, new double[row * row], value);
+        }
+        return solver.solve(value);
+    }
+
+    @Override
+    public Matrix doSolve(Matrix value) {
+        LinearSolver solver = factor();
+        if (solver.isSingular()) {
+            return RowEchelon.solve(row, numbers, value);
+        }
+        return solver.solve(value);
+    }
+
+    /**
+     * 三角行列式返回直接前代或回代的求解器 不需要分解
+     * 对称且Cholesky分解成功时返回Cholesky分解 否则返回LU分解
+     * 结构检查只需要O(n^2) 相对分解本身可以忽略
+     */
+    @Override
+    public LinearSolver factor() {
+        LinearSolver solver = this.solver;
+        if (solver == null) {
+            TriangularMatrix triangular = toTriangular();
+            if (triangular != null) {
+                this.triangular = triangular;
+                solver = triangular.factor();
+            } else if (isSymmetric()) {
+                solver = CholeskyDecomposition.decompose(row, numbers);
+            }
+            if (solver == null) {
+                solver = lu();
             }
+            this.solver = solver;
+        }
+        return solver;
+    }
+
+    /**
+     * 获取当前行列式的Cholesky分解 只读取对角线及以下的部分
+     * 调用方需要保证行列式对称
+     *
+     * @throws IllegalStateException 行列式不是正定的
+     */
+    public CholeskyDecomposition cholesky() {
+        if (factor() instanceof CholeskyDecomposition cholesky) {
+            return cholesky;
         }
-        ComplexDeterminant complexDeterminant = new ComplexDeterminant(complexArrays);
-        return complexDeterminant.doSolve(value);
+        CholeskyDecomposition cholesky = CholeskyDecomposition.decompose(row, numbers);
+        if (cholesky == null) {
+            throw new IllegalStateException("matrix is not positive definite!");
+        }
+        return cholesky;
     }
 
+    /**
+     * 获取当前行列式的LU分解 只会分解一次
+     */
+    public LUDecomposition lu() {
+        LUDecomposition decomposition = this.decomposition;
+        if (decomposition == null) {
+            decomposition = LUDecomposition.decompose(row, numbers);
+            this.decomposition = decomposition;
+        }
+        return decomposition;
+    }
+
+    /**
+     * 返回把行交换符号乘进第一行的U 只保存上三角部分
+     */
     @Override
     public Determinant triangle() {
-        return simpleUpperTriangle();
+        return lu().signedUpper();
     }
 
+    /**
+     * 返回把行交换符号乘进第一个元素的U的对角线
+     */
     @Override
     public Determinant diagonal() {
-        SimpleDeterminant simpleDeterminant = simpleUpperTriangle();
-        int length = simpleDeterminant.numberArrays.length;
-        for (int i = 0; i < length; i++) {
-            for (int j = i + 1; j < length; j++) {
-                simpleDeterminant.numberArrays[i][j] = 0d;
-            }
-        }
-        return simpleDeterminant;
+        return lu().signedDiagonal();
     }
 
     @Override
     public int getLength() {
-        return numberArrays.length;
+        return row;
     }
 
-    private SimpleDeterminant simpleUpperTriangle() {
-        // 深拷贝一份
-        double[][] copy = deepCopy();
-        int length = copy.length;
-        for (int i = 1; i < length; i++) {
-            for (int j = 0; j < i; j++) {
-                double item = copy[i][j];
-                if (item == 0d) {
-                    continue;
-                }
-                double upper = copy[j][j];
-                double ratio = - (item / upper);
-                copy[i][j] = 0d;
-                for (int k = j + 1; k < length; k++) {
-                    double multiItem = copy[i][k];
-                    double multiUpper = copy[j][k];
-                    multiItem = multiItem + multiUpper * ratio;
-                    copy[i][k] = multiItem;
-                }
+    /**
+     * 对角线以上全为0时返回下三角矩阵 对角线以下全为0时返回上三角矩阵 否则返回null
+     */
+    private TriangularMatrix toTriangular() {
+        boolean lower = true;
+        boolean upper = true;
+        for (int i = 0; i < row && (lower || upper); i++) {
+            int offset = i * rowStride;
+            for (int j = 0; j < i && upper; j++) {
+                upper = numbers[offset + j] == 0d;
+            }
+            for (int j = i + 1; j < row && lower; j++) {
+                lower = numbers[offset + j] == 0d;
             }
         }
-        return new SimpleDeterminant(copy);
+        if (!lower && !upper) {
+            return null;
+        }
+        double[] packed = new double[row * (row + 1) / 2];
+        int index = 0;
+        for (int i = 0; i < row; i++) {
+            int first = lower ? 0 : i;
+            int count = lower ? i + 1 : row - i;
+            System.arraycopy(numbers, i * rowStride + first, packed, index, count);
+            index += count;
+        }
+        return new TriangularMatrix(row, lower, packed);
     }
 
-    /**
-     * 数据深拷贝
-     */
-    private double[][] deepCopy() {
-        int length = numberArrays.length;
-        double[][] copy = new double[length][length];
-        for (int i = 0; i < length; i++) {
-            System.arraycopy(numberArrays[i], 0, copy[i], 0, length);
+    private boolean isSymmetric() {
+        for (int i = 1; i < row; i++) {
+            for (int j = 0; j < i; j++) {
+                if (numbers[i * rowStride + j] != numbers[j * rowStride + i]) {
+                    return false;
+                }
+            }
         }
-        return copy;
+        return true;
     }
 }
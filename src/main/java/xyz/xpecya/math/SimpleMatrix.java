@@ -1,59 +1,110 @@
 package xyz.xpecya.math;
 
+import java.util.Arrays;
+
 /**
  * 浮点数矩阵
+ * 所有元素按行优先顺序存放在同一个一维数组中
+ * 第i行第j列的元素下标为 i * rowStride + j * columnStride
  */
 public class SimpleMatrix implements Matrix {
 
-    protected final double[][] numberArrays;
+    /**
+     * 行优先存放的矩阵元素
+     */
+    protected final double[] numbers;
+
+    protected final int row;
+
+    protected final int column;
 
-    SimpleMatrix(double[][] numberArrays) {
-        this.numberArrays = numberArrays;
+    /**
+     * 相邻两行同一列元素之间的下标间隔
+     */
+    protected final int rowStride;
+
+    /**
+     * 同一行相邻两列元素之间的下标间隔
+     */
+    protected final int columnStride;
+
+    /**
+     * QR分解结果
+     */
+    private QRDecomposition qrDecomposition;
+
+    SimpleMatrix(int row, int column, double[] numbers) {
+        this.row = row;
+        this.column = column;
+        this.numbers = numbers;
+        this.rowStride = column;
+        this.columnStride = 1;
     }
 
     @Override
     public Matrix doAdd(Matrix matrix) {
-        if (matrix instanceof ComplexMatrix complexMatrix) {
-            return complexMatrix.doAdd(this);
+        if (MatrixSupport.isComplex(matrix)) {
+            return ComplexMatrixView.contiguous(matrix).doAdd(this);
         }
-        int row = numberArrays.length;
-        int column = numberArrays[0].length;
-        double[][] numberArray = new double[row][column];
-        for (int i = 0; i < row; i++) {
-            for (int j = 0; j < column; j++) {
-                numberArray[i][j] = this.numberArrays[i][j] + matrix.doGetDouble(i, j);
-            }
+        if (matrix instanceof SparseMatrix sparseMatrix) {
+            return sparseMatrix.doAdd(this);
         }
-        return new SimpleMatrix(numberArray);
+        double[] numberArray = new double[row * column];
+        if (matrix instanceof SimpleMatrix simpleMatrix) {
+            double[] inputNumbers = simpleMatrix.numbers;
+            MatrixExecutor.forRows(row, column, 1, (from, to) ->
+                    DoubleKernels.INSTANCE.add(this.numbers, from * column, inputNumbers, from * column,
+                            numberArray, from * column, (to - from) * column));
+        } else {
+            MatrixExecutor.forRows(row, column, 1, (from, to) -> {
+                for (int i = from; i < to; i++) {
+                    int offset = i * rowStride;
+                    for (int j = 0; j < column; j++) {
+                        numberArray[offset + j] = this.numbers[offset + j] + matrix.doGetDouble(i, j);
+                    }
+                }
+            });
+        }
+        return new SimpleMatrix(row, column, numberArray);
     }
 
     @Override
     public Matrix doMinus(Matrix matrix) {
-        if (matrix instanceof ComplexMatrix) {
-            return transform().doMinus(matrix);
+        if (MatrixSupport.isComplex(matrix)) {
+            return transform().doMinus(ComplexMatrixView.contiguous(matrix));
         }
-        int row = numberArrays.length;
-        int column = numberArrays[0].length;
-        double[][] numberArray = new double[row][column];
-        for (int i = 0; i < row; i++) {
-            for (int j = 0; j < column; j++) {
-                numberArray[i][j] = this.numberArrays[i][j] - matrix.doGetDouble(i, j);
-            }
+        if (matrix instanceof SparseMatrix sparseMatrix) {
+            // 只需要在拷贝上减去非零元素
+            double[] numberArray = Arrays.copyOf(numbers, row * column);
+            sparseMatrix.scatter(-1d, numberArray);
+            return new SimpleMatrix(row, column, numberArray);
+        }
+        double[] numberArray = new double[row * column];
+        if (matrix instanceof SimpleMatrix simpleMatrix) {
+            double[] inputNumbers = simpleMatrix.numbers;
+            MatrixExecutor.forRows(row, column, 1, (from, to) ->
+                    DoubleKernels.INSTANCE.minus(this.numbers, from * column, inputNumbers, from * column,
+                            numberArray, from * column, (to - from) * column));
+        } else {
+            MatrixExecutor.forRows(row, column, 1, (from, to) -> {
+                for (int i = from; i < to; i++) {
+                    int offset = i * rowStride;
+                    for (int j = 0; j < column; j++) {
+                        numberArray[offset + j] = this.numbers[offset + j] - matrix.doGetDouble(i, j);
+                    }
+                }
+            });
         }
-        return new SimpleMatrix(numberArray);
+        return new SimpleMatrix(row, column, numberArray);
     }
 
     @Override
     public Matrix multi(double input) {
-        int row = this.numberArrays.length;
-        int column = this.numberArrays[0].length;
-        double[][] numberArray = new double[row][column];
-        for (int i = 0; i < row; i++) {
-            for (int j = 0; j < column; j++) {
-                numberArray[i][j] = this.numberArrays[i][j] * input;
-            }
-        }
-        return new SimpleMatrix(numberArray);
+        double[] numberArray = new double[row * column];
+        MatrixExecutor.forRows(row, column, 1, (from, to) ->
+                DoubleKernels.INSTANCE.scale(input, this.numbers, from * column,
+                        numberArray, from * column, (to - from) * column));
+        return new SimpleMatrix(row, column, numberArray);
     }
 
     @Override
@@ -63,76 +114,99 @@ public class SimpleMatrix implements Matrix {
 
     @Override
     public Matrix doMulti(Matrix matrix) {
-        if (matrix instanceof ComplexMatrix) {
+        if (matrix instanceof ComplexMatrix || matrix instanceof ComplexMatrixView) {
             return transform().doMulti(matrix);
         }
+        if (matrix instanceof SparseMatrix sparseMatrix) {
+            return sparseMatrix.leftMulti(this);
+        }
+        if (matrix instanceof DiagonalMatrix diagonalMatrix) {
+            // 右乘对角矩阵只需要按列缩放
+            return diagonalMatrix.leftMulti(this);
+        }
+        return SimpleMatrixView.of(this).doMulti(matrix);
+    }
 
-        int row = getRow();
-        int column = getColumn();
-        int inputColumn = matrix.getColumn();
-        double[][] numberArray = new double[row][inputColumn];
-        for (int i = 0; i < row; i++) {
-            for (int j = 0; j < inputColumn; j++) {
-                double result = 0d;
-                for (int k = 0; k < column; k++) {
-                    double thisNumber = this.numberArrays[i][k];
-                    double inputNumber = matrix.doGetDouble(k, j);
-                    double multi = thisNumber * inputNumber;
-                    result = result + multi;
-                }
-                numberArray[i][j] = result;
-            }
+    @Override
+    public Matrix doGemm(double alpha, boolean transpose, Matrix matrix, boolean matrixTranspose,
+                         double beta, Matrix addend) {
+        if (matrix instanceof ComplexMatrix || matrix instanceof ComplexMatrixView
+                || (beta != 0d && (addend instanceof ComplexMatrix || addend instanceof ComplexMatrixView))) {
+            return transform().doGemm(alpha, transpose, matrix, matrixTranspose, beta, addend);
         }
-        return new SimpleMatrix(numberArray);
+        return SimpleMatrixView.of(this).doGemm(alpha, transpose, matrix, matrixTranspose, beta, addend);
+    }
+
+    @Override
+    public void doMulti(double[] vector, double[] result) {
+        MatrixExecutor.forRows(row, column, 1, (from, to) -> {
+            DoubleKernels kernels = DoubleKernels.INSTANCE;
+            for (int i = from; i < to; i++) {
+                result[i] = kernels.dot(numbers, i * rowStride, vector, 0, column);
+            }
+        });
     }
 
     @Override
     public Matrix doHadamard(Matrix matrix) {
-        if (matrix instanceof ComplexMatrix complexMatrix) {
-            return complexMatrix.doHadamard(this);
+        if (MatrixSupport.isComplex(matrix)) {
+            return ComplexMatrixView.contiguous(matrix).doHadamard(this);
         }
-        int row = getRow();
-        int column = getColumn();
-        double[][] numberArray = new double[row][column];
-        for (int i = 0; i < row; i++) {
-            for (int j = 0; j < column; j++) {
-                numberArray[i][j] = this.numberArrays[i][j] * matrix.doGetDouble(i, j);
-            }
+        if (matrix instanceof SparseMatrix sparseMatrix) {
+            return sparseMatrix.doHadamard(this);
+        }
+        double[] numberArray = new double[row * column];
+        if (matrix instanceof SimpleMatrix simpleMatrix) {
+            double[] inputNumbers = simpleMatrix.numbers;
+            MatrixExecutor.forRows(row, column, 1, (from, to) ->
+                    DoubleKernels.INSTANCE.multiply(this.numbers, from * column, inputNumbers, from * column,
+                            numberArray, from * column, (to - from) * column));
+        } else {
+            MatrixExecutor.forRows(row, column, 1, (from, to) -> {
+                for (int i = from; i < to; i++) {
+                    int offset = i * rowStride;
+                    for (int j = 0; j < column; j++) {
+                        numberArray[offset + j] = this.numbers[offset + j] * matrix.doGetDouble(i, j);
+                    }
+                }
+            });
         }
-        return new SimpleMatrix(numberArray);
+        return new SimpleMatrix(row, column, numberArray);
     }
 
+    /**
+     * 转置只交换行间隔和列间隔 不拷贝数据
+     */
     @Override
     public Matrix transpose() {
-        int row = numberArrays.length;
-        int column = numberArrays[0].length;
-        double[][] newArray = new double[column][row];
-        for (int i = 0; i < row; i++) {
-            for (int j = 0; j < column; j++) {
-                newArray[j][i] = numberArrays[i][j];
-            }
-        }
-        return new SimpleMatrix(newArray);
+        return new SimpleMatrixView(numbers, 0, column, row, columnStride, rowStride);
+    }
+
+    @Override
+    public Matrix doSubmatrix(int rowFrom, int rowTo, int columnFrom, int columnTo) {
+        return new SimpleMatrixView(numbers, rowFrom * rowStride + columnFrom * columnStride,
+                rowTo - rowFrom, columnTo - columnFrom, rowStride, columnStride);
     }
 
     @Override
     public int getRow() {
-        return numberArrays.length;
+        return row;
     }
 
     @Override
     public int getColumn() {
-        return numberArrays[0].length;
+        return column;
     }
 
     @Override
     public double doGetDouble(int row, int column) {
-        return numberArrays[row][column];
+        return numbers[row * rowStride + column * columnStride];
     }
 
     @Override
     public double[] doGetDoubleRow(int row) {
-        return numberArrays[row];
+        int offset = row * rowStride;
+        return Arrays.copyOfRange(numbers, offset, offset + column);
     }
 
     @Override
@@ -143,10 +217,9 @@ public class SimpleMatrix implements Matrix {
 
     @Override
     public double[] doGetDoubleColumn(int column) {
-        int row = getRow();
         double[] result = new double[row];
         for (int i = 0; i < row; i++) {
-            result[i] = numberArrays[i][column];
+            result[i] = numbers[i * rowStride + column];
         }
         return result;
     }
@@ -159,7 +232,20 @@ public class SimpleMatrix implements Matrix {
 
     @Override
     public Determinant doToDeterminant() {
-        return new SimpleDeterminant(numberArrays);
+        return new SimpleDeterminant(row, numbers);
+    }
+
+    /**
+     * 只会分解一次
+     */
+    @Override
+    public QRDecomposition doQr() {
+        QRDecomposition qrDecomposition = this.qrDecomposition;
+        if (qrDecomposition == null) {
+            qrDecomposition = QRDecomposition.decompose(row, column, numbers);
+            this.qrDecomposition = qrDecomposition;
+        }
+        return qrDecomposition;
     }
 
     @Override
@@ -170,10 +256,11 @@ public class SimpleMatrix implements Matrix {
     @Override
     public String toString() {
         StringBuilder stringBuilder = new StringBuilder();
-        for (double[] itemArray : numberArrays) {
+        for (int i = 0; i < row; i++) {
             stringBuilder.append("| ");
-            for (double item : itemArray) {
-                stringBuilder.append(item).append(" ");
+            int offset = i * rowStride;
+            for (int j = 0; j < column; j++) {
+                stringBuilder.append(numbers[offset + j]).append(" ");
             }
             stringBuilder.append("|\r\n");
         }
@@ -188,15 +275,8 @@ public class SimpleMatrix implements Matrix {
      * @return 复数矩阵
      */
     private ComplexMatrix transform() {
-        int row = getRow();
-        int column = getColumn();
-        ComplexNumber[][] numberArray = new ComplexNumber[row][column];
-        for (int i = 0; i < row; i++) {
-            for (int j = 0; j < column; j++) {
-                numberArray[i][j] = new ComplexNumber(this.numberArrays[i][j]);
-            }
-        }
-        return new ComplexMatrix(numberArray);
+        // 当前矩阵不可变 实部直接共享底层数组
+        return new ComplexMatrix(row, column, numbers, new double[row * column]);
     }
 
     private ComplexNumber[] getComplexArray(double[] doubleArray) {
@@ -0,0 +1,326 @@
+package xyz.xpecya.math;
+
+/**
+ * 浮点数矩阵视图 和源矩阵共享底层数组 不会拷贝数据
+ * 第i行第j列的元素下标为 offset + i * rowStride + j * columnStride
+ *
+ * 转置只交换行间隔和列间隔 子矩阵只改变起始下标和长宽
+ * 矩阵乘法直接按间隔读取 a.transpose().multi(b) 不会生成转置后的矩阵
+ * 逐元素运算的结果是普通的浮点数矩阵
+ */
+public final class SimpleMatrixView implements Matrix {
+
+    final double[] numbers;
+
+    final int offset;
+
+    final int row;
+
+    final int column;
+
+    final int rowStride;
+
+    final int columnStride;
+
+    SimpleMatrixView(double[] numbers, int offset, int row, int column, int rowStride, int columnStride) {
+        this.numbers = numbers;
+        this.offset = offset;
+        this.row = row;
+        this.column = column;
+        this.rowStride = rowStride;
+        this.columnStride = columnStride;
+    }
+
+    /**
+     * 把浮点数矩阵表示为视图
+     * 浮点数矩阵直接共享底层数组 其他实现先逐行拷贝成一块连续内存
+     */
+    static SimpleMatrixView of(Matrix matrix) {
+        if (matrix instanceof SimpleMatrixView view) {
+            return view;
+        }
+        if (matrix instanceof SimpleMatrix simpleMatrix) {
+            return new SimpleMatrixView(simpleMatrix.numbers, 0, simpleMatrix.row, simpleMatrix.column,
+                    simpleMatrix.rowStride, simpleMatrix.columnStride);
+        }
+        int row = matrix.getRow();
+        int column = matrix.getColumn();
+        double[] numbers = new double[row * column];
+        for (int i = 0; i < row; i++) {
+            System.arraycopy(matrix.doGetDoubleRow(i), 0, numbers, i * column, column);
+        }
+        return new SimpleMatrixView(numbers, 0, row, column, column, 1);
+    }
+
+    /**
+     * 拷贝为行优先的连续数组
+     */
+    double[] toArray() {
+        double[] result = new double[row * column];
+        MatrixExecutor.forRows(row, column, 1, (from, to) -> {
+            for (int i = from; i < to; i++) {
+                copyRow(i, result, i * column);
+            }
+        });
+        return result;
+    }
+
+    /**
+     * 拷贝为普通的浮点数矩阵
+     */
+    SimpleMatrix copy() {
+        return new SimpleMatrix(row, column, toArray());
+    }
+
+    @Override
+    public Matrix doAdd(Matrix matrix) {
+        if (matrix instanceof ComplexMatrix || matrix instanceof ComplexMatrixView) {
+            return matrix.doAdd(this);
+        }
+        return elementWise(matrix, DoubleKernels.INSTANCE::add);
+    }
+
+    @Override
+    public Matrix doMinus(Matrix matrix) {
+        if (matrix instanceof ComplexMatrix || matrix instanceof ComplexMatrixView) {
+            return copy().doMinus(matrix);
+        }
+        return elementWise(matrix, DoubleKernels.INSTANCE::minus);
+    }
+
+    @Override
+    public Matrix multi(double input) {
+        double[] numberArray = toArray();
+        MatrixExecutor.forRows(row, column, 1, (from, to) ->
+                DoubleKernels.INSTANCE.scale(input, numberArray, from * column,
+                        numberArray, from * column, (to - from) * column));
+        return new SimpleMatrix(row, column, numberArray);
+    }
+
+    @Override
+    public Matrix doMulti(ComplexNumber complexNumber) {
+        return copy().doMulti(complexNumber);
+    }
+
+    @Override
+    public Matrix doMulti(Matrix matrix) {
+        if (matrix instanceof SparseMatrix || matrix instanceof ComplexMatrix || matrix instanceof ComplexMatrixView) {
+            return copy().doMulti(matrix);
+        }
+        if (matrix instanceof DiagonalMatrix diagonalMatrix) {
+            return diagonalMatrix.leftMulti(this);
+        }
+        SimpleMatrixView input = of(matrix.evaluate());
+        int inputColumn = input.column;
+        double[] numberArray = new double[row * inputColumn];
+        if (row == column && column == inputColumn && columnStride == 1 && input.columnStride == 1
+                && DoubleStrassen.accept(row)) {
+            // 足够大的方阵走Strassen乘法
+            DoubleStrassen.multiply(row, numbers, offset, rowStride, input.numbers, input.offset, input.rowStride,
+                    numberArray, 0, inputColumn);
+            return new SimpleMatrix(row, inputColumn, numberArray);
+        }
+        // 按A的行块拆分任务 每个任务各自打包 互不干扰
+        MatrixExecutor.forRows(row, (long) column * inputColumn, DoubleGemm.MR, (from, to) ->
+                DoubleGemm.multiply(to - from, inputColumn, column,
+                        numbers, offset + from * rowStride, rowStride, columnStride,
+                        input.numbers, input.offset, input.rowStride, input.columnStride,
+                        numberArray, from * inputColumn, inputColumn));
+        return new SimpleMatrix(row, inputColumn, numberArray);
+    }
+
+    @Override
+    public Matrix doGemm(double alpha, boolean transpose, Matrix matrix, boolean matrixTranspose,
+                         double beta, Matrix addend) {
+        if (matrix instanceof ComplexMatrix || matrix instanceof ComplexMatrixView
+                || (beta != 0d && (addend instanceof ComplexMatrix || addend instanceof ComplexMatrixView))) {
+            return ComplexMatrixView.of(this).doGemm(alpha, transpose, matrix, matrixTranspose, beta, addend);
+        }
+        // 转置只交换行间隔和列间隔
+        int m = transpose ? column : row;
+        int k = transpose ? row : column;
+        int aRowStride = transpose ? columnStride : rowStride;
+        int aColumnStride = transpose ? rowStride : columnStride;
+
+        SimpleMatrixView input = of(matrix.evaluate());
+        int n = matrixTranspose ? input.row : input.column;
+        int bRowStride = matrixTranspose ? input.columnStride : input.rowStride;
+        int bColumnStride = matrixTranspose ? input.rowStride : input.columnStride;
+
+        SimpleMatrixView accumulate = beta == 0d ? null : of(addend.evaluate());
+        double[] numberArray = new double[m * n];
+        MatrixExecutor.forRows(m, (long) k * n, DoubleGemm.MR, (from, to) -> {
+            // 先把beta * C写入结果 再把乘积直接累加在上面
+            if (accumulate != null) {
+                for (int i = from; i < to; i++) {
+                    accumulate.copyRow(i, numberArray, i * n);
+                }
+                DoubleKernels.INSTANCE.scale(beta, numberArray, from * n, numberArray, from * n, (to - from) * n);
+            }
+            DoubleGemm.multiply(to - from, n, k, alpha, numbers, offset + from * aRowStride, aRowStride, aColumnStride,
+                    input.numbers, input.offset, bRowStride, bColumnStride, numberArray, from * n, n);
+        });
+        return new SimpleMatrix(m, n, numberArray);
+    }
+
+    @Override
+    public void doMulti(double[] vector, double[] result) {
+        MatrixExecutor.forRows(row, column, 1, (from, to) -> {
+            DoubleKernels kernels = DoubleKernels.INSTANCE;
+            for (int i = from; i < to; i++) {
+                int rowOffset = offset + i * rowStride;
+                if (columnStride == 1) {
+                    result[i] = kernels.dot(numbers, rowOffset, vector, 0, column);
+                    continue;
+                }
+                double sum = 0d;
+                for (int j = 0; j < column; j++) {
+                    sum += numbers[rowOffset + j * columnStride] * vector[j];
+                }
+                result[i] = sum;
+            }
+        });
+    }
+
+    @Override
+    public Matrix doHadamard(Matrix matrix) {
+        if (matrix instanceof ComplexMatrix || matrix instanceof ComplexMatrixView) {
+            return matrix.doHadamard(this);
+        }
+        return elementWise(matrix, DoubleKernels.INSTANCE::multiply);
+    }
+
+    @Override
+    public Matrix transpose() {
+        return new SimpleMatrixView(numbers, offset, column, row, columnStride, rowStride);
+    }
+
+    @Override
+    public Matrix doSubmatrix(int rowFrom, int rowTo, int columnFrom, int columnTo) {
+        return new SimpleMatrixView(numbers, offset + rowFrom * rowStride + columnFrom * columnStride,
+                rowTo - rowFrom, columnTo - columnFrom, rowStride, columnStride);
+    }
+
+    @Override
+    public int getRow() {
+        return row;
+    }
+
+    @Override
+    public int getColumn() {
+        return column;
+    }
+
+    @Override
+    public double doGetDouble(int row, int column) {
+        return numbers[offset + row * rowStride + column * columnStride];
+    }
+
+    @Override
+    public ComplexNumber doGetComplex(int row, int column) {
+        return new ComplexNumber(doGetDouble(row, column));
+    }
+
+    @Override
+    public double[] doGetDoubleRow(int row) {
+        double[] result = new double[column];
+        copyRow(row, result, 0);
+        return result;
+    }
+
+    @Override
+    public ComplexNumber[] doGetComplexRow(int row) {
+        ComplexNumber[] result = new ComplexNumber[column];
+        for (int j = 0; j < column; j++) {
+            result[j] = new ComplexNumber(doGetDouble(row, j));
+        }
+        return result;
+    }
+
+    @Override
+    public double[] doGetDoubleColumn(int column) {
+        double[] result = new double[row];
+        for (int i = 0; i < row; i++) {
+            result[i] = doGetDouble(i, column);
+        }
+        return result;
+    }
+
+    @Override
+    public ComplexNumber[] doGetComplexColumn(int column) {
+        ComplexNumber[] result = new ComplexNumber[row];
+        for (int i = 0; i < row; i++) {
+            result[i] = new ComplexNumber(doGetDouble(i, column));
+        }
+        return result;
+    }
+
+    @Override
+    public Determinant doToDeterminant() {
+        return new SimpleDeterminant(row, toArray());
+    }
+
+    @Override
+    public QRDecomposition doQr() {
+        return QRDecomposition.decompose(row, column, toArray());
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder stringBuilder = new StringBuilder();
+        for (int i = 0; i < row; i++) {
+            stringBuilder.append("| ");
+            for (int j = 0; j < column; j++) {
+                stringBuilder.append(doGetDouble(i, j)).append(" ");
+            }
+            stringBuilder.append("|\r\n");
+        }
+        return stringBuilder.toString();
+    }
+
+    /**
+     * 把第i行拷贝到target[targetOffset, targetOffset + column)
+     */
+    void copyRow(int i, double[] target, int targetOffset) {
+        int rowOffset = offset + i * rowStride;
+        if (columnStride == 1) {
+            System.arraycopy(numbers, rowOffset, target, targetOffset, column);
+            return;
+        }
+        for (int j = 0; j < column; j++) {
+            target[targetOffset + j] = numbers[rowOffset + j * columnStride];
+        }
+    }
+
+    /**
+     * 结果先拷贝当前视图 再逐行和入参矩阵原地计算
+     */
+    private Matrix elementWise(Matrix matrix, ElementWise operator) {
+        Matrix input = matrix.evaluate();
+        double[] numberArray = toArray();
+        MatrixExecutor.forRows(row, column, 1, (from, to) -> {
+            for (int i = from; i < to; i++) {
+                int target = i * column;
+                if (input instanceof SimpleMatrix simpleMatrix) {
+                    operator.apply(numberArray, target, simpleMatrix.numbers, i * simpleMatrix.rowStride,
+                            numberArray, target, column);
+                } else if (input instanceof SimpleMatrixView view && view.columnStride == 1) {
+                    operator.apply(numberArray, target, view.numbers, view.offset + i * view.rowStride,
+                            numberArray, target, column);
+                } else {
+                    operator.apply(numberArray, target, input.doGetDoubleRow(i), 0, numberArray, target, column);
+                }
+            }
+        });
+        return new SimpleMatrix(row, column, numberArray);
+    }
+
+    /**
+     * DoubleKernels中的逐元素运算 z = x op y
+     */
+    @FunctionalInterface
+    private interface ElementWise {
+
+        void apply(double[] x, int xOffset, double[] y, int yOffset, double[] z, int zOffset, int length);
+    }
+}
@@ -0,0 +1,613 @@
+package xyz.xpecya.math;
+
+import java.util.Arrays;
+
+/**
+ * 稀疏矩阵 使用压缩行存储 (CSR)
+ * 第i行的非零元素存放在 [rowPointer[i], rowPointer[i + 1]) 中
+ * columnIndex保存对应元素的列 同一行内按列从小到大排列
+ * 只保存非零元素 内存占用与非零元素个数成正比
+ *
+ * 稀疏矩阵之间的加减 乘法和转置结果仍然是稀疏矩阵
+ * 和稠密矩阵混合运算时 结果的稀疏性无法保证的运算返回稠密矩阵
+ */
+public class SparseMatrix implements Matrix {
+
+    /**
+     * toString最多输出的非零元素个数
+     */
+    private static final int TO_STRING_LIMIT = 16;
+
+    protected final int row;
+
+    protected final int column;
+
+    /**
+     * 每一行第一个非零元素的下标 长度为row + 1
+     */
+    protected final int[] rowPointer;
+
+    /**
+     * 每个非零元素所在的列
+     */
+    protected final int[] columnIndex;
+
+    /**
+     * 非零元素的值
+     */
+    protected final double[] values;
+
+    SparseMatrix(int row, int column, int[] rowPointer, int[] columnIndex, double[] values) {
+        this.row = row;
+        this.column = column;
+        this.rowPointer = rowPointer;
+        this.columnIndex = columnIndex;
+        this.values = values;
+    }
+
+    /**
+     * 创建稀疏矩阵构造器
+     *
+     * @param row 行数
+     * @param column 列数
+     */
+    public static Builder builder(int row, int column) {
+        if (row < 1) {
+            throw new IllegalArgumentException("row can't be less than 1! got " + row);
+        }
+        if (column < 1) {
+            throw new IllegalArgumentException("column can't be less than 1! got " + column);
+        }
+        return new Builder(row, column);
+    }
+
+    /**
+     * 获取非零元素的个数
+     */
+    public int getNonZeroCount() {
+        return rowPointer[row];
+    }
+
+    /**
+     * 转换为稠密矩阵
+     */
+    public Matrix toDense() {
+        return new SimpleMatrix(row, column, denseArray());
+    }
+
+    @Override
+    public Matrix doAdd(Matrix matrix) {
+        if (matrix instanceof SparseMatrix sparseMatrix) {
+            return merge(sparseMatrix, 1d);
+        }
+        if (MatrixSupport.isComplex(matrix)) {
+            return ComplexMatrixView.contiguous(matrix).doAdd(this);
+        }
+        double[] numberArray = MatrixSupport.denseArray(matrix);
+        scatter(1d, numberArray);
+        return new SimpleMatrix(row, column, numberArray);
+    }
+
+    @Override
+    public Matrix doMinus(Matrix matrix) {
+        if (matrix instanceof SparseMatrix sparseMatrix) {
+            return merge(sparseMatrix, -1d);
+        }
+        if (MatrixSupport.isComplex(matrix)) {
+            return ComplexMatrixView.contiguous(matrix).multi(-1d).doAdd(this);
+        }
+        double[] numberArray = MatrixSupport.denseArray(matrix);
+        DoubleKernels.INSTANCE.scale(-1d, numberArray, 0, numberArray, 0, numberArray.length);
+        scatter(1d, numberArray);
+        return new SimpleMatrix(row, column, numberArray);
+    }
+
+    @Override
+    public Matrix multi(double input) {
+        double[] valueArray = new double[values.length];
+        DoubleKernels.INSTANCE.scale(input, values, 0, valueArray, 0, values.length);
+        return new SparseMatrix(row, column, rowPointer, columnIndex, valueArray);
+    }
+
+    @Override
+    public Matrix doMulti(ComplexNumber complexNumber) {
+        return MatrixSupport.multi(this, complexNumber);
+    }
+
+    /**
+     * 右侧为稀疏矩阵时使用Gustavson算法 结果为稀疏矩阵
+     * 右侧为稠密矩阵时每个非零元素对应一次行的axpy 结果为稠密矩阵
+     * 都按结果的行拆分 可以并行计算
+     */
+    @Override
+    public Matrix doMulti(Matrix matrix) {
+        if (matrix instanceof DiagonalMatrix diagonalMatrix) {
+            return diagonalMatrix.leftMulti(this);
+        }
+        if (matrix instanceof SparseMatrix sparseMatrix) {
+            return multiSparse(sparseMatrix);
+        }
+        if (matrix instanceof ComplexMatrixView view) {
+            // 复数视图先拷贝成连续存储
+            return doMulti(view.copy());
+        }
+        int inputColumn = matrix.getColumn();
+        long workPerRow = Math.max(1L, (long) getNonZeroCount() / row * inputColumn);
+        DoubleKernels kernels = DoubleKernels.INSTANCE;
+        if (matrix instanceof ComplexMatrix complexMatrix) {
+            double[] realArray = new double[row * inputColumn];
+            double[] imaginaryArray = new double[row * inputColumn];
+            MatrixExecutor.forRows(row, workPerRow * 2, 1, (from, to) -> {
+                for (int i = from; i < to; i++) {
+                    for (int p = rowPointer[i]; p < rowPointer[i + 1]; p++) {
+                        int offset = columnIndex[p] * inputColumn;
+                        kernels.axpy(values[p], complexMatrix.real, offset, realArray, i * inputColumn, inputColumn);
+                        kernels.axpy(values[p], complexMatrix.imaginary, offset,
+                                imaginaryArray, i * inputColumn, inputColumn);
+                    }
+                }
+            });
+            return new ComplexMatrix(row, inputColumn, realArray, imaginaryArray);
+        }
+        double[] inputNumbers;
+        if (matrix instanceof SimpleMatrix simpleMatrix) {
+            inputNumbers = simpleMatrix.numbers;
+        } else {
+            inputNumbers = new double[column * inputColumn];
+            for (int k = 0; k < column; k++) {
+                System.arraycopy(matrix.doGetDoubleRow(k), 0, inputNumbers, k * inputColumn, inputColumn);
+            }
+        }
+        double[] numberArray = new double[row * inputColumn];
+        MatrixExecutor.forRows(row, workPerRow, 1, (from, to) -> {
+            for (int i = from; i < to; i++) {
+                for (int p = rowPointer[i]; p < rowPointer[i + 1]; p++) {
+                    kernels.axpy(values[p], inputNumbers, columnIndex[p] * inputColumn,
+                            numberArray, i * inputColumn, inputColumn);
+                }
+            }
+        });
+        return new SimpleMatrix(row, inputColumn, numberArray);
+    }
+
+    /**
+     * 稀疏矩阵乘以向量 (SpMV) 按行拆分
+     */
+    @Override
+    public void doMulti(double[] vector, double[] result) {
+        long workPerRow = Math.max(1L, (long) getNonZeroCount() / row);
+        MatrixExecutor.forRows(row, workPerRow, 1, (from, to) -> {
+            for (int i = from; i < to; i++) {
+                double sum = 0d;
+                for (int p = rowPointer[i]; p < rowPointer[i + 1]; p++) {
+                    sum += values[p] * vector[columnIndex[p]];
+                }
+                result[i] = sum;
+            }
+        });
+    }
+
+    /**
+     * 只有当前矩阵的非零位置可能非零 结果为稀疏矩阵
+     */
+    @Override
+    public Matrix doHadamard(Matrix matrix) {
+        if (MatrixSupport.isComplex(matrix)) {
+            return ComplexMatrixView.contiguous(matrix).doHadamard(this);
+        }
+        double[] valueArray = new double[values.length];
+        if (matrix instanceof SimpleMatrix simpleMatrix) {
+            for (int i = 0; i < row; i++) {
+                int offset = i * simpleMatrix.rowStride;
+                for (int p = rowPointer[i]; p < rowPointer[i + 1]; p++) {
+                    valueArray[p] = values[p] * simpleMatrix.numbers[offset + columnIndex[p]];
+                }
+            }
+        } else {
+            for (int i = 0; i < row; i++) {
+                for (int p = rowPointer[i]; p < rowPointer[i + 1]; p++) {
+                    valueArray[p] = values[p] * matrix.doGetDouble(i, columnIndex[p]);
+                }
+            }
+        }
+        return new SparseMatrix(row, column, rowPointer, columnIndex, valueArray);
+    }
+
+    /**
+     * 先统计每一列的非零元素个数 再按行顺序填入 复杂度O(nnz)
+     * 填入顺序保证转置后每一行内仍然按列排列
+     */
+    @Override
+    public Matrix transpose() {
+        int nonZero = getNonZeroCount();
+        int[] pointer = new int[column + 1];
+        for (int p = 0; p < nonZero; p++) {
+            pointer[columnIndex[p] + 1]++;
+        }
+        for (int j = 0; j < column; j++) {
+            pointer[j + 1] += pointer[j];
+        }
+        int[] next = Arrays.copyOf(pointer, column);
+        int[] indexArray = new int[nonZero];
+        double[] valueArray = new double[nonZero];
+        for (int i = 0; i < row; i++) {
+            for (int p = rowPointer[i]; p < rowPointer[i + 1]; p++) {
+                int target = next[columnIndex[p]]++;
+                indexArray[target] = i;
+                valueArray[target] = values[p];
+            }
+        }
+        return new SparseMatrix(column, row, pointer, indexArray, valueArray);
+    }
+
+    @Override
+    public int getRow() {
+        return row;
+    }
+
+    @Override
+    public int getColumn() {
+        return column;
+    }
+
+    /**
+     * 在行内二分查找
+     */
+    @Override
+    public double doGetDouble(int row, int column) {
+        int from = rowPointer[row];
+        int to = rowPointer[row + 1];
+        int index = Arrays.binarySearch(columnIndex, from, to, column);
+        return index < 0 ? 0d : values[index];
+    }
+
+    @Override
+    public double[] doGetDoubleRow(int row) {
+        double[] result = new double[column];
+        for (int p = rowPointer[row]; p < rowPointer[row + 1]; p++) {
+            result[columnIndex[p]] = values[p];
+        }
+        return result;
+    }
+
+    @Override
+    public ComplexNumber[] doGetComplexRow(int row) {
+        return MatrixSupport.complexRow(doGetDoubleRow(row));
+    }
+
+    @Override
+    public double[] doGetDoubleColumn(int column) {
+        double[] result = new double[row];
+        for (int i = 0; i < row; i++) {
+            result[i] = doGetDouble(i, column);
+        }
+        return result;
+    }
+
+    @Override
+    public ComplexNumber[] doGetComplexColumn(int column) {
+        ComplexNumber[] result = new ComplexNumber[row];
+        for (int i = 0; i < row; i++) {
+            result[i] = new ComplexNumber(doGetDouble(i, column));
+        }
+        return result;
+    }
+
+    /**
+     * 目前的行列式都是稠密的 转换时会展开成稠密数组
+     */
+    @Override
+    public Determinant doToDeterminant() {
+        return new SimpleDeterminant(row, denseArray());
+    }
+
+    @Override
+    public QRDecomposition doQr() {
+        return QRDecomposition.decompose(row, column, denseArray());
+    }
+
+    @Override
+    public ComplexNumber doGetComplex(int row, int column) {
+        return new ComplexNumber(doGetDouble(row, column));
+    }
+
+    /**
+     * 只输出行列数 非零元素个数和前几个非零元素 避免大矩阵按稠密格式输出时耗尽内存
+     */
+    @Override
+    public String toString() {
+        int nonZero = getNonZeroCount();
+        StringBuilder stringBuilder = new StringBuilder("SparseMatrix row = ").append(row)
+                .append(", column = ").append(column)
+                .append(", nonZero = ").append(nonZero);
+        int count = Math.min(nonZero, TO_STRING_LIMIT);
+        int i = 0;
+        for (int p = 0; p < count; p++) {
+            while (rowPointer[i + 1] <= p) {
+                i++;
+            }
+            stringBuilder.append("\r\n(").append(i).append(", ").append(columnIndex[p]).append(") ")
+                    .append(values[p]);
+        }
+        if (nonZero > count) {
+            stringBuilder.append("\r\n...");
+        }
+        return stringBuilder.toString();
+    }
+
+    /**
+     * 把 alpha * 当前矩阵 累加到行优先存放的稠密数组上
+     */
+    void scatter(double alpha, double[] target) {
+        for (int i = 0; i < row; i++) {
+            int offset = i * column;
+            for (int p = rowPointer[i]; p < rowPointer[i + 1]; p++) {
+                target[offset + columnIndex[p]] += alpha * values[p];
+            }
+        }
+    }
+
+    /**
+     * 计算 left * 当前矩阵 left为稠密矩阵
+     * left的每个元素对应当前矩阵一行的稀疏axpy
+     */
+    Matrix leftMulti(SimpleMatrix left) {
+        int leftRow = left.row;
+        double[] numberArray = new double[leftRow * column];
+        long workPerRow = Math.max(1L, getNonZeroCount());
+        MatrixExecutor.forRows(leftRow, workPerRow, 1, (from, to) -> {
+            for (int i = from; i < to; i++) {
+                int leftOffset = i * left.rowStride;
+                int offset = i * column;
+                for (int k = 0; k < row; k++) {
+                    double item = left.numbers[leftOffset + k * left.columnStride];
+                    if (item == 0d) {
+                        continue;
+                    }
+                    for (int p = rowPointer[k]; p < rowPointer[k + 1]; p++) {
+                        numberArray[offset + columnIndex[p]] += item * values[p];
+                    }
+                }
+            }
+        });
+        return new SimpleMatrix(leftRow, column, numberArray);
+    }
+
+    /**
+     * 每一行乘以factor中对应的元素 即 diag(factor) * 当前矩阵
+     */
+    SparseMatrix scaleRows(double[] factor) {
+        double[] valueArray = new double[values.length];
+        for (int i = 0; i < row; i++) {
+            for (int p = rowPointer[i]; p < rowPointer[i + 1]; p++) {
+                valueArray[p] = values[p] * factor[i];
+            }
+        }
+        return new SparseMatrix(row, column, rowPointer, columnIndex, valueArray);
+    }
+
+    /**
+     * 每一列乘以factor中对应的元素 即 当前矩阵 * diag(factor)
+     */
+    SparseMatrix scaleColumns(double[] factor) {
+        double[] valueArray = new double[values.length];
+        for (int p = 0; p < values.length; p++) {
+            valueArray[p] = values[p] * factor[columnIndex[p]];
+        }
+        return new SparseMatrix(row, column, rowPointer, columnIndex, valueArray);
+    }
+
+    private double[] denseArray() {
+        double[] result = new double[row * column];
+        scatter(1d, result);
+        return result;
+    }
+
+    /**
+     * 当前矩阵 + alpha * matrix 按行合并两个有序的列序列
+     */
+    private SparseMatrix merge(SparseMatrix matrix, double alpha) {
+        int[] pointer = new int[row + 1];
+        for (int i = 0; i < row; i++) {
+            int p = rowPointer[i];
+            int q = matrix.rowPointer[i];
+            int count = 0;
+            while (p < rowPointer[i + 1] || q < matrix.rowPointer[i + 1]) {
+                int first = p < rowPointer[i + 1] ? columnIndex[p] : Integer.MAX_VALUE;
+                int second = q < matrix.rowPointer[i + 1] ? matrix.columnIndex[q] : Integer.MAX_VALUE;
+                if (first <= second) {
+                    p++;
+                }
+                if (second <= first) {
+                    q++;
+                }
+                count++;
+            }
+            pointer[i + 1] = pointer[i] + count;
+        }
+        int[] indexArray = new int[pointer[row]];
+        double[] valueArray = new double[pointer[row]];
+        for (int i = 0; i < row; i++) {
+            int p = rowPointer[i];
+            int q = matrix.rowPointer[i];
+            int target = pointer[i];
+            while (p < rowPointer[i + 1] || q < matrix.rowPointer[i + 1]) {
+                int first = p < rowPointer[i + 1] ? columnIndex[p] : Integer.MAX_VALUE;
+                int second = q < matrix.rowPointer[i + 1] ? matrix.columnIndex[q] : Integer.MAX_VALUE;
+                double value = 0d;
+                if (first <= second) {
+                    value += values[p++];
+                }
+                if (second <= first) {
+                    value += alpha * matrix.values[q++];
+                }
+                indexArray[target] = Math.min(first, second);
+                valueArray[target++] = value;
+            }
+        }
+        return new SparseMatrix(row, column, pointer, indexArray, valueArray);
+    }
+
+    /**
+     * Gustavson算法
+     * 第一遍用标记数组统计结果每一行的非零元素个数 第二遍用稠密累加器计算
+     * 两遍都按行拆分 每个任务使用自己的标记数组和累加器
+     */
+    private SparseMatrix multiSparse(SparseMatrix matrix) {
+        int inputColumn = matrix.column;
+        long workPerRow = Math.max(1L, (long) getNonZeroCount() / row * matrix.getNonZeroCount() / matrix.row);
+        int[] pointer = new int[row + 1];
+        MatrixExecutor.forRows(row, workPerRow, 1, (from, to) -> {
+            int[] marker = new int[inputColumn];
+            Arrays.fill(marker, -1);
+            for (int i = from; i < to; i++) {
+                int count = 0;
+                for (int p = rowPointer[i]; p < rowPointer[i + 1]; p++) {
+                    int k = columnIndex[p];
+                    for (int q = matrix.rowPointer[k]; q < matrix.rowPointer[k + 1]; q++) {
+                        int j = matrix.columnIndex[q];
+                        if (marker[j] != i) {
+                            marker[j] = i;
+                            count++;
+                        }
+                    }
+                }
+                pointer[i + 1] = count;
+            }
+        });
+        for (int i = 0; i < row; i++) {
+            pointer[i + 1] += pointer[i];
+        }
+        int[] indexArray = new int[pointer[row]];
+        double[] valueArray = new double[pointer[row]];
+        MatrixExecutor.forRows(row, workPerRow, 1, (from, to) -> {
+            int[] marker = new int[inputColumn];
+            Arrays.fill(marker, -1);
+            double[] accumulator = new double[inputColumn];
+            for (int i = from; i < to; i++) {
+                int target = pointer[i];
+                for (int p = rowPointer[i]; p < rowPointer[i + 1]; p++) {
+                    int k = columnIndex[p];
+                    double item = values[p];
+                    for (int q = matrix.rowPointer[k]; q < matrix.rowPointer[k + 1]; q++) {
+                        int j = matrix.columnIndex[q];
+                        if (marker[j] != i) {
+                            marker[j] = i;
+                            indexArray[target++] = j;
+                            accumulator[j] = 0d;
+                        }
+                        accumulator[j] += item * matrix.values[q];
+                    }
+                }
+                Arrays.sort(indexArray, pointer[i], pointer[i + 1]);
+                for (int p = pointer[i]; p < pointer[i + 1]; p++) {
+                    valueArray[p] = accumulator[indexArray[p]];
+                }
+            }
+        });
+        return new SparseMatrix(row, inputColumn, pointer, indexArray, valueArray);
+    }
+
+    /**
+     * 用COO三元组构造稀疏矩阵
+     * 同一位置多次添加的值会累加
+     * 非线程安全
+     */
+    public static final class Builder {
+
+        private final int row;
+
+        private final int column;
+
+        private int size;
+
+        private int[] rows = new int[16];
+
+        private int[] columns = new int[16];
+
+        private double[] values = new double[16];
+
+        private Builder(int row, int column) {
+            this.row = row;
+            this.column = column;
+        }
+
+        /**
+         * 添加一个元素
+         *
+         * @param row 行
+         * @param column 列
+         * @param value 值
+         * @return 当前构造器
+         */
+        public Builder add(int row, int column, double value) {
+            if (row < 0 || row >= this.row) {
+                throw new IllegalArgumentException("row = " + row + ", matrix's row = " + this.row);
+            }
+            if (column < 0 || column >= this.column) {
+                throw new IllegalArgumentException("column = " + column + ", matrix's column = " + this.column);
+            }
+            if (size == rows.length) {
+                int capacity = size * 2;
+                rows = Arrays.copyOf(rows, capacity);
+                columns = Arrays.copyOf(columns, capacity);
+                values = Arrays.copyOf(values, capacity);
+            }
+            rows[size] = row;
+            columns[size] = column;
+            values[size] = value;
+            size++;
+            return this;
+        }
+
+        /**
+         * 按行计数排序 再在每一行内按列排序并合并重复位置
+         * 构造器可以继续使用 不会影响已经构造的矩阵
+         */
+        public SparseMatrix build() {
+            int[] pointer = new int[row + 1];
+            for (int p = 0; p < size; p++) {
+                pointer[rows[p] + 1]++;
+            }
+            for (int i = 0; i < row; i++) {
+                pointer[i + 1] += pointer[i];
+            }
+            int[] next = Arrays.copyOf(pointer, row);
+            int[] order = new int[size];
+            for (int p = 0; p < size; p++) {
+                order[next[rows[p]]++] = p;
+            }
+            int[] indexArray = new int[size];
+            double[] valueArray = new double[size];
+            int[] mergedPointer = new int[row + 1];
+            long[] keys = new long[0];
+            int target = 0;
+            for (int i = 0; i < row; i++) {
+                int from = pointer[i];
+                int count = pointer[i + 1] - from;
+                if (keys.length < count) {
+                    keys = new long[count];
+                }
+                // 高位为列 低位为原下标 排序后同一列的元素相邻且保持添加顺序
+                for (int p = 0; p < count; p++) {
+                    int index = order[from + p];
+                    keys[p] = ((long) columns[index] << 32) | index;
+                }
+                Arrays.sort(keys, 0, count);
+                for (int p = 0; p < count; p++) {
+                    int columnValue = (int) (keys[p] >>> 32);
+                    double value = values[(int) keys[p]];
+                    if (target > mergedPointer[i] && indexArray[target - 1] == columnValue) {
+                        valueArray[target - 1] += value;
+                    } else {
+                        indexArray[target] = columnValue;
+                        valueArray[target++] = value;
+                    }
+                }
+                mergedPointer[i + 1] = target;
+            }
+            return new SparseMatrix(row, column, mergedPointer,
+                    Arrays.copyOf(indexArray, target), Arrays.copyOf(valueArray, target));
+        }
+    }
+}
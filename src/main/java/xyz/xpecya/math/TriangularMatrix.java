@@ -0,0 +1,642 @@
+package xyz.xpecya.math;
+
+/**
+ * 三角方阵 只按行紧凑存放三角部分的 n * (n + 1) / 2 个元素
+ * 下三角矩阵第i行存放列 [0, i] 上三角矩阵第i行存放列 [i, n - 1]
+ *
+ * 行列式是对角线之积 求解只需要一次前代或回代 都不需要分解
+ * 同方向的三角矩阵之间加减和相乘结果仍然是三角矩阵
+ */
+public class TriangularMatrix implements Determinant {
+
+    protected final int length;
+
+    /**
+     * 是否为下三角矩阵
+     */
+    protected final boolean lower;
+
+    /**
+     * 按行紧凑存放的三角部分
+     */
+    protected final double[] packed;
+
+    /**
+     * 求解器
+     */
+    private LinearSolver solver;
+
+    TriangularMatrix(int length, boolean lower, double[] packed) {
+        this.length = length;
+        this.lower = lower;
+        this.packed = packed;
+    }
+
+    /**
+     * 用浮点数组的下三角部分创建下三角矩阵
+     * 对角线以上的元素会被忽略 缺失的元素和null行视为0
+     *
+     * @param numberArray 浮点数组 边长为其行数
+     */
+    public static TriangularMatrix lower(double[][] numberArray) {
+        return create(numberArray, true);
+    }
+
+    /**
+     * 用浮点数组的上三角部分创建上三角矩阵
+     * 对角线以下的元素会被忽略 缺失的元素和null行视为0
+     *
+     * @param numberArray 浮点数组 边长为其行数
+     */
+    public static TriangularMatrix upper(double[][] numberArray) {
+        return create(numberArray, false);
+    }
+
+    private static TriangularMatrix create(double[][] numberArray, boolean lower) {
+        if (numberArray == null) {
+            throw new IllegalArgumentException("numberArray can't be null!");
+        }
+        int length = numberArray.length;
+        if (length < 1) {
+            throw new IllegalArgumentException("numberArray's length can't be less than 1! got " + length);
+        }
+        TriangularMatrix result = new TriangularMatrix(length, lower, new double[packedLength(length)]);
+        for (int i = 0; i < length; i++) {
+            double[] doubleArray = numberArray[i];
+            if (doubleArray == null) {
+                continue;
+            }
+            int first = result.first(i);
+            int last = Math.min(result.last(i), doubleArray.length - 1);
+            if (last >= first) {
+                System.arraycopy(doubleArray, first, result.packed, result.offset(i), last - first + 1);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 是否为下三角矩阵
+     */
+    public boolean isLower() {
+        return lower;
+    }
+
+    /**
+     * 获取对角线
+     */
+    public double[] getDiagonal() {
+        double[] result = new double[length];
+        for (int i = 0; i < length; i++) {
+            result[i] = packed[diagonalIndex(i)];
+        }
+        return result;
+    }
+
+    /**
+     * 转换为稠密矩阵
+     */
+    public Matrix toDense() {
+        return new SimpleMatrix(length, length, denseArray());
+    }
+
+    /**
+     * 同方向的三角矩阵或对角矩阵相加时结果仍然是三角矩阵
+     */
+    @Override
+    public Matrix doAdd(Matrix matrix) {
+        if (matrix instanceof TriangularMatrix triangularMatrix && triangularMatrix.lower == lower) {
+            double[] packedArray = new double[packed.length];
+            DoubleKernels.INSTANCE.add(packed, 0, triangularMatrix.packed, 0, packedArray, 0, packed.length);
+            return new TriangularMatrix(length, lower, packedArray);
+        }
+        if (matrix instanceof DiagonalMatrix diagonalMatrix) {
+            double[] packedArray = packed.clone();
+            for (int i = 0; i < length; i++) {
+                packedArray[diagonalIndex(i)] += diagonalMatrix.diagonal[i];
+            }
+            return new TriangularMatrix(length, lower, packedArray);
+        }
+        if (MatrixSupport.isComplex(matrix)) {
+            return ComplexMatrixView.contiguous(matrix).doAdd(this);
+        }
+        double[] numberArray = MatrixSupport.denseArray(matrix);
+        scatter(1d, numberArray);
+        return new SimpleMatrix(length, length, numberArray);
+    }
+
+    @Override
+    public Matrix doMinus(Matrix matrix) {
+        if (matrix instanceof TriangularMatrix || matrix instanceof DiagonalMatrix) {
+            return doAdd(matrix.multi(-1d));
+        }
+        if (MatrixSupport.isComplex(matrix)) {
+            return ComplexMatrixView.contiguous(matrix).multi(-1d).doAdd(this);
+        }
+        double[] numberArray = MatrixSupport.denseArray(matrix);
+        DoubleKernels.INSTANCE.scale(-1d, numberArray, 0, numberArray, 0, numberArray.length);
+        scatter(1d, numberArray);
+        return new SimpleMatrix(length, length, numberArray);
+    }
+
+    @Override
+    public Matrix multi(double input) {
+        double[] packedArray = new double[packed.length];
+        DoubleKernels.INSTANCE.scale(input, packed, 0, packedArray, 0, packed.length);
+        return new TriangularMatrix(length, lower, packedArray);
+    }
+
+    @Override
+    public Matrix doMulti(ComplexNumber complexNumber) {
+        return MatrixSupport.multi(this, complexNumber);
+    }
+
+    /**
+     * 同方向的三角矩阵相乘结果仍然是三角矩阵 乘法次数约为稠密矩阵的六分之一
+     * 右侧为稠密矩阵时每个三角部分的元素对应一次行的axpy 乘法次数约为稠密矩阵的一半
+     */
+    @Override
+    public Matrix doMulti(Matrix matrix) {
+        if (matrix instanceof DiagonalMatrix diagonalMatrix) {
+            return diagonalMatrix.leftMulti(this);
+        }
+        DoubleKernels kernels = DoubleKernels.INSTANCE;
+        if (matrix instanceof TriangularMatrix triangularMatrix && triangularMatrix.lower == lower) {
+            double[] packedArray = new double[packed.length];
+            MatrixExecutor.forRows(length, length, 1, (from, to) -> {
+                for (int i = from; i < to; i++) {
+                    int offset = offset(i);
+                    int first = first(i);
+                    for (int k = first; k <= last(i); k++) {
+                        double item = packed[offset + k - first];
+                        if (item == 0d) {
+                            continue;
+                        }
+                        // 结果的第i行和右侧第k行共同的列
+                        int start = triangularMatrix.first(k);
+                        int end = triangularMatrix.last(k);
+                        kernels.axpy(item, triangularMatrix.packed, triangularMatrix.offset(k),
+                                packedArray, offset + start - first, end - start + 1);
+                    }
+                }
+            });
+            return new TriangularMatrix(length, lower, packedArray);
+        }
+        if (matrix instanceof ComplexMatrixView view) {
+            // 复数视图先拷贝成连续存储
+            return doMulti(view.copy());
+        }
+        int inputColumn = matrix.getColumn();
+        long workPerRow = (long) length * inputColumn / 2;
+        if (matrix instanceof ComplexMatrix complexMatrix) {
+            double[] realArray = new double[length * inputColumn];
+            double[] imaginaryArray = new double[length * inputColumn];
+            MatrixExecutor.forRows(length, workPerRow * 2, 1, (from, to) -> {
+                for (int i = from; i < to; i++) {
+                    int offset = offset(i);
+                    int first = first(i);
+                    for (int k = first; k <= last(i); k++) {
+                        double item = packed[offset + k - first];
+                        kernels.axpy(item, complexMatrix.real, k * inputColumn,
+                                realArray, i * inputColumn, inputColumn);
+                        kernels.axpy(item, complexMatrix.imaginary, k * inputColumn,
+                                imaginaryArray, i * inputColumn, inputColumn);
+                    }
+                }
+            });
+            return new ComplexMatrix(length, inputColumn, realArray, imaginaryArray);
+        }
+        double[] inputNumbers;
+        if (matrix instanceof SimpleMatrix simpleMatrix) {
+            inputNumbers = simpleMatrix.numbers;
+        } else {
+            inputNumbers = new double[length * inputColumn];
+            for (int k = 0; k < length; k++) {
+                System.arraycopy(matrix.doGetDoubleRow(k), 0, inputNumbers, k * inputColumn, inputColumn);
+            }
+        }
+        double[] numberArray = new double[length * inputColumn];
+        MatrixExecutor.forRows(length, workPerRow, 1, (from, to) -> {
+            for (int i = from; i < to; i++) {
+                int offset = offset(i);
+                int first = first(i);
+                for (int k = first; k <= last(i); k++) {
+                    kernels.axpy(packed[offset + k - first], inputNumbers, k * inputColumn,
+                            numberArray, i * inputColumn, inputColumn);
+                }
+            }
+        });
+        return new SimpleMatrix(length, inputColumn, numberArray);
+    }
+
+    /**
+     * 每一行只和向量的一段做内积
+     */
+    @Override
+    public void doMulti(double[] vector, double[] result) {
+        MatrixExecutor.forRows(length, length / 2 + 1, 1, (from, to) -> {
+            DoubleKernels kernels = DoubleKernels.INSTANCE;
+            for (int i = from; i < to; i++) {
+                int first = first(i);
+                result[i] = kernels.dot(packed, offset(i), vector, first, last(i) - first + 1);
+            }
+        });
+    }
+
+    /**
+     * 只有三角部分可能非零 结果为同方向的三角矩阵
+     */
+    @Override
+    public Matrix doHadamard(Matrix matrix) {
+        if (MatrixSupport.isComplex(matrix)) {
+            return ComplexMatrixView.contiguous(matrix).doHadamard(this);
+        }
+        double[] packedArray = new double[packed.length];
+        MatrixExecutor.forRows(length, length / 2 + 1, 1, (from, to) -> {
+            for (int i = from; i < to; i++) {
+                int offset = offset(i);
+                int first = first(i);
+                for (int j = first; j <= last(i); j++) {
+                    packedArray[offset + j - first] = packed[offset + j - first] * matrix.doGetDouble(i, j);
+                }
+            }
+        });
+        return new TriangularMatrix(length, lower, packedArray);
+    }
+
+    /**
+     * 下三角矩阵转置后是上三角矩阵 反之亦然
+     */
+    @Override
+    public Matrix transpose() {
+        TriangularMatrix result = new TriangularMatrix(length, !lower, new double[packed.length]);
+        for (int i = 0; i < length; i++) {
+            int offset = offset(i);
+            int first = first(i);
+            for (int j = first; j <= last(i); j++) {
+                result.packed[result.offset(j) + i - result.first(j)] = packed[offset + j - first];
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public int getRow() {
+        return length;
+    }
+
+    @Override
+    public int getColumn() {
+        return length;
+    }
+
+    @Override
+    public double doGetDouble(int row, int column) {
+        if (column < first(row) || column > last(row)) {
+            return 0d;
+        }
+        return packed[offset(row) + column - first(row)];
+    }
+
+    @Override
+    public double[] doGetDoubleRow(int row) {
+        double[] result = new double[length];
+        int first = first(row);
+        System.arraycopy(packed, offset(row), result, first, last(row) - first + 1);
+        return result;
+    }
+
+    @Override
+    public ComplexNumber[] doGetComplexRow(int row) {
+        return MatrixSupport.complexRow(doGetDoubleRow(row));
+    }
+
+    @Override
+    public double[] doGetDoubleColumn(int column) {
+        double[] result = new double[length];
+        for (int i = 0; i < length; i++) {
+            result[i] = doGetDouble(i, column);
+        }
+        return result;
+    }
+
+    @Override
+    public ComplexNumber[] doGetComplexColumn(int column) {
+        ComplexNumber[] result = new ComplexNumber[length];
+        for (int i = 0; i < length; i++) {
+            result[i] = new ComplexNumber(doGetDouble(i, column));
+        }
+        return result;
+    }
+
+    /**
+     * 三角矩阵本身就是行列式
+     */
+    @Override
+    public Determinant doToDeterminant() {
+        return this;
+    }
+
+    @Override
+    public QRDecomposition doQr() {
+        return QRDecomposition.decompose(length, length, denseArray());
+    }
+
+    @Override
+    public ComplexNumber doGetComplex(int row, int column) {
+        return new ComplexNumber(doGetDouble(row, column));
+    }
+
+    /**
+     * 对角线之积 O(n)
+     */
+    @Override
+    public double calculateDouble() {
+        double result = 1d;
+        for (int i = 0; i < length; i++) {
+            result = result * packed[diagonalIndex(i)];
+        }
+        return result;
+    }
+
+    @Override
+    public ComplexNumber calculateComplex() {
+        return new ComplexNumber(calculateDouble());
+    }
+
+    @Override
+    public double logDeterminant() {
+        double result = 0d;
+        for (int i = 0; i < length; i++) {
+            result += Math.log(Math.abs(packed[diagonalIndex(i)]));
+        }
+        return result;
+    }
+
+    /**
+     * 对角线上有0时展开成稠密数组 通过比较秩判断解是否存在
+     */
+    @Override
+    public double[] doSolve(double[] value) {
+        LinearSolver solver = factor();
+        if (solver.isSingular()) {
+            return RowEchelon.solve(length, denseArray(), value);
+        }
+        return solver.solve(value);
+    }
+
+    @Override
+    public ComplexNumber[] doSolve(ComplexNumber[] value) {
+        LinearSolver solver = factor();
+        if (solver.isSingular()) {
+            return RowEchelon.solve(length, denseArray(), new double[length * length], value);
+        }
+        return solver.solve(value);
+    }
+
+    @Override
+    public Matrix doSolve(Matrix value) {
+        LinearSolver solver = factor();
+        if (solver.isSingular()) {
+            return RowEchelon.solve(length, denseArray(), value);
+        }
+        return solver.solve(value);
+    }
+
+    /**
+     * 三角矩阵不需要分解 求解器直接读取当前矩阵
+     */
+    @Override
+    public LinearSolver factor() {
+        LinearSolver solver = this.solver;
+        if (solver == null) {
+            solver = new Substitution();
+            this.solver = solver;
+        }
+        return solver;
+    }
+
+    /**
+     * 本身就是三角矩阵
+     */
+    @Override
+    public Determinant triangle() {
+        return this;
+    }
+
+    @Override
+    public Determinant diagonal() {
+        return new DiagonalMatrix(getDiagonal());
+    }
+
+    @Override
+    public int getLength() {
+        return length;
+    }
+
+    @Override
+    public String toString() {
+        return MatrixSupport.toString(this);
+    }
+
+    /**
+     * 每一行乘以factor中对应的元素 即 diag(factor) * 当前矩阵
+     */
+    TriangularMatrix scaleRows(double[] factor) {
+        double[] packedArray = new double[packed.length];
+        for (int i = 0; i < length; i++) {
+            int offset = offset(i);
+            DoubleKernels.INSTANCE.scale(factor[i], packed, offset, packedArray, offset, last(i) - first(i) + 1);
+        }
+        return new TriangularMatrix(length, lower, packedArray);
+    }
+
+    /**
+     * 每一列乘以factor中对应的元素 即 当前矩阵 * diag(factor)
+     */
+    TriangularMatrix scaleColumns(double[] factor) {
+        double[] packedArray = new double[packed.length];
+        for (int i = 0; i < length; i++) {
+            int offset = offset(i);
+            int first = first(i);
+            DoubleKernels.INSTANCE.multiply(packed, offset, factor, first, packedArray, offset, last(i) - first + 1);
+        }
+        return new TriangularMatrix(length, lower, packedArray);
+    }
+
+    /**
+     * 第i行存放的第一列
+     */
+    private int first(int row) {
+        return lower ? 0 : row;
+    }
+
+    /**
+     * 第i行存放的最后一列
+     */
+    private int last(int row) {
+        return lower ? row : length - 1;
+    }
+
+    /**
+     * 第i行第一个元素的下标 用long计算避免大矩阵溢出
+     */
+    private int offset(int row) {
+        long i = row;
+        if (lower) {
+            return (int) (i * (i + 1) / 2);
+        }
+        return (int) (i * length - i * (i - 1) / 2);
+    }
+
+    private int diagonalIndex(int row) {
+        return offset(row) + row - first(row);
+    }
+
+    /**
+     * 把 alpha * 当前矩阵 累加到行优先存放的稠密数组上
+     */
+    private void scatter(double alpha, double[] target) {
+        for (int i = 0; i < length; i++) {
+            int first = first(i);
+            DoubleKernels.INSTANCE.axpy(alpha, packed, offset(i), target, i * length + first, last(i) - first + 1);
+        }
+    }
+
+    private double[] denseArray() {
+        double[] result = new double[length * length];
+        scatter(1d, result);
+        return result;
+    }
+
+    private static int packedLength(int length) {
+        long result = (long) length * (length + 1) / 2;
+        if (result > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("length = " + length + " is too large!");
+        }
+        return (int) result;
+    }
+
+    /**
+     * 直接在三角部分上做前代或回代 每一行都是一次连续内存上的内积
+     */
+    private final class Substitution implements LinearSolver {
+
+        private final boolean singular;
+
+        private Substitution() {
+            boolean singular = false;
+            for (int i = 0; i < length; i++) {
+                if (packed[diagonalIndex(i)] == 0d) {
+                    singular = true;
+                    break;
+                }
+            }
+            this.singular = singular;
+        }
+
+        @Override
+        public int getLength() {
+            return length;
+        }
+
+        @Override
+        public boolean isSingular() {
+            return singular;
+        }
+
+        @Override
+        public double[] solve(double[] value, double[] result) {
+            MatrixSupport.checkSolve(length, value == null ? -1 : value.length,
+                    result == null ? -1 : result.length, singular);
+            if (value != result) {
+                System.arraycopy(value, 0, result, 0, length);
+            }
+            substitute(result);
+            return result;
+        }
+
+        @Override
+        public ComplexNumber[] solve(ComplexNumber[] value, ComplexNumber[] result) {
+            MatrixSupport.checkSolve(length, value == null ? -1 : value.length,
+                    result == null ? -1 : result.length, singular);
+            double[] real = new double[length];
+            double[] imaginary = new double[length];
+            for (int i = 0; i < length; i++) {
+                ComplexNumber item = value[i];
+                if (item == null) {
+                    throw new IllegalArgumentException("value[" + i + "] is null!");
+                }
+                real[i] = item.real();
+                imaginary[i] = item.imaginary();
+            }
+            substitute(real);
+            substitute(imaginary);
+            for (int i = 0; i < length; i++) {
+                result[i] = new ComplexNumber(real[i], imaginary[i]);
+            }
+            return result;
+        }
+
+        /**
+         * 多个常数项时把三角部分展开成稠密数组 交给分块的TriangularSolve
+         * 下三角矩阵写成 L = D * L1 每一行除以对角线元素后L1是单位下三角矩阵
+         * 常数项为复数矩阵时实部和虚部分别求解
+         */
+        @Override
+        public Matrix solve(Matrix value) {
+            MatrixSupport.checkSolve(length, value, singular);
+            int width = value.getColumn();
+            double[] dense = denseArray();
+            double[] inverse = new double[length];
+            for (int i = 0; i < length; i++) {
+                inverse[i] = 1d / packed[diagonalIndex(i)];
+                if (lower) {
+                    DoubleKernels.INSTANCE.scale(inverse[i], dense, i * length, dense, i * length, i);
+                }
+            }
+            if (ComplexMatrixView.contiguous(value) instanceof ComplexMatrix complexMatrix) {
+                double[] real = complexMatrix.real.clone();
+                double[] imaginary = complexMatrix.imaginary.clone();
+                solveColumns(dense, inverse, real, width);
+                solveColumns(dense, inverse, imaginary, width);
+                return new ComplexMatrix(length, width, real, imaginary);
+            }
+            double[] x = MatrixSupport.denseArray(value);
+            solveColumns(dense, inverse, x, width);
+            return new SimpleMatrix(length, width, x);
+        }
+
+        /**
+         * 下三角矩阵先把常数项乘以 D^-1 再求解 L1 * X = D^-1 * B
+         */
+        private void solveColumns(double[] dense, double[] inverse, double[] x, int width) {
+            MatrixExecutor.forRows(width, (long) length * length / 2, TriangularSolve.GRAIN, (from, to) -> {
+                if (lower) {
+                    for (int i = 0; i < length; i++) {
+                        int rowOffset = i * width + from;
+                        DoubleKernels.INSTANCE.scale(inverse[i], x, rowOffset, x, rowOffset, to - from);
+                    }
+                    TriangularSolve.lower(length, dense, x, width, from, to);
+                } else {
+                    TriangularSolve.upper(length, dense, inverse, x, width, from, to);
+                }
+            });
+        }
+
+        private void substitute(double[] x) {
+            DoubleKernels kernels = DoubleKernels.INSTANCE;
+            if (lower) {
+                for (int i = 0; i < length; i++) {
+                    int offset = offset(i);
+                    x[i] = (x[i] - kernels.dot(packed, offset, x, 0, i)) / packed[offset + i];
+                }
+            } else {
+                for (int i = length - 1; i >= 0; i--) {
+                    int offset = offset(i);
+                    x[i] = (x[i] - kernels.dot(packed, offset + 1, x, i + 1, length - i - 1)) / packed[offset];
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,155 @@
+package xyz.xpecya.math;
+
+/**
+ * 多个常数项的三角方程组求解内核 (TRSM)
+ * 常数项矩阵X为 length * width 的行优先数组 求解结果直接覆盖X
+ * 每次只处理 [from, to) 列 不同的列区间互不影响 可以并行计算
+ *
+ * 按BLOCK行分块：
+ * 块内逐行做axpy 每一行都是一段连续内存
+ * 块外剩余的行用一次 alpha = -1 的DoubleGemm更新 三角矩阵直接按原值传入 不需要拷贝
+ */
+final class TriangularSolve {
+
+    /**
+     * 分块的行数
+     */
+    static final int BLOCK = 64;
+
+    /**
+     * 每个并行任务至少处理的列数
+     */
+    static final int GRAIN = 16;
+
+    private TriangularSolve() {
+    }
+
+    /**
+     * 求解 LX = B 其中L为单位下三角矩阵
+     *
+     * @param lower 行优先存放的L 只读取对角线以下的部分
+     */
+    static void lower(int length, double[] lower, double[] x, int width, int from, int to) {
+        DoubleKernels kernels = DoubleKernels.INSTANCE;
+        int columns = to - from;
+        for (int ib = 0; ib < length; ib += BLOCK) {
+            int ie = Math.min(length, ib + BLOCK);
+            for (int i = ib + 1; i < ie; i++) {
+                int offset = i * length;
+                for (int p = ib; p < i; p++) {
+                    kernels.axpy(-lower[offset + p], x, p * width + from, x, i * width + from, columns);
+                }
+            }
+            DoubleGemm.multiply(length - ie, columns, ie - ib, -1d, lower, ie * length + ib, length, 1,
+                    x, ib * width + from, width, 1, x, ie * width + from, width);
+        }
+    }
+
+    /**
+     * 求解 UX = B 其中U为上三角矩阵
+     *
+     * @param upper 行优先存放的U 只读取对角线以上的部分
+     * @param inverse U对角线元素的倒数
+     */
+    static void upper(int length, double[] upper, double[] inverse, double[] x, int width, int from, int to) {
+        DoubleKernels kernels = DoubleKernels.INSTANCE;
+        int columns = to - from;
+        for (int ie = length; ie > 0; ie -= BLOCK) {
+            int ib = Math.max(0, ie - BLOCK);
+            for (int i = ie - 1; i >= ib; i--) {
+                int offset = i * length;
+                int rowOffset = i * width + from;
+                for (int p = i + 1; p < ie; p++) {
+                    kernels.axpy(-upper[offset + p], x, p * width + from, x, rowOffset, columns);
+                }
+                kernels.scale(inverse[i], x, rowOffset, x, rowOffset, columns);
+            }
+            DoubleGemm.multiply(ib, columns, ie - ib, -1d, upper, ib, length, 1,
+                    x, ib * width + from, width, 1, x, from, width);
+        }
+    }
+
+    /**
+     * 复数版本的 LX = B
+     * (a + bi) * (c + di) = (ac - bd) + (ad + bc)i 拆成四次实数运算
+     *
+     * @param real L的实部
+     * @param imaginary L的虚部
+     */
+    static void lower(int length, double[] real, double[] imaginary,
+                      double[] xReal, double[] xImaginary, int width, int from, int to) {
+        DoubleKernels kernels = DoubleKernels.INSTANCE;
+        int columns = to - from;
+        for (int ib = 0; ib < length; ib += BLOCK) {
+            int ie = Math.min(length, ib + BLOCK);
+            for (int i = ib + 1; i < ie; i++) {
+                int offset = i * length;
+                int rowOffset = i * width + from;
+                for (int p = ib; p < i; p++) {
+                    int source = p * width + from;
+                    kernels.axpy(-real[offset + p], xReal, source, xReal, rowOffset, columns);
+                    kernels.axpy(imaginary[offset + p], xImaginary, source, xReal, rowOffset, columns);
+                    kernels.axpy(-real[offset + p], xImaginary, source, xImaginary, rowOffset, columns);
+                    kernels.axpy(-imaginary[offset + p], xReal, source, xImaginary, rowOffset, columns);
+                }
+            }
+            update(length - ie, columns, ie - ib, real, imaginary, ie * length + ib, length,
+                    xReal, xImaginary, ib * width + from, ie * width + from, width);
+        }
+    }
+
+    /**
+     * 复数版本的 UX = B
+     *
+     * @param real U的实部
+     * @param imaginary U的虚部
+     * @param inverseReal U对角线元素倒数的实部
+     * @param inverseImaginary U对角线元素倒数的虚部
+     */
+    static void upper(int length, double[] real, double[] imaginary,
+                      double[] inverseReal, double[] inverseImaginary,
+                      double[] xReal, double[] xImaginary, int width, int from, int to) {
+        DoubleKernels kernels = DoubleKernels.INSTANCE;
+        int columns = to - from;
+        for (int ie = length; ie > 0; ie -= BLOCK) {
+            int ib = Math.max(0, ie - BLOCK);
+            for (int i = ie - 1; i >= ib; i--) {
+                int offset = i * length;
+                int rowOffset = i * width + from;
+                for (int p = i + 1; p < ie; p++) {
+                    int source = p * width + from;
+                    kernels.axpy(-real[offset + p], xReal, source, xReal, rowOffset, columns);
+                    kernels.axpy(imaginary[offset + p], xImaginary, source, xReal, rowOffset, columns);
+                    kernels.axpy(-real[offset + p], xImaginary, source, xImaginary, rowOffset, columns);
+                    kernels.axpy(-imaginary[offset + p], xReal, source, xImaginary, rowOffset, columns);
+                }
+                double a = inverseReal[i];
+                double b = inverseImaginary[i];
+                for (int j = rowOffset; j < rowOffset + columns; j++) {
+                    double c = xReal[j];
+                    double d = xImaginary[j];
+                    xReal[j] = ComplexAccumulator.multiReal(a, b, c, d);
+                    xImaginary[j] = ComplexAccumulator.multiImaginary(a, b, c, d);
+                }
+            }
+            update(ib, columns, ie - ib, real, imaginary, ib, length,
+                    xReal, xImaginary, ib * width + from, from, width);
+        }
+    }
+
+    /**
+     * 复数的 C -= A * B 其中B和C是同一个X的不同行
+     */
+    private static void update(int m, int n, int k, double[] real, double[] imaginary,
+                               int aOffset, int aRowStride, double[] xReal, double[] xImaginary,
+                               int bOffset, int cOffset, int width) {
+        DoubleGemm.multiply(m, n, k, -1d, real, aOffset, aRowStride, 1, xReal, bOffset, width, 1,
+                xReal, cOffset, width);
+        DoubleGemm.multiply(m, n, k, 1d, imaginary, aOffset, aRowStride, 1, xImaginary, bOffset, width, 1,
+                xReal, cOffset, width);
+        DoubleGemm.multiply(m, n, k, -1d, real, aOffset, aRowStride, 1, xImaginary, bOffset, width, 1,
+                xImaginary, cOffset, width);
+        DoubleGemm.multiply(m, n, k, -1d, imaginary, aOffset, aRowStride, 1, xReal, bOffset, width, 1,
+                xImaginary, cOffset, width);
+    }
+}
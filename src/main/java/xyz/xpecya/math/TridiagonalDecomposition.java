@@ -0,0 +1,161 @@
+package xyz.xpecya.math;
+
+/**
+ * 三对角方阵的Thomas算法 即不选主元的LU分解
+ * L是单位下双对角矩阵 U的上对角线和原矩阵相同 只需要保存乘数和U的对角线
+ * 分解和每次求解都是O(n) 只对对角占优的矩阵使用 此时不选主元也是稳定的
+ */
+public final class TridiagonalDecomposition implements LinearSolver {
+
+    private final int length;
+
+    /**
+     * 原矩阵的三条带 每一行依次为下对角线 对角线 上对角线 只读取上对角线
+     */
+    private final double[] bands;
+
+    /**
+     * L的乘数 第0个不使用
+     */
+    private final double[] multiplier;
+
+    /**
+     * U的对角线
+     */
+    private final double[] diagonal;
+
+    private TridiagonalDecomposition(int length, double[] bands, double[] multiplier, double[] diagonal) {
+        this.length = length;
+        this.bands = bands;
+        this.multiplier = multiplier;
+        this.diagonal = diagonal;
+    }
+
+    /**
+     * 分解三对角矩阵 不会修改入参数组
+     * 矩阵不是对角占优 或者出现为0的主元时返回null 由调用方改用选主元的分解
+     */
+    static TridiagonalDecomposition decompose(int length, double[] bands) {
+        for (int i = 0; i < length; i++) {
+            int offset = i * 3;
+            if (Math.abs(bands[offset + 1]) < Math.abs(bands[offset]) + Math.abs(bands[offset + 2])) {
+                return null;
+            }
+        }
+        double[] multiplier = new double[length];
+        double[] diagonal = new double[length];
+        double previous = bands[1];
+        if (previous == 0d) {
+            return null;
+        }
+        diagonal[0] = previous;
+        for (int i = 1; i < length; i++) {
+            int offset = i * 3;
+            double ratio = bands[offset] / previous;
+            previous = bands[offset + 1] - ratio * bands[offset - 1];
+            if (previous == 0d) {
+                return null;
+            }
+            multiplier[i] = ratio;
+            diagonal[i] = previous;
+        }
+        return new TridiagonalDecomposition(length, bands, multiplier, diagonal);
+    }
+
+    @Override
+    public int getLength() {
+        return length;
+    }
+
+    /**
+     * 分解成功时所有主元都不为0
+     */
+    @Override
+    public boolean isSingular() {
+        return false;
+    }
+
+    /**
+     * 计算原方阵的行列式 即U的对角线之积
+     */
+    public double determinant() {
+        double result = 1d;
+        for (int i = 0; i < length; i++) {
+            result = result * diagonal[i];
+        }
+        return result;
+    }
+
+    /**
+     * 计算原方阵行列式绝对值的自然对数
+     */
+    public double logDeterminant() {
+        double result = 0d;
+        for (int i = 0; i < length; i++) {
+            result += Math.log(Math.abs(diagonal[i]));
+        }
+        return result;
+    }
+
+    @Override
+    public double[] solve(double[] value, double[] result) {
+        MatrixSupport.checkSolve(length, value == null ? -1 : value.length,
+                result == null ? -1 : result.length, false);
+        result[0] = value[0];
+        for (int i = 1; i < length; i++) {
+            result[i] = value[i] - multiplier[i] * result[i - 1];
+        }
+        substitute(result);
+        return result;
+    }
+
+    @Override
+    public ComplexNumber[] solve(ComplexNumber[] value, ComplexNumber[] result) {
+        MatrixSupport.checkSolve(length, value == null ? -1 : value.length,
+                result == null ? -1 : result.length, false);
+        double[] real = new double[length];
+        double[] imaginary = new double[length];
+        for (int i = 0; i < length; i++) {
+            ComplexNumber item = value[i];
+            if (item == null) {
+                throw new IllegalArgumentException("value[" + i + "] is null!");
+            }
+            real[i] = item.real();
+            imaginary[i] = item.imaginary();
+        }
+        solve(real, real);
+        solve(imaginary, imaginary);
+        for (int i = 0; i < length; i++) {
+            result[i] = new ComplexNumber(real[i], imaginary[i]);
+        }
+        return result;
+    }
+
+    @Override
+    public Matrix solve(Matrix value) {
+        return MatrixSupport.solveColumns(this, value);
+    }
+
+    /**
+     * 上双对角的U 行列式和原方阵相同
+     */
+    BandedMatrix signedUpper() {
+        double[] upperBands = new double[length * 2];
+        for (int i = 0; i < length; i++) {
+            upperBands[i * 2] = diagonal[i];
+            upperBands[i * 2 + 1] = bands[i * 3 + 2];
+        }
+        return BandedMatrix.banded(length, 0, 1, upperBands);
+    }
+
+    /**
+     * 回代 Ux = y
+     */
+    private void substitute(double[] x) {
+        int last = length - 1;
+        x[last] = x[last] / diagonal[last];
+        for (int i = last - 1; i >= 0; i--) {
+            x[i] = (x[i] - bands[i * 3 + 2] * x[i + 1]) / diagonal[i];
+        }
+    }
+}
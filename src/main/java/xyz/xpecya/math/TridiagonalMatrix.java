@@ -0,0 +1,94 @@
+package xyz.xpecya.math;
+
+/**
+ * 三对角方阵 即上下带宽都为1的带状矩阵
+ * 每一行依次存放下对角线 对角线和上对角线三个元素
+ *
+ * 对角占优时使用Thomas算法求解 不需要额外的填充 否则使用选主元的带状LU分解
+ * 两者的分解和求解都是O(n)
+ */
+public class TridiagonalMatrix extends BandedMatrix {
+
+    TridiagonalMatrix(int length, double[] bands) {
+        super(length, 1, 1, bands);
+    }
+
+    /**
+     * 用三条对角线创建三对角矩阵
+     * 对源数组的修改不会导致矩阵值的修改
+     *
+     * @param lower 长度为n - 1的下对角线 第i个元素位于第i + 1行第i列
+     * @param diagonal 长度为n的对角线
+     * @param upper 长度为n - 1的上对角线 第i个元素位于第i行第i + 1列
+     */
+    public static TridiagonalMatrix create(double[] lower, double[] diagonal, double[] upper) {
+        if (lower == null || diagonal == null || upper == null) {
+            throw new IllegalArgumentException("input is null!");
+        }
+        int length = diagonal.length;
+        if (length < 2) {
+            throw new IllegalArgumentException("diagonal's length can't be less than 2! got " + length);
+        }
+        if (lower.length != length - 1 || upper.length != length - 1) {
+            throw new IllegalArgumentException("lower's length = " + lower.length + ", diagonal's length = "
+                    + length + ", upper's length = " + upper.length);
+        }
+        double[] bands = new double[length * 3];
+        for (int i = 0; i < length; i++) {
+            int offset = i * 3;
+            if (i > 0) {
+                bands[offset] = lower[i - 1];
+            }
+            bands[offset + 1] = diagonal[i];
+            if (i < length - 1) {
+                bands[offset + 2] = upper[i];
+            }
+        }
+        return new TridiagonalMatrix(length, bands);
+    }
+
+    /**
+     * 获取下对角线
+     */
+    public double[] getLowerDiagonal() {
+        double[] result = new double[length - 1];
+        for (int i = 1; i < length; i++) {
+            result[i - 1] = bands[i * 3];
+        }
+        return result;
+    }
+
+    /**
+     * 获取对角线
+     */
+    public double[] getDiagonal() {
+        double[] result = new double[length];
+        for (int i = 0; i < length; i++) {
+            result[i] = bands[i * 3 + 1];
+        }
+        return result;
+    }
+
+    /**
+     * 获取上对角线
+     */
+    public double[] getUpperDiagonal() {
+        double[] result = new double[length - 1];
+        for (int i = 0; i < length - 1; i++) {
+            result[i] = bands[i * 3 + 2];
+        }
+        return result;
+    }
+
+    /**
+     * 优先使用Thomas算法 不满足对角占优时退回选主元的带状LU分解
+     */
+    @Override
+    LinearSolver decompose() {
+        LinearSolver solver = TridiagonalDecomposition.decompose(length, bands);
+        if (solver == null) {
+            solver = super.decompose();
+        }
+        return solver;
+    }
+}
@@ -0,0 +1,157 @@
+package xyz.xpecya.math;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * 基于jdk.incubator.vector的计算内核
+ * 只有在vector profile下才会被编译 运行时需要 --add-modules jdk.incubator.vector
+ */
+final class VectorDoubleKernels implements DoubleKernels {
+
+    /**
+     * 逐元素运算使用平台首选的向量宽度
+     */
+    private static final VectorSpecies<Double> SPECIES = DoubleVector.SPECIES_PREFERRED;
+
+    /**
+     * 寄存器分块内核每行NR个累加值正好放进一个256位向量
+     */
+    private static final VectorSpecies<Double> KERNEL_SPECIES = DoubleVector.SPECIES_256;
+
+    @Override
+    public void add(double[] x, int xOffset, double[] y, int yOffset, double[] z, int zOffset, int length) {
+        int i = 0;
+        int bound = SPECIES.loopBound(length);
+        for (; i < bound; i += SPECIES.length()) {
+            DoubleVector xVector = DoubleVector.fromArray(SPECIES, x, xOffset + i);
+            DoubleVector yVector = DoubleVector.fromArray(SPECIES, y, yOffset + i);
+            xVector.add(yVector).intoArray(z, zOffset + i);
+        }
+        for (; i < length; i++) {
+            z[zOffset + i] = x[xOffset + i] + y[yOffset + i];
+        }
+    }
+
+    @Override
+    public void minus(double[] x, int xOffset, double[] y, int yOffset, double[] z, int zOffset, int length) {
+        int i = 0;
+        int bound = SPECIES.loopBound(length);
+        for (; i < bound; i += SPECIES.length()) {
+            DoubleVector xVector = DoubleVector.fromArray(SPECIES, x, xOffset + i);
+            DoubleVector yVector = DoubleVector.fromArray(SPECIES, y, yOffset + i);
+            xVector.sub(yVector).intoArray(z, zOffset + i);
+        }
+        for (; i < length; i++) {
+            z[zOffset + i] = x[xOffset + i] - y[yOffset + i];
+        }
+    }
+
+    @Override
+    public void multiply(double[] x, int xOffset, double[] y, int yOffset, double[] z, int zOffset, int length) {
+        int i = 0;
+        int bound = SPECIES.loopBound(length);
+        for (; i < bound; i += SPECIES.length()) {
+            DoubleVector xVector = DoubleVector.fromArray(SPECIES, x, xOffset + i);
+            DoubleVector yVector = DoubleVector.fromArray(SPECIES, y, yOffset + i);
+            xVector.mul(yVector).intoArray(z, zOffset + i);
+        }
+        for (; i < length; i++) {
+            z[zOffset + i] = x[xOffset + i] * y[yOffset + i];
+        }
+    }
+
+    @Override
+    public void scale(double alpha, double[] x, int xOffset, double[] z, int zOffset, int length) {
+        int i = 0;
+        int bound = SPECIES.loopBound(length);
+        for (; i < bound; i += SPECIES.length()) {
+            DoubleVector.fromArray(SPECIES, x, xOffset + i).mul(alpha).intoArray(z, zOffset + i);
+        }
+        for (; i < length; i++) {
+            z[zOffset + i] = x[xOffset + i] * alpha;
+        }
+    }
+
+    @Override
+    public void axpy(double alpha, double[] x, int xOffset, double[] y, int yOffset, int length) {
+        int i = 0;
+        int bound = SPECIES.loopBound(length);
+        DoubleVector alphaVector = DoubleVector.broadcast(SPECIES, alpha);
+        for (; i < bound; i += SPECIES.length()) {
+            DoubleVector xVector = DoubleVector.fromArray(SPECIES, x, xOffset + i);
+            DoubleVector yVector = DoubleVector.fromArray(SPECIES, y, yOffset + i);
+            xVector.fma(alphaVector, yVector).intoArray(y, yOffset + i);
+        }
+        for (; i < length; i++) {
+            y[yOffset + i] += alpha * x[xOffset + i];
+        }
+    }
+
+    @Override
+    public double dot(double[] x, int xOffset, double[] y, int yOffset, int length) {
+        int i = 0;
+        int bound = SPECIES.loopBound(length);
+        DoubleVector sum = DoubleVector.zero(SPECIES);
+        for (; i < bound; i += SPECIES.length()) {
+            DoubleVector xVector = DoubleVector.fromArray(SPECIES, x, xOffset + i);
+            DoubleVector yVector = DoubleVector.fromArray(SPECIES, y, yOffset + i);
+            sum = xVector.fma(yVector, sum);
+        }
+        double result = sum.reduceLanes(VectorOperators.ADD);
+        for (; i < length; i++) {
+            result += x[xOffset + i] * y[yOffset + i];
+        }
+        return result;
+    }
+
+    /**
+     * 4行 * 1个256位向量 的寄存器分块内核
+     */
+    @Override
+    public void microKernel(int kc, double[] aPack, int aIndex, double[] bPack, int bIndex,
+                            double[] c, int cOffset, int cRowStride, int mr, int nr) {
+        DoubleVector c0 = DoubleVector.zero(KERNEL_SPECIES);
+        DoubleVector c1 = DoubleVector.zero(KERNEL_SPECIES);
+        DoubleVector c2 = DoubleVector.zero(KERNEL_SPECIES);
+        DoubleVector c3 = DoubleVector.zero(KERNEL_SPECIES);
+        for (int p = 0; p < kc; p++) {
+            DoubleVector b = DoubleVector.fromArray(KERNEL_SPECIES, bPack, bIndex);
+            c0 = b.fma(DoubleVector.broadcast(KERNEL_SPECIES, aPack[aIndex]), c0);
+            c1 = b.fma(DoubleVector.broadcast(KERNEL_SPECIES, aPack[aIndex + 1]), c1);
+            c2 = b.fma(DoubleVector.broadcast(KERNEL_SPECIES, aPack[aIndex + 2]), c2);
+            c3 = b.fma(DoubleVector.broadcast(KERNEL_SPECIES, aPack[aIndex + 3]), c3);
+            aIndex += DoubleGemm.MR;
+            bIndex += DoubleGemm.NR;
+        }
+        if (mr == DoubleGemm.MR && nr == DoubleGemm.NR) {
+            int offset = cOffset;
+            DoubleVector.fromArray(KERNEL_SPECIES, c, offset).add(c0).intoArray(c, offset);
+            offset += cRowStride;
+            DoubleVector.fromArray(KERNEL_SPECIES, c, offset).add(c1).intoArray(c, offset);
+            offset += cRowStride;
+            DoubleVector.fromArray(KERNEL_SPECIES, c, offset).add(c2).intoArray(c, offset);
+            offset += cRowStride;
+            DoubleVector.fromArray(KERNEL_SPECIES, c, offset).add(c3).intoArray(c, offset);
+            return;
+        }
+        // 边缘块 只写回有效部分
+        DoubleVector[] block = {c0, c1, c2, c3};
+        for (int i = 0; i < mr; i++) {
+            int offset = cOffset + i * cRowStride;
+            DoubleVector vector = block[i];
+            for (int j = 0; j < nr; j++) {
+                c[offset + j] += vector.lane(j);
+            }
+        }
+    }
+
+    /**
+     * 平台不支持256位向量时 向量实现不会比标量实现更快
+     */
+    @Override
+    public boolean vectorized() {
+        return SPECIES.length() >= KERNEL_SPECIES.length() && KERNEL_SPECIES.length() == DoubleGemm.NR;
+    }
+}
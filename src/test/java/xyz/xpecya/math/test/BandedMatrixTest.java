@@ -0,0 +1,316 @@
+package xyz.xpecya.math.test;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.RepeatedTest;
+import org.junit.jupiter.api.Test;
+import xyz.xpecya.math.BandedLUDecomposition;
+import xyz.xpecya.math.BandedMatrix;
+import xyz.xpecya.math.ComplexNumber;
+import xyz.xpecya.math.Determinant;
+import xyz.xpecya.math.Matrix;
+import xyz.xpecya.math.TridiagonalDecomposition;
+import xyz.xpecya.math.TridiagonalMatrix;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static xyz.xpecya.math.test.TestConfig.RANDOM_REPEATED;
+
+/**
+ * 带状矩阵和三对角矩阵测试
+ * 所有运算结果都和对应的稠密矩阵比较
+ */
+public class BandedMatrixTest {
+
+    private static final double SOLVE_DELTA = Math.pow(10d, -8);
+
+    /**
+     * 元素读取 超出矩阵范围的位置被忽略
+     */
+    @RepeatedTest(RANDOM_REPEATED)
+    public void build() {
+        Random random = new Random();
+        int length = random.nextInt(1, 40);
+        int lower = random.nextInt(0, length);
+        int upper = random.nextInt(0, length);
+        double[][] expected = new double[length][length];
+        BandedMatrix banded = randomBanded(length, lower, upper, expected);
+        SimpleMatrixTest.assertMatrixEquals(expected, banded);
+        SimpleMatrixTest.assertMatrixEquals(expected, banded.toDense());
+        for (int i = 0; i < length; i++) {
+            Assertions.assertArrayEquals(expected[i], banded.doGetDoubleRow(i));
+            double[] column = banded.doGetDoubleColumn(i);
+            for (int k = 0; k < length; k++) {
+                Assertions.assertEquals(expected[k][i], column[k]);
+            }
+        }
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> BandedMatrix.create(length, length, 0, new double[length * (length + 1)]));
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> BandedMatrix.create(length, lower, upper, new double[length * (lower + upper + 1) + 1]));
+    }
+
+    /**
+     * 加减 数乘 哈达玛积 转置 带宽合并后仍然是带状矩阵
+     */
+    @RepeatedTest(RANDOM_REPEATED)
+    public void elementWise() {
+        Random random = new Random();
+        int length = random.nextInt(2, 40);
+        double[][] first = new double[length][length];
+        double[][] second = new double[length][length];
+        BandedMatrix firstBanded = randomBanded(length, random.nextInt(0, length), random.nextInt(0, length), first);
+        BandedMatrix secondBanded = randomBanded(length, random.nextInt(0, length), random.nextInt(0, length), second);
+        double[][] dense = SimpleMatrixTest.randomArray(length, length);
+        Matrix denseMatrix = Matrix.create(dense);
+        double[][] add = new double[length][length];
+        double[][] minus = new double[length][length];
+        double[][] denseMinus = new double[length][length];
+        double[][] hadamard = new double[length][length];
+        double[][] scale = new double[length][length];
+        double[][] transpose = new double[length][length];
+        for (int i = 0; i < length; i++) {
+            for (int j = 0; j < length; j++) {
+                add[i][j] = first[i][j] + second[i][j];
+                minus[i][j] = first[i][j] - second[i][j];
+                denseMinus[i][j] = first[i][j] - dense[i][j];
+                hadamard[i][j] = first[i][j] * dense[i][j];
+                scale[i][j] = first[i][j] * 3d;
+                transpose[i][j] = first[j][i];
+            }
+        }
+        Matrix sum = firstBanded.add(secondBanded);
+        Assertions.assertInstanceOf(BandedMatrix.class, sum);
+        SimpleMatrixTest.assertMatrixEquals(add, sum);
+        SimpleMatrixTest.assertMatrixEquals(minus, firstBanded.minus(secondBanded));
+        SimpleMatrixTest.assertMatrixEquals(denseMinus, firstBanded.minus(denseMatrix));
+        SimpleMatrixTest.assertMatrixEquals(add, secondBanded.add(Matrix.create(first)));
+        SimpleMatrixTest.assertMatrixEquals(add, Matrix.create(first).add(secondBanded));
+        Matrix product = firstBanded.hadamard(denseMatrix);
+        Assertions.assertInstanceOf(BandedMatrix.class, product);
+        SimpleMatrixTest.assertMatrixEquals(hadamard, product);
+        SimpleMatrixTest.assertMatrixEquals(scale, firstBanded.multi(3d));
+        Matrix transposed = firstBanded.transpose();
+        Assertions.assertEquals(firstBanded.getLower(), ((BandedMatrix) transposed).getUpper());
+        SimpleMatrixTest.assertMatrixEquals(transpose, transposed);
+        Matrix complexSum = firstBanded.add(Matrix.square(length, new ComplexNumber(1d, 2d)));
+        for (int i = 0; i < length; i++) {
+            for (int j = 0; j < length; j++) {
+                ComplexNumber item = complexSum.doGetComplex(i, j);
+                Assertions.assertEquals(first[i][j] + 1d, item.real(), 1e-12);
+                Assertions.assertEquals(2d, item.imaginary());
+            }
+        }
+    }
+
+    /**
+     * 带状乘带状 带状乘稠密 带状乘向量
+     */
+    @RepeatedTest(RANDOM_REPEATED)
+    public void multi() {
+        Random random = new Random();
+        int length = random.nextInt(2, 40);
+        double[][] first = new double[length][length];
+        double[][] second = new double[length][length];
+        BandedMatrix firstBanded = randomBanded(length, random.nextInt(0, length), random.nextInt(0, length), first);
+        BandedMatrix secondBanded = randomBanded(length, random.nextInt(0, length), random.nextInt(0, length), second);
+        Matrix product = firstBanded.multi(secondBanded);
+        Assertions.assertInstanceOf(BandedMatrix.class, product);
+        SimpleMatrixTest.assertMatrixEquals(SimpleMatrixTest.multi(first, second), product);
+        int column = random.nextInt(1, 20);
+        double[][] dense = SimpleMatrixTest.randomArray(length, column);
+        SimpleMatrixTest.assertMatrixEquals(SimpleMatrixTest.multi(first, dense),
+                firstBanded.multi(Matrix.create(dense)));
+        double[] vector = new double[length];
+        double[][] columnVector = new double[length][1];
+        for (int i = 0; i < length; i++) {
+            vector[i] = random.nextDouble();
+            columnVector[i][0] = vector[i];
+        }
+        double[][] expected = SimpleMatrixTest.multi(first, columnVector);
+        double[] actual = firstBanded.multi(vector);
+        for (int i = 0; i < length; i++) {
+            Assertions.assertEquals(expected[i][0], actual[i], 1e-12);
+        }
+    }
+
+    /**
+     * 行列式和求解 选主元的带状LU分解和稠密LU分解结果一致
+     */
+    @RepeatedTest(RANDOM_REPEATED)
+    public void determinant() {
+        Random random = new Random();
+        int length = random.nextInt(2, 30);
+        int lower = random.nextInt(0, Math.min(length, 5));
+        int upper = random.nextInt(0, Math.min(length, 5));
+        double[][] expected = new double[length][length];
+        BandedMatrix banded = randomBanded(length, lower, upper, expected);
+        Determinant dense = Determinant.create(expected);
+        Assertions.assertEquals(dense.logDeterminant(), banded.logDeterminant(), SOLVE_DELTA);
+        Assertions.assertEquals(Math.signum(dense.calculateDouble()), Math.signum(banded.calculateDouble()));
+        Assertions.assertEquals(dense.calculateDouble(), banded.calculateDouble(),
+                Math.abs(dense.calculateDouble()) * SOLVE_DELTA);
+        Assertions.assertEquals(banded.calculateDouble(), banded.triangle().calculateDouble(),
+                Math.abs(banded.calculateDouble()) * SOLVE_DELTA);
+        Assertions.assertEquals(banded.calculateDouble(), banded.diagonal().calculateDouble(),
+                Math.abs(banded.calculateDouble()) * SOLVE_DELTA);
+
+        double[] value = new double[length];
+        for (int i = 0; i < length; i++) {
+            value[i] = random.nextDouble();
+        }
+        assertSolved(banded, banded.solve(value), value);
+        ComplexNumber[] complexValue = new ComplexNumber[length];
+        for (int i = 0; i < length; i++) {
+            complexValue[i] = new ComplexNumber(value[i], -value[i]);
+        }
+        ComplexNumber[] complexResult = banded.solve(complexValue);
+        double[] real = new double[length];
+        for (int i = 0; i < length; i++) {
+            real[i] = complexResult[i].real();
+            Assertions.assertEquals(-real[i], complexResult[i].imaginary(), SOLVE_DELTA);
+        }
+        assertSolved(banded, real, value);
+
+        int column = random.nextInt(1, 10);
+        double[][] valueArray = SimpleMatrixTest.randomArray(length, column);
+        Matrix solution = banded.solve(Matrix.create(valueArray));
+        Matrix restored = banded.multi(solution);
+        for (int i = 0; i < length; i++) {
+            for (int j = 0; j < column; j++) {
+                Assertions.assertEquals(valueArray[i][j], restored.doGetDouble(i, j), SOLVE_DELTA);
+            }
+        }
+    }
+
+    /**
+     * 对角占优时使用Thomas算法 否则退回选主元的分解
+     */
+    @Test
+    public void tridiagonal() {
+        int length = 50;
+        double[] lower = new double[length - 1];
+        double[] diagonal = new double[length];
+        double[] upper = new double[length - 1];
+        Random random = new Random();
+        for (int i = 0; i < length - 1; i++) {
+            lower[i] = random.nextDouble(-1d, 1d);
+            upper[i] = random.nextDouble(-1d, 1d);
+        }
+        for (int i = 0; i < length; i++) {
+            diagonal[i] = 2d + random.nextDouble();
+        }
+        TridiagonalMatrix dominant = TridiagonalMatrix.create(lower, diagonal, upper);
+        Assertions.assertArrayEquals(lower, dominant.getLowerDiagonal());
+        Assertions.assertArrayEquals(diagonal, dominant.getDiagonal());
+        Assertions.assertArrayEquals(upper, dominant.getUpperDiagonal());
+        Assertions.assertInstanceOf(TridiagonalDecomposition.class, dominant.factor());
+        Assertions.assertInstanceOf(TridiagonalMatrix.class, dominant.transpose());
+        Assertions.assertInstanceOf(TridiagonalMatrix.class, dominant.add(dominant));
+        assertTridiagonal(dominant);
+
+        // 对角线为0 必须选主元
+        TridiagonalMatrix pivoting = TridiagonalMatrix.create(lower, new double[length], upper);
+        Assertions.assertInstanceOf(BandedLUDecomposition.class, pivoting.factor());
+        assertTridiagonal(pivoting);
+    }
+
+    /**
+     * 奇异时通过比较秩判断解是否存在
+     */
+    @Test
+    public void singular() {
+        TridiagonalMatrix matrix = TridiagonalMatrix.create(new double[]{1d, 0d}, new double[]{1d, 1d, 1d},
+                new double[]{1d, 0d});
+        Assertions.assertTrue(matrix.factor().isSingular());
+        Assertions.assertEquals(0d, matrix.calculateDouble(), 0d);
+        Assertions.assertEquals(Double.NEGATIVE_INFINITY, matrix.logDeterminant());
+        double[] result = matrix.solve(new double[]{2d, 2d, 3d});
+        Assertions.assertNotNull(result);
+        Assertions.assertEquals(2d, result[0] + result[1], SOLVE_DELTA);
+        Assertions.assertEquals(3d, result[2], SOLVE_DELTA);
+        Assertions.assertNull(matrix.solve(new double[]{1d, 2d, 3d}));
+        Assertions.assertThrows(IllegalStateException.class, () -> matrix.factor().solve(new double[3]));
+    }
+
+    /**
+     * 一百万阶的三对角方程组 只保存三条对角线
+     */
+    @Test
+    public void large() {
+        int length = 1_000_000;
+        double[] lower = new double[length - 1];
+        double[] diagonal = new double[length];
+        double[] upper = new double[length - 1];
+        Arrays.fill(lower, -1d);
+        Arrays.fill(diagonal, 2.5d);
+        Arrays.fill(upper, -1d);
+        TridiagonalMatrix matrix = TridiagonalMatrix.create(lower, diagonal, upper);
+        double[] value = new double[length];
+        Random random = new Random();
+        for (int i = 0; i < length; i++) {
+            value[i] = random.nextDouble();
+        }
+        double[] result = matrix.solve(value);
+        double[] restored = matrix.multi(result);
+        for (int i = 0; i < length; i++) {
+            Assertions.assertEquals(value[i], restored[i], SOLVE_DELTA);
+        }
+        Assertions.assertTrue(Double.isFinite(matrix.logDeterminant()));
+    }
+
+    private static void assertTridiagonal(TridiagonalMatrix matrix) {
+        int length = matrix.getLength();
+        double[][] expected = new double[length][];
+        for (int i = 0; i < length; i++) {
+            expected[i] = matrix.doGetDoubleRow(i);
+        }
+        Determinant dense = Determinant.create(expected);
+        Assertions.assertEquals(dense.logDeterminant(), matrix.logDeterminant(), SOLVE_DELTA);
+        Assertions.assertEquals(dense.calculateDouble(), matrix.calculateDouble(),
+                Math.abs(dense.calculateDouble()) * SOLVE_DELTA);
+        double[] value = new double[length];
+        Random random = new Random();
+        for (int i = 0; i < length; i++) {
+            value[i] = random.nextDouble();
+        }
+        assertSolved(matrix, matrix.solve(value), value);
+        double[] buffer = value.clone();
+        matrix.factor().solve(buffer, buffer);
+        Assertions.assertArrayEquals(matrix.solve(value), buffer, 0d);
+    }
+
+    private static void assertSolved(Matrix matrix, double[] result, double[] value) {
+        double[] restored = matrix.multi(result);
+        for (int i = 0; i < value.length; i++) {
+            Assertions.assertEquals(value[i], restored[i], SOLVE_DELTA);
+        }
+    }
+
+    /**
+     * 随机生成带状矩阵 同时把元素写入expected
+     */
+    static BandedMatrix randomBanded(int length, int lower, int upper, double[][] expected) {
+        Random random = new Random();
+        int width = lower + upper + 1;
+        double[] bands = new double[length * width];
+        for (int i = 0; i < length; i++) {
+            double sum = 0d;
+            for (int j = i - lower; j <= i + upper; j++) {
+                double item = random.nextDouble(-1d, 1d);
+                bands[i * width + j - i + lower] = item;
+                if (j >= 0 && j < length) {
+                    expected[i][j] = item;
+                    if (j != i) {
+                        sum += Math.abs(item);
+                    }
+                }
+            }
+            // 对角占优 避免随机生成接近奇异的矩阵
+            int diagonal = i * width + lower;
+            bands[diagonal] += Math.copySign(sum, bands[diagonal]);
+            expected[i][i] = bands[diagonal];
+        }
+        return BandedMatrix.create(length, lower, upper, bands);
+    }
+}
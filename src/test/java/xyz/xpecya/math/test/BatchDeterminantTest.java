@@ -0,0 +1,119 @@
+package xyz.xpecya.math.test;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.RepeatedTest;
+import org.junit.jupiter.api.Test;
+import xyz.xpecya.math.BatchDeterminant;
+import xyz.xpecya.math.Determinant;
+import xyz.xpecya.math.ExecutionPolicy;
+import xyz.xpecya.math.Matrix;
+
+import java.util.Random;
+
+import static xyz.xpecya.math.test.TestConfig.RANDOM_REPEATED;
+
+/**
+ * 批量行列式测试
+ */
+public class BatchDeterminantTest {
+
+    private static final double BATCH_DELTA = Math.pow(10d, -9);
+
+    /**
+     * 每个行列式的值和单独计算的结果相同
+     */
+    @RepeatedTest(RANDOM_REPEATED)
+    public void calculateDouble() {
+        Random random = new Random();
+        int length = random.nextInt(2, 17);
+        int count = random.nextInt(1, 500);
+        double[][][] arrays = randomArrays(length, count);
+        double[] result = BatchDeterminant.create(arrays).calculateDouble();
+        for (int index = 0; index < count; index++) {
+            double expected = Determinant.create(arrays[index]).calculateDouble();
+            Assertions.assertEquals(expected, result[index], Math.abs(expected) * BATCH_DELTA);
+        }
+    }
+
+    /**
+     * 检查每个方程组的 Ax = b 并行拆分批次
+     */
+    @RepeatedTest(RANDOM_REPEATED)
+    public void solve() {
+        Random random = new Random();
+        int length = random.nextInt(1, 17);
+        int count = random.nextInt(1, 500);
+        double[][][] arrays = randomArrays(length, count);
+        double[] numbers = new double[length * length * count];
+        for (int index = 0; index < count; index++) {
+            for (int i = 0; i < length; i++) {
+                for (int j = 0; j < length; j++) {
+                    numbers[(i * length + j) * count + index] = arrays[index][i][j];
+                }
+            }
+        }
+        double[] value = SimpleMatrixTest.randomArray(1, length * count)[0];
+        BatchDeterminant batch = BatchDeterminant.create(length, count, numbers);
+        long threshold = Matrix.getParallelThreshold();
+        Matrix.setParallelThreshold(0);
+        try {
+            double[] result = batch.solve(value, ExecutionPolicy.PARALLEL);
+            for (int index = 0; index < count; index++) {
+                for (int i = 0; i < length; i++) {
+                    double sum = 0d;
+                    for (int j = 0; j < length; j++) {
+                        sum += arrays[index][i][j] * result[j * count + index];
+                    }
+                    Assertions.assertEquals(value[i * count + index], sum, BATCH_DELTA);
+                }
+            }
+            // 结果直接覆盖常数项
+            double[] copy = value.clone();
+            Assertions.assertSame(copy, batch.solve(copy, copy));
+            Assertions.assertArrayEquals(result, copy);
+        } finally {
+            Matrix.setParallelThreshold(threshold);
+        }
+    }
+
+    /**
+     * 奇异的行列式不影响同一批次的其他行列式
+     */
+    @Test
+    public void singular() {
+        double[][][] arrays = {
+                {{1, 2}, {2, 4}},
+                {{0, 1}, {1, 0}}
+        };
+        BatchDeterminant batch = BatchDeterminant.create(arrays);
+        Assertions.assertTrue(batch.isSingular(0));
+        Assertions.assertFalse(batch.isSingular(1));
+        double[] determinant = batch.calculateDouble();
+        Assertions.assertEquals(0d, determinant[0], 0d);
+        Assertions.assertEquals(-1d, determinant[1]);
+        double[] result = batch.solve(new double[]{1, 3, 2, 5});
+        Assertions.assertTrue(Double.isNaN(result[0]));
+        Assertions.assertTrue(Double.isNaN(result[2]));
+        Assertions.assertEquals(5d, result[1]);
+        Assertions.assertEquals(3d, result[3]);
+    }
+
+    /**
+     * 元素总数超过一个数组能存放的个数时直接拒绝 不会因为int溢出分配错误大小的数组
+     */
+    @Test
+    public void tooLarge() {
+        double[][][] arrays = new double[2][][];
+        arrays[0] = new double[40000][];
+        arrays[1] = new double[40000][];
+        Assertions.assertThrows(IllegalArgumentException.class, () -> BatchDeterminant.create(arrays));
+    }
+
+    private static double[][][] randomArrays(int length, int count) {
+        double[][][] result = new double[count][][];
+        for (int index = 0; index < count; index++) {
+            result[index] = SimpleMatrixTest.randomArray(length, length);
+        }
+        return result;
+    }
+}
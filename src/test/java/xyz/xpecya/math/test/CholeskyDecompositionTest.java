@@ -0,0 +1,121 @@
+package xyz.xpecya.math.test;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.RepeatedTest;
+import org.junit.jupiter.api.Test;
+import xyz.xpecya.math.CholeskyDecomposition;
+import xyz.xpecya.math.Determinant;
+import xyz.xpecya.math.LUDecomposition;
+import xyz.xpecya.math.Matrix;
+import xyz.xpecya.math.SimpleDeterminant;
+
+import java.util.Random;
+
+import static xyz.xpecya.math.test.TestConfig.RANDOM_REPEATED;
+
+/**
+ * Cholesky分解测试
+ */
+public class CholeskyDecompositionTest {
+
+    private static final double CHOLESKY_DELTA = Math.pow(10d, -8);
+
+    /**
+     * 检查 A = LL^T 以及自动选择Cholesky分解
+     */
+    @RepeatedTest(RANDOM_REPEATED)
+    public void decompose() {
+        Random random = new Random();
+        int length = random.nextInt(3, 150);
+        double[][] array = randomPositiveDefinite(length);
+        SimpleDeterminant determinant = (SimpleDeterminant) Determinant.create(array);
+        Assertions.assertInstanceOf(CholeskyDecomposition.class, determinant.factor());
+        CholeskyDecomposition cholesky = determinant.cholesky();
+        Matrix l = cholesky.getL();
+        Matrix product = l.multi(l.transpose());
+        for (int i = 0; i < length; i++) {
+            Assertions.assertTrue(l.doGetDouble(i, i) > 0d);
+            for (int j = 0; j < length; j++) {
+                if (j > i) {
+                    Assertions.assertEquals(0d, l.doGetDouble(i, j));
+                }
+                Assertions.assertEquals(array[i][j], product.doGetDouble(i, j), CHOLESKY_DELTA);
+            }
+        }
+        LUDecomposition lu = determinant.lu();
+        Assertions.assertEquals(lu.logDeterminant(), determinant.logDeterminant(), CHOLESKY_DELTA);
+        Assertions.assertEquals(lu.determinant(), determinant.calculateDouble(),
+                Math.abs(lu.determinant()) * CHOLESKY_DELTA);
+    }
+
+    /**
+     * 检查 Ax = b 和 AX = B
+     */
+    @RepeatedTest(RANDOM_REPEATED)
+    public void solve() {
+        Random random = new Random();
+        int length = random.nextInt(3, 150);
+        int width = random.nextInt(1, 100);
+        double[][] array = randomPositiveDefinite(length);
+        Determinant determinant = Determinant.create(array);
+        double[] value = SimpleMatrixTest.randomArray(1, length)[0];
+        double[] result = determinant.solve(value);
+        for (int i = 0; i < length; i++) {
+            double sum = 0d;
+            for (int j = 0; j < length; j++) {
+                sum += array[i][j] * result[j];
+            }
+            Assertions.assertEquals(value[i], sum, CHOLESKY_DELTA);
+        }
+        double[][] values = SimpleMatrixTest.randomArray(length, width);
+        Matrix product = determinant.multi(determinant.solve(Matrix.create(values)));
+        for (int i = 0; i < length; i++) {
+            for (int j = 0; j < width; j++) {
+                Assertions.assertEquals(values[i][j], product.doGetDouble(i, j), CHOLESKY_DELTA);
+            }
+        }
+    }
+
+    /**
+     * 显式分解只读取下三角 对称但不正定时回退到LU分解
+     */
+    @Test
+    public void lowerAndFallback() {
+        double[][] array = {
+                {4, 100, 100},
+                {2, 10, 100},
+                {2, 7, 21}
+        };
+        CholeskyDecomposition cholesky = ((SimpleDeterminant) Determinant.create(array)).cholesky();
+        Assertions.assertEquals(4d * 9d * 16d, cholesky.determinant(), CHOLESKY_DELTA);
+        double[][] indefinite = {
+                {1, 2, 0},
+                {2, 1, 0},
+                {0, 0, 1}
+        };
+        SimpleDeterminant determinant = (SimpleDeterminant) Determinant.create(indefinite);
+        Assertions.assertInstanceOf(LUDecomposition.class, determinant.factor());
+        Assertions.assertEquals(-3d, determinant.calculateDouble(), CHOLESKY_DELTA);
+        Assertions.assertThrows(IllegalStateException.class, determinant::cholesky);
+    }
+
+    /**
+     * M * M^T + length * I 一定是对称正定矩阵
+     */
+    private static double[][] randomPositiveDefinite(int length) {
+        double[][] random = SimpleMatrixTest.randomArray(length, length);
+        double[][] result = new double[length][length];
+        for (int i = 0; i < length; i++) {
+            for (int j = 0; j <= i; j++) {
+                double sum = 0d;
+                for (int k = 0; k < length; k++) {
+                    sum += random[i][k] * random[j][k];
+                }
+                result[i][j] = sum;
+                result[j][i] = sum;
+            }
+            result[i][i] += length;
+        }
+        return result;
+    }
+}
@@ -0,0 +1,87 @@
+package xyz.xpecya.math.test;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.RepeatedTest;
+import xyz.xpecya.math.ComplexAccumulator;
+import xyz.xpecya.math.ComplexNumber;
+import xyz.xpecya.math.Determinant;
+
+import java.util.Random;
+
+import static xyz.xpecya.math.test.TestConfig.DELTA;
+import static xyz.xpecya.math.test.TestConfig.DELTA_REPEATED;
+import static xyz.xpecya.math.test.TestConfig.RANDOM_REPEATED;
+
+/**
+ * 可变复数测试
+ * 运算结果和不可变复数ComplexNumber的运算结果进行比较
+ */
+public class ComplexAccumulatorTest {
+
+    /**
+     * 测试加减乘除 每一步都和ComplexNumber的结果比较
+     */
+    @RepeatedTest(DELTA_REPEATED)
+    public void arithmetic() {
+        ComplexNumber first = random();
+        ComplexNumber second = random();
+        ComplexAccumulator accumulator = new ComplexAccumulator().set(first);
+
+        ComplexNumber expected = first.add(second);
+        accumulator.add(second.real(), second.imaginary());
+        Assertions.assertTrue(expected.equals(accumulator.toComplexNumber(), DELTA));
+
+        expected = expected.minus(second);
+        accumulator.minus(second.real(), second.imaginary());
+        Assertions.assertTrue(expected.equals(accumulator.toComplexNumber(), DELTA));
+
+        expected = expected.multi(second);
+        accumulator.multi(second.real(), second.imaginary());
+        Assertions.assertTrue(expected.equals(accumulator.toComplexNumber(), DELTA));
+
+        expected = expected.div(second);
+        accumulator.div(second.real(), second.imaginary());
+        Assertions.assertTrue(expected.equals(accumulator.toComplexNumber(), DELTA));
+
+        Assertions.assertThrowsExactly(IllegalArgumentException.class, () -> accumulator.div(0d, 0d));
+    }
+
+    /**
+     * 测试乘积累加
+     */
+    @RepeatedTest(RANDOM_REPEATED)
+    public void addProduct() {
+        Random random = new Random();
+        int length = random.nextInt(1, 100);
+        ComplexNumber expected = new ComplexNumber();
+        ComplexAccumulator accumulator = new ComplexAccumulator();
+        for (int i = 0; i < length; i++) {
+            ComplexNumber first = random();
+            ComplexNumber second = random();
+            expected = expected.add(first.multi(second));
+            accumulator.addProduct(first.real(), first.imaginary(), second.real(), second.imaginary());
+        }
+        Assertions.assertTrue(expected.equals(accumulator.toComplexNumber(), Math.pow(10d, -12)));
+    }
+
+    /**
+     * 用累加器实现的复数行列式和按定义展开的结果比较
+     */
+    @RepeatedTest(RANDOM_REPEATED)
+    public void complexDeterminant() {
+        ComplexNumber[][] array = ComplexMatrixTest.randomArray(3, 3);
+        ComplexNumber expected = new ComplexNumber();
+        int[][] permutations = {{0, 1, 2, 1}, {1, 2, 0, 1}, {2, 0, 1, 1}, {0, 2, 1, -1}, {1, 0, 2, -1}, {2, 1, 0, -1}};
+        for (int[] permutation : permutations) {
+            ComplexNumber product = array[0][permutation[0]].multi(array[1][permutation[1]]).multi(array[2][permutation[2]]);
+            expected = permutation[3] > 0 ? expected.add(product) : expected.minus(product);
+        }
+        ComplexNumber actual = Determinant.create(array).calculateComplex();
+        Assertions.assertTrue(expected.equals(actual, Math.pow(10d, -9)), "expected " + expected + " but got " + actual);
+    }
+
+    private ComplexNumber random() {
+        Random random = new Random();
+        return new ComplexNumber(random.nextDouble(0.1, 1), random.nextDouble(0.1, 1));
+    }
+}
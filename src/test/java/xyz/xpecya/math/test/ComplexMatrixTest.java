@@ -0,0 +1,231 @@
+package xyz.xpecya.math.test;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.RepeatedTest;
+import xyz.xpecya.math.ComplexNumber;
+import xyz.xpecya.math.Matrix;
+
+import java.util.Random;
+
+import static xyz.xpecya.math.test.TestConfig.RANDOM_REPEATED;
+
+/**
+ * 复数矩阵测试
+ * 所有运算结果都和直接在ComplexNumber二维数组上按定义计算的结果进行比较
+ */
+public class ComplexMatrixTest {
+
+    /**
+     * 复数矩阵运算误差范围
+     */
+    private static final double MATRIX_DELTA = Math.pow(10d, -9);
+
+    /**
+     * 测试复数矩阵加减法和哈达马乘积
+     */
+    @RepeatedTest(RANDOM_REPEATED)
+    public void elementWise() {
+        Random random = new Random();
+        int row = random.nextInt(1, 20);
+        int column = random.nextInt(1, 20);
+        ComplexNumber[][] first = randomArray(row, column);
+        ComplexNumber[][] second = randomArray(row, column);
+        Matrix firstMatrix = Matrix.create(first);
+        Matrix secondMatrix = Matrix.create(second);
+        Matrix add = firstMatrix.add(secondMatrix);
+        Matrix minus = firstMatrix.minus(secondMatrix);
+        Matrix hadamard = firstMatrix.hadamard(secondMatrix);
+        for (int i = 0; i < row; i++) {
+            for (int j = 0; j < column; j++) {
+                assertComplexEquals(first[i][j].add(second[i][j]), add.doGetComplex(i, j));
+                assertComplexEquals(first[i][j].minus(second[i][j]), minus.doGetComplex(i, j));
+                assertComplexEquals(first[i][j].multi(second[i][j]), hadamard.doGetComplex(i, j));
+            }
+        }
+    }
+
+    /**
+     * 测试复数矩阵数乘
+     */
+    @RepeatedTest(RANDOM_REPEATED)
+    public void scale() {
+        Random random = new Random();
+        int row = random.nextInt(1, 20);
+        int column = random.nextInt(1, 20);
+        ComplexNumber[][] array = randomArray(row, column);
+        ComplexNumber complexNumber = new ComplexNumber(random.nextDouble(), random.nextDouble());
+        double doubleNumber = random.nextDouble();
+        Matrix matrix = Matrix.create(array);
+        Matrix complexResult = matrix.multi(complexNumber);
+        Matrix doubleResult = matrix.multi(doubleNumber);
+        for (int i = 0; i < row; i++) {
+            for (int j = 0; j < column; j++) {
+                assertComplexEquals(array[i][j].multi(complexNumber), complexResult.doGetComplex(i, j));
+                assertComplexEquals(array[i][j].multi(new ComplexNumber(doubleNumber)), doubleResult.doGetComplex(i, j));
+            }
+        }
+    }
+
+    /**
+     * 测试复数矩阵乘法 包括复数矩阵乘浮点数矩阵和浮点数矩阵乘复数矩阵
+     */
+    @RepeatedTest(RANDOM_REPEATED)
+    public void multi() {
+        Random random = new Random();
+        int row = random.nextInt(1, 40);
+        int column = random.nextInt(1, 40);
+        int inputColumn = random.nextInt(1, 40);
+        ComplexNumber[][] first = randomArray(row, column);
+        ComplexNumber[][] second = randomArray(column, inputColumn);
+        assertMatrixEquals(multi(first, second), Matrix.create(first).multi(Matrix.create(second)));
+
+        double[][] doubleArray = SimpleMatrixTest.randomArray(column, inputColumn);
+        ComplexNumber[][] doubleAsComplex = new ComplexNumber[column][inputColumn];
+        for (int i = 0; i < column; i++) {
+            for (int j = 0; j < inputColumn; j++) {
+                doubleAsComplex[i][j] = new ComplexNumber(doubleArray[i][j]);
+            }
+        }
+        assertMatrixEquals(multi(first, doubleAsComplex), Matrix.create(first).multi(Matrix.create(doubleArray)));
+
+        double[][] leftArray = SimpleMatrixTest.randomArray(row, column);
+        ComplexNumber[][] leftAsComplex = new ComplexNumber[row][column];
+        for (int i = 0; i < row; i++) {
+            for (int j = 0; j < column; j++) {
+                leftAsComplex[i][j] = new ComplexNumber(leftArray[i][j]);
+            }
+        }
+        assertMatrixEquals(multi(leftAsComplex, second), Matrix.create(leftArray).multi(Matrix.create(second)));
+    }
+
+    /**
+     * 测试融合乘加 右侧和累加矩阵分别为复数和浮点数
+     */
+    @RepeatedTest(RANDOM_REPEATED)
+    public void gemm() {
+        Random random = new Random();
+        int row = random.nextInt(1, 40);
+        int column = random.nextInt(1, 40);
+        int inputColumn = random.nextInt(1, 40);
+        boolean transpose = random.nextBoolean();
+        boolean inputTranspose = random.nextBoolean();
+        double alpha = random.nextDouble(-2d, 2d);
+        double beta = random.nextDouble(-2d, 2d);
+        ComplexNumber[][] first = randomArray(row, column);
+        ComplexNumber[][] second = randomArray(column, inputColumn);
+        ComplexNumber[][] addend = randomArray(row, inputColumn);
+        double[][] doubleAddend = SimpleMatrixTest.randomArray(row, inputColumn);
+        ComplexNumber[][] product = multi(first, second);
+        ComplexNumber[][] expected = new ComplexNumber[row][inputColumn];
+        ComplexNumber[][] doubleExpected = new ComplexNumber[row][inputColumn];
+        for (int i = 0; i < row; i++) {
+            for (int j = 0; j < inputColumn; j++) {
+                ComplexNumber scaled = product[i][j].multi(new ComplexNumber(alpha));
+                expected[i][j] = scaled.add(addend[i][j].multi(new ComplexNumber(beta)));
+                doubleExpected[i][j] = scaled.add(new ComplexNumber(beta * doubleAddend[i][j]));
+            }
+        }
+        Matrix left = Matrix.create(transpose ? transpose(first) : first);
+        Matrix right = Matrix.create(inputTranspose ? transpose(second) : second);
+        assertMatrixEquals(expected, left.gemm(alpha, transpose, right, inputTranspose, beta, Matrix.create(addend)));
+        assertMatrixEquals(doubleExpected,
+                left.gemm(alpha, transpose, right, inputTranspose, beta, Matrix.create(doubleAddend)));
+
+        // 左侧为浮点数矩阵时转换为复数矩阵计算
+        double[][] doubleLeft = SimpleMatrixTest.randomArray(row, column);
+        ComplexNumber[][] leftAsComplex = new ComplexNumber[row][column];
+        for (int i = 0; i < row; i++) {
+            for (int j = 0; j < column; j++) {
+                leftAsComplex[i][j] = new ComplexNumber(doubleLeft[i][j]);
+            }
+        }
+        ComplexNumber[][] doubleProduct = multi(leftAsComplex, second);
+        for (int i = 0; i < row; i++) {
+            for (int j = 0; j < inputColumn; j++) {
+                doubleProduct[i][j] = doubleProduct[i][j].multi(new ComplexNumber(alpha))
+                        .add(addend[i][j].multi(new ComplexNumber(beta)));
+            }
+        }
+        assertMatrixEquals(doubleProduct, Matrix.create(doubleLeft)
+                .gemm(alpha, false, right, inputTranspose, beta, Matrix.create(addend)));
+    }
+
+    /**
+     * 测试转置和按行按列读取
+     */
+    @RepeatedTest(RANDOM_REPEATED)
+    public void transposeAndRows() {
+        Random random = new Random();
+        int row = random.nextInt(1, 20);
+        int column = random.nextInt(1, 20);
+        ComplexNumber[][] array = randomArray(row, column);
+        Matrix matrix = Matrix.create(array);
+        Matrix transpose = matrix.transpose();
+        for (int i = 0; i < row; i++) {
+            ComplexNumber[] complexRow = matrix.getComplexRow(i);
+            double[] doubleRow = matrix.getDoubleRow(i);
+            Assertions.assertEquals(column, complexRow.length);
+            for (int j = 0; j < column; j++) {
+                Assertions.assertEquals(array[i][j], complexRow[j]);
+                Assertions.assertEquals(array[i][j].real(), doubleRow[j]);
+                Assertions.assertEquals(array[i][j], transpose.doGetComplex(j, i));
+            }
+        }
+        for (int j = 0; j < column; j++) {
+            ComplexNumber[] complexColumn = matrix.getComplexColumn(j);
+            for (int i = 0; i < row; i++) {
+                Assertions.assertEquals(array[i][j], complexColumn[i]);
+            }
+        }
+    }
+
+    static ComplexNumber[][] randomArray(int row, int column) {
+        Random random = new Random();
+        ComplexNumber[][] result = new ComplexNumber[row][column];
+        for (int i = 0; i < row; i++) {
+            for (int j = 0; j < column; j++) {
+                result[i][j] = new ComplexNumber(random.nextDouble(), random.nextDouble());
+            }
+        }
+        return result;
+    }
+
+    static ComplexNumber[][] multi(ComplexNumber[][] first, ComplexNumber[][] second) {
+        int row = first.length;
+        int column = second.length;
+        int inputColumn = second[0].length;
+        ComplexNumber[][] result = new ComplexNumber[row][inputColumn];
+        for (int i = 0; i < row; i++) {
+            for (int j = 0; j < inputColumn; j++) {
+                ComplexNumber sum = new ComplexNumber();
+                for (int k = 0; k < column; k++) {
+                    sum = sum.add(first[i][k].multi(second[k][j]));
+                }
+                result[i][j] = sum;
+            }
+        }
+        return result;
+    }
+
+    private static ComplexNumber[][] transpose(ComplexNumber[][] array) {
+        ComplexNumber[][] result = new ComplexNumber[array[0].length][array.length];
+        for (int i = 0; i < array.length; i++) {
+            for (int j = 0; j < array[i].length; j++) {
+                result[j][i] = array[i][j];
+            }
+        }
+        return result;
+    }
+
+    static void assertComplexEquals(ComplexNumber expected, ComplexNumber actual) {
+        Assertions.assertTrue(expected.equals(actual, MATRIX_DELTA), "expected " + expected + " but got " + actual);
+    }
+
+    static void assertMatrixEquals(ComplexNumber[][] expected, Matrix actual) {
+        for (int i = 0; i < expected.length; i++) {
+            for (int j = 0; j < expected[i].length; j++) {
+                assertComplexEquals(expected[i][j], actual.doGetComplex(i, j));
+            }
+        }
+    }
+}
@@ -50,7 +50,7 @@ public abstract class DeterminantTest {
 
     /**
      * getLength方法测试
-     * 检查getLength方法的返回值和numberArrays.length是否相等
+     * 检查getLength方法的返回值和numbers的长度是否对应
      */
     public abstract void getLength() throws NoSuchFieldException, IllegalAccessException;
 
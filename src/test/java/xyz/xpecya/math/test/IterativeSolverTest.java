@@ -0,0 +1,156 @@
+package xyz.xpecya.math.test;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import xyz.xpecya.math.IterativeResult;
+import xyz.xpecya.math.IterativeSolver;
+import xyz.xpecya.math.Matrix;
+import xyz.xpecya.math.Preconditioner;
+import xyz.xpecya.math.SparseMatrix;
+
+import java.util.Random;
+
+/**
+ * 迭代求解器测试
+ * 使用二维网格上的五点差分矩阵 对称时为二维泊松方程 非对称时加上对流项
+ */
+public class IterativeSolverTest {
+
+    private static final double ITERATIVE_DELTA = Math.pow(10d, -6);
+
+    private static final int GRID = 30;
+
+    @Test
+    public void cg() {
+        Matrix matrix = grid(0d);
+        double[] value = randomVector(matrix.getRow());
+        IterativeResult plain = IterativeSolver.cg(matrix).solve(value);
+        assertSolved(matrix, value, plain);
+        IterativeResult jacobi = IterativeSolver.cg(matrix).setPreconditioner(Preconditioner.jacobi(matrix))
+                .solve(value);
+        assertSolved(matrix, value, jacobi);
+        IterativeResult ilu = IterativeSolver.cg(matrix).setPreconditioner(Preconditioner.ilu(matrix))
+                .solve(value);
+        assertSolved(matrix, value, ilu);
+        // ILU(0)预条件应当明显减少迭代次数
+        Assertions.assertTrue(ilu.getIterations() < plain.getIterations());
+    }
+
+    @Test
+    public void bicgstab() {
+        Matrix matrix = grid(0.4d);
+        double[] value = randomVector(matrix.getRow());
+        assertSolved(matrix, value, IterativeSolver.bicgstab(matrix).solve(value));
+        assertSolved(matrix, value, IterativeSolver.bicgstab(matrix)
+                .setPreconditioner(Preconditioner.ilu(matrix)).solve(value));
+        assertSolved(matrix, value, IterativeSolver.bicgstab(matrix)
+                .setPreconditioner(Preconditioner.jacobi(matrix)).solve(value));
+    }
+
+    @Test
+    public void gmres() {
+        Matrix matrix = grid(0.4d);
+        double[] value = randomVector(matrix.getRow());
+        assertSolved(matrix, value, IterativeSolver.gmres(matrix, 30).solve(value));
+        assertSolved(matrix, value, IterativeSolver.gmres(matrix, 10)
+                .setPreconditioner(Preconditioner.ilu(matrix)).solve(value));
+        // 从初始解开始 初始解不会被修改
+        double[] initial = randomVector(matrix.getRow());
+        double[] copy = initial.clone();
+        assertSolved(matrix, value, IterativeSolver.gmres(matrix, 20).solve(value, initial));
+        Assertions.assertArrayEquals(copy, initial);
+    }
+
+    /**
+     * 稠密矩阵同样可以迭代求解
+     */
+    @Test
+    public void dense() {
+        int length = 50;
+        double[][] array = SimpleMatrixTest.randomArray(length, length);
+        for (int i = 0; i < length; i++) {
+            array[i][i] += 1000d;
+        }
+        Matrix matrix = Matrix.create(array);
+        double[] value = randomVector(length);
+        assertSolved(matrix, value, IterativeSolver.bicgstab(matrix).solve(value));
+        assertSolved(matrix, value, IterativeSolver.gmres(matrix, 50)
+                .setPreconditioner(Preconditioner.ilu(matrix)).solve(value));
+    }
+
+    /**
+     * 达到最大迭代次数时返回未收敛的结果
+     */
+    @Test
+    public void maxIterations() {
+        Matrix matrix = grid(0d);
+        double[] value = randomVector(matrix.getRow());
+        IterativeResult result = IterativeSolver.cg(matrix).setMaxIterations(2).solve(value);
+        Assertions.assertFalse(result.isConverged());
+        Assertions.assertEquals(2, result.getIterations());
+        Assertions.assertTrue(result.getResidual() > 0d);
+        Assertions.assertThrows(IllegalArgumentException.class, () -> IterativeSolver.cg(matrix).setTolerance(0d));
+    }
+
+    /**
+     * 迭代求解只支持浮点数矩阵 复数矩阵在构造时拒绝
+     */
+    @Test
+    public void complex() {
+        Matrix complex = Matrix.create(ComplexMatrixTest.randomArray(4, 4));
+        for (Matrix matrix : new Matrix[]{complex, complex.transpose()}) {
+            Assertions.assertThrows(IllegalArgumentException.class, () -> IterativeSolver.cg(matrix));
+            Assertions.assertThrows(IllegalArgumentException.class, () -> IterativeSolver.bicgstab(matrix));
+            Assertions.assertThrows(IllegalArgumentException.class, () -> IterativeSolver.gmres(matrix, 10));
+            Assertions.assertThrows(IllegalArgumentException.class, () -> Preconditioner.jacobi(matrix));
+            Assertions.assertThrows(IllegalArgumentException.class, () -> Preconditioner.ilu(matrix));
+            Assertions.assertThrows(IllegalArgumentException.class, () -> matrix.multi(new double[4]));
+            Assertions.assertThrows(IllegalArgumentException.class,
+                    () -> matrix.multi(new double[4], new double[4]));
+        }
+    }
+
+    private static void assertSolved(Matrix matrix, double[] value, IterativeResult result) {
+        Assertions.assertTrue(result.isConverged());
+        double[] product = matrix.multi(result.getSolution());
+        for (int i = 0; i < value.length; i++) {
+            Assertions.assertEquals(value[i], product[i], ITERATIVE_DELTA);
+        }
+    }
+
+    /**
+     * GRID * GRID 网格上的五点差分 convection为一阶对流项的系数
+     */
+    private static Matrix grid(double convection) {
+        int length = GRID * GRID;
+        SparseMatrix.Builder builder = SparseMatrix.builder(length, length);
+        for (int i = 0; i < GRID; i++) {
+            for (int j = 0; j < GRID; j++) {
+                int index = i * GRID + j;
+                builder.add(index, index, 4d);
+                if (i > 0) {
+                    builder.add(index, index - GRID, -1d - convection);
+                }
+                if (i < GRID - 1) {
+                    builder.add(index, index + GRID, -1d + convection);
+                }
+                if (j > 0) {
+                    builder.add(index, index - 1, -1d - convection);
+                }
+                if (j < GRID - 1) {
+                    builder.add(index, index + 1, -1d + convection);
+                }
+            }
+        }
+        return builder.build();
+    }
+
+    private static double[] randomVector(int length) {
+        Random random = new Random();
+        double[] result = new double[length];
+        for (int i = 0; i < length; i++) {
+            result[i] = random.nextDouble(-1d, 1d);
+        }
+        return result;
+    }
+}
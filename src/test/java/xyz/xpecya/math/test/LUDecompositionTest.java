@@ -0,0 +1,81 @@
+package xyz.xpecya.math.test;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.RepeatedTest;
+import org.junit.jupiter.api.Test;
+import xyz.xpecya.math.Determinant;
+import xyz.xpecya.math.LUDecomposition;
+import xyz.xpecya.math.Matrix;
+import xyz.xpecya.math.SimpleDeterminant;
+
+import java.util.Random;
+
+import static xyz.xpecya.math.test.TestConfig.RANDOM_REPEATED;
+
+/**
+ * LU分解测试
+ */
+public class LUDecompositionTest {
+
+    private static final double LU_DELTA = Math.pow(10d, -9);
+
+    /**
+     * 检查 PA = LU
+     */
+    @RepeatedTest(RANDOM_REPEATED)
+    public void decompose() {
+        Random random = new Random();
+        int length = random.nextInt(2, 60);
+        double[][] array = SimpleMatrixTest.randomArray(length, length);
+        SimpleDeterminant determinant = (SimpleDeterminant) Determinant.create(array);
+        LUDecomposition lu = determinant.lu();
+        Matrix left = lu.getPermutation().multi(determinant);
+        Matrix right = lu.getL().multi(lu.getU());
+        for (int i = 0; i < length; i++) {
+            for (int j = 0; j < length; j++) {
+                Assertions.assertEquals(left.doGetDouble(i, j), right.doGetDouble(i, j), LU_DELTA);
+            }
+        }
+        // L是单位下三角 U是上三角
+        Matrix l = lu.getL();
+        Matrix u = lu.getU();
+        for (int i = 0; i < length; i++) {
+            Assertions.assertEquals(1d, l.doGetDouble(i, i));
+            for (int j = i + 1; j < length; j++) {
+                Assertions.assertEquals(0d, l.doGetDouble(i, j));
+                Assertions.assertEquals(0d, u.doGetDouble(j, i));
+            }
+        }
+    }
+
+    /**
+     * det(AB) = det(A) * det(B)
+     */
+    @RepeatedTest(RANDOM_REPEATED)
+    public void determinant() {
+        Random random = new Random();
+        int length = random.nextInt(3, 30);
+        Matrix first = Matrix.create(SimpleMatrixTest.randomArray(length, length));
+        Matrix second = Matrix.create(SimpleMatrixTest.randomArray(length, length));
+        double expected = first.toDeterminant().calculateDouble() * second.toDeterminant().calculateDouble();
+        double actual = first.multi(second).toDeterminant().calculateDouble();
+        Assertions.assertEquals(expected, actual, Math.abs(expected) * LU_DELTA);
+    }
+
+    /**
+     * 主对角线上有0的非奇异矩阵 不选主元时会除以0
+     */
+    @Test
+    public void zeroPivot() {
+        double[][] array = {
+                {0, 1, 0},
+                {1, 0, 0},
+                {0, 0, 2}
+        };
+        SimpleDeterminant determinant = (SimpleDeterminant) Determinant.create(array);
+        Assertions.assertEquals(-2d, determinant.calculateDouble());
+        Assertions.assertEquals(-1, determinant.lu().getSign());
+        Assertions.assertFalse(determinant.lu().isSingular());
+        Assertions.assertEquals(-2d, determinant.triangle().calculateDouble());
+    }
+}
@@ -0,0 +1,153 @@
+package xyz.xpecya.math.test;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.RepeatedTest;
+import org.junit.jupiter.api.Test;
+import xyz.xpecya.math.ComplexNumber;
+import xyz.xpecya.math.ExecutionPolicy;
+import xyz.xpecya.math.LazyMatrix;
+import xyz.xpecya.math.Matrix;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static xyz.xpecya.math.test.TestConfig.RANDOM_REPEATED;
+
+/**
+ * 延迟计算测试
+ * 融合计算的结果应该和逐步计算完全一致
+ */
+public class LazyMatrixTest {
+
+    @RepeatedTest(RANDOM_REPEATED)
+    public void fused() {
+        Random random = new Random();
+        int row = random.nextInt(1, 60);
+        int column = random.nextInt(1, 60);
+        Matrix a = Matrix.create(SimpleMatrixTest.randomArray(row, column));
+        Matrix b = Matrix.create(SimpleMatrixTest.randomArray(row, column));
+        Matrix c = Matrix.create(SimpleMatrixTest.randomArray(row, column));
+        double alpha = random.nextDouble();
+
+        Matrix expected = a.add(b).multi(alpha).hadamard(c).minus(a.minus(c).multi(2d));
+        Matrix lazy = a.lazy().add(b).multi(alpha).hadamard(c).minus(a.lazy().minus(c).multi(2d));
+        Assertions.assertInstanceOf(LazyMatrix.class, lazy);
+        Assertions.assertFalse(((LazyMatrix) lazy).isEvaluated());
+        for (int i = 0; i < row; i++) {
+            Assertions.assertArrayEquals(expected.getDoubleRow(i), lazy.getDoubleRow(i));
+        }
+        Assertions.assertTrue(((LazyMatrix) lazy).isEvaluated());
+        Assertions.assertSame(lazy.evaluate(), lazy.evaluate());
+        Assertions.assertFalse(lazy.evaluate() instanceof LazyMatrix);
+    }
+
+    @Test
+    public void parallel() {
+        int row = 300;
+        int column = 200;
+        Matrix a = Matrix.create(SimpleMatrixTest.randomArray(row, column));
+        Matrix b = Matrix.create(SimpleMatrixTest.randomArray(row, column));
+        Matrix expected = a.hadamard(b).add(a).multi(3d);
+        long threshold = Matrix.getParallelThreshold();
+        Matrix.setParallelThreshold(0);
+        try {
+            // 转置前先在并行策略下融合计算
+            Matrix actual = a.lazy().hadamard(b).add(a).multi(3d).transpose(ExecutionPolicy.PARALLEL);
+            Matrix expectedTranspose = expected.transpose();
+            for (int i = 0; i < column; i++) {
+                Assertions.assertArrayEquals(expectedTranspose.getDoubleRow(i), actual.getDoubleRow(i));
+            }
+        } finally {
+            Matrix.setParallelThreshold(threshold);
+        }
+    }
+
+    @Test
+    public void mixed() {
+        double[][] array = {
+                {1, 2},
+                {3, 4}
+        };
+        Matrix matrix = Matrix.create(array);
+        Matrix lazy = matrix.lazy();
+        Assertions.assertSame(matrix, lazy.evaluate());
+        Assertions.assertSame(lazy, lazy.lazy());
+
+        // 矩阵乘法和转置先计算 结果为普通矩阵
+        Matrix product = lazy.add(matrix).multi(matrix);
+        Assertions.assertFalse(product instanceof LazyMatrix);
+        SimpleMatrixTest.assertMatrixEquals(new double[][]{{14, 20}, {30, 44}}, product);
+        Matrix transpose = lazy.multi(2d).transpose();
+        SimpleMatrixTest.assertMatrixEquals(new double[][]{{2, 6}, {4, 8}}, transpose);
+
+        // 和复数矩阵的运算按普通矩阵处理
+        Matrix complex = Matrix.square(2, new ComplexNumber(0d, 1d));
+        Assertions.assertSame(complex, complex.lazy());
+        Matrix sum = lazy.add(matrix).add(complex);
+        Assertions.assertEquals(new ComplexNumber(8d, 1d), sum.doGetComplex(1, 1));
+
+        // 普通矩阵也可以和延迟矩阵运算
+        SimpleMatrixTest.assertMatrixEquals(new double[][]{{3, 6}, {9, 12}}, matrix.add(lazy.multi(2d)));
+        Assertions.assertEquals(Matrix.create(array).toDeterminant().calculateDouble(),
+                lazy.multi(1d).toDeterminant().calculateDouble());
+    }
+
+    /**
+     * 已经计算过的延迟矩阵继续参与运算时 不会再次读取原来的矩阵
+     */
+    @Test
+    public void evaluateOnce() {
+        int row = 20;
+        int column = 30;
+        Matrix source = Matrix.create(SimpleMatrixTest.randomArray(row, column));
+        Matrix other = Matrix.create(SimpleMatrixTest.randomArray(row, column));
+        // 统计逐行读取的次数 每计算一次表达式树读取row次
+        AtomicInteger reads = new AtomicInteger();
+        Matrix counting = (Matrix) Proxy.newProxyInstance(Matrix.class.getClassLoader(), new Class<?>[]{Matrix.class},
+                (proxy, method, args) -> {
+                    if (method.getName().equals("doGetDoubleRow")) {
+                        reads.incrementAndGet();
+                    }
+                    try {
+                        return method.invoke(source, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+                });
+
+        Matrix sum = other.lazy().add(counting);
+        sum.evaluate();
+        Assertions.assertEquals(row, reads.get());
+
+        Matrix chain = sum.add(other).minus(sum).hadamard(sum).multi(2d).multi(3d);
+        Matrix expected = source.add(other);
+        expected = expected.add(other).minus(expected).hadamard(expected).multi(6d);
+        for (int i = 0; i < row; i++) {
+            Assertions.assertArrayEquals(expected.getDoubleRow(i), chain.getDoubleRow(i), 1e-12);
+        }
+        Assertions.assertEquals(row, reads.get());
+        sum.multi(2d).evaluate();
+        Assertions.assertEquals(row, reads.get());
+    }
+
+    /**
+     * x = x.add(dx) 这样很长的链不会在逐行计算时栈溢出
+     */
+    @Test
+    public void longChain() {
+        int count = 100000;
+        Matrix x = Matrix.create(new double[][]{{1, 2, 3}, {4, 5, 6}}).lazy();
+        Matrix y = x;
+        Matrix dx = Matrix.create(new double[][]{{1, 0, -1}, {2, 1, 0}});
+        for (int i = 0; i < count; i++) {
+            x = x.add(dx);
+            y = dx.add(y);
+        }
+        Assertions.assertInstanceOf(LazyMatrix.class, x);
+        double[][] expected = {{1 + count, 2, 3 - count}, {4 + 2 * count, 5 + count, 6}};
+        SimpleMatrixTest.assertMatrixEquals(expected, x);
+        SimpleMatrixTest.assertMatrixEquals(expected, y);
+    }
+}
@@ -0,0 +1,121 @@
+package xyz.xpecya.math.test;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.RepeatedTest;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import xyz.xpecya.math.MappedMatrix;
+import xyz.xpecya.math.Matrix;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Random;
+
+import static xyz.xpecya.math.test.TestConfig.RANDOM_REPEATED;
+
+/**
+ * 文件映射矩阵测试
+ * 写入文件的运算结果重新打开后应该和堆上矩阵的运算结果一致
+ */
+public class MappedMatrixTest {
+
+    @TempDir
+    Path directory;
+
+    @RepeatedTest(RANDOM_REPEATED)
+    public void operations() throws IOException {
+        Random random = new Random();
+        int row = random.nextInt(1, 200);
+        int column = random.nextInt(1, 300);
+        int inputColumn = random.nextInt(1, 100);
+        double[][] first = SimpleMatrixTest.randomArray(row, column);
+        double[][] second = SimpleMatrixTest.randomArray(row, column);
+        Matrix firstMatrix = Matrix.create(first);
+        Matrix secondMatrix = Matrix.create(second);
+        Matrix input = Matrix.create(SimpleMatrixTest.randomArray(column, inputColumn));
+        try (MappedMatrix mapped = MappedMatrix.copyOf(firstMatrix, directory.resolve("first.mat"));
+             MappedMatrix sum = mapped.add(secondMatrix, directory.resolve("sum.mat"));
+             MappedMatrix minus = mapped.minus(secondMatrix, directory.resolve("minus.mat"));
+             MappedMatrix hadamard = mapped.hadamard(secondMatrix, directory.resolve("hadamard.mat"));
+             MappedMatrix scale = mapped.multi(2d, directory.resolve("scale.mat"));
+             MappedMatrix product = mapped.multi(input, directory.resolve("product.mat"));
+             MappedMatrix transpose = mapped.transpose(directory.resolve("transpose.mat"))) {
+            SimpleMatrixTest.assertMatrixEquals(first, mapped);
+            assertMatrixEquals(firstMatrix.add(secondMatrix), sum);
+            assertMatrixEquals(firstMatrix.minus(secondMatrix), minus);
+            assertMatrixEquals(firstMatrix.hadamard(secondMatrix), hadamard);
+            assertMatrixEquals(firstMatrix.multi(2d), scale);
+            assertMatrixEquals(firstMatrix.multi(input), product);
+            assertMatrixEquals(firstMatrix.transpose(), transpose);
+            // 不带路径的运算结果在堆外
+            assertMatrixEquals(firstMatrix.multi(input), mapped.multi(input));
+        }
+
+        // 重新打开只读取文件头
+        try (MappedMatrix product = MappedMatrix.open(directory.resolve("product.mat"));
+             MappedMatrix transpose = MappedMatrix.open(directory.resolve("transpose.mat"))) {
+            Assertions.assertEquals(row, product.getRow());
+            Assertions.assertEquals(inputColumn, product.getColumn());
+            assertMatrixEquals(firstMatrix.multi(input), product);
+            SimpleMatrixTest.assertMatrixEquals(SimpleMatrixTest.transposeArray(first), transpose);
+        }
+    }
+
+    @Test
+    public void invalidFile() throws IOException {
+        Path path = directory.resolve("invalid.mat");
+        Files.write(path, new byte[100]);
+        Assertions.assertThrows(IOException.class, () -> MappedMatrix.open(path));
+
+        Path matrixPath = directory.resolve("matrix.mat");
+        MappedMatrix matrix = MappedMatrix.create(matrixPath, 3, 4);
+        Assertions.assertEquals(0d, matrix.doGetDouble(2, 3));
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> matrix.add(Matrix.zero(4, 3), directory.resolve("add.mat")));
+        matrix.close();
+        Assertions.assertThrows(IllegalStateException.class, () -> matrix.doGetDouble(0, 0));
+
+        // 截断后的文件不能打开
+        byte[] bytes = Files.readAllBytes(matrixPath);
+        Files.write(matrixPath, Arrays.copyOf(bytes, bytes.length - 8));
+        Assertions.assertThrows(IOException.class, () -> MappedMatrix.open(matrixPath));
+    }
+
+    /**
+     * 结果文件是参与运算的映射文件时直接拒绝 不会截断输入数据
+     */
+    @Test
+    public void sameFile() throws IOException {
+        double[][] array = SimpleMatrixTest.randomArray(3, 3);
+        Path firstPath = directory.resolve("first.mat");
+        Path secondPath = directory.resolve("second.mat");
+        try (MappedMatrix first = MappedMatrix.copyOf(Matrix.create(array), firstPath);
+             MappedMatrix second = MappedMatrix.copyOf(Matrix.create(array), secondPath)) {
+            Path alias = directory.resolve(".").resolve("first.mat");
+            Assertions.assertThrows(IllegalArgumentException.class, () -> first.add(second, firstPath));
+            Assertions.assertThrows(IllegalArgumentException.class, () -> first.minus(second, alias));
+            Assertions.assertThrows(IllegalArgumentException.class, () -> first.hadamard(second, secondPath));
+            Assertions.assertThrows(IllegalArgumentException.class, () -> first.multi(2d, alias));
+            Assertions.assertThrows(IllegalArgumentException.class, () -> first.multi(second, secondPath));
+            Assertions.assertThrows(IllegalArgumentException.class, () -> first.transpose(firstPath));
+            Assertions.assertThrows(IllegalArgumentException.class, () -> MappedMatrix.copyOf(second, secondPath));
+            SimpleMatrixTest.assertMatrixEquals(array, first);
+            SimpleMatrixTest.assertMatrixEquals(array, second);
+        }
+        Assertions.assertEquals(Files.size(firstPath), Files.size(secondPath));
+    }
+
+    private static void assertMatrixEquals(Matrix expected, Matrix actual) {
+        Assertions.assertEquals(expected.getRow(), actual.getRow());
+        Assertions.assertEquals(expected.getColumn(), actual.getColumn());
+        for (int i = 0; i < expected.getRow(); i++) {
+            double[] expectedRow = expected.getDoubleRow(i);
+            double[] actualRow = actual.getDoubleRow(i);
+            for (int j = 0; j < expectedRow.length; j++) {
+                Assertions.assertEquals(expectedRow[j], actualRow[j], 1e-9);
+            }
+        }
+    }
+}
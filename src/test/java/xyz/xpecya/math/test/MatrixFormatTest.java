@@ -0,0 +1,159 @@
+package xyz.xpecya.math.test;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.RepeatedTest;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import xyz.xpecya.math.ComplexNumber;
+import xyz.xpecya.math.MappedMatrix;
+import xyz.xpecya.math.Matrix;
+import xyz.xpecya.math.OffHeapMatrix;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Random;
+
+import static xyz.xpecya.math.test.TestConfig.RANDOM_REPEATED;
+
+/**
+ * 二进制格式测试
+ * 写入后再读取的矩阵应该和原矩阵完全相等
+ */
+public class MatrixFormatTest {
+
+    @TempDir
+    Path directory;
+
+    @RepeatedTest(RANDOM_REPEATED)
+    public void roundTrip() throws IOException {
+        Random random = new Random();
+        int row = random.nextInt(1, 200);
+        int column = random.nextInt(1, 200);
+        double[][] array = SimpleMatrixTest.randomArray(row, column);
+        ComplexNumber[][] complexArray = ComplexMatrixTest.randomArray(row, column);
+        Matrix complexMatrix = Matrix.create(complexArray);
+        double[][] sparse = new double[row][column];
+        Matrix sparseMatrix = SparseMatrixTest.randomSparse(row, column, sparse);
+
+        ByteArrayOutputStream stream = new ByteArrayOutputStream();
+        try (WritableByteChannel channel = Channels.newChannel(stream);
+             OffHeapMatrix offHeap = OffHeapMatrix.copyOf(Matrix.create(array))) {
+            Matrix.create(array).writeTo(channel);
+            complexMatrix.writeTo(channel, true);
+            complexMatrix.transpose().writeTo(channel);
+            sparseMatrix.writeTo(channel, true);
+            offHeap.writeTo(channel);
+            Matrix.create(array).transpose().writeTo(channel, true);
+        }
+
+        // 多个矩阵依次写入同一个通道
+        try (ReadableByteChannel channel = Channels.newChannel(new ByteArrayInputStream(stream.toByteArray()))) {
+            assertExactly(array, Matrix.readFrom(channel));
+            assertExactly(complexArray, Matrix.readFrom(channel));
+            Matrix transpose = Matrix.readFrom(channel);
+            for (int i = 0; i < row; i++) {
+                for (int j = 0; j < column; j++) {
+                    Assertions.assertEquals(complexArray[i][j], transpose.doGetComplex(j, i));
+                }
+            }
+            assertExactly(sparse, Matrix.readFrom(channel));
+            assertExactly(array, Matrix.readFrom(channel));
+            assertExactly(SimpleMatrixTest.transposeArray(array), Matrix.readFrom(channel));
+            Assertions.assertEquals(-1, channel.read(ByteBuffer.allocate(1)));
+        }
+    }
+
+    @Test
+    public void checksum() throws IOException {
+        double[][] array = SimpleMatrixTest.randomArray(100, 100);
+        ByteArrayOutputStream stream = new ByteArrayOutputStream();
+        try (WritableByteChannel channel = Channels.newChannel(stream)) {
+            Matrix.create(array).writeTo(channel, true);
+        }
+        byte[] bytes = stream.toByteArray();
+        Assertions.assertEquals(64 + 100 * 100 * Double.BYTES + Integer.BYTES, bytes.length);
+        bytes[1000] ^= 1;
+        Assertions.assertThrows(IOException.class,
+                () -> Matrix.readFrom(Channels.newChannel(new ByteArrayInputStream(bytes))));
+        // 截断的数据
+        Assertions.assertThrows(IOException.class, () -> Matrix.readFrom(Channels.newChannel(
+                new ByteArrayInputStream(bytes, 0, 1000))));
+        // 不是矩阵
+        Assertions.assertThrows(IOException.class, () -> Matrix.readFrom(Channels.newChannel(
+                new ByteArrayInputStream(new byte[64]))));
+    }
+
+    /**
+     * 文件头中记录了字节序 非本机字节序的数据也能正确读取
+     */
+    @Test
+    public void byteOrder() throws IOException {
+        ByteOrder order = ByteOrder.nativeOrder() == ByteOrder.BIG_ENDIAN
+                ? ByteOrder.LITTLE_ENDIAN : ByteOrder.BIG_ENDIAN;
+        ByteBuffer buffer = ByteBuffer.allocate(64 + 6 * Double.BYTES);
+        buffer.order(ByteOrder.BIG_ENDIAN)
+                .putInt(0x584D4154)
+                .putShort((short) 1)
+                .put((byte) 0)
+                .put(order == ByteOrder.BIG_ENDIAN ? (byte) 0 : (byte) 1)
+                .putInt(2)
+                .putInt(3);
+        buffer.position(64);
+        buffer.order(order);
+        for (int i = 1; i <= 6; i++) {
+            buffer.putDouble(i);
+        }
+        Matrix matrix = Matrix.readFrom(Channels.newChannel(new ByteArrayInputStream(buffer.array())));
+        assertExactly(new double[][]{{1, 2, 3}, {4, 5, 6}}, matrix);
+    }
+
+    /**
+     * 文件映射矩阵和二进制格式使用同一个文件头
+     */
+    @Test
+    public void mapped() throws IOException {
+        double[][] array = SimpleMatrixTest.randomArray(50, 70);
+        Path path = directory.resolve("matrix.mat");
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+            Matrix.create(array).writeTo(channel, true);
+        }
+        try (MappedMatrix mapped = MappedMatrix.open(path)) {
+            assertExactly(array, mapped);
+        }
+
+        Path copyPath = directory.resolve("copy.mat");
+        MappedMatrix.copyOf(Matrix.create(array), copyPath).close();
+        try (FileChannel channel = FileChannel.open(copyPath, StandardOpenOption.READ)) {
+            assertExactly(array, Matrix.readFrom(channel));
+        }
+    }
+
+    private static void assertExactly(double[][] expected, Matrix actual) {
+        Assertions.assertEquals(expected.length, actual.getRow());
+        Assertions.assertEquals(expected[0].length, actual.getColumn());
+        for (int i = 0; i < expected.length; i++) {
+            for (int j = 0; j < expected[i].length; j++) {
+                Assertions.assertEquals(expected[i][j], actual.doGetDouble(i, j));
+            }
+        }
+    }
+
+    private static void assertExactly(ComplexNumber[][] expected, Matrix actual) {
+        Assertions.assertEquals(expected.length, actual.getRow());
+        Assertions.assertEquals(expected[0].length, actual.getColumn());
+        for (int i = 0; i < expected.length; i++) {
+            for (int j = 0; j < expected[i].length; j++) {
+                Assertions.assertEquals(expected[i][j], actual.doGetComplex(i, j));
+            }
+        }
+    }
+}
@@ -0,0 +1,251 @@
+package xyz.xpecya.math.test;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.RepeatedTest;
+import org.junit.jupiter.api.Test;
+import xyz.xpecya.math.ComplexMatrixView;
+import xyz.xpecya.math.ComplexNumber;
+import xyz.xpecya.math.DiagonalMatrix;
+import xyz.xpecya.math.Matrix;
+import xyz.xpecya.math.OffHeapMatrix;
+import xyz.xpecya.math.SimpleMatrixView;
+import xyz.xpecya.math.TriangularMatrix;
+
+import java.util.Random;
+
+import static xyz.xpecya.math.test.TestConfig.RANDOM_REPEATED;
+
+/**
+ * 转置和子矩阵视图测试
+ * 视图上的运算结果应该和拷贝出来的数组上的运算结果一致
+ */
+public class MatrixViewTest {
+
+    @RepeatedTest(RANDOM_REPEATED)
+    public void view() {
+        Random random = new Random();
+        int row = random.nextInt(2, 60);
+        int column = random.nextInt(2, 60);
+        double[][] array = SimpleMatrixTest.randomArray(row, column);
+        Matrix matrix = Matrix.create(array);
+
+        Matrix transpose = matrix.transpose();
+        Assertions.assertInstanceOf(SimpleMatrixView.class, transpose);
+        SimpleMatrixTest.assertMatrixEquals(SimpleMatrixTest.transposeArray(array), transpose);
+        SimpleMatrixTest.assertMatrixEquals(array, transpose.transpose());
+
+        int rowFrom = random.nextInt(0, row - 1);
+        int rowTo = random.nextInt(rowFrom + 1, row + 1);
+        int columnFrom = random.nextInt(0, column - 1);
+        int columnTo = random.nextInt(columnFrom + 1, column + 1);
+        double[][] expected = slice(array, rowFrom, rowTo, columnFrom, columnTo);
+        Matrix submatrix = matrix.submatrix(rowFrom, rowTo, columnFrom, columnTo);
+        Assertions.assertInstanceOf(SimpleMatrixView.class, submatrix);
+        SimpleMatrixTest.assertMatrixEquals(expected, submatrix);
+        SimpleMatrixTest.assertMatrixEquals(slice(array, rowFrom, rowTo, 0, column), matrix.rows(rowFrom, rowTo));
+        SimpleMatrixTest.assertMatrixEquals(slice(array, 0, row, columnFrom, columnTo),
+                matrix.columns(columnFrom, columnTo));
+
+        // 转置后再取子矩阵
+        double[][] transposeExpected = slice(SimpleMatrixTest.transposeArray(array),
+                columnFrom, columnTo, rowFrom, rowTo);
+        Matrix transposeSubmatrix = transpose.submatrix(columnFrom, columnTo, rowFrom, rowTo);
+        SimpleMatrixTest.assertMatrixEquals(transposeExpected, transposeSubmatrix);
+        for (int i = 0; i < transposeExpected.length; i++) {
+            Assertions.assertArrayEquals(transposeExpected[i], transposeSubmatrix.getDoubleRow(i));
+        }
+
+        // 逐元素运算
+        double[][] other = SimpleMatrixTest.randomArray(transposeExpected.length, transposeExpected[0].length);
+        double[][] sum = new double[other.length][other[0].length];
+        double[][] product = new double[other.length][other[0].length];
+        for (int i = 0; i < other.length; i++) {
+            for (int j = 0; j < other[0].length; j++) {
+                sum[i][j] = transposeExpected[i][j] + other[i][j];
+                product[i][j] = transposeExpected[i][j] * other[i][j] * 2d;
+            }
+        }
+        SimpleMatrixTest.assertMatrixEquals(sum, transposeSubmatrix.add(Matrix.create(other)));
+        SimpleMatrixTest.assertMatrixEquals(sum, Matrix.create(other).add(transposeSubmatrix));
+        SimpleMatrixTest.assertMatrixEquals(product, transposeSubmatrix.hadamard(Matrix.create(other)).multi(2d));
+        SimpleMatrixTest.assertMatrixEquals(product,
+                transposeSubmatrix.hadamard(Matrix.create(other).transpose().transpose()).multi(2d));
+    }
+
+    /**
+     * 视图参与矩阵乘法时直接按间隔读取
+     */
+    @RepeatedTest(RANDOM_REPEATED)
+    public void multi() {
+        Random random = new Random();
+        int row = random.nextInt(1, 150);
+        int column = random.nextInt(1, 300);
+        int inputColumn = random.nextInt(1, 150);
+        double[][] first = SimpleMatrixTest.randomArray(column, row);
+        double[][] second = SimpleMatrixTest.randomArray(inputColumn, column);
+        double[][] expected = SimpleMatrixTest.multi(SimpleMatrixTest.transposeArray(first),
+                SimpleMatrixTest.transposeArray(second));
+        Matrix firstTranspose = Matrix.create(first).transpose();
+        Matrix secondTranspose = Matrix.create(second).transpose();
+        SimpleMatrixTest.assertMatrixEquals(expected, firstTranspose.multi(secondTranspose));
+        SimpleMatrixTest.assertMatrixEquals(expected,
+                firstTranspose.multi(Matrix.create(SimpleMatrixTest.transposeArray(second))));
+        SimpleMatrixTest.assertMatrixEquals(expected,
+                Matrix.create(SimpleMatrixTest.transposeArray(first)).multi(secondTranspose));
+        SimpleMatrixTest.assertMatrixEquals(expected,
+                firstTranspose.gemm(1d, secondTranspose, 0d, Matrix.zero(row, inputColumn)));
+
+        double[] vector = new double[column];
+        for (int i = 0; i < column; i++) {
+            vector[i] = random.nextDouble();
+        }
+        double[] actualVector = firstTranspose.multi(vector);
+        double[] expectedVector = Matrix.create(SimpleMatrixTest.transposeArray(first)).multi(vector);
+        for (int i = 0; i < row; i++) {
+            Assertions.assertEquals(expectedVector[i], actualVector[i], 1e-9);
+        }
+    }
+
+    @RepeatedTest(RANDOM_REPEATED)
+    public void complex() {
+        Random random = new Random();
+        int row = random.nextInt(2, 30);
+        int column = random.nextInt(2, 30);
+        ComplexNumber[][] array = ComplexMatrixTest.randomArray(row, column);
+        Matrix matrix = Matrix.create(array);
+        Matrix transpose = matrix.transpose();
+        Assertions.assertInstanceOf(ComplexMatrixView.class, transpose);
+        ComplexNumber[][] transposeArray = new ComplexNumber[column][row];
+        for (int i = 0; i < row; i++) {
+            for (int j = 0; j < column; j++) {
+                transposeArray[j][i] = array[i][j];
+            }
+        }
+        ComplexMatrixTest.assertMatrixEquals(transposeArray, transpose);
+
+        // A^T * A 不会生成A^T
+        ComplexMatrixTest.assertMatrixEquals(ComplexMatrixTest.multi(transposeArray, array), transpose.multi(matrix));
+        double[][] doubleArray = SimpleMatrixTest.randomArray(row, 3);
+        ComplexNumber[][] doubleAsComplex = new ComplexNumber[row][3];
+        for (int i = 0; i < row; i++) {
+            for (int j = 0; j < 3; j++) {
+                doubleAsComplex[i][j] = new ComplexNumber(doubleArray[i][j]);
+            }
+        }
+        ComplexMatrixTest.assertMatrixEquals(ComplexMatrixTest.multi(transposeArray, doubleAsComplex),
+                transpose.multi(Matrix.create(doubleArray)));
+        ComplexMatrixTest.assertMatrixEquals(ComplexMatrixTest.multi(transposeArray, doubleAsComplex),
+                transpose.multi(Matrix.create(SimpleMatrixTest.transposeArray(doubleArray)).transpose()));
+
+        Matrix submatrix = matrix.submatrix(1, row, 1, column);
+        Assertions.assertInstanceOf(ComplexMatrixView.class, submatrix);
+        Assertions.assertEquals(array[row - 1][column - 1], submatrix.doGetComplex(row - 2, column - 2));
+        Matrix sum = submatrix.add(submatrix);
+        Assertions.assertEquals(array[1][1].add(array[1][1]), sum.doGetComplex(0, 0));
+
+        // 只认识连续存储的实现也要按复数处理视图
+        Matrix transposeCopy = Matrix.create(transposeArray);
+        double[][] doubleTranspose = SimpleMatrixTest.randomArray(column, row);
+        ComplexNumber[][] expectedSum = new ComplexNumber[column][row];
+        for (int i = 0; i < column; i++) {
+            for (int j = 0; j < row; j++) {
+                expectedSum[i][j] = transposeArray[i][j].add(new ComplexNumber(doubleTranspose[i][j]));
+            }
+        }
+        ComplexMatrixTest.assertMatrixEquals(expectedSum, Matrix.create(doubleTranspose).lazy().add(transpose));
+        ComplexMatrixTest.assertMatrixEquals(expectedSum, Matrix.create(doubleTranspose).add(transpose));
+        double[][] square = SimpleMatrixTest.randomArray(column, column);
+        for (int i = 0; i < column; i++) {
+            square[i][i] += column;
+        }
+        Matrix expected = Matrix.create(square).toDeterminant().solve(transposeCopy);
+        Matrix actual = Matrix.create(square).toDeterminant().solve(transpose);
+        for (int i = 0; i < column; i++) {
+            for (int j = 0; j < row; j++) {
+                ComplexNumber expectedValue = expected.doGetComplex(i, j);
+                ComplexNumber actualValue = actual.doGetComplex(i, j);
+                Assertions.assertEquals(expectedValue.real(), actualValue.real(), 1e-9);
+                Assertions.assertEquals(expectedValue.imaginary(), actualValue.imaginary(), 1e-9);
+            }
+        }
+    }
+
+    /**
+     * 直接调用doX方法时复数视图也不能丢掉虚部
+     */
+    @RepeatedTest(RANDOM_REPEATED)
+    public void complexOperand() {
+        Random random = new Random();
+        int length = random.nextInt(2, 20);
+        ComplexNumber[][] array = ComplexMatrixTest.randomArray(length, length);
+        Matrix view = Matrix.create(array).transpose();
+        Assertions.assertInstanceOf(ComplexMatrixView.class, view);
+        ComplexNumber[][] transposeArray = new ComplexNumber[length][length];
+        for (int i = 0; i < length; i++) {
+            for (int j = 0; j < length; j++) {
+                transposeArray[j][i] = array[i][j];
+            }
+        }
+        Matrix copy = Matrix.create(transposeArray);
+
+        double[][] doubleArray = SimpleMatrixTest.randomArray(length, length);
+        double[] diagonal = new double[length];
+        for (int i = 0; i < length; i++) {
+            diagonal[i] = doubleArray[i][i];
+        }
+        double[][] sparseArray = new double[length][length];
+        try (OffHeapMatrix offHeap = OffHeapMatrix.copyOf(Matrix.create(doubleArray))) {
+            Matrix[] lefts = {
+                    Matrix.create(doubleArray),
+                    Matrix.create(doubleArray).transpose(),
+                    Matrix.create(doubleArray).lazy(),
+                    offHeap,
+                    DiagonalMatrix.create(diagonal),
+                    TriangularMatrix.lower(doubleArray),
+                    BandedMatrixTest.randomBanded(length, 1, 1, new double[length][length]),
+                    SparseMatrixTest.randomSparse(length, length, sparseArray)
+            };
+            for (Matrix left : lefts) {
+                ComplexMatrixTest.assertMatrixEquals(toArray(left.doAdd(copy)), left.doAdd(view));
+                ComplexMatrixTest.assertMatrixEquals(toArray(left.doMinus(copy)), left.doMinus(view));
+                ComplexMatrixTest.assertMatrixEquals(toArray(left.doHadamard(copy)), left.doHadamard(view));
+                ComplexMatrixTest.assertMatrixEquals(toArray(left.doMulti(copy)), left.doMulti(view));
+            }
+        }
+    }
+
+    @Test
+    public void determinant() {
+        double[][] array = {
+                {1, 2, 3},
+                {4, 5, 6},
+                {7, 8, 10}
+        };
+        Matrix matrix = Matrix.create(array);
+        Assertions.assertEquals(-3d, matrix.transpose().toDeterminant().calculateDouble(), 1e-12);
+        Assertions.assertEquals(-3d, matrix.submatrix(0, 2, 0, 2).toDeterminant().calculateDouble(), 1e-12);
+        Assertions.assertThrows(IllegalArgumentException.class, () -> matrix.submatrix(0, 4, 0, 1));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> matrix.rows(2, 2));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> matrix.columns(-1, 1));
+
+        // 其他实现拷贝对应区域
+        Matrix sparse = Matrix.sparse(3, 3, new int[]{0, 2}, new int[]{0, 1}, new double[]{1d, 5d});
+        SimpleMatrixTest.assertMatrixEquals(new double[][]{{0, 0}, {0, 5}}, sparse.submatrix(1, 3, 0, 2));
+    }
+
+    private static ComplexNumber[][] toArray(Matrix matrix) {
+        ComplexNumber[][] result = new ComplexNumber[matrix.getRow()][];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = matrix.doGetComplexRow(i);
+        }
+        return result;
+    }
+
+    private static double[][] slice(double[][] array, int rowFrom, int rowTo, int columnFrom, int columnTo) {
+        double[][] result = new double[rowTo - rowFrom][columnTo - columnFrom];
+        for (int i = rowFrom; i < rowTo; i++) {
+            System.arraycopy(array[i], columnFrom, result[i - rowFrom], 0, columnTo - columnFrom);
+        }
+        return result;
+    }
+}
@@ -0,0 +1,102 @@
+package xyz.xpecya.math.test;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.RepeatedTest;
+import org.junit.jupiter.api.Test;
+import xyz.xpecya.math.ComplexNumber;
+import xyz.xpecya.math.Matrix;
+import xyz.xpecya.math.MutableMatrix;
+
+import java.util.Random;
+
+import static xyz.xpecya.math.test.TestConfig.RANDOM_REPEATED;
+
+/**
+ * 可变矩阵测试
+ * 原地运算的结果应该和不可变矩阵的运算结果一致
+ */
+public class MutableMatrixTest {
+
+    @RepeatedTest(RANDOM_REPEATED)
+    public void inPlace() {
+        Random random = new Random();
+        int row = random.nextInt(1, 60);
+        int column = random.nextInt(1, 60);
+        double alpha = random.nextDouble(-2d, 2d);
+        double scale = random.nextDouble(-2d, 2d);
+        Matrix a = Matrix.create(SimpleMatrixTest.randomArray(row, column));
+        Matrix b = Matrix.create(SimpleMatrixTest.randomArray(row, column));
+        double[][] sparse = new double[row][column];
+        Matrix sparseMatrix = SparseMatrixTest.randomSparse(row, column, sparse);
+
+        Matrix expected = a.add(b).multi(scale).add(b.multi(alpha)).minus(Matrix.create(sparse));
+        MutableMatrix mutable = MutableMatrix.copyOf(a)
+                .addInPlace(b)
+                .scaleInPlace(scale)
+                .axpy(alpha, b.lazy())
+                .minusInPlace(sparseMatrix);
+        Assertions.assertFalse(mutable.isComplex());
+        Matrix result = mutable.freeze();
+        for (int i = 0; i < row; i++) {
+            double[] expectedRow = expected.getDoubleRow(i);
+            double[] actualRow = result.getDoubleRow(i);
+            for (int j = 0; j < column; j++) {
+                Assertions.assertEquals(expectedRow[j], actualRow[j], 1e-12);
+            }
+        }
+    }
+
+    @RepeatedTest(RANDOM_REPEATED)
+    public void complex() {
+        Random random = new Random();
+        int row = random.nextInt(1, 30);
+        int column = random.nextInt(1, 30);
+        ComplexNumber[][] array = ComplexMatrixTest.randomArray(row, column);
+        double[][] doubleArray = SimpleMatrixTest.randomArray(row, column);
+        ComplexNumber[][] expected = new ComplexNumber[row][column];
+        for (int i = 0; i < row; i++) {
+            for (int j = 0; j < column; j++) {
+                expected[i][j] = new ComplexNumber(doubleArray[i][j]).add(array[i][j].multi(new ComplexNumber(2d)));
+            }
+        }
+        // 浮点数矩阵累加复数矩阵后转换为复数矩阵
+        MutableMatrix mutable = MutableMatrix.copyOf(Matrix.create(doubleArray));
+        Assertions.assertFalse(mutable.isComplex());
+        mutable.axpy(2d, Matrix.create(array));
+        Assertions.assertTrue(mutable.isComplex());
+        ComplexMatrixTest.assertMatrixEquals(expected, mutable.freeze());
+
+        // 复数视图
+        MutableMatrix transpose = MutableMatrix.copyOf(Matrix.create(array).transpose());
+        Assertions.assertTrue(transpose.isComplex());
+        Assertions.assertEquals(array[row - 1][0], transpose.getComplex(0, row - 1));
+    }
+
+    @Test
+    public void setAndFreeze() {
+        MutableMatrix mutable = MutableMatrix.create(2, 3);
+        mutable.set(0, 0, 1d).set(1, 2, 5d);
+        Assertions.assertEquals(5d, mutable.getDouble(1, 2));
+        Assertions.assertFalse(mutable.isComplex());
+        mutable.set(0, 1, new ComplexNumber(0d, 2d));
+        Assertions.assertTrue(mutable.isComplex());
+        Assertions.assertEquals(new ComplexNumber(0d, 2d), mutable.getComplex(0, 1));
+        mutable.set(0, 1, 3d);
+        Assertions.assertEquals(new ComplexNumber(3d, 0d), mutable.getComplex(0, 1));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> mutable.set(2, 0, 1d));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> mutable.addInPlace(Matrix.zero(3, 2)));
+
+        Matrix frozen = mutable.freeze();
+        Assertions.assertTrue(mutable.isFrozen());
+        Assertions.assertEquals(new ComplexNumber(1d, 0d), frozen.doGetComplex(0, 0));
+        Assertions.assertEquals(new ComplexNumber(5d, 0d), frozen.doGetComplex(1, 2));
+        Assertions.assertThrows(IllegalStateException.class, () -> mutable.set(0, 0, 2d));
+        Assertions.assertThrows(IllegalStateException.class, () -> mutable.scaleInPlace(2d));
+        Assertions.assertThrows(IllegalStateException.class, mutable::freeze);
+        Assertions.assertEquals(new ComplexNumber(1d, 0d), frozen.doGetComplex(0, 0));
+
+        MutableMatrix complex = MutableMatrix.complex(1, 1);
+        Assertions.assertTrue(complex.isComplex());
+        Assertions.assertEquals(new ComplexNumber(0d, 0d), complex.freeze().doGetComplex(0, 0));
+    }
+}
@@ -0,0 +1,163 @@
+package xyz.xpecya.math.test;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.RepeatedTest;
+import org.junit.jupiter.api.Test;
+import xyz.xpecya.math.ComplexNumber;
+import xyz.xpecya.math.ExecutionPolicy;
+import xyz.xpecya.math.IdentityMatrix;
+import xyz.xpecya.math.Matrix;
+import xyz.xpecya.math.OffHeapMatrix;
+
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static xyz.xpecya.math.test.TestConfig.RANDOM_REPEATED;
+
+/**
+ * 堆外矩阵测试
+ * 运算结果应该和堆上浮点数矩阵的运算结果一致
+ */
+public class OffHeapMatrixTest {
+
+    @RepeatedTest(RANDOM_REPEATED)
+    public void elementWise() {
+        Random random = new Random();
+        int row = random.nextInt(1, 300);
+        int column = random.nextInt(1, 300);
+        double[][] first = SimpleMatrixTest.randomArray(row, column);
+        double[][] second = SimpleMatrixTest.randomArray(row, column);
+        Matrix firstMatrix = Matrix.create(first);
+        Matrix secondMatrix = Matrix.create(second);
+        try (OffHeapMatrix firstOffHeap = OffHeapMatrix.copyOf(firstMatrix);
+             OffHeapMatrix secondOffHeap = OffHeapMatrix.copyOf(secondMatrix)) {
+            SimpleMatrixTest.assertMatrixEquals(first, firstOffHeap);
+            assertMatrixEquals(firstMatrix.add(secondMatrix), firstOffHeap.add(secondOffHeap));
+            assertMatrixEquals(firstMatrix.add(secondMatrix), firstOffHeap.add(secondMatrix));
+            assertMatrixEquals(firstMatrix.add(secondMatrix), firstMatrix.add(secondOffHeap));
+            assertMatrixEquals(firstMatrix.minus(secondMatrix), firstOffHeap.minus(secondOffHeap));
+            assertMatrixEquals(firstMatrix.hadamard(secondMatrix), firstOffHeap.hadamard(secondMatrix.lazy()));
+            assertMatrixEquals(firstMatrix.multi(3d), firstOffHeap.multi(3d));
+            assertMatrixEquals(firstMatrix.transpose(), firstOffHeap.transpose());
+            assertMatrixEquals(firstMatrix.rows(row / 2, row), firstOffHeap.rows(row / 2, row));
+            assertMatrixEquals(firstMatrix.columns(0, (column + 1) / 2), firstOffHeap.columns(0, (column + 1) / 2));
+            SimpleMatrixTest.assertMatrixEquals(first, firstOffHeap.toHeap());
+        }
+    }
+
+    @RepeatedTest(RANDOM_REPEATED)
+    public void multi() {
+        Random random = new Random();
+        int row = random.nextInt(1, 200);
+        int column = random.nextInt(1, 600);
+        int inputColumn = random.nextInt(1, 200);
+        Matrix first = Matrix.create(SimpleMatrixTest.randomArray(row, column));
+        Matrix second = Matrix.create(SimpleMatrixTest.randomArray(column, inputColumn));
+        Matrix expected = first.multi(second);
+        try (OffHeapMatrix firstOffHeap = OffHeapMatrix.copyOf(first);
+             OffHeapMatrix secondOffHeap = OffHeapMatrix.copyOf(second)) {
+            assertMatrixEquals(expected, firstOffHeap.multi(secondOffHeap));
+            assertMatrixEquals(expected, firstOffHeap.multi(second));
+            assertMatrixEquals(expected, first.multi(secondOffHeap));
+            assertMatrixEquals(expected, firstOffHeap.multi(second.transpose().transpose()));
+
+            double[] vector = new double[column];
+            for (int i = 0; i < column; i++) {
+                vector[i] = random.nextDouble();
+            }
+            double[] expectedVector = first.multi(vector);
+            double[] actualVector = firstOffHeap.multi(vector);
+            for (int i = 0; i < row; i++) {
+                Assertions.assertEquals(expectedVector[i], actualVector[i], 1e-9);
+            }
+        }
+    }
+
+    @Test
+    public void complexAndClose() {
+        double[][] array = {
+                {1, 2, 3},
+                {4, 5, 6},
+                {7, 8, 10}
+        };
+        OffHeapMatrix matrix = OffHeapMatrix.copyOf(Matrix.create(array));
+        Assertions.assertEquals(-3d, matrix.toDeterminant().calculateDouble(), 1e-12);
+        ComplexNumber[][] complexArray = ComplexMatrixTest.randomArray(3, 3);
+        Matrix sum = matrix.add(Matrix.create(complexArray));
+        for (int i = 0; i < 3; i++) {
+            for (int j = 0; j < 3; j++) {
+                Assertions.assertEquals(complexArray[i][j].add(new ComplexNumber(array[i][j])), sum.doGetComplex(i, j));
+            }
+        }
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> OffHeapMatrix.copyOf(Matrix.create(complexArray)));
+
+        Assertions.assertFalse(matrix.isClosed());
+        matrix.close();
+        Assertions.assertTrue(matrix.isClosed());
+        matrix.close();
+        Assertions.assertThrows(IllegalStateException.class, () -> matrix.doGetDouble(0, 0));
+        Assertions.assertThrows(IllegalStateException.class, () -> matrix.multi(2d));
+    }
+
+    /**
+     * 和单位矩阵相乘或求解时返回堆外矩阵的拷贝 关闭输入后结果仍然可以读取
+     */
+    @Test
+    public void identityAfterClose() {
+        double[][] array = SimpleMatrixTest.randomArray(20, 20);
+        IdentityMatrix identity = IdentityMatrix.create(20);
+        OffHeapMatrix matrix = OffHeapMatrix.copyOf(Matrix.create(array));
+        Matrix left = identity.multi(matrix);
+        Matrix solved = identity.solve(matrix);
+        Assertions.assertNotSame(matrix, left);
+        Assertions.assertNotSame(matrix, solved);
+        matrix.close();
+        SimpleMatrixTest.assertMatrixEquals(array, left);
+        SimpleMatrixTest.assertMatrixEquals(array, solved);
+        ((OffHeapMatrix) left).close();
+        ((OffHeapMatrix) solved).close();
+    }
+
+    /**
+     * 并行乘法进行中close 正在读取的内存不会被释放
+     * 乘法要么正常完成 要么抛出IllegalStateException
+     */
+    @Test
+    public void closeDuringMulti() throws InterruptedException {
+        Matrix matrix = Matrix.create(SimpleMatrixTest.randomArray(800, 800));
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            for (int i = 0; i < 5; i++) {
+                OffHeapMatrix offHeap = OffHeapMatrix.copyOf(matrix);
+                Future<Matrix> product = executor.submit(() -> offHeap.multi(matrix, ExecutionPolicy.PARALLEL));
+                Thread.sleep(i * 20L);
+                offHeap.close();
+                try {
+                    Assertions.assertEquals(800, product.get().getRow());
+                } catch (ExecutionException e) {
+                    Assertions.assertInstanceOf(IllegalStateException.class, e.getCause());
+                }
+                Assertions.assertTrue(offHeap.isClosed());
+                Assertions.assertThrows(IllegalStateException.class, () -> offHeap.doGetDouble(0, 0));
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private static void assertMatrixEquals(Matrix expected, Matrix actual) {
+        Assertions.assertEquals(expected.getRow(), actual.getRow());
+        Assertions.assertEquals(expected.getColumn(), actual.getColumn());
+        for (int i = 0; i < expected.getRow(); i++) {
+            double[] expectedRow = expected.getDoubleRow(i);
+            double[] actualRow = actual.getDoubleRow(i);
+            for (int j = 0; j < expectedRow.length; j++) {
+                Assertions.assertEquals(expectedRow[j], actualRow[j], 1e-9);
+            }
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package xyz.xpecya.math.test;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.RepeatedTest;
+import org.junit.jupiter.api.Test;
+import xyz.xpecya.math.Determinant;
+import xyz.xpecya.math.Matrix;
+import xyz.xpecya.math.QRDecomposition;
+
+import java.util.Random;
+
+import static xyz.xpecya.math.test.TestConfig.RANDOM_REPEATED;
+
+/**
+ * QR分解和最小二乘测试
+ */
+public class QRDecompositionTest {
+
+    private static final double QR_DELTA = Math.pow(10d, -8);
+
+    /**
+     * 检查 A = QR, Q^T * Q = I 以及R为上三角
+     */
+    @RepeatedTest(RANDOM_REPEATED)
+    public void decompose() {
+        Random random = new Random();
+        int column = random.nextInt(1, 100);
+        int row = column + random.nextInt(0, 100);
+        double[][] array = SimpleMatrixTest.randomArray(row, column);
+        QRDecomposition qr = Matrix.create(array).qr();
+        Matrix q = qr.getQ();
+        Matrix r = qr.getR();
+        SimpleMatrixTest.assertMatrixEquals(array, q.multi(r));
+        Matrix identity = q.transpose().multi(q);
+        for (int i = 0; i < column; i++) {
+            for (int j = 0; j < column; j++) {
+                Assertions.assertEquals(i == j ? 1d : 0d, identity.doGetDouble(i, j), QR_DELTA);
+                if (j < i) {
+                    Assertions.assertEquals(0d, r.doGetDouble(i, j));
+                }
+            }
+        }
+    }
+
+    /**
+     * 最小二乘解满足法方程 A^T * A * x = A^T * b
+     */
+    @RepeatedTest(RANDOM_REPEATED)
+    public void leastSquares() {
+        Random random = new Random();
+        int column = random.nextInt(1, 80);
+        int row = column + random.nextInt(1, 100);
+        int width = random.nextInt(1, 40);
+        Matrix matrix = Matrix.create(SimpleMatrixTest.randomArray(row, column));
+        double[][] values = SimpleMatrixTest.randomArray(row, width);
+        Matrix value = Matrix.create(values);
+        Matrix result = matrix.leastSquares(value);
+        Assertions.assertEquals(column, result.getRow());
+        Assertions.assertEquals(width, result.getColumn());
+        Matrix transpose = matrix.transpose();
+        Matrix left = transpose.multi(matrix).multi(result);
+        Matrix right = transpose.multi(value);
+        for (int i = 0; i < column; i++) {
+            for (int j = 0; j < width; j++) {
+                Assertions.assertEquals(right.doGetDouble(i, j), left.doGetDouble(i, j), QR_DELTA);
+            }
+        }
+        // 单个常数项和多常数项的结果相同
+        double[] single = matrix.leastSquares(value.doGetDoubleColumn(0));
+        for (int i = 0; i < column; i++) {
+            Assertions.assertEquals(result.doGetDouble(i, 0), single[i], QR_DELTA);
+        }
+    }
+
+    /**
+     * 方阵的最小二乘解就是线性方程组的解
+     */
+    @Test
+    public void square() {
+        int length = 50;
+        double[][] array = SimpleMatrixTest.randomArray(length, length);
+        double[] value = SimpleMatrixTest.randomArray(1, length)[0];
+        double[] expected = Determinant.create(array).solve(value);
+        double[] actual = Matrix.create(array).leastSquares(value);
+        for (int i = 0; i < length; i++) {
+            Assertions.assertEquals(expected[i], actual[i], QR_DELTA);
+        }
+    }
+
+    /**
+     * 列数大于行数或列不满秩时无法求解
+     */
+    @Test
+    public void illegal() {
+        Matrix wide = Matrix.create(SimpleMatrixTest.randomArray(2, 3));
+        Assertions.assertThrows(IllegalStateException.class, wide::qr);
+        Matrix deficient = Matrix.create(new double[][]{
+                {1, 2},
+                {2, 4},
+                {3, 6}
+        });
+        Assertions.assertThrows(IllegalStateException.class, () -> deficient.leastSquares(new double[]{1, 2, 3}));
+
+        // 目前不支持复数矩阵 在入口处拒绝
+        Matrix complex = Matrix.create(ComplexMatrixTest.randomArray(3, 2));
+        Assertions.assertThrows(IllegalStateException.class, complex::qr);
+        Assertions.assertThrows(IllegalStateException.class, () -> complex.transpose().transpose().qr());
+        Matrix tall = Matrix.create(SimpleMatrixTest.randomArray(3, 2));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> tall.leastSquares(complex));
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> tall.leastSquares(complex.transpose().transpose()));
+    }
+}
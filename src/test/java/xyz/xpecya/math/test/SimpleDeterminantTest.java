@@ -3,8 +3,10 @@ package xyz.xpecya.math.test;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.RepeatedTest;
 import xyz.xpecya.math.Determinant;
+import xyz.xpecya.math.DiagonalMatrix;
 import xyz.xpecya.math.SimpleDeterminant;
 import xyz.xpecya.math.SimpleMatrix;
+import xyz.xpecya.math.TriangularMatrix;
 
 import java.lang.reflect.Field;
 
@@ -24,17 +26,15 @@ public abstract class SimpleDeterminantTest extends DeterminantTest {
 
     @Override
     @RepeatedTest(RANDOM_REPEATED)
-    public void triangle() throws NoSuchFieldException, IllegalAccessException {
+    public void triangle() {
         SimpleDeterminant simpleDeterminant = getSimpleInstance();
-        SimpleDeterminant triangleDeterminant = (SimpleDeterminant) simpleDeterminant.triangle();
-        Field field = SimpleMatrix.class.getDeclaredField("numberArrays");
-        field.setAccessible(true);
-        double[][] numberArrays = (double[][]) field.get(triangleDeterminant);
+        TriangularMatrix triangleDeterminant = (TriangularMatrix) simpleDeterminant.triangle();
         // 检查三角形
-        int length = numberArrays.length;
+        Assertions.assertFalse(triangleDeterminant.isLower());
+        int length = triangleDeterminant.getLength();
         for (int i = 1; i < length; i++) {
             for (int j = 0; j < i; j++) {
-                Assertions.assertEquals(numberArrays[i][j], 0d);
+                Assertions.assertEquals(triangleDeterminant.doGetDouble(i, j), 0d);
             }
         }
         // 检查运算值
@@ -43,20 +43,17 @@ public abstract class SimpleDeterminantTest extends DeterminantTest {
 
     @Override
     @RepeatedTest(RANDOM_REPEATED)
-    public void diagonal() throws NoSuchFieldException, IllegalAccessException {
+    public void diagonal() {
         SimpleDeterminant simpleDeterminant = getSimpleInstance();
-        SimpleDeterminant diagonalDeterminant = (SimpleDeterminant) simpleDeterminant.diagonal();
-        Field field = SimpleMatrix.class.getDeclaredField("numberArrays");
-        field.setAccessible(true);
-        double[][] numberArrays = (double[][]) field.get(diagonalDeterminant);
+        DiagonalMatrix diagonalDeterminant = (DiagonalMatrix) simpleDeterminant.diagonal();
         // 检查对角线
-        int length = numberArrays.length;
+        int length = diagonalDeterminant.getLength();
         for (int i = 0; i < length; i++) {
             for (int j = 0; j < length; j++) {
                 if (i == j) {
                     continue;
                 }
-                Assertions.assertEquals(numberArrays[i][j], 0d);
+                Assertions.assertEquals(diagonalDeterminant.doGetDouble(i, j), 0d);
             }
         }
         // 检查运算值
@@ -68,10 +65,10 @@ public abstract class SimpleDeterminantTest extends DeterminantTest {
     public void getLength() throws NoSuchFieldException, IllegalAccessException {
         SimpleDeterminant simpleDeterminant = getSimpleInstance();
         int length = simpleDeterminant.getLength();
-        Field field = SimpleMatrix.class.getDeclaredField("numberArrays");
+        Field field = SimpleMatrix.class.getDeclaredField("numbers");
         field.setAccessible(true);
-        double[][] numberArrays = (double[][]) field.get(simpleDeterminant);
-        Assertions.assertEquals(length, numberArrays.length);
+        double[] numbers = (double[]) field.get(simpleDeterminant);
+        Assertions.assertEquals(length * length, numbers.length);
     }
 
     @Override
@@ -87,14 +84,13 @@ public abstract class SimpleDeterminantTest extends DeterminantTest {
         double[] testArray = randomDoubleArray(length);
         double[] solveResult = simpleDeterminant.solve(testArray);
 
-        Field field = SimpleMatrix.class.getDeclaredField("numberArrays");
+        Field field = SimpleMatrix.class.getDeclaredField("numbers");
         field.setAccessible(true);
-        double[][] numberArrays = (double[][]) field.get(simpleDeterminant);
+        double[] numbers = (double[]) field.get(simpleDeterminant);
         for (int i = 0; i < length; i++) {
-            double[] numberArray = numberArrays[i];
             double result = 0;
             for (int j = 0; j < length; j++) {
-                result = result + solveResult[j] * numberArray[j];
+                result = result + solveResult[j] * numbers[i * length + j];
             }
             Assertions.assertEquals(result, testArray[i], DELTA);
         }
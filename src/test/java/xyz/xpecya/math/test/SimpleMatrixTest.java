@@ -0,0 +1,277 @@
+package xyz.xpecya.math.test;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.RepeatedTest;
+import xyz.xpecya.math.ExecutionPolicy;
+import xyz.xpecya.math.Matrix;
+
+import java.util.Random;
+
+import static xyz.xpecya.math.test.TestConfig.RANDOM_REPEATED;
+
+/**
+ * 浮点数矩阵测试
+ * 所有运算结果都和直接在二维数组上按定义计算的结果进行比较
+ */
+public class SimpleMatrixTest {
+
+    /**
+     * 浮点数矩阵运算误差范围
+     */
+    private static final double MATRIX_DELTA = Math.pow(10d, -9);
+
+    /**
+     * 测试矩阵加法和减法
+     */
+    @RepeatedTest(RANDOM_REPEATED)
+    public void addAndMinus() {
+        Random random = new Random();
+        int row = random.nextInt(1, 20);
+        int column = random.nextInt(1, 20);
+        double[][] first = randomArray(row, column);
+        double[][] second = randomArray(row, column);
+        Matrix add = Matrix.create(first).add(Matrix.create(second));
+        Matrix minus = Matrix.create(first).minus(Matrix.create(second));
+        for (int i = 0; i < row; i++) {
+            for (int j = 0; j < column; j++) {
+                Assertions.assertEquals(first[i][j] + second[i][j], add.doGetDouble(i, j));
+                Assertions.assertEquals(first[i][j] - second[i][j], minus.doGetDouble(i, j));
+            }
+        }
+    }
+
+    /**
+     * 测试矩阵数乘和哈达马乘积
+     */
+    @RepeatedTest(RANDOM_REPEATED)
+    public void scaleAndHadamard() {
+        Random random = new Random();
+        int row = random.nextInt(1, 20);
+        int column = random.nextInt(1, 20);
+        double scale = random.nextDouble();
+        double[][] first = randomArray(row, column);
+        double[][] second = randomArray(row, column);
+        Matrix multi = Matrix.create(first).multi(scale);
+        Matrix hadamard = Matrix.create(first).hadamard(Matrix.create(second));
+        for (int i = 0; i < row; i++) {
+            for (int j = 0; j < column; j++) {
+                Assertions.assertEquals(first[i][j] * scale, multi.doGetDouble(i, j));
+                Assertions.assertEquals(first[i][j] * second[i][j], hadamard.doGetDouble(i, j));
+            }
+        }
+    }
+
+    /**
+     * 测试矩阵乘法
+     */
+    @RepeatedTest(RANDOM_REPEATED)
+    public void multi() {
+        Random random = new Random();
+        int row = random.nextInt(1, 70);
+        int column = random.nextInt(1, 70);
+        int inputColumn = random.nextInt(1, 70);
+        double[][] first = randomArray(row, column);
+        double[][] second = randomArray(column, inputColumn);
+        Matrix result = Matrix.create(first).multi(Matrix.create(second));
+        Assertions.assertEquals(row, result.getRow());
+        Assertions.assertEquals(inputColumn, result.getColumn());
+        assertMatrixEquals(multi(first, second), result);
+    }
+
+    /**
+     * 测试分块乘法
+     * 矩阵足够大 且边长不是分块大小的整数倍
+     */
+    @RepeatedTest(RANDOM_REPEATED)
+    public void blockedMulti() {
+        Random random = new Random();
+        int row = random.nextInt(129, 300);
+        int column = random.nextInt(257, 300);
+        int inputColumn = random.nextInt(65, 300);
+        double[][] first = randomArray(row, column);
+        double[][] second = randomArray(column, inputColumn);
+        Matrix result = Matrix.create(first).multi(Matrix.create(second));
+        assertMatrixEquals(multi(first, second), result);
+    }
+
+    /**
+     * 测试融合乘加
+     * 随机转置两侧矩阵 边长覆盖直接循环和分块两种路径
+     */
+    @RepeatedTest(RANDOM_REPEATED)
+    public void gemm() {
+        Random random = new Random();
+        int row = random.nextInt(1, 200);
+        int column = random.nextInt(1, 300);
+        int inputColumn = random.nextInt(1, 200);
+        boolean transpose = random.nextBoolean();
+        boolean inputTranspose = random.nextBoolean();
+        double alpha = random.nextDouble(-2d, 2d);
+        double beta = random.nextDouble(-2d, 2d);
+        double[][] first = randomArray(row, column);
+        double[][] second = randomArray(column, inputColumn);
+        double[][] addend = randomArray(row, inputColumn);
+        double[][] expected = multi(first, second);
+        for (int i = 0; i < row; i++) {
+            for (int j = 0; j < inputColumn; j++) {
+                expected[i][j] = alpha * expected[i][j] + beta * addend[i][j];
+            }
+        }
+        Matrix left = Matrix.create(transpose ? transposeArray(first) : first);
+        Matrix right = Matrix.create(inputTranspose ? transposeArray(second) : second);
+        Matrix result = left.gemm(alpha, transpose, right, inputTranspose, beta, Matrix.create(addend));
+        assertMatrixEquals(expected, result);
+        if (!transpose && !inputTranspose) {
+            assertMatrixEquals(expected, left.gemm(alpha, right, beta, Matrix.create(addend)));
+        }
+
+        // beta为0时不读取addend
+        Matrix nan = Matrix.init(row, inputColumn, Double.NaN);
+        Matrix product = left.gemm(1d, transpose, right, inputTranspose, 0d, nan);
+        assertMatrixEquals(multi(first, second), product);
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> left.gemm(1d, !transpose, right, inputTranspose, 1d, Matrix.create(addend)));
+    }
+
+    /**
+     * 测试Strassen乘法
+     * 阈值设置得很小 保证奇数和偶数边长都会经过多层递归
+     */
+    @RepeatedTest(RANDOM_REPEATED)
+    public void strassenMulti() {
+        Random random = new Random();
+        int length = random.nextInt(17, 150);
+        double[][] first = randomArray(length, length);
+        double[][] second = randomArray(length, length);
+        int cutoff = Matrix.getStrassenCutoff();
+        Matrix.setStrassenCutoff(8);
+        try {
+            Matrix result = Matrix.create(first).multi(Matrix.create(second));
+            assertMatrixEquals(multi(first, second), result);
+        } finally {
+            Matrix.setStrassenCutoff(cutoff);
+        }
+    }
+
+    /**
+     * 测试并行执行
+     * 并行阈值设置为0 保证所有运算都会被拆分
+     */
+    @RepeatedTest(RANDOM_REPEATED)
+    public void parallel() {
+        Random random = new Random();
+        int row = random.nextInt(1, 200);
+        int column = random.nextInt(1, 200);
+        int inputColumn = random.nextInt(1, 200);
+        double[][] first = randomArray(row, column);
+        double[][] second = randomArray(row, column);
+        double[][] third = randomArray(column, inputColumn);
+        long threshold = Matrix.getParallelThreshold();
+        Matrix.setParallelThreshold(0);
+        try {
+            Matrix firstMatrix = Matrix.create(first);
+            Matrix secondMatrix = Matrix.create(second);
+            Matrix thirdMatrix = Matrix.create(third);
+            assertMatrixEquals(multi(first, third), firstMatrix.multi(thirdMatrix, ExecutionPolicy.PARALLEL));
+            Matrix add = firstMatrix.add(secondMatrix, ExecutionPolicy.PARALLEL);
+            Matrix minus = firstMatrix.minus(secondMatrix, ExecutionPolicy.PARALLEL);
+            Matrix hadamard = firstMatrix.hadamard(secondMatrix, ExecutionPolicy.PARALLEL);
+            Matrix multi = firstMatrix.multi(2d, ExecutionPolicy.PARALLEL);
+            Matrix transpose = firstMatrix.transpose(ExecutionPolicy.PARALLEL);
+            for (int i = 0; i < row; i++) {
+                for (int j = 0; j < column; j++) {
+                    Assertions.assertEquals(first[i][j] + second[i][j], add.doGetDouble(i, j));
+                    Assertions.assertEquals(first[i][j] - second[i][j], minus.doGetDouble(i, j));
+                    Assertions.assertEquals(first[i][j] * second[i][j], hadamard.doGetDouble(i, j));
+                    Assertions.assertEquals(first[i][j] * 2d, multi.doGetDouble(i, j));
+                    Assertions.assertEquals(first[i][j], transpose.doGetDouble(j, i));
+                }
+            }
+        } finally {
+            Matrix.setParallelThreshold(threshold);
+        }
+    }
+
+    /**
+     * 测试转置
+     */
+    @RepeatedTest(RANDOM_REPEATED)
+    public void transpose() {
+        Random random = new Random();
+        int row = random.nextInt(1, 20);
+        int column = random.nextInt(1, 20);
+        double[][] array = randomArray(row, column);
+        Matrix transpose = Matrix.create(array).transpose();
+        Assertions.assertEquals(column, transpose.getRow());
+        Assertions.assertEquals(row, transpose.getColumn());
+        for (int i = 0; i < row; i++) {
+            for (int j = 0; j < column; j++) {
+                Assertions.assertEquals(array[i][j], transpose.doGetDouble(j, i));
+            }
+        }
+    }
+
+    /**
+     * 测试按行读取 返回的数组不能影响矩阵本身
+     */
+    @RepeatedTest(RANDOM_REPEATED)
+    public void getDoubleRow() {
+        Random random = new Random();
+        int row = random.nextInt(1, 20);
+        int column = random.nextInt(1, 20);
+        double[][] array = randomArray(row, column);
+        Matrix matrix = Matrix.create(array);
+        for (int i = 0; i < row; i++) {
+            double[] doubleRow = matrix.getDoubleRow(i);
+            Assertions.assertArrayEquals(array[i], doubleRow);
+            doubleRow[0] = doubleRow[0] + 1;
+            Assertions.assertEquals(array[i][0], matrix.doGetDouble(i, 0));
+        }
+    }
+
+    static double[][] randomArray(int row, int column) {
+        Random random = new Random();
+        double[][] result = new double[row][column];
+        for (int i = 0; i < row; i++) {
+            for (int j = 0; j < column; j++) {
+                result[i][j] = random.nextDouble();
+            }
+        }
+        return result;
+    }
+
+    static double[][] multi(double[][] first, double[][] second) {
+        int row = first.length;
+        int column = second.length;
+        int inputColumn = second[0].length;
+        double[][] result = new double[row][inputColumn];
+        for (int i = 0; i < row; i++) {
+            for (int j = 0; j < inputColumn; j++) {
+                double sum = 0d;
+                for (int k = 0; k < column; k++) {
+                    sum = sum + first[i][k] * second[k][j];
+                }
+                result[i][j] = sum;
+            }
+        }
+        return result;
+    }
+
+    static double[][] transposeArray(double[][] array) {
+        double[][] result = new double[array[0].length][array.length];
+        for (int i = 0; i < array.length; i++) {
+            for (int j = 0; j < array[i].length; j++) {
+                result[j][i] = array[i][j];
+            }
+        }
+        return result;
+    }
+
+    static void assertMatrixEquals(double[][] expected, Matrix actual) {
+        for (int i = 0; i < expected.length; i++) {
+            for (int j = 0; j < expected[i].length; j++) {
+                Assertions.assertEquals(expected[i][j], actual.doGetDouble(i, j), MATRIX_DELTA);
+            }
+        }
+    }
+}
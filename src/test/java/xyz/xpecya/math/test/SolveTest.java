@@ -0,0 +1,277 @@
+package xyz.xpecya.math.test;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.RepeatedTest;
+import org.junit.jupiter.api.Test;
+import xyz.xpecya.math.ComplexDeterminant;
+import xyz.xpecya.math.ComplexLUDecomposition;
+import xyz.xpecya.math.ComplexNumber;
+import xyz.xpecya.math.Determinant;
+import xyz.xpecya.math.ExecutionPolicy;
+import xyz.xpecya.math.LinearSolver;
+import xyz.xpecya.math.Matrix;
+
+import java.util.Random;
+
+import static xyz.xpecya.math.test.TestConfig.RANDOM_REPEATED;
+
+/**
+ * 线性方程组求解测试
+ */
+public class SolveTest {
+
+    private static final double SOLVE_DELTA = Math.pow(10d, -8);
+
+    /**
+     * 检查 Ax = b
+     */
+    @RepeatedTest(RANDOM_REPEATED)
+    public void solveDouble() {
+        Random random = new Random();
+        int length = random.nextInt(2, 60);
+        double[][] array = SimpleMatrixTest.randomArray(length, length);
+        double[] value = SimpleMatrixTest.randomArray(1, length)[0];
+        double[] result = Determinant.create(array).solve(value);
+        for (int i = 0; i < length; i++) {
+            double sum = 0d;
+            for (int j = 0; j < length; j++) {
+                sum += array[i][j] * result[j];
+            }
+            Assertions.assertEquals(value[i], sum, SOLVE_DELTA);
+        }
+    }
+
+    /**
+     * 浮点数行列式求解复数常数项
+     */
+    @RepeatedTest(RANDOM_REPEATED)
+    public void solveComplexValue() {
+        Random random = new Random();
+        int length = random.nextInt(2, 30);
+        double[][] array = SimpleMatrixTest.randomArray(length, length);
+        ComplexNumber[] value = ComplexMatrixTest.randomArray(1, length)[0];
+        ComplexNumber[] result = Determinant.create(array).solve(value);
+        for (int i = 0; i < length; i++) {
+            ComplexNumber sum = new ComplexNumber();
+            for (int j = 0; j < length; j++) {
+                sum = sum.add(result[j].multi(new ComplexNumber(array[i][j])));
+            }
+            assertComplexEquals(value[i], sum);
+        }
+    }
+
+    /**
+     * 复数行列式求解 并检查 PA = LU
+     */
+    @RepeatedTest(RANDOM_REPEATED)
+    public void solveComplex() {
+        Random random = new Random();
+        int length = random.nextInt(2, 30);
+        ComplexNumber[][] array = ComplexMatrixTest.randomArray(length, length);
+        ComplexDeterminant determinant = (ComplexDeterminant) Determinant.create(array);
+        ComplexNumber[] value = ComplexMatrixTest.randomArray(1, length)[0];
+        ComplexNumber[] result = determinant.solve(value);
+        for (int i = 0; i < length; i++) {
+            ComplexNumber sum = new ComplexNumber();
+            for (int j = 0; j < length; j++) {
+                sum = sum.add(array[i][j].multi(result[j]));
+            }
+            assertComplexEquals(value[i], sum);
+        }
+        ComplexLUDecomposition lu = determinant.lu();
+        Matrix left = lu.getPermutation().multi(determinant);
+        Matrix right = lu.getL().multi(lu.getU());
+        for (int i = 0; i < length; i++) {
+            for (int j = 0; j < length; j++) {
+                assertComplexEquals(left.doGetComplex(i, j), right.doGetComplex(i, j));
+            }
+        }
+    }
+
+    /**
+     * 奇异矩阵 方程组有无数多个解时返回其中一组
+     */
+    @Test
+    public void singularConsistent() {
+        double[][] array = {
+                {1, 2, 3},
+                {2, 4, 6},
+                {1, 0, 1}
+        };
+        double[] value = {6, 12, 2};
+        double[] result = Determinant.create(array).solve(value);
+        Assertions.assertNotNull(result);
+        for (int i = 0; i < 3; i++) {
+            double sum = 0d;
+            for (int j = 0; j < 3; j++) {
+                sum += array[i][j] * result[j];
+            }
+            Assertions.assertEquals(value[i], sum, SOLVE_DELTA);
+        }
+    }
+
+    /**
+     * 奇异矩阵 方程组无解时返回null
+     */
+    @Test
+    public void singularInconsistent() {
+        double[][] array = {
+                {1, 2, 3},
+                {2, 4, 6},
+                {1, 0, 1}
+        };
+        Assertions.assertNull(Determinant.create(array).solve(new double[]{6, 13, 2}));
+        ComplexNumber[] value = {new ComplexNumber(6), new ComplexNumber(12, 1), new ComplexNumber(2)};
+        Assertions.assertNull(Determinant.create(array).solve(value));
+    }
+
+    /**
+     * 同一个求解器在多个线程中反复求解 结果写入调用方的数组
+     */
+    @Test
+    public void factor() throws InterruptedException {
+        int length = 40;
+        double[][] array = SimpleMatrixTest.randomArray(length, length);
+        Determinant determinant = Determinant.create(array);
+        LinearSolver solver = determinant.factor();
+        Assertions.assertSame(solver, determinant.factor());
+        Thread[] threads = new Thread[4];
+        Throwable[] errors = new Throwable[threads.length];
+        for (int t = 0; t < threads.length; t++) {
+            int index = t;
+            threads[t] = new Thread(() -> {
+                try {
+                    double[] result = new double[length];
+                    for (int n = 0; n < 100; n++) {
+                        double[] value = SimpleMatrixTest.randomArray(1, length)[0];
+                        Assertions.assertSame(result, solver.solve(value, result));
+                        for (int i = 0; i < length; i++) {
+                            double sum = 0d;
+                            for (int j = 0; j < length; j++) {
+                                sum += array[i][j] * result[j];
+                            }
+                            Assertions.assertEquals(value[i], sum, SOLVE_DELTA);
+                        }
+                        // 结果直接覆盖常数项
+                        double[] copy = value.clone();
+                        solver.solve(value, value);
+                        Assertions.assertArrayEquals(result, value);
+                        Assertions.assertArrayEquals(result, solver.solve(copy));
+                    }
+                } catch (Throwable e) {
+                    errors[index] = e;
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        for (Throwable error : errors) {
+            Assertions.assertNull(error);
+        }
+    }
+
+    /**
+     * 奇异矩阵的求解器无法求解
+     */
+    @Test
+    public void factorSingular() {
+        LinearSolver solver = Determinant.create(3, 1d).factor();
+        Assertions.assertTrue(solver.isSingular());
+        Assertions.assertThrows(IllegalStateException.class, () -> solver.solve(new double[3]));
+        ComplexNumber[] value = ComplexMatrixTest.randomArray(1, 3)[0];
+        LinearSolver complexSolver = Determinant.create(3, new ComplexNumber(1, 1)).factor();
+        Assertions.assertThrows(IllegalStateException.class, () -> complexSolver.solve(value, new ComplexNumber[3]));
+    }
+
+    /**
+     * 多个常数项 检查 AX = B 块数和列块数都大于1
+     */
+    @RepeatedTest(RANDOM_REPEATED)
+    public void solveMatrix() {
+        Random random = new Random();
+        int length = random.nextInt(2, 150);
+        int width = random.nextInt(1, 250);
+        double[][] array = SimpleMatrixTest.randomArray(length, length);
+        double[][] value = SimpleMatrixTest.randomArray(length, width);
+        Determinant determinant = Determinant.create(array);
+        long threshold = Matrix.getParallelThreshold();
+        Matrix.setParallelThreshold(0);
+        try {
+            Matrix result = determinant.solve(Matrix.create(value), ExecutionPolicy.PARALLEL);
+            assertMatrixEquals(value, determinant.multi(result));
+            // 和逐列求解结果相同
+            for (int j = 0; j < width; j++) {
+                double[] column = determinant.solve(Matrix.create(value).doGetDoubleColumn(j));
+                for (int i = 0; i < length; i++) {
+                    Assertions.assertEquals(column[i], result.doGetDouble(i, j), SOLVE_DELTA);
+                }
+            }
+        } finally {
+            Matrix.setParallelThreshold(threshold);
+        }
+    }
+
+    /**
+     * 复数系数矩阵和复数常数项的多常数项求解
+     */
+    @RepeatedTest(RANDOM_REPEATED)
+    public void solveComplexMatrix() {
+        Random random = new Random();
+        int length = random.nextInt(2, 100);
+        int width = random.nextInt(1, 100);
+        ComplexNumber[][] array = ComplexMatrixTest.randomArray(length, length);
+        ComplexNumber[][] value = ComplexMatrixTest.randomArray(length, width);
+        Determinant determinant = Determinant.create(array);
+        Matrix result = determinant.solve(Matrix.create(value));
+        Matrix product = determinant.multi(result);
+        for (int i = 0; i < length; i++) {
+            for (int j = 0; j < width; j++) {
+                assertComplexEquals(value[i][j], product.doGetComplex(i, j));
+            }
+        }
+        // 浮点数系数矩阵 复数常数项
+        double[][] realArray = SimpleMatrixTest.randomArray(length, length);
+        Determinant realDeterminant = Determinant.create(realArray);
+        product = realDeterminant.multi(realDeterminant.solve(Matrix.create(value)));
+        for (int i = 0; i < length; i++) {
+            for (int j = 0; j < width; j++) {
+                assertComplexEquals(value[i][j], product.doGetComplex(i, j));
+            }
+        }
+    }
+
+    /**
+     * 奇异矩阵的多常数项求解 任意一列无解时返回null
+     */
+    @Test
+    public void solveSingularMatrix() {
+        Determinant determinant = Determinant.create(new double[][]{
+                {1, 2, 3},
+                {2, 4, 6},
+                {1, 0, 1}
+        });
+        double[][] value = {
+                {6, 1},
+                {12, 2},
+                {2, 5}
+        };
+        assertMatrixEquals(value, determinant.multi(determinant.solve(Matrix.create(value))));
+        value[1][1] = 3;
+        Assertions.assertNull(determinant.solve(Matrix.create(value)));
+    }
+
+    private static void assertMatrixEquals(double[][] expected, Matrix actual) {
+        for (int i = 0; i < expected.length; i++) {
+            for (int j = 0; j < expected[i].length; j++) {
+                Assertions.assertEquals(expected[i][j], actual.doGetDouble(i, j), SOLVE_DELTA);
+            }
+        }
+    }
+
+    private static void assertComplexEquals(ComplexNumber expected, ComplexNumber actual) {
+        Assertions.assertEquals(expected.real(), actual.real(), SOLVE_DELTA);
+        Assertions.assertEquals(expected.imaginary(), actual.imaginary(), SOLVE_DELTA);
+    }
+}
@@ -0,0 +1,214 @@
+package xyz.xpecya.math.test;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.RepeatedTest;
+import org.junit.jupiter.api.Test;
+import xyz.xpecya.math.ComplexNumber;
+import xyz.xpecya.math.ExecutionPolicy;
+import xyz.xpecya.math.Matrix;
+import xyz.xpecya.math.SparseMatrix;
+
+import java.util.Random;
+
+import static xyz.xpecya.math.test.TestConfig.RANDOM_REPEATED;
+
+/**
+ * 稀疏矩阵测试
+ * 所有运算结果都和对应的稠密矩阵比较
+ */
+public class SparseMatrixTest {
+
+    /**
+     * COO构造 重复位置累加 元素读取
+     */
+    @RepeatedTest(RANDOM_REPEATED)
+    public void build() {
+        Random random = new Random();
+        int row = random.nextInt(1, 60);
+        int column = random.nextInt(1, 60);
+        double[][] expected = new double[row][column];
+        SparseMatrix sparse = randomSparse(row, column, expected);
+        SimpleMatrixTest.assertMatrixEquals(expected, sparse);
+        for (int i = 0; i < row; i++) {
+            Assertions.assertArrayEquals(expected[i], sparse.doGetDoubleRow(i));
+        }
+        for (int j = 0; j < column; j++) {
+            double[] doubleColumn = sparse.doGetDoubleColumn(j);
+            ComplexNumber[] complexColumn = sparse.doGetComplexColumn(j);
+            for (int i = 0; i < row; i++) {
+                Assertions.assertEquals(expected[i][j], doubleColumn[i]);
+                Assertions.assertEquals(expected[i][j], complexColumn[i].real());
+            }
+        }
+        SimpleMatrixTest.assertMatrixEquals(expected, sparse.toDense());
+    }
+
+    /**
+     * 稀疏和稀疏 稀疏和稠密之间的加减与哈达玛积
+     */
+    @RepeatedTest(RANDOM_REPEATED)
+    public void elementWise() {
+        Random random = new Random();
+        int row = random.nextInt(1, 60);
+        int column = random.nextInt(1, 60);
+        double[][] first = new double[row][column];
+        double[][] second = new double[row][column];
+        SparseMatrix firstSparse = randomSparse(row, column, first);
+        SparseMatrix secondSparse = randomSparse(row, column, second);
+        double[][] dense = SimpleMatrixTest.randomArray(row, column);
+        Matrix denseMatrix = Matrix.create(dense);
+        double[][] add = new double[row][column];
+        double[][] minus = new double[row][column];
+        double[][] hadamard = new double[row][column];
+        double[][] denseAdd = new double[row][column];
+        double[][] denseMinus = new double[row][column];
+        double[][] minusDense = new double[row][column];
+        double[][] denseHadamard = new double[row][column];
+        for (int i = 0; i < row; i++) {
+            for (int j = 0; j < column; j++) {
+                add[i][j] = first[i][j] + second[i][j];
+                minus[i][j] = first[i][j] - second[i][j];
+                hadamard[i][j] = first[i][j] * second[i][j];
+                denseAdd[i][j] = first[i][j] + dense[i][j];
+                denseMinus[i][j] = first[i][j] - dense[i][j];
+                minusDense[i][j] = dense[i][j] - first[i][j];
+                denseHadamard[i][j] = first[i][j] * dense[i][j];
+            }
+        }
+        Assertions.assertInstanceOf(SparseMatrix.class, firstSparse.add(secondSparse));
+        SimpleMatrixTest.assertMatrixEquals(add, firstSparse.add(secondSparse));
+        SimpleMatrixTest.assertMatrixEquals(minus, firstSparse.minus(secondSparse));
+        SimpleMatrixTest.assertMatrixEquals(hadamard, firstSparse.hadamard(secondSparse));
+        SimpleMatrixTest.assertMatrixEquals(denseAdd, firstSparse.add(denseMatrix));
+        SimpleMatrixTest.assertMatrixEquals(denseAdd, denseMatrix.add(firstSparse));
+        SimpleMatrixTest.assertMatrixEquals(denseMinus, firstSparse.minus(denseMatrix));
+        SimpleMatrixTest.assertMatrixEquals(minusDense, denseMatrix.minus(firstSparse));
+        SimpleMatrixTest.assertMatrixEquals(denseHadamard, firstSparse.hadamard(denseMatrix));
+        SimpleMatrixTest.assertMatrixEquals(denseHadamard, denseMatrix.hadamard(firstSparse));
+    }
+
+    /**
+     * 稀疏乘稀疏 稀疏乘稠密 稠密乘稀疏 稀疏乘复数矩阵
+     */
+    @RepeatedTest(RANDOM_REPEATED)
+    public void multi() {
+        Random random = new Random();
+        int row = random.nextInt(1, 60);
+        int column = random.nextInt(1, 60);
+        int inputColumn = random.nextInt(1, 60);
+        double[][] first = new double[row][column];
+        double[][] second = new double[column][inputColumn];
+        SparseMatrix firstSparse = randomSparse(row, column, first);
+        SparseMatrix secondSparse = randomSparse(column, inputColumn, second);
+        double[][] dense = SimpleMatrixTest.randomArray(column, inputColumn);
+        double[][] leftDense = SimpleMatrixTest.randomArray(inputColumn, row);
+        long threshold = Matrix.getParallelThreshold();
+        Matrix.setParallelThreshold(0);
+        try {
+            Matrix product = firstSparse.multi(secondSparse, ExecutionPolicy.PARALLEL);
+            Assertions.assertInstanceOf(SparseMatrix.class, product);
+            SimpleMatrixTest.assertMatrixEquals(SimpleMatrixTest.multi(first, second), product);
+            SimpleMatrixTest.assertMatrixEquals(SimpleMatrixTest.multi(first, dense),
+                    firstSparse.multi(Matrix.create(dense), ExecutionPolicy.PARALLEL));
+            SimpleMatrixTest.assertMatrixEquals(SimpleMatrixTest.multi(leftDense, first),
+                    Matrix.create(leftDense).multi(firstSparse, ExecutionPolicy.PARALLEL));
+        } finally {
+            Matrix.setParallelThreshold(threshold);
+        }
+        ComplexNumber[][] complex = ComplexMatrixTest.randomArray(column, inputColumn);
+        ComplexNumber[][] complexFirst = new ComplexNumber[row][column];
+        for (int i = 0; i < row; i++) {
+            for (int j = 0; j < column; j++) {
+                complexFirst[i][j] = new ComplexNumber(first[i][j]);
+            }
+        }
+        ComplexMatrixTest.assertMatrixEquals(ComplexMatrixTest.multi(complexFirst, complex),
+                firstSparse.multi(Matrix.create(complex)));
+        SimpleMatrixTest.assertMatrixEquals(scale(first, 3d), firstSparse.multi(3d));
+    }
+
+    /**
+     * 转置后仍然是稀疏矩阵
+     */
+    @RepeatedTest(RANDOM_REPEATED)
+    public void transpose() {
+        Random random = new Random();
+        int row = random.nextInt(1, 60);
+        int column = random.nextInt(1, 60);
+        double[][] array = new double[row][column];
+        SparseMatrix sparse = randomSparse(row, column, array);
+        double[][] expected = new double[column][row];
+        for (int i = 0; i < row; i++) {
+            for (int j = 0; j < column; j++) {
+                expected[j][i] = array[i][j];
+            }
+        }
+        Matrix transpose = sparse.transpose();
+        Assertions.assertInstanceOf(SparseMatrix.class, transpose);
+        SimpleMatrixTest.assertMatrixEquals(expected, transpose);
+    }
+
+    /**
+     * 100000 * 100000 的稀疏矩阵只占用和非零元素个数成正比的内存
+     */
+    @Test
+    public void large() {
+        int length = 100000;
+        int[] rows = new int[length * 3];
+        int[] columns = new int[length * 3];
+        double[] values = new double[length * 3];
+        for (int i = 0; i < length; i++) {
+            for (int d = -1; d <= 1; d++) {
+                int p = i * 3 + d + 1;
+                rows[p] = i;
+                columns[p] = Math.floorMod(i + d, length);
+                values[p] = d == 0 ? 2d : -1d;
+            }
+        }
+        SparseMatrix sparse = (SparseMatrix) Matrix.sparse(length, length, rows, columns, values);
+        Assertions.assertEquals(length * 3, sparse.getNonZeroCount());
+        SparseMatrix square = (SparseMatrix) sparse.multi(sparse);
+        Assertions.assertEquals(length * 5, square.getNonZeroCount());
+        Assertions.assertEquals(6d, square.getDouble(1, 1));
+        Assertions.assertEquals(-4d, square.getDouble(1, 2));
+        Assertions.assertEquals(1d, square.getDouble(1, 3));
+        Assertions.assertEquals(0d, square.getDouble(1, 4));
+
+        String text = sparse.toString();
+        Assertions.assertTrue(text.startsWith("SparseMatrix row = 100000, column = 100000, nonZero = 300000"));
+        Assertions.assertTrue(text.contains("(0, 0) 2.0"));
+        Assertions.assertTrue(text.length() < 1000);
+        IllegalArgumentException exception = Assertions.assertThrows(IllegalArgumentException.class,
+                () -> sparse.add(Matrix.create(new double[][]{{1d}})));
+        Assertions.assertTrue(exception.getMessage().length() < 200);
+    }
+
+    private static double[][] scale(double[][] array, double input) {
+        double[][] result = new double[array.length][];
+        for (int i = 0; i < array.length; i++) {
+            result[i] = new double[array[i].length];
+            for (int j = 0; j < array[i].length; j++) {
+                result[i][j] = array[i][j] * input;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 随机生成约20%非零的稀疏矩阵 同时把期望值累加到expected中
+     * 部分位置会重复添加
+     */
+    static SparseMatrix randomSparse(int row, int column, double[][] expected) {
+        Random random = new Random();
+        SparseMatrix.Builder builder = SparseMatrix.builder(row, column);
+        int count = Math.max(1, row * column / 5);
+        for (int p = 0; p < count; p++) {
+            int i = random.nextInt(row);
+            int j = random.nextInt(column);
+            double value = random.nextInt(-100, 100);
+            builder.add(i, j, value);
+            expected[i][j] += value;
+        }
+        return builder.build();
+    }
+}
@@ -0,0 +1,330 @@
+package xyz.xpecya.math.test;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.RepeatedTest;
+import org.junit.jupiter.api.Test;
+import xyz.xpecya.math.BandedMatrix;
+import xyz.xpecya.math.ComplexNumber;
+import xyz.xpecya.math.Determinant;
+import xyz.xpecya.math.DiagonalMatrix;
+import xyz.xpecya.math.IdentityMatrix;
+import xyz.xpecya.math.Matrix;
+import xyz.xpecya.math.SparseMatrix;
+import xyz.xpecya.math.TriangularMatrix;
+
+import java.util.Random;
+
+import static xyz.xpecya.math.test.TestConfig.RANDOM_REPEATED;
+
+/**
+ * 对角矩阵 单位矩阵和三角矩阵测试
+ * 所有运算结果都和对应的稠密矩阵比较 并检查结果保持了结构
+ */
+public class StructuredMatrixTest {
+
+    private static final double SOLVE_DELTA = Math.pow(10d, -8);
+
+    /**
+     * 对角矩阵左乘右乘各种结构 结果保持另一侧的结构
+     */
+    @RepeatedTest(RANDOM_REPEATED)
+    public void diagonal() {
+        Random random = new Random();
+        int length = random.nextInt(1, 40);
+        double[] diagonal = new double[length];
+        double[][] expected = new double[length][length];
+        for (int i = 0; i < length; i++) {
+            diagonal[i] = random.nextDouble(0.5d, 2d);
+            expected[i][i] = diagonal[i];
+        }
+        DiagonalMatrix matrix = DiagonalMatrix.create(diagonal);
+        SimpleMatrixTest.assertMatrixEquals(expected, matrix);
+        Assertions.assertSame(matrix, matrix.transpose());
+
+        double[][] dense = SimpleMatrixTest.randomArray(length, length);
+        Matrix denseMatrix = Matrix.create(dense);
+        SimpleMatrixTest.assertMatrixEquals(SimpleMatrixTest.multi(expected, dense), matrix.multi(denseMatrix));
+        SimpleMatrixTest.assertMatrixEquals(SimpleMatrixTest.multi(dense, expected), denseMatrix.multi(matrix));
+
+        double[][] triangular = lowerArray(dense);
+        TriangularMatrix triangularMatrix = TriangularMatrix.lower(dense);
+        Matrix left = matrix.multi(triangularMatrix);
+        Matrix right = triangularMatrix.multi(matrix);
+        Assertions.assertInstanceOf(TriangularMatrix.class, left);
+        Assertions.assertInstanceOf(TriangularMatrix.class, right);
+        SimpleMatrixTest.assertMatrixEquals(SimpleMatrixTest.multi(expected, triangular), left);
+        SimpleMatrixTest.assertMatrixEquals(SimpleMatrixTest.multi(triangular, expected), right);
+
+        double[][] sparse = new double[length][length];
+        SparseMatrix sparseMatrix = SparseMatrixTest.randomSparse(length, length, sparse);
+        Assertions.assertInstanceOf(SparseMatrix.class, matrix.multi(sparseMatrix));
+        Assertions.assertInstanceOf(SparseMatrix.class, sparseMatrix.multi(matrix));
+        SimpleMatrixTest.assertMatrixEquals(SimpleMatrixTest.multi(expected, sparse), matrix.multi(sparseMatrix));
+        SimpleMatrixTest.assertMatrixEquals(SimpleMatrixTest.multi(sparse, expected), sparseMatrix.multi(matrix));
+
+        double[][] banded = new double[length][length];
+        BandedMatrix bandedMatrix = BandedMatrixTest.randomBanded(length, Math.min(1, length - 1), 0, banded);
+        Assertions.assertInstanceOf(BandedMatrix.class, matrix.multi(bandedMatrix));
+        Assertions.assertInstanceOf(BandedMatrix.class, bandedMatrix.multi(matrix));
+        SimpleMatrixTest.assertMatrixEquals(SimpleMatrixTest.multi(expected, banded), matrix.multi(bandedMatrix));
+        SimpleMatrixTest.assertMatrixEquals(SimpleMatrixTest.multi(banded, expected), bandedMatrix.multi(matrix));
+
+        Matrix complex = Matrix.square(length, new ComplexNumber(1d, -1d));
+        Matrix complexProduct = complex.multi(matrix);
+        for (int i = 0; i < length; i++) {
+            for (int j = 0; j < length; j++) {
+                Assertions.assertEquals(diagonal[j], complexProduct.doGetComplex(i, j).real());
+                Assertions.assertEquals(-diagonal[j], complexProduct.doGetComplex(i, j).imaginary());
+            }
+        }
+
+        Matrix sum = matrix.add(matrix);
+        Assertions.assertInstanceOf(DiagonalMatrix.class, sum);
+        Assertions.assertInstanceOf(TriangularMatrix.class, matrix.minus(triangularMatrix));
+        double[][] difference = new double[length][length];
+        for (int i = 0; i < length; i++) {
+            for (int j = 0; j < length; j++) {
+                difference[i][j] = expected[i][j] - triangular[i][j];
+            }
+        }
+        SimpleMatrixTest.assertMatrixEquals(difference, matrix.minus(triangularMatrix));
+        Assertions.assertInstanceOf(DiagonalMatrix.class, matrix.hadamard(denseMatrix));
+    }
+
+    /**
+     * 对角矩阵的行列式是对角线之积 求解是逐个元素相除
+     */
+    @Test
+    public void diagonalSolve() {
+        DiagonalMatrix matrix = DiagonalMatrix.create(new double[]{2d, -4d, 0.5d});
+        Assertions.assertEquals(-4d, matrix.calculateDouble());
+        Assertions.assertEquals(Math.log(4d), matrix.logDeterminant(), SOLVE_DELTA);
+        Assertions.assertArrayEquals(new double[]{1d, -1d, 4d}, matrix.solve(new double[]{2d, 4d, 2d}));
+        Assertions.assertArrayEquals(new double[]{1d, -1d, 4d}, matrix.factor().solve(new double[]{2d, 4d, 2d}));
+        Assertions.assertSame(matrix, matrix.triangle());
+        Assertions.assertSame(matrix, matrix.diagonal());
+
+        DiagonalMatrix singular = DiagonalMatrix.create(new double[]{2d, 0d});
+        Assertions.assertEquals(0d, singular.calculateDouble());
+        Assertions.assertArrayEquals(new double[]{1d, 0d}, singular.solve(new double[]{2d, 0d}));
+        Assertions.assertNull(singular.solve(new double[]{2d, 1d}));
+        Assertions.assertTrue(singular.factor().isSingular());
+        Assertions.assertThrows(IllegalStateException.class, () -> singular.factor().solve(new double[2]));
+    }
+
+    /**
+     * 单位矩阵相乘直接返回另一个矩阵
+     */
+    @Test
+    public void identity() {
+        int length = 20;
+        IdentityMatrix identity = IdentityMatrix.create(length);
+        Matrix matrix = Matrix.create(SimpleMatrixTest.randomArray(length, length));
+        Assertions.assertSame(matrix, identity.multi(matrix));
+        Assertions.assertSame(matrix, matrix.multi(identity));
+        Assertions.assertEquals(1d, identity.calculateDouble());
+        Assertions.assertEquals(0d, identity.logDeterminant());
+        double[] value = new double[length];
+        for (int i = 0; i < length; i++) {
+            value[i] = i;
+        }
+        Assertions.assertArrayEquals(value, identity.solve(value));
+        Assertions.assertArrayEquals(value, identity.multi(value));
+        Matrix scaled = identity.multi(3d);
+        Assertions.assertInstanceOf(DiagonalMatrix.class, scaled);
+        Assertions.assertEquals(3d, scaled.doGetDouble(5, 5));
+        Assertions.assertEquals(0d, scaled.doGetDouble(5, 6));
+    }
+
+    /**
+     * 三角矩阵的运算和稠密矩阵一致 同方向的三角矩阵运算结果仍是三角矩阵
+     */
+    @RepeatedTest(RANDOM_REPEATED)
+    public void triangular() {
+        Random random = new Random();
+        int length = random.nextInt(1, 40);
+        double[][] array = SimpleMatrixTest.randomArray(length, length);
+        double[][] other = SimpleMatrixTest.randomArray(length, length);
+        double[][] lower = lowerArray(array);
+        double[][] upper = upperArray(array);
+        TriangularMatrix lowerMatrix = TriangularMatrix.lower(array);
+        TriangularMatrix upperMatrix = TriangularMatrix.upper(array);
+        TriangularMatrix otherLower = TriangularMatrix.lower(other);
+        SimpleMatrixTest.assertMatrixEquals(lower, lowerMatrix);
+        SimpleMatrixTest.assertMatrixEquals(upper, upperMatrix);
+        SimpleMatrixTest.assertMatrixEquals(lower, lowerMatrix.toDense());
+        Matrix transpose = lowerMatrix.transpose();
+        Assertions.assertInstanceOf(TriangularMatrix.class, transpose);
+        Assertions.assertFalse(((TriangularMatrix) transpose).isLower());
+        SimpleMatrixTest.assertMatrixEquals(transposeArray(lower), transpose);
+        for (int i = 0; i < length; i++) {
+            Assertions.assertArrayEquals(upper[i], upperMatrix.doGetDoubleRow(i));
+        }
+
+        Matrix product = lowerMatrix.multi(otherLower);
+        Assertions.assertInstanceOf(TriangularMatrix.class, product);
+        SimpleMatrixTest.assertMatrixEquals(SimpleMatrixTest.multi(lower, lowerArray(other)), product);
+        Matrix upperProduct = upperMatrix.multi(otherLower.transpose());
+        Assertions.assertInstanceOf(TriangularMatrix.class, upperProduct);
+        SimpleMatrixTest.assertMatrixEquals(SimpleMatrixTest.multi(upper, upperArray(transposeArray(other))),
+                upperProduct);
+        SimpleMatrixTest.assertMatrixEquals(SimpleMatrixTest.multi(lower, upper), lowerMatrix.multi(upperMatrix));
+        SimpleMatrixTest.assertMatrixEquals(SimpleMatrixTest.multi(upper, other),
+                upperMatrix.multi(Matrix.create(other)));
+
+        Matrix sum = lowerMatrix.add(otherLower);
+        Assertions.assertInstanceOf(TriangularMatrix.class, sum);
+        double[][] expectedSum = new double[length][length];
+        double[][] expectedMixed = new double[length][length];
+        for (int i = 0; i < length; i++) {
+            for (int j = 0; j < length; j++) {
+                expectedSum[i][j] = lower[i][j] + (j <= i ? other[i][j] : 0d);
+                expectedMixed[i][j] = lower[i][j] - upper[i][j];
+            }
+        }
+        SimpleMatrixTest.assertMatrixEquals(expectedSum, sum);
+        SimpleMatrixTest.assertMatrixEquals(expectedMixed, lowerMatrix.minus(upperMatrix));
+
+        double[] vector = new double[length];
+        double[][] columnVector = new double[length][1];
+        for (int i = 0; i < length; i++) {
+            vector[i] = random.nextDouble();
+            columnVector[i][0] = vector[i];
+        }
+        double[][] expectedVector = SimpleMatrixTest.multi(upper, columnVector);
+        double[] actualVector = upperMatrix.multi(vector);
+        for (int i = 0; i < length; i++) {
+            Assertions.assertEquals(expectedVector[i][0], actualVector[i], 1e-12);
+        }
+    }
+
+    /**
+     * 三角矩阵的行列式是对角线之积 求解只需要前代或回代
+     */
+    @RepeatedTest(RANDOM_REPEATED)
+    public void triangularSolve() {
+        Random random = new Random();
+        int length = random.nextInt(1, 40);
+        double[][] array = SimpleMatrixTest.randomArray(length, length);
+        double product = 1d;
+        for (int i = 0; i < length; i++) {
+            array[i][i] += 1d;
+            product *= array[i][i];
+        }
+        double[] value = new double[length];
+        for (int i = 0; i < length; i++) {
+            value[i] = random.nextDouble();
+        }
+        for (TriangularMatrix matrix : new TriangularMatrix[]{TriangularMatrix.lower(array),
+                TriangularMatrix.upper(array)}) {
+            Assertions.assertEquals(product, matrix.calculateDouble(), Math.abs(product) * SOLVE_DELTA);
+            Assertions.assertSame(matrix, matrix.triangle());
+            Assertions.assertEquals(product, matrix.diagonal().calculateDouble(), Math.abs(product) * SOLVE_DELTA);
+            double[] restored = matrix.multi(matrix.solve(value));
+            for (int i = 0; i < length; i++) {
+                Assertions.assertEquals(value[i], restored[i], SOLVE_DELTA);
+            }
+            int column = random.nextInt(1, 5);
+            double[][] valueArray = SimpleMatrixTest.randomArray(length, column);
+            Matrix solution = matrix.solve(Matrix.create(valueArray));
+            SimpleMatrixTest.assertMatrixEquals(valueArray, matrix.multi(solution));
+        }
+    }
+
+    /**
+     * 多个常数项超过一个分块时 分块求解和逐列求解的结果一致 复数常数项的实部和虚部分别求解
+     */
+    @Test
+    public void triangularBlockedSolve() {
+        Random random = new Random();
+        int length = 150;
+        int column = 20;
+        double[][] array = SimpleMatrixTest.randomArray(length, length);
+        for (int i = 0; i < length; i++) {
+            array[i][i] = random.nextBoolean() ? length : -length;
+        }
+        double[][] valueArray = SimpleMatrixTest.randomArray(length, column);
+        ComplexNumber[][] complexArray = ComplexMatrixTest.randomArray(length, column);
+        for (TriangularMatrix matrix : new TriangularMatrix[]{TriangularMatrix.lower(array),
+                TriangularMatrix.upper(array)}) {
+            Matrix solution = matrix.solve(Matrix.create(valueArray));
+            Matrix complexSolution = matrix.solve(Matrix.create(complexArray));
+            for (int j = 0; j < column; j++) {
+                double[] value = new double[length];
+                ComplexNumber[] complexValue = new ComplexNumber[length];
+                for (int i = 0; i < length; i++) {
+                    value[i] = valueArray[i][j];
+                    complexValue[i] = complexArray[i][j];
+                }
+                double[] expected = matrix.solve(value);
+                ComplexNumber[] complexExpected = matrix.solve(complexValue);
+                for (int i = 0; i < length; i++) {
+                    Assertions.assertEquals(expected[i], solution.doGetDouble(i, j), SOLVE_DELTA);
+                    ComplexNumber actual = complexSolution.doGetComplex(i, j);
+                    Assertions.assertEquals(complexExpected[i].real(), actual.real(), SOLVE_DELTA);
+                    Assertions.assertEquals(complexExpected[i].imaginary(), actual.imaginary(), SOLVE_DELTA);
+                }
+            }
+        }
+    }
+
+    /**
+     * 稠密的三角行列式不做LU分解 行列式是对角线之积
+     * triangle和diagonal返回紧凑存放的结构矩阵
+     */
+    @Test
+    public void dispatch() {
+        double[][] array = {
+                {2, 1, 3},
+                {0, 4, 5},
+                {0, 0, -1}
+        };
+        Determinant determinant = Determinant.create(array);
+        Assertions.assertEquals(-8d, determinant.calculateDouble());
+        Assertions.assertEquals(Math.log(8d), determinant.logDeterminant(), SOLVE_DELTA);
+        double[] result = determinant.solve(new double[]{6d, 9d, -1d});
+        Assertions.assertArrayEquals(new double[]{1d, 1d, 1d}, result, SOLVE_DELTA);
+
+        double[][] general = {
+                {0, 1, 2},
+                {1, 0, 3},
+                {4, -3, 8}
+        };
+        Determinant generalDeterminant = Determinant.create(general);
+        Determinant triangle = generalDeterminant.triangle();
+        Determinant diagonal = generalDeterminant.diagonal();
+        Assertions.assertInstanceOf(TriangularMatrix.class, triangle);
+        Assertions.assertInstanceOf(DiagonalMatrix.class, diagonal);
+        Assertions.assertEquals(generalDeterminant.calculateDouble(), triangle.calculateDouble(), SOLVE_DELTA);
+        Assertions.assertEquals(generalDeterminant.calculateDouble(), diagonal.calculateDouble(), SOLVE_DELTA);
+    }
+
+    private static double[][] lowerArray(double[][] array) {
+        int length = array.length;
+        double[][] result = new double[length][length];
+        for (int i = 0; i < length; i++) {
+            System.arraycopy(array[i], 0, result[i], 0, i + 1);
+        }
+        return result;
+    }
+
+    private static double[][] upperArray(double[][] array) {
+        int length = array.length;
+        double[][] result = new double[length][length];
+        for (int i = 0; i < length; i++) {
+            System.arraycopy(array[i], i, result[i], i, length - i);
+        }
+        return result;
+    }
+
+    private static double[][] transposeArray(double[][] array) {
+        int length = array.length;
+        double[][] result = new double[length][length];
+        for (int i = 0; i < length; i++) {
+            for (int j = 0; j < length; j++) {
+                result[j][i] = array[i][j];
+            }
+        }
+        return result;
+    }
+}
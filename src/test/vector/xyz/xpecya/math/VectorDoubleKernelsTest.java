@@ -0,0 +1,104 @@
+package xyz.xpecya.math;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Assumptions;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+/**
+ * 向量内核测试 只有在vector profile下才会被编译和运行
+ * 向量实现的结果应该和标量实现一致 覆盖不足一个向量的尾部和非0的起始下标
+ * 向量实现使用fma 乘加结果和标量实现只差舍入误差
+ */
+public class VectorDoubleKernelsTest {
+
+    private static final double DELTA = Math.pow(10d, -12);
+
+    private static final int MAX_LENGTH = 17;
+
+    private static final int[] OFFSETS = {0, 1, 3};
+
+    private final DoubleKernels vector = new VectorDoubleKernels();
+
+    private final DoubleKernels scalar = new ScalarDoubleKernels();
+
+    @Test
+    public void instance() {
+        Assumptions.assumeTrue(vector.vectorized(), "platform doesn't support 256 bit vectors");
+        Assertions.assertInstanceOf(VectorDoubleKernels.class, DoubleKernels.INSTANCE);
+        Assertions.assertTrue(DoubleKernels.INSTANCE.vectorized());
+    }
+
+    @Test
+    public void elementWise() {
+        Random random = new Random();
+        for (int length = 0; length <= MAX_LENGTH; length++) {
+            for (int xOffset : OFFSETS) {
+                for (int yOffset : OFFSETS) {
+                    double[] x = randomArray(random, xOffset + length);
+                    double[] y = randomArray(random, yOffset + length);
+                    int zOffset = xOffset + yOffset;
+                    double alpha = random.nextDouble(-2d, 2d);
+
+                    double[] expected = new double[zOffset + length];
+                    double[] actual = new double[zOffset + length];
+                    scalar.add(x, xOffset, y, yOffset, expected, zOffset, length);
+                    vector.add(x, xOffset, y, yOffset, actual, zOffset, length);
+                    Assertions.assertArrayEquals(expected, actual);
+                    scalar.minus(x, xOffset, y, yOffset, expected, zOffset, length);
+                    vector.minus(x, xOffset, y, yOffset, actual, zOffset, length);
+                    Assertions.assertArrayEquals(expected, actual);
+                    scalar.multiply(x, xOffset, y, yOffset, expected, zOffset, length);
+                    vector.multiply(x, xOffset, y, yOffset, actual, zOffset, length);
+                    Assertions.assertArrayEquals(expected, actual);
+                    scalar.scale(alpha, x, xOffset, expected, zOffset, length);
+                    vector.scale(alpha, x, xOffset, actual, zOffset, length);
+                    Assertions.assertArrayEquals(expected, actual);
+
+                    double[] expectedY = y.clone();
+                    double[] actualY = y.clone();
+                    scalar.axpy(alpha, x, xOffset, expectedY, yOffset, length);
+                    vector.axpy(alpha, x, xOffset, actualY, yOffset, length);
+                    Assertions.assertArrayEquals(expectedY, actualY, DELTA);
+
+                    Assertions.assertEquals(scalar.dot(x, xOffset, y, yOffset, length),
+                            vector.dot(x, xOffset, y, yOffset, length), DELTA);
+                }
+            }
+        }
+    }
+
+    /**
+     * 完整的 MR * NR 块和只写回部分结果的边缘块
+     */
+    @Test
+    public void microKernel() {
+        Random random = new Random();
+        for (int kc = 0; kc <= MAX_LENGTH; kc++) {
+            for (int offset : OFFSETS) {
+                for (int mr = 1; mr <= DoubleGemm.MR; mr++) {
+                    for (int nr = 1; nr <= DoubleGemm.NR; nr++) {
+                        double[] aPack = randomArray(random, offset + kc * DoubleGemm.MR);
+                        double[] bPack = randomArray(random, offset * 2 + kc * DoubleGemm.NR);
+                        int cRowStride = DoubleGemm.NR + offset;
+                        double[] c = randomArray(random, offset + DoubleGemm.MR * cRowStride);
+                        double[] expected = c.clone();
+                        double[] actual = c.clone();
+                        scalar.microKernel(kc, aPack, offset, bPack, offset * 2, expected, offset, cRowStride, mr, nr);
+                        vector.microKernel(kc, aPack, offset, bPack, offset * 2, actual, offset, cRowStride, mr, nr);
+                        Assertions.assertArrayEquals(expected, actual, DELTA);
+                    }
+                }
+            }
+        }
+    }
+
+    private static double[] randomArray(Random random, int length) {
+        double[] result = new double[length];
+        for (int i = 0; i < length; i++) {
+            result[i] = random.nextDouble(-1d, 1d);
+        }
+        return result;
+    }
+}